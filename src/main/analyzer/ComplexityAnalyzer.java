@@ -9,11 +9,16 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.WorkingCopyOwner;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.MethodDeclaration;
 import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
@@ -33,6 +38,35 @@ public class ComplexityAnalyzer {
 	/** Marker that identifies methods created by a previous extraction. */
 	private static final String EXTRACTED_METHOD_MARKER = "_ext_";
 
+	/**
+	 * Maximum number of methods planned at the same time; {@code 1} keeps the
+	 * strictly sequential pipeline.
+	 */
+	private final int parallelism;
+
+	/** Creates an analyzer that plans one method at a time. */
+	public ComplexityAnalyzer() {
+		this(1);
+	}
+
+	/**
+	 * Creates an analyzer that plans up to {@code parallelism} methods of the
+	 * same class concurrently.
+	 * <p>
+	 * Each method is planned (cache, graphs and solver) on its own private
+	 * working copy; only the simulated extraction into the class source is
+	 * serialized, in the same order as the sequential pipeline. Since planning a
+	 * method only depends on its own body, the chosen solutions are the same as
+	 * with {@code parallelism == 1}.
+	 * </p>
+	 *
+	 * @param parallelism maximum number of methods planned concurrently; values
+	 *                    lower than 2 select the sequential pipeline
+	 */
+	public ComplexityAnalyzer(int parallelism) {
+		this.parallelism = Math.max(1, parallelism);
+	}
+
 	/**
 	 * Analyses an {@link ICompilationUnit} returning the resulting
 	 * {@link ClassAnalysis} with the original metrics and the metrics of the
@@ -43,6 +77,9 @@ public class ComplexityAnalyzer {
 	 * </p>
 	 */
 	public ClassAnalysis analyze(CompilationUnit cu, ICompilationUnit icu) throws JavaModelException, IOException {
+		if (parallelism > 1) {
+			return analyzeConcurrently(cu, icu);
+		}
 		MethodDeclaration targetMethod = null;
 		Set<String> processedSignatures = new LinkedHashSet<>();
 		IProject project = icu.getJavaProject() != null ? icu.getJavaProject().getProject() : null;
@@ -64,8 +101,8 @@ public class ComplexityAnalyzer {
 
 				processedSignatures.add(methodSignature(targetMethod));
 
-				// Single CC computation per method (also annotates the AST so the cache and
-				// the solver can reuse the per-node properties downstream).
+				// Single CC computation per method (also attaches the complexity index the
+				// cache and the solver read the per-node metrics from downstream).
 				int cc = computeCognitiveComplexity(targetMethod);
 
 				MethodAnalysis currentMethodAnalysis = analyzeMethod(cu, targetMethod, cc);
@@ -119,6 +156,206 @@ public class ComplexityAnalyzer {
 		}
 	}
 
+	/**
+	 * Pre-screen of a unit: analyses it without refactoring if none of its
+	 * methods exceeds the complexity threshold, the common case.
+	 * <p>
+	 * The cognitive complexity does not depend on bindings, so {@code cu} may come
+	 * from a binding-free parse. No working copy is created: the current and
+	 * refactored sources are both the formatted source of {@code icu}, and the
+	 * refactored methods are the current ones, as
+	 * {@link #analyze(CompilationUnit, ICompilationUnit)} would report them.
+	 * </p>
+	 *
+	 * @return the analysis of the unit, or {@code null} if a method exceeds the
+	 *         threshold and the unit needs the full
+	 *         {@link #analyze(CompilationUnit, ICompilationUnit)}
+	 */
+	public ClassAnalysis analyzeIfWithinThreshold(CompilationUnit cu, ICompilationUnit icu)
+			throws JavaModelException {
+		IProject project = icu.getJavaProject() != null ? icu.getJavaProject().getProject() : null;
+		int threshold = ProjectPreferences.getComplexityThreshold(project);
+		List<MethodAnalysis> currentMethods = new LinkedList<>();
+
+		// Same methods, in the same order, as the analysis loop
+		Set<String> processedSignatures = new LinkedHashSet<>();
+		MethodDeclaration md;
+		while ((md = findNextMethodNeedingRefactor(cu, processedSignatures)) != null) {
+			processedSignatures.add(methodSignature(md));
+			int cc = computeCognitiveComplexity(md);
+			if (cc > threshold) {
+				return null;
+			}
+			MethodAnalysis currentMethodAnalysis = analyzeMethod(cu, md, cc);
+			if (currentMethodAnalysis != null) {
+				currentMethods.add(currentMethodAnalysis);
+			}
+		}
+
+		String source = Utils.formatJava(icu.getSource());
+		return ClassAnalysis.builder()
+				.icu(icu)
+				.compilationUnit(cu)
+				.className(icu.getElementName())
+				.analysisDate(LocalDateTime.now())
+				.currentMethods(currentMethods)
+				.refactoredMethods(currentMethods)
+				.currentSource(source)
+				.refactoredSource(source)
+				.complexityThreshold(threshold)
+				.path(icu.getPath().toString())
+				.build();
+	}
+
+	/**
+	 * Concurrent variant of {@link #analyze(CompilationUnit, ICompilationUnit)}.
+	 * <p>
+	 * Methods above the threshold are planned on a bounded executor, each one on
+	 * a private working copy of {@code icu}. The plans are then relocated into
+	 * the shared unit and simulated one after another, in declaration order, so
+	 * the refactored source is built exactly as in the sequential pipeline.
+	 * </p>
+	 */
+	private ClassAnalysis analyzeConcurrently(CompilationUnit cu, ICompilationUnit icu)
+			throws JavaModelException, IOException {
+		IProject project = icu.getJavaProject() != null ? icu.getJavaProject().getProject() : null;
+		int threshold = ProjectPreferences.getComplexityThreshold(project);
+		ICompilationUnit icuWorkingCopy = (ICompilationUnit) icu.getWorkingCopy(null);
+		String currentSource = Utils.formatJava(icuWorkingCopy.getSource());
+		String refactoredSource = currentSource;
+		String unitSource = icu.getSource();
+		List<MethodAnalysis> currentMethods = new LinkedList<>();
+		List<MethodAnalysis> refactoredMethods;
+		String classPath = icu.getPath().toString();
+		String targetSignature = null;
+
+		List<String> signatures = new ArrayList<>();
+		Map<String, Future<CodeExtractionEngine.Plan>> plans = new HashMap<>();
+		ExecutorService executor = null;
+
+		try {
+			Set<String> processedSignatures = new LinkedHashSet<>();
+			MethodDeclaration md;
+			while ((md = findNextMethodNeedingRefactor(cu, processedSignatures)) != null) {
+				String signature = methodSignature(md);
+				processedSignatures.add(signature);
+				signatures.add(signature);
+
+				int cc = computeCognitiveComplexity(md);
+				MethodAnalysis currentMethodAnalysis = analyzeMethod(cu, md, cc);
+				if (currentMethodAnalysis != null) {
+					currentMethods.add(currentMethodAnalysis);
+				}
+
+				if (cc > threshold) {
+					if (executor == null) {
+						executor = Executors.newFixedThreadPool(parallelism);
+					}
+					plans.put(signature, executor.submit(() -> planOnPrivateCopy(icu, unitSource, signature, threshold)));
+				}
+			}
+
+			Map<String, MethodAnalysis> refactoredMethodsMap = new HashMap<>();
+			for (String signature : signatures) {
+				Future<CodeExtractionEngine.Plan> future = plans.get(signature);
+				if (future == null) {
+					continue;
+				}
+				targetSignature = signature;
+				CodeExtractionEngine.Plan plan = future.get();
+				MethodDeclaration target = findMethod(cu, signature);
+				if (plan == null || target == null) {
+					continue;
+				}
+
+				List<RefactorComparison> comparison = CodeExtractionEngine.simulate(plan.relocate(cu, target),
+						icuWorkingCopy);
+				List<MethodAnalysis> planResult = MethodAnalysisMetricsMapper.toMethodAnalysis(comparison);
+				if (!planResult.isEmpty()) {
+					for (MethodAnalysis refactoredMethod : planResult) {
+						refactoredMethodsMap.put(signature, refactoredMethod);
+					}
+					CompilationUnit lastCu = planResult.get(planResult.size() - 1).getCompilationUnitRefactored();
+					if (lastCu != null) {
+						cu = lastCu;
+						refactoredSource = Utils.formatJava(icuWorkingCopy.getSource());
+					}
+				}
+			}
+
+			if (!refactoredMethodsMap.isEmpty()) {
+				refactoredMethods = buildRefactoredMethodsList(cu, refactoredMethodsMap);
+			} else {
+				refactoredMethods = currentMethods;
+			}
+
+			return ClassAnalysis.builder()
+					.icu(icu)
+					.compilationUnit(cu)
+					.className(icu.getElementName())
+					.analysisDate(LocalDateTime.now())
+					.currentMethods(currentMethods)
+					.refactoredMethods(refactoredMethods)
+					.currentSource(currentSource)
+					.refactoredSource(refactoredSource)
+					.complexityThreshold(threshold)
+					.path(classPath)
+					.build();
+		} catch (CoreException | ExecutionException e) {
+			throw new AnalyzeException("Error analyzing method " + (targetSignature != null ? targetSignature : "<unknown>"),
+					e instanceof ExecutionException ? e.getCause() : e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new AnalyzeException("Interrupted while analyzing " + icu.getElementName(), e);
+		} finally {
+			if (executor != null) {
+				executor.shutdownNow();
+			}
+			if (icuWorkingCopy != null) {
+				icuWorkingCopy.discardWorkingCopy();
+			}
+		}
+	}
+
+	/**
+	 * Plans a single method on a private working copy holding {@code source}, so
+	 * the cache filler's extraction checks never share a buffer (or an AST) with
+	 * other methods being planned at the same time.
+	 */
+	private CodeExtractionEngine.Plan planOnPrivateCopy(ICompilationUnit icu, String source, String signature,
+			int threshold) throws CoreException {
+		ICompilationUnit privateCopy = icu.getPrimary().getWorkingCopy(new WorkingCopyOwner() {
+		}, null);
+		try {
+			privateCopy.getBuffer().setContents(source);
+			CompilationUnit privateCu = Utils.parserAST(privateCopy);
+			MethodDeclaration md = findMethod(privateCu, signature);
+			if (md == null) {
+				return null;
+			}
+			int cc = computeCognitiveComplexity(md);
+			return CodeExtractionEngine.plan(privateCu, md, cc, threshold);
+		} finally {
+			privateCopy.discardWorkingCopy();
+		}
+	}
+
+	private MethodDeclaration findMethod(CompilationUnit cu, String signature) {
+		for (Object tObj : cu.types()) {
+			if (!(tObj instanceof org.eclipse.jdt.core.dom.TypeDeclaration)) {
+				continue;
+			}
+			var typeDecl = (org.eclipse.jdt.core.dom.TypeDeclaration) tObj;
+			for (MethodDeclaration md : typeDecl.getMethods()) {
+				if (md != null && md.getName() != null && !isExtractedMethod(md)
+						&& signature.equals(methodSignature(md))) {
+					return md;
+				}
+			}
+		}
+		return null;
+	}
+
 	private List<MethodAnalysis> buildRefactoredMethodsList(CompilationUnit cu,
 			Map<String, MethodAnalysis> refactoredMethodsMap) {
 		List<MethodAnalysis> result = new LinkedList<>();
@@ -164,13 +401,14 @@ public class ComplexityAnalyzer {
 				.refactoredSource(refactored.getRefactoredSource())
 				.stats(refactored.getStats())
 				.usedILP(refactored.isUsedILP())
+				.solver(refactored.getSolver())
 				.build();
 	}
 
 	/**
-	 * Computes the cognitive complexity of the given method while annotating the
-	 * AST with the per-node properties used by the cache, the solver and the
-	 * {@link main.neo.core.Solution} fitness function.
+	 * Computes the cognitive complexity of the given method while building the
+	 * {@link main.neo.core.jdt.ComplexityIndex} of its nodes, used by the cache,
+	 * the solver and the {@link main.neo.core.Solution} fitness function.
 	 */
 	protected int computeCognitiveComplexity(MethodDeclaration md) {
 		return CognitiveComplexityVisitor.methodComplexity(md).complexity;
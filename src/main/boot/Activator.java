@@ -9,6 +9,7 @@ import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 import org.osgi.framework.BundleContext;
 
+import main.neo.core.jdt.ExtractionCompileChecker;
 import main.preferences.PluginPreferences;
 import main.session.SessionAnalysisStore;
 
@@ -28,6 +29,7 @@ public class Activator extends AbstractUIPlugin implements IStartup {
         plugin = this;
         
         SessionAnalysisStore.getInstance().clear();
+        ExtractionCompileChecker.install();
         System.out.println(">> Plugin Refactorer ACTIVADO correctamente");
     }
     
@@ -105,6 +107,7 @@ public class Activator extends AbstractUIPlugin implements IStartup {
 
     @Override
     public void stop(BundleContext context) throws Exception {
+        ExtractionCompileChecker.uninstall();
         plugin = null;
         super.stop(context);
     }
@@ -3,6 +3,7 @@ package main.builder;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 
 import main.neo.core.jdt.CodeExtractionMetricsStats;
+import main.neo.core.solvers.SolverType;
 
 
 public class MethodAnalysis {
@@ -17,6 +18,7 @@ public class MethodAnalysis {
 	private final String refactoredSource;
 	private final CodeExtractionMetricsStats stats;
 	private final boolean usedILP;
+	private final SolverType solver;
 
 	public static Builder builder() {
 		return new Builder();
@@ -33,6 +35,7 @@ public class MethodAnalysis {
 		this.refactoredSource = b.refactoredSource;
 		this.stats = b.stats;
 		this.usedILP = b.usedILP;
+		this.solver = b.solver;
 	}
 
 	public String getMethodName() {
@@ -83,6 +86,11 @@ public class MethodAnalysis {
 		return usedILP;
 	}
 
+	/** The solver that produced the refactoring, or {@code null} if unknown. */
+	public SolverType getSolver() {
+		return solver;
+	}
+
 	public static class Builder {
 		private String methodName;
 		private String signature = "";
@@ -94,6 +102,7 @@ public class MethodAnalysis {
 		private String refactoredSource;
 		private CodeExtractionMetricsStats stats = null;
 		private boolean usedILP = false;
+		private SolverType solver;
 
 		public Builder methodName(String v) {
 			this.methodName = v;
@@ -148,6 +157,11 @@ public class MethodAnalysis {
 			return this;
 		}
 
+		public Builder solver(SolverType v) {
+			this.solver = v;
+			return this;
+		}
+
 		public MethodAnalysis build() {
 			return new MethodAnalysis(this);
 		}
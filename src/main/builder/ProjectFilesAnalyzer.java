@@ -2,18 +2,23 @@ package main.builder;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.ASTRequestor;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.TypeDeclaration;
 
@@ -27,7 +32,65 @@ public class ProjectFilesAnalyzer {
 	private final ComplexityAnalyzer analyzer;
 
 	public ProjectFilesAnalyzer() {
-		this.analyzer = new ComplexityAnalyzer();
+		this(new ComplexityAnalyzer());
+	}
+
+	/**
+	 * Crea un analizador de ficheros que delega en el {@link ComplexityAnalyzer}
+	 * indicado (por ejemplo, uno que planifique varios métodos en paralelo).
+	 */
+	public ProjectFilesAnalyzer(ComplexityAnalyzer analyzer) {
+		this.analyzer = Objects.requireNonNull(analyzer, "analyzer");
+	}
+
+	/**
+	 * Recibe, a medida que se parsean, los AST de
+	 * {@link ProjectFilesAnalyzer#parseFiles}.
+	 */
+	@FunctionalInterface
+	public interface ParsedUnitConsumer {
+
+		/**
+		 * @param position Posición del fichero en la lista parseada.
+		 * @param icu      Unidad del fichero.
+		 * @param cu       AST de la unidad, con bindings.
+		 */
+		void accept(int position, ICompilationUnit icu, CompilationUnit cu);
+	}
+
+	/**
+	 * Resultado de la primera fase del análisis de un fichero
+	 * ({@link ProjectFilesAnalyzer#prescreenFile(IFile)}).
+	 */
+	public static final class Prescreen {
+
+		private static final Prescreen NEEDS_ANALYSIS = new Prescreen(true, null);
+
+		private final boolean needsAnalysis;
+		private final ClassAnalysis analysis;
+
+		private Prescreen(boolean needsAnalysis, ClassAnalysis analysis) {
+			this.needsAnalysis = needsAnalysis;
+			this.analysis = analysis;
+		}
+
+		/** Fichero ya analizado; {@code analysis} es null si no contiene ninguna clase. */
+		public static Prescreen analyzed(ClassAnalysis analysis) {
+			return new Prescreen(false, analysis);
+		}
+
+		/**
+		 * true si algún método del fichero supera el umbral: el fichero necesita el
+		 * análisis completo ({@link ProjectFilesAnalyzer#analyzeUnit}).
+		 */
+		public boolean needsAnalysis() {
+			return needsAnalysis;
+		}
+
+		/** Análisis del fichero cuando no necesita el completo (null si no hay ninguna clase). */
+		public ClassAnalysis getAnalysis() {
+			return analysis;
+		}
 	}
 
 	/**
@@ -45,39 +108,171 @@ public class ProjectFilesAnalyzer {
 						"Refactorer: Cannot create ICompilationUnit from file: " + file.getName());
 			}
 
-			CompilationUnit cu = Utils.parserAST(icu);
-
-			// Comprobar si existe al menos una clase (TypeDeclaration que no sea interface)
-			@SuppressWarnings("unchecked")
-			List<Object> topLevelTypes = cu.types();
-			boolean hasClass = false;
-			for (Object t : topLevelTypes) {
-				if (t instanceof TypeDeclaration) { // TypeDeclaration cubre class o interface
-					TypeDeclaration td = (TypeDeclaration) t;
-					if (!td.isInterface()) { // es una clase
-						hasClass = true;
-						break;
-					}
-				}
-				// EnumDeclaration y RecordDeclaration NO son TypeDeclaration (y por tanto se
-				// ignoran)
+			Prescreen prescreen = prescreen(icu);
+			if (!prescreen.needsAnalysis()) {
+				return prescreen.getAnalysis();
 			}
+			return analyze(Utils.parserAST(icu), icu);
+
+		} catch (Exception e) {
+			throw new AnalyzeException("Refactorer: Error analyzing file: " + file.getName(), e);
+		}
+	}
+
+	/**
+	 * Primera fase del análisis de un fichero, sin resolver bindings: calcula la
+	 * complejidad cognitiva de sus métodos sobre un AST sin bindings y, si ninguno
+	 * supera el umbral del proyecto (el caso habitual), devuelve ya su análisis,
+	 * sin copia de trabajo. Solo los ficheros con algún
+	 * método por encima del umbral necesitan el análisis completo.
+	 */
+	public Prescreen prescreenFile(IFile file) throws CoreException {
+		Objects.requireNonNull(file, "file");
 
-			if (!hasClass) {
-				return null; // skip enums / interfaces / records only
+		try {
+			ICompilationUnit icu = (ICompilationUnit) JavaCore.create(file);
+			if (icu == null) {
+				throw new IllegalStateException(
+						"Refactorer: Cannot create ICompilationUnit from file: " + file.getName());
 			}
 
-			return analyzer.analyze(cu, icu);
+			return prescreen(icu);
 
 		} catch (Exception e) {
 			throw new AnalyzeException("Refactorer: Error analyzing file: " + file.getName(), e);
 		}
 	}
 
+	private Prescreen prescreen(ICompilationUnit icu) throws Exception {
+		CompilationUnit cu = Utils.parserASTWithoutBindings(icu);
+		if (!hasClass(cu)) {
+			return Prescreen.analyzed(null); // skip enums / interfaces / records only
+		}
+		ClassAnalysis analysis = analyzer.analyzeIfWithinThreshold(cu, icu);
+		return analysis == null ? Prescreen.NEEDS_ANALYSIS : Prescreen.analyzed(analysis);
+	}
+
+	/**
+	 * Igual que {@link #analyzeFile(IFile)}, sobre el AST ya parseado de la
+	 * unidad (por ejemplo, uno recibido de {@link #parseFiles}).
+	 */
+	public ClassAnalysis analyzeUnit(CompilationUnit cu, ICompilationUnit icu) {
+		Objects.requireNonNull(cu, "cu");
+		Objects.requireNonNull(icu, "icu");
+
+		try {
+			return analyze(cu, icu);
+		} catch (Exception e) {
+			throw new AnalyzeException("Refactorer: Error analyzing file: " + icu.getElementName(), e);
+		}
+	}
+
+	private ClassAnalysis analyze(CompilationUnit cu, ICompilationUnit icu) throws Exception {
+		if (!hasClass(cu)) {
+			return null; // skip enums / interfaces / records only
+		}
+
+		return analyzer.analyze(cu, icu);
+	}
+
+	private static boolean hasClass(CompilationUnit cu) {
+		// Comprobar si existe al menos una clase (TypeDeclaration que no sea interface)
+		@SuppressWarnings("unchecked")
+		List<Object> topLevelTypes = cu.types();
+		boolean hasClass = false;
+		for (Object t : topLevelTypes) {
+			if (t instanceof TypeDeclaration) { // TypeDeclaration cubre class o interface
+				TypeDeclaration td = (TypeDeclaration) t;
+				if (!td.isInterface()) { // es una clase
+					hasClass = true;
+					break;
+				}
+			}
+			// EnumDeclaration y RecordDeclaration NO son TypeDeclaration (y por tanto se
+			// ignoran)
+		}
+		return hasClass;
+	}
+
 	/**
-	 * Analiza un proyecto Java completo. Reutiliza analyzeFile para cada unidad.
+	 * Analiza un proyecto Java completo en dos fases: {@link #prescreenFile}
+	 * analiza los ficheros cuyos métodos no superan el umbral y el resto se
+	 * parsean en un único lote ({@link #parseFiles}), analizando cada AST en
+	 * cuanto sale del parser, mientras sigue vivo el entorno que resuelve sus
+	 * bindings. El AST se descarta al terminar el análisis de su clase, así que
+	 * nunca hay más de uno en memoria; {@link ProjectsAnalysisJob} sigue la
+	 * misma regla.
 	 */
 	public ProjectAnalysis analyzeProject(IProject project) throws CoreException {
+		List<IFile> files = collectSourceFiles(project);
+		if (files == null)
+			return null;
+
+		ClassAnalysis[] results = new ClassAnalysis[files.size()];
+		List<IFile> offenders = new ArrayList<>();
+		List<Integer> offenderPositions = new ArrayList<>();
+		for (int i = 0; i < files.size(); i++) {
+			Prescreen prescreen = prescreenFile(files.get(i));
+			if (prescreen.needsAnalysis()) {
+				offenders.add(files.get(i));
+				offenderPositions.add(i);
+			} else {
+				results[i] = prescreen.getAnalysis();
+			}
+		}
+		parseFiles(project, offenders, new NullProgressMonitor(),
+				(position, icu, cu) -> results[offenderPositions.get(position)] = analyzeUnit(cu, icu));
+
+		List<ClassAnalysis> analyses = new ArrayList<>();
+		for (ClassAnalysis ca : results) {
+			if (ca != null) { // ignore non-class units
+				analyses.add(ca);
+			}
+		}
+		int threshold = ProjectPreferences.getComplexityThreshold(project);
+		return ProjectAnalysis.builder().project(project).name(project.getName()).analysisDate(LocalDateTime.now())
+				.classes(analyses).complexityThreshold(threshold).build();
+	}
+
+	/**
+	 * Parsea en un único lote ({@code ASTParser.createASTs}) ficheros .java del
+	 * proyecto, con bindings. El entorno de búsqueda que resuelve los bindings se
+	 * prepara una sola vez para todo el lote, en lugar de una vez por fichero como
+	 * en {@link #analyzeFile(IFile)}.
+	 * <p>
+	 * Cada AST se entrega a {@code consumer}, en el hilo que llama, en cuanto sale
+	 * del parser; el lote no guarda ninguna referencia a él, de modo que se libera
+	 * en cuanto el consumidor deja de usarlo. Una excepción del consumidor, o la
+	 * cancelación de {@code monitor} ({@code OperationCanceledException}),
+	 * interrumpe el lote.
+	 * </p>
+	 */
+	public void parseFiles(IProject project, List<IFile> files, IProgressMonitor monitor,
+			ParsedUnitConsumer consumer) {
+		Objects.requireNonNull(project, "project");
+		Objects.requireNonNull(consumer, "consumer");
+
+		ICompilationUnit[] units = new ICompilationUnit[files.size()];
+		Map<ICompilationUnit, Integer> positions = new HashMap<>();
+		for (int i = 0; i < units.length; i++) {
+			units[i] = JavaCore.createCompilationUnitFrom(files.get(i));
+			positions.put(units[i], i);
+		}
+
+		Utils.parserASTs(JavaCore.create(project), units, new ASTRequestor() {
+			@Override
+			public void acceptAST(ICompilationUnit source, CompilationUnit ast) {
+				consumer.accept(positions.get(source), source, ast);
+			}
+		}, monitor);
+	}
+
+	/**
+	 * Devuelve, en orden de recorrido, los ficheros .java de las carpetas de
+	 * fuentes del proyecto, o null si el proyecto está cerrado o no es un
+	 * proyecto Java.
+	 */
+	public List<IFile> collectSourceFiles(IProject project) throws CoreException {
 		Objects.requireNonNull(project, "project");
 		if (!project.isOpen())
 			return null;
@@ -86,8 +281,7 @@ public class ProjectFilesAnalyzer {
 		if (javaProject == null)
 			return null;
 
-		List<ClassAnalysis> analyses = new ArrayList<>();
-
+		List<IFile> files = new ArrayList<>();
 		for (IPackageFragmentRoot root : javaProject.getPackageFragmentRoots()) {
 			if (root.getKind() != IPackageFragmentRoot.K_SOURCE)
 				continue;
@@ -97,18 +291,13 @@ public class ProjectFilesAnalyzer {
 				IPackageFragment pkg = (IPackageFragment) element;
 				for (ICompilationUnit icu : pkg.getCompilationUnits()) {
 					IFile file = (IFile) icu.getResource();
-					if (file == null)
-						continue;
-					ClassAnalysis ca = analyzeFile(file);
-					if (ca != null) { // ignore non-class units
-						analyses.add(ca);
+					if (file != null) {
+						files.add(file);
 					}
 				}
 			}
 		}
-		int threshold = ProjectPreferences.getComplexityThreshold(project);
-		return ProjectAnalysis.builder().project(project).name(project.getName()).analysisDate(LocalDateTime.now())
-				.classes(analyses).complexityThreshold(threshold).build();
+		return files;
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,287 @@
+package main.builder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+
+import main.builder.ProjectFilesAnalyzer.Prescreen;
+import main.preferences.ProjectPreferences;
+
+/**
+ * Background {@link Job} that analyses every compilation unit of a set of
+ * projects.
+ * <p>
+ * The analysis runs in two phases on a worker pool sized to the number of
+ * available processors. First every unit is pre-screened in parallel
+ * ({@link ProjectFilesAnalyzer#prescreenFile}): the cognitive complexity of its
+ * methods is computed without bindings, and the units none of whose methods
+ * exceeds the threshold are analysed right away. Then the remaining units of
+ * each project are parsed in a single batch, so that they share the
+ * environment resolving their bindings, and every AST is handed to the pool as
+ * soon as the parser produces it. The parser is held until that unit has been
+ * analysed, so the environment is never used by the parser and an analysis at
+ * the same time, and no AST outlives the analysis of its class. Progress is
+ * reported per analysed unit and the job can be cancelled at any time; pending
+ * units are then discarded and the listener is not notified. Results are
+ * handed to the {@link Listener} from the job thread, in the same project and
+ * file order as a sequential scan, so callers must switch to the UI thread
+ * themselves before opening any dialog.
+ * </p>
+ */
+public class ProjectsAnalysisJob extends Job {
+
+	/** Poll interval used to react to cancellation while workers are busy. */
+	private static final long CANCELLATION_POLL_MILLIS = 200;
+
+	/** Pre-screened units a worker may have waiting or in analysis. */
+	private static final int QUEUED_UNITS_PER_WORKER = 2;
+
+	/** Receives the outcome of a {@link ProjectsAnalysisJob}. */
+	public interface Listener {
+
+		/**
+		 * Called once every unit has been analysed. Projects that could not be
+		 * analysed (closed or non-Java) are omitted.
+		 */
+		void analysisCompleted(List<ProjectAnalysis> analyses);
+
+		/** Called when the analysis of a unit fails; the job stops at that point. */
+		void analysisFailed(Throwable error);
+	}
+
+	private final List<IProject> projects;
+	private final Listener listener;
+	private final ProjectFilesAnalyzer analyzer;
+	private final int workers;
+
+	public ProjectsAnalysisJob(String name, List<IProject> projects, Listener listener) {
+		this(name, projects, listener, new ProjectFilesAnalyzer(), Runtime.getRuntime().availableProcessors());
+	}
+
+	public ProjectsAnalysisJob(String name, List<IProject> projects, Listener listener, ProjectFilesAnalyzer analyzer,
+			int workers) {
+		super(name);
+		this.projects = List.copyOf(Objects.requireNonNull(projects, "projects"));
+		this.listener = Objects.requireNonNull(listener, "listener");
+		this.analyzer = Objects.requireNonNull(analyzer, "analyzer");
+		this.workers = Math.max(1, workers);
+		setUser(true);
+	}
+
+	@Override
+	protected IStatus run(IProgressMonitor monitor) {
+		List<IProject> analysedProjects = new ArrayList<>();
+		List<List<IFile>> filesByProject = new ArrayList<>();
+		int totalFiles = 0;
+
+		try {
+			for (IProject project : projects) {
+				List<IFile> files = analyzer.collectSourceFiles(project);
+				if (files == null) {
+					continue;
+				}
+				analysedProjects.add(project);
+				filesByProject.add(files);
+				totalFiles += files.size();
+			}
+		} catch (CoreException e) {
+			listener.analysisFailed(e);
+			return Status.OK_STATUS;
+		}
+
+		SubMonitor progress = SubMonitor.convert(monitor, getName(), totalFiles);
+		ClassAnalysis[][] results = new ClassAnalysis[filesByProject.size()][];
+		int threads = Math.min(workers, Math.max(1, totalFiles));
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		AnalysisQueue queue = new AnalysisQueue(pool, threads * QUEUED_UNITS_PER_WORKER, results, filesByProject,
+				progress);
+
+		try {
+			// 1. Pre-screen every unit, without bindings
+			for (int p = 0; p < filesByProject.size(); p++) {
+				List<IFile> files = filesByProject.get(p);
+				results[p] = new ClassAnalysis[files.size()];
+				for (int f = 0; f < files.size(); f++) {
+					IFile file = files.get(f);
+					queue.submit(p, f, () -> analyzer.prescreenFile(file));
+				}
+			}
+			queue.collect(true);
+
+			// 2. Fully analyse the units above the threshold, parsed in one batch per project
+			for (int p = 0; p < filesByProject.size(); p++) {
+				List<Integer> positions = queue.needingAnalysis(p);
+				if (positions.isEmpty()) {
+					continue;
+				}
+				List<IFile> files = new ArrayList<>(positions.size());
+				for (int f : positions) {
+					files.add(filesByProject.get(p).get(f));
+				}
+				// The parser only polls the monitor for cancellation: progress is reported per analysed unit
+				int project = p;
+				analyzer.parseFiles(analysedProjects.get(p), files, progress.slice(0), (position, icu, cu) -> {
+					// Analysed while the batch environment resolving its bindings is alive, with the parser on hold
+					queue.submit(project, positions.get(position),
+							() -> Prescreen.analyzed(analyzer.analyzeUnit(cu, icu)));
+					queue.collect(true);
+				});
+			}
+		} catch (AnalysisFailedException e) {
+			listener.analysisFailed(e.getCause());
+			return Status.OK_STATUS;
+		} catch (OperationCanceledException e) {
+			return Status.CANCEL_STATUS;
+		} finally {
+			pool.shutdownNow();
+			monitor.done();
+		}
+
+		List<ProjectAnalysis> analyses = new ArrayList<>();
+		for (int p = 0; p < analysedProjects.size(); p++) {
+			IProject project = analysedProjects.get(p);
+			List<ClassAnalysis> classes = new ArrayList<>();
+			for (ClassAnalysis ca : results[p]) {
+				if (ca != null) { // ignore non-class units
+					classes.add(ca);
+				}
+			}
+			analyses.add(ProjectAnalysis.builder().project(project).name(project.getName())
+					.analysisDate(LocalDateTime.now()).classes(classes)
+					.complexityThreshold(ProjectPreferences.getComplexityThreshold(project)).build());
+		}
+		listener.analysisCompleted(analyses);
+		return Status.OK_STATUS;
+	}
+
+	/**
+	 * Hands the units over to the worker pool. At most {@code capacity} units are
+	 * waiting or being analysed at any time: {@link #submit} blocks the job
+	 * thread until a worker is done with an earlier unit. Results and progress are recorded on the job thread; the units a
+	 * pre-screen leaves for the full analysis are only counted once analysed.
+	 */
+	private final class AnalysisQueue {
+
+		private final CompletionService<Prescreen> completion;
+		private final Map<Future<Prescreen>, int[]> positions = new IdentityHashMap<>();
+		private final List<List<Integer>> needingAnalysis = new ArrayList<>();
+		private final Semaphore capacity;
+		private final ClassAnalysis[][] results;
+		private final List<List<IFile>> filesByProject;
+		private final SubMonitor progress;
+
+		AnalysisQueue(ExecutorService pool, int capacity, ClassAnalysis[][] results, List<List<IFile>> filesByProject,
+				SubMonitor progress) {
+			this.completion = new ExecutorCompletionService<>(pool);
+			this.capacity = new Semaphore(capacity);
+			this.results = results;
+			this.filesByProject = filesByProject;
+			this.progress = progress;
+			for (int p = 0; p < filesByProject.size(); p++) {
+				needingAnalysis.add(new ArrayList<>());
+			}
+		}
+
+		/** Positions, in file order, of the units of a project left for the full analysis. */
+		List<Integer> needingAnalysis(int project) {
+			List<Integer> positions = needingAnalysis.get(project);
+			positions.sort(null);
+			return positions;
+		}
+
+		/** Queues the analysis of a unit, once there is room for it. */
+		void submit(int project, int file, Callable<Prescreen> analysis) {
+			try {
+				while (!capacity.tryAcquire(CANCELLATION_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+					collect(false);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new OperationCanceledException();
+			}
+			positions.put(completion.submit(() -> {
+				try {
+					return progress.isCanceled() ? null : analysis.call();
+				} finally {
+					capacity.release();
+				}
+			}), new int[] { project, file });
+			collect(false);
+		}
+
+		/**
+		 * Records the analyses that are done or, with {@code all}, waits for every
+		 * queued one.
+		 *
+		 * @throws OperationCanceledException if the job is cancelled.
+		 * @throws AnalysisFailedException    if the analysis of a unit failed.
+		 */
+		void collect(boolean all) {
+			try {
+				while (!positions.isEmpty()) {
+					if (progress.isCanceled()) {
+						throw new OperationCanceledException();
+					}
+					Future<Prescreen> done = all ? completion.poll(CANCELLATION_POLL_MILLIS, TimeUnit.MILLISECONDS)
+							: completion.poll();
+					if (done == null) {
+						if (all) {
+							continue;
+						}
+						return;
+					}
+					int[] position = positions.remove(done);
+					Prescreen outcome = done.get();
+					if (outcome == null) { // cancelled
+						continue;
+					}
+					if (outcome.needsAnalysis()) {
+						needingAnalysis.get(position[0]).add(position[1]);
+						continue;
+					}
+					results[position[0]][position[1]] = outcome.getAnalysis();
+					IFile file = filesByProject.get(position[0]).get(position[1]);
+					progress.subTask(file.getProject().getName() + "/" + file.getProjectRelativePath());
+					progress.worked(1);
+				}
+			} catch (ExecutionException e) {
+				throw new AnalysisFailedException(e.getCause());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new OperationCanceledException();
+			}
+		}
+	}
+
+	/** Carries the failure of a unit analysis out of the {@link AnalysisQueue}. */
+	private static final class AnalysisFailedException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		AnalysisFailedException(Throwable cause) {
+			super(cause);
+		}
+	}
+}
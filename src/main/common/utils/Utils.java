@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaProject;
@@ -11,6 +12,7 @@ import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.ToolFactory;
 import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTRequestor;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.formatter.CodeFormatter;
 import org.eclipse.jface.text.Document;
@@ -41,14 +43,40 @@ public class Utils {
 		try {
 			return (CompilationUnit) parser.createAST(new NullProgressMonitor());
 		} catch (IllegalStateException ex) {
-			ASTParser fallback = ASTParser.newParser(AST.JLS21);
-			fallback.setSource(icu);
-			fallback.setKind(ASTParser.K_COMPILATION_UNIT);
-			fallback.setResolveBindings(false);
-			fallback.setBindingsRecovery(false);
-			return (CompilationUnit) fallback.createAST(new NullProgressMonitor());
+			return parserASTWithoutBindings(icu);
 		}
 	}
+
+	/**
+	 * Parses a unit without resolving bindings: no lookup environment is built,
+	 * so this is much cheaper than {@link #parserAST(ICompilationUnit)} when only
+	 * the syntax of the unit is needed (e.g. to score its cognitive complexity).
+	 */
+	public static CompilationUnit parserASTWithoutBindings(ICompilationUnit icu) {
+		ASTParser parser = ASTParser.newParser(AST.JLS21);
+		parser.setSource(icu);
+		parser.setKind(ASTParser.K_COMPILATION_UNIT);
+		parser.setResolveBindings(false);
+		parser.setBindingsRecovery(false);
+		return (CompilationUnit) parser.createAST(new NullProgressMonitor());
+	}
+
+	/**
+	 * Parses the units of a project in a single batch, with the same settings as
+	 * {@link #parserAST(ICompilationUnit)}. The units share the lookup
+	 * environment that resolves their bindings, and {@code requestor} receives
+	 * every AST as soon as it is parsed: the batch keeps no reference to it, so
+	 * an AST can be released once the requestor is done with it.
+	 */
+	public static void parserASTs(IJavaProject project, ICompilationUnit[] units, ASTRequestor requestor,
+			IProgressMonitor monitor) {
+		ASTParser parser = ASTParser.newParser(AST.JLS21);
+		parser.setKind(ASTParser.K_COMPILATION_UNIT);
+		parser.setResolveBindings(true);
+		parser.setBindingsRecovery(true);
+		parser.setProject(project);
+		parser.createASTs(units, new String[0], requestor, monitor);
+	}
     
     public static String formatJava(String source) {
     	if (source == null || source.isEmpty()) return source;
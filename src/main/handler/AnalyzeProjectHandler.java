@@ -1,29 +1,23 @@
 package main.handler;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import org.eclipse.core.commands.AbstractHandler;
 import org.eclipse.core.commands.ExecutionEvent;
 import org.eclipse.core.commands.ExecutionException;
-import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.IAdaptable;
-import org.eclipse.jdt.core.ICompilationUnit;
-import org.eclipse.jdt.core.IJavaElement;
-import org.eclipse.jdt.core.IJavaProject;
-import org.eclipse.jdt.core.IPackageFragment;
-import org.eclipse.jdt.core.IPackageFragmentRoot;
-import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jface.viewers.IStructuredSelection;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
 import org.eclipse.ui.handlers.HandlerUtil;
 
-import main.builder.ClassAnalysis;
 import main.builder.ProjectAnalysis;
-import main.builder.ProjectFilesAnalyzer;
+import main.builder.ProjectsAnalysisJob;
 import main.common.error.AnalyzeException;
 import main.common.error.ResourceNotFoundException;
 import main.common.error.ValidationException;
+import main.common.languaje.Messages;
 import main.model.project.ProjectAnalysisMetricsMapper;
 import main.model.project.ProjectMetrics;
 import main.session.ActionType;
@@ -42,6 +36,7 @@ public class AnalyzeProjectHandler extends AbstractHandler {
 		if (selected == null) {
 			ResourceNotFoundException error = new ResourceNotFoundException("No hay proyecto para analizar");
 			ErrorDetailsDialog.open(HandlerUtil.getActiveShell(event), error.getMessage(), error);
+			return null;
 		}
 
 		if (selected instanceof IAdaptable) {
@@ -51,58 +46,55 @@ public class AnalyzeProjectHandler extends AbstractHandler {
 		if (project == null || !project.isOpen()) {
 			ValidationException error = new ValidationException("La selección no es un proyecto Eclipse válido o es un proyecto cerrado.");
 			ErrorDetailsDialog.open(HandlerUtil.getActiveShell(event), error.getMessage(), error);
+			return null;
 		}
 
-		ProjectFilesAnalyzer analyzer = new ProjectFilesAnalyzer();
-		List<ClassAnalysis> classesAnalyses = new ArrayList<>();
+		// El análisis se ejecuta en segundo plano; los diálogos se abren en el hilo de UI.
+		IProject selectedProject = project;
+		Shell shell = HandlerUtil.getActiveShell(event);
+		Display display = shell != null ? shell.getDisplay() : Display.getDefault();
+		new ProjectsAnalysisJob(Messages.getAnalyzingProject(), List.of(project), new ProjectsAnalysisJob.Listener() {
+			@Override
+			public void analysisCompleted(List<ProjectAnalysis> analyses) {
+				display.asyncExec(() -> showResults(activeShell(shell, display), selectedProject, analyses));
+			}
 
+			@Override
+			public void analysisFailed(Throwable e) {
+				display.asyncExec(() -> showError(activeShell(shell, display), e));
+			}
+		}).schedule();
+		return null;
+	}
+
+	private void showResults(Shell shell, IProject project, List<ProjectAnalysis> analyses) {
 		try {
-			IJavaProject javaProject = JavaCore.create(project);
-			if (javaProject != null) {
-				for (IPackageFragmentRoot root : javaProject.getPackageFragmentRoots()) {
-					if (root.getKind() != IPackageFragmentRoot.K_SOURCE)
-						continue;
-					for (IJavaElement element : root.getChildren()) {
-						if (!(element instanceof IPackageFragment))
-							continue;
-						IPackageFragment pkg = (IPackageFragment) element;
-						for (ICompilationUnit icu : pkg.getCompilationUnits()) {
-							IFile file = (IFile) icu.getResource();
-							if (file == null) {
-								continue;
-							}
-							
-							ClassAnalysis ca = analyzer.analyzeFile(file);
-							if (ca == null) { // ignore non-class units
-								continue;
-							}
-							classesAnalyses.add(ca);
-						}
-					}
-				}
+			ProjectAnalysis analysis = analyses.isEmpty()
+					? ProjectAnalysis.builder().project(project).name(project.getName()).classes(List.of()).build()
+					: analyses.get(0);
+
+			ProjectMetrics metrics = ProjectAnalysisMetricsMapper.toProjectMetrics(analysis);
+			SessionAnalysisStore.getInstance().register(ActionType.PROJECT, metrics);
+
+			if (metrics.getMethodExtractionCount() == 0) {
+				new AnalysisNoRefactorDialog(shell, ActionType.PROJECT, metrics, project).open();
+				return;
 			}
 
-		ProjectAnalysis analysis = ProjectAnalysis.builder()
-				.project(project)
-				.name(project.getName())
-				.classes(classesAnalyses).build();
-
-		ProjectMetrics metrics = ProjectAnalysisMetricsMapper.toProjectMetrics(analysis);
-		SessionAnalysisStore.getInstance().register(ActionType.PROJECT, metrics);
-        
-		if (metrics.getMethodExtractionCount() == 0) {
-            new AnalysisNoRefactorDialog(HandlerUtil.getActiveShell(event), ActionType.PROJECT, metrics, project).open();
-            return null;
-        }
-		
-		new AnalysisMetricsDialog(HandlerUtil.getActiveShell(event), ActionType.PROJECT, metrics, null, null, project).open();
-		return null;
-		
+			new AnalysisMetricsDialog(shell, ActionType.PROJECT, metrics, null, null, project).open();
+
 		} catch (Throwable e) {
-			AnalyzeException error = new AnalyzeException("Error analyzing project", e);
-			ErrorDetailsDialog.open(HandlerUtil.getActiveShell(event), error.getMessage(), error);
-			return null;
+			showError(shell, e);
 		}
 	}
 
+	private void showError(Shell shell, Throwable e) {
+		AnalyzeException error = new AnalyzeException("Error analyzing project", e);
+		ErrorDetailsDialog.open(shell, error.getMessage(), error);
+	}
+
+	private static Shell activeShell(Shell shell, Display display) {
+		return shell != null && !shell.isDisposed() ? shell : display.getActiveShell();
+	}
+
 }
\ No newline at end of file
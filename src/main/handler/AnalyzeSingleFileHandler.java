@@ -11,6 +11,7 @@ import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.ui.handlers.HandlerUtil;
 
+import main.analyzer.ComplexityAnalyzer;
 import main.builder.ClassAnalysis;
 import main.builder.ProjectFilesAnalyzer;
 import main.common.error.AnalyzeException;
@@ -50,7 +51,9 @@ public class AnalyzeSingleFileHandler extends AbstractHandler {
 			file = ((IAdaptable) classSelected).getAdapter(IFile.class);
 		}
 
-		ProjectFilesAnalyzer pfa = new ProjectFilesAnalyzer();
+		// A single class is analysed at a time, so plan its methods concurrently.
+		ProjectFilesAnalyzer pfa = new ProjectFilesAnalyzer(
+				new ComplexityAnalyzer(Runtime.getRuntime().availableProcessors()));
 		try {
 			// Get IProject from file
 			IProject project = file != null ? file.getProject() : null;
@@ -9,13 +9,16 @@ import org.eclipse.core.commands.ExecutionEvent;
 import org.eclipse.core.commands.ExecutionException;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
 import org.eclipse.ui.handlers.HandlerUtil;
 
 import main.builder.ProjectAnalysis;
-import main.builder.ProjectFilesAnalyzer;
+import main.builder.ProjectsAnalysisJob;
 import main.builder.WorkspaceAnalysis;
 import main.common.error.AnalyzeException;
 import main.common.error.ResourceNotFoundException;
+import main.common.languaje.Messages;
 import main.model.workspace.WorkspaceAnalysisMetricsMapper;
 import main.model.workspace.WorkspaceMetrics;
 import main.session.ActionType;
@@ -42,18 +45,25 @@ public class AnalyzeWorkspaceHandler extends AbstractHandler {
 			return null;
         }
 
-        ProjectFilesAnalyzer analyzer = new ProjectFilesAnalyzer();
-        List<ProjectAnalysis> projectAnalyses = new ArrayList<>();
+        // El análisis se ejecuta en segundo plano; los diálogos se abren en el hilo de UI.
+        Shell shell = HandlerUtil.getActiveShell(event);
+        Display display = shell != null ? shell.getDisplay() : Display.getDefault();
+        new ProjectsAnalysisJob(Messages.getAnalyzingWorkspace(), openProjects, new ProjectsAnalysisJob.Listener() {
+            @Override
+            public void analysisCompleted(List<ProjectAnalysis> projectAnalyses) {
+                display.asyncExec(() -> showResults(activeShell(shell, display), projectAnalyses));
+            }
 
-        try {
-            for (IProject project : openProjects) {
-                ProjectAnalysis analysis = analyzer.analyzeProject(project);
-                if (analysis == null) {
-                	continue;
-                }
-                projectAnalyses.add(analysis);
+            @Override
+            public void analysisFailed(Throwable e) {
+                display.asyncExec(() -> showError(activeShell(shell, display), e));
             }
+        }).schedule();
+        return null;
+    }
 
+    private void showResults(Shell shell, List<ProjectAnalysis> projectAnalyses) {
+        try {
             WorkspaceAnalysis workspaceAnalysis = WorkspaceAnalysis.builder()
                 .name("My Workspace")
                 .analysisDate(LocalDateTime.now())
@@ -64,18 +74,24 @@ public class AnalyzeWorkspaceHandler extends AbstractHandler {
             SessionAnalysisStore.getInstance().register(ActionType.WORKSPACE, workspaceMetrics);
 
             if (workspaceMetrics.getMethodExtractionCount() == 0) {
-                new AnalysisNoRefactorDialog(HandlerUtil.getActiveShell(event), ActionType.WORKSPACE, workspaceMetrics, null).open();
-                return null;
+                new AnalysisNoRefactorDialog(shell, ActionType.WORKSPACE, workspaceMetrics, null).open();
+                return;
             }
 
-            new AnalysisMetricsDialog(HandlerUtil.getActiveShell(event), ActionType.WORKSPACE, workspaceMetrics, null, null, null).open();
-            return null;
+            new AnalysisMetricsDialog(shell, ActionType.WORKSPACE, workspaceMetrics, null, null, null).open();
 
         } catch (Throwable e) {
-            AnalyzeException error = new AnalyzeException("Error analyzing project", e);
-            ErrorDetailsDialog.open(HandlerUtil.getActiveShell(event), error.getMessage(), error);
-            return null;
+            showError(shell, e);
         }
     }
 
+    private void showError(Shell shell, Throwable e) {
+        AnalyzeException error = new AnalyzeException("Error analyzing project", e);
+        ErrorDetailsDialog.open(shell, error.getMessage(), error);
+    }
+
+    private static Shell activeShell(Shell shell, Display display) {
+        return shell != null && !shell.isDisposed() ? shell : display.getActiveShell();
+    }
+
 }
\ No newline at end of file
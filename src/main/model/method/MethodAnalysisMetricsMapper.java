@@ -25,6 +25,7 @@ public final class MethodAnalysisMetricsMapper {
 			.loc(ma.getLoc())
 			.numberOfExtractions(ma.getNumberOfExtractions())
 			.usedILP(ma.isUsedILP())
+			.solver(ma.getSolver())
 			.build();
 	}
 
@@ -44,6 +45,7 @@ public final class MethodAnalysisMetricsMapper {
 			.refactoredSource(c.getRefactoredSource())
 			.stats(c.getStats())
 			.usedILP(c.isUsedILP())
+			.solver(c.getSolver())
 			.build();
 			
 			result.add(m);
@@ -1,6 +1,7 @@
 package main.model.method;
 
 import main.model.common.Identifiable;
+import main.neo.core.solvers.SolverType;
 
 public class MethodMetrics implements Identifiable {
 
@@ -13,6 +14,7 @@ public class MethodMetrics implements Identifiable {
 	private final int cc;
 	private final int numberOfExtractions;
 	private final boolean usedILP;
+	private final SolverType solver;
 
 	public MethodMetrics(MethodMetricsBuilder methodMetricsBuilder) {
 		super();
@@ -22,6 +24,7 @@ public class MethodMetrics implements Identifiable {
 		this.cc = methodMetricsBuilder.cc;
 		this.numberOfExtractions = methodMetricsBuilder.numberOfExtractions;
 		this.usedILP = methodMetricsBuilder.usedILP;
+		this.solver = methodMetricsBuilder.solver;
 	}
 
 	public static MethodMetricsBuilder builder() {
@@ -63,6 +66,11 @@ public class MethodMetrics implements Identifiable {
 		return usedILP;
 	}
 
+	/** The solver that produced the refactoring, or {@code null} if unknown. */
+	public SolverType getSolver() {
+		return solver;
+	}
+
 	public static class MethodMetricsBuilder {
 		private String name = "<unnamed>";
 		private String signature = "";
@@ -70,6 +78,7 @@ public class MethodMetrics implements Identifiable {
 		private int cc = 0;
 		private int numberOfExtractions = 0;
 		private boolean usedILP = false;
+		private SolverType solver;
 
 		public MethodMetricsBuilder() {
 		}
@@ -105,6 +114,11 @@ public class MethodMetrics implements Identifiable {
 			return this;
 		}
 
+		public MethodMetricsBuilder solver(SolverType solver) {
+			this.solver = solver;
+			return this;
+		}
+
 		public MethodMetrics build() {
 			return new MethodMetrics(this);
 		}
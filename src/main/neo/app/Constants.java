@@ -59,76 +59,77 @@ public class Constants {
 	 * </p>
 	 */
 	public static final int TIME_LIMIT = 300;
-	
-	/**
-	 * The estimated initial setup time (in minutes) required to address a Cognitive
-	 * Complexity issue manually.
-	 */
-	public static final int INITIAL_EFFORT_IN_MINUTES_FOR_CC_ISSUE = 5;
 
 	/**
-	 * The estimated additional time (in minutes) required per unit of complexity to
-	 * fix the issue manually.
+	 * Maximum number of candidate solutions the enumerative search solvers
+	 * evaluate; candidates skipped by the fitness lower bound do not count.
+	 * Ranking a candidate reads the refactoring cache without building the
+	 * solution, so the budget is set by candidates rather than by time, which
+	 * keeps the search deterministic. This budget applies to the sequential
+	 * searches, including the one filling the refactoring cache lazily.
 	 */
-	public static final int LINEAR_EFFORT_INCREMENT_IN_MINUTES_FOR_CC_ISSUE = 1;
-
-	// =========================================================================
-	// AST & GRAPH NODE PROPERTIES
-	// =========================================================================
+	public static final int ENUMERATIVE_SEARCH_EVALUATIONS = 10_000;
 
 	/**
-	 * Property key for the total complexity score added by a specific node.
-	 * <p>
-	 * Value = {@code Inherent Complexity} + {@code Nesting Penalty}.
-	 * </p>
+	 * Budget of {@link #ENUMERATIVE_SEARCH_EVALUATIONS} for a search spread over
+	 * several workers (see {@link #ENUMERATIVE_SEARCH_PARALLELISM}), which
+	 * evaluates more candidates in about the same time on a multicore machine.
 	 */
-	public static final String CONTRIBUTION_TO_COGNITIVE_COMPLEXITY = "contributionToCognitiveComplexity";
+	public static final int PARALLEL_ENUMERATIVE_SEARCH_EVALUATIONS = 100_000;
 
 	/**
-	 * Property key for the sum of {@link #CONTRIBUTION_TO_COGNITIVE_COMPLEXITY} for
-	 * a node AND all its descendants.
+	 * Number of threads of the {@link main.neo.core.WorkerPool} shared by the
+	 * parallel steps below, however many methods are analysed at once.
 	 */
-	public static final String ACCUMULATED_CONTRIBUTION_TO_COGNITIVE_COMPLEXITY = "accumulatedContributionToCognitiveComplexity";
+	public static final int WORKER_THREADS = Runtime.getRuntime().availableProcessors();
 
 	/**
-	 * Property key for the inherent cognitive complexity of a node (e.g., an 'if'
-	 * typically costs 1).
+	 * Number of workers used by the enumerative search solvers, on the shared
+	 * worker pool. With a single worker the search runs sequentially on the
+	 * calling thread.
 	 */
-	public static final String INHERENT_COGNITIVE_COMPLEXITY = "inherentCognitiveComplexity";
+	public static final int ENUMERATIVE_SEARCH_PARALLELISM = Runtime.getRuntime().availableProcessors();
 
 	/**
-	 * Property key for the penalty paid by a node due to its nesting level (depth).
+	 * Number of workers checking the candidate extractions, on the shared worker
+	 * pool, while the refactoring cache of a method is filled. With a single
+	 * worker the cache is filled sequentially on the calling thread.
 	 */
-	public static final String NESTING_COGNITIVE_COMPLEXITY = "nestingCognitiveComplexity";
+	public static final int CACHE_FILL_PARALLELISM = Runtime.getRuntime().availableProcessors();
 
 	/**
-	 * Property key for the nesting depth of a node relative to the method start.
+	 * Number of background workers, on the shared worker pool, checking the next
+	 * extractions while an enumerative search fills the refactoring cache lazily. One core is left to
+	 * the search itself; with no worker nothing is prefetched.
 	 */
-	public static final String NESTING_LEVEL = "nestingLevel";
+	public static final int CACHE_PREFETCH_PARALLELISM = Runtime.getRuntime().availableProcessors() - 1;
 
 	/**
-	 * Property key for the sum of {@link #INHERENT_COGNITIVE_COMPLEXITY} for this
-	 * node AND all its descendants.
+	 * Number of workers solving the independent components of the extraction
+	 * graph in the exact solver, on the shared worker pool. With a single worker
+	 * the components are solved sequentially on the calling thread.
 	 */
-	public static final String ACCUMULATED_INHERENT_COGNITIVE_COMPLEXITY = "accumulatedInherentCognitiveComplexity";
+	public static final int COMPONENT_SOLVER_PARALLELISM = Runtime.getRuntime().availableProcessors();
 
 	/**
-	 * Property key for the sum of nesting penalties paid by this node AND all its
-	 * descendants.
+	 * Whether the exact solver and the enumerative search race on each method
+	 * (see {@code PortfolioSolver}) instead of running the search only after the
+	 * exact solver fails. Off by default: the portfolio chooses the same plan as
+	 * the sequential path, but costs a thread per solver and method.
 	 */
-	public static final String ACCUMULATED_NESTING_COGNITIVE_COMPLEXITY = "accumulatedNestingCognitiveComplexity";
-
+	public static final boolean SOLVER_PORTFOLIO = false;
+	
 	/**
-	 * Property key for the count of structural nodes (if, for, catch) inside a
-	 * block that paid a nesting penalty.
+	 * The estimated initial setup time (in minutes) required to address a Cognitive
+	 * Complexity issue manually.
 	 */
-	public static final String NUMBER_OF_NESTING_CONTRIBUTORS = "numberOfNestingContributors";
+	public static final int INITIAL_EFFORT_IN_MINUTES_FOR_CC_ISSUE = 5;
 
 	/**
-	 * Property key for the cognitive complexity of nested code. Useful for
-	 * container nodes like TryStatements.
+	 * The estimated additional time (in minutes) required per unit of complexity to
+	 * fix the issue manually.
 	 */
-	public static final String COGNITIVE_COMPLEXITY_OF_NESTED_CODE = "cognitiveComplexityOfNestedCode";
+	public static final int LINEAR_EFFORT_INCREMENT_IN_MINUTES_FOR_CC_ISSUE = 1;
 
 	// =========================================================================
 	// FILES, PATHS & OUTPUT
@@ -147,6 +148,28 @@ public class Constants {
 	/** Extension for the refactoring cache (CSV format). */
 	public static final String FILE_EXTENSION_FOR_REFACTORING_CACHE = ".csv";
 
+	/** Extension for the entries of the persistent refactoring cache store. */
+	public static final String FILE_EXTENSION_FOR_PERSISTENT_REFACTORING_CACHE = ".rcache";
+
+	/**
+	 * Folder, under the plugin state location, holding the persistent refactoring
+	 * cache store.
+	 */
+	public static final String REFACTORING_CACHE_STORE_FOLDER = "refactoring-cache";
+
+	/**
+	 * Maximum size in bytes of the persistent refactoring cache store; the least
+	 * recently used entries are evicted beyond this limit.
+	 */
+	public static final long REFACTORING_CACHE_STORE_MAX_BYTES = 64L * 1024 * 1024;
+
+	/**
+	 * When true, the compile check of every simulated extraction, which only
+	 * re-resolves the edited and the extracted method, is verified against a full
+	 * reparse of the unit; disagreements are logged and the full result is used.
+	 */
+	public static final boolean VERIFY_COMPILE_CHECK_WITH_FULL_REPARSE = false;
+
 	/** Extension for the full extraction graph export (DOT format). */
 	public static final String FILE_EXTENSION_FOR_FULL_GRAPH = ".dot";
 
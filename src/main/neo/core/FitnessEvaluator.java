@@ -0,0 +1,139 @@
+package main.neo.core;
+
+import java.util.List;
+
+import main.neo.core.jdt.CodeExtractionMetrics;
+import main.neo.core.refactoringcache.ExtractionMetricsTable;
+import main.neo.core.refactoringcache.RefactoringCache;
+
+/**
+ * Computes the fitness {@link Solution#evaluate} assigns to a list of
+ * sequences, without building the {@link Solution}.
+ * <p>
+ * The metrics the fitness depends on are read field by field from the
+ * {@link ExtractionMetricsTable} of the refactoring cache, and the containment
+ * adjustments of {@link Solution#evaluate} are replayed on per-thread scratch
+ * arrays: neither metrics copies, nor change lists, nor statistics are
+ * allocated. Enumerative searches rank their candidates with this class and
+ * only evaluate the winning {@link Solution}, which materializes its metrics
+ * and statistics.
+ * </p>
+ * <p>
+ * A range missing from the cache is evaluated, as {@link Solution#evaluate}
+ * does, but not added to the cache: instances never write the cache, so they
+ * are thread-safe as long as nothing else writes it concurrently. The parallel
+ * enumerative search caches every candidate range on the calling thread before
+ * its workers rank the candidates.
+ * </p>
+ */
+public final class FitnessEvaluator {
+
+	private final RefactoringCache refactoringCache;
+	private final int initialComplexity;
+	private final int threshold;
+
+	private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+	/**
+	 * Creates the evaluator of the solutions over a refactoring cache.
+	 *
+	 * @param refactoringCache  Cache holding the metrics of the candidate extractions.
+	 * @param initialComplexity Cognitive complexity of the method before refactoring.
+	 * @param threshold         Cognitive complexity threshold of the solutions.
+	 */
+	public FitnessEvaluator(RefactoringCache refactoringCache, int initialComplexity, int threshold) {
+		this.refactoringCache = refactoringCache;
+		this.initialComplexity = initialComplexity;
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Returns the fitness of the solution made of {@code sequences}: the value
+	 * {@link Solution#getFitness()} holds after {@link Solution#evaluate}.
+	 *
+	 * @param sequences The sequences of the solution, in solution order.
+	 * @return The fitness (lower is better), {@link Double#MAX_VALUE} if an
+	 *         extraction is not feasible.
+	 */
+	public double fitness(List<Sequence> sequences) {
+		int size = sequences.size();
+		Scratch s = scratch.get();
+		s.ensureCapacity(size);
+
+		// Load the metrics of every sequence into the scratch arrays
+		ExtractionMetricsTable cache = refactoringCache.cache;
+		for (int i = 0; i < size; i++) {
+			Sequence sequence = sequences.get(i);
+			s.start[i] = sequence.getStartOffset();
+			s.end[i] = sequence.getEndOffset();
+			int index = cache.indexOf(s.start[i], s.end[i]);
+			if (index < 0) {
+				// Evaluates the missing range without caching it: the cache is only read
+				CodeExtractionMetrics metrics = sequence.evaluate();
+				if (metrics == null || !metrics.isFeasible()) {
+					return Double.MAX_VALUE;
+				}
+				s.reduction[i] = metrics.getReductionOfCognitiveComplexity();
+				s.inherent[i] = metrics.getAccumulatedInherentComponent();
+				s.nestingComponent[i] = metrics.getAccumulatedNestingComponent();
+				s.nesting[i] = metrics.getNesting();
+				continue;
+			}
+			if (!cache.isFeasible(index)) {
+				return Double.MAX_VALUE;
+			}
+			s.reduction[i] = cache.reductionOfCognitiveComplexity(index);
+			s.inherent[i] = cache.accumulatedInherentComponent(index);
+			s.nestingComponent[i] = cache.accumulatedNestingComponent(index);
+			s.nesting[i] = cache.nesting(index);
+		}
+
+		// Same order and adjustments as Solution.evaluate: every sequence is
+		// complete once the later sequences it contains have been subtracted
+		double fitness = size;
+		int reducedComplexity = 0;
+		for (int i = size - 1; i >= 0; i--) {
+			int complexityOfNewExtractedMethod = s.inherent[i] + s.nestingComponent[i];
+			if (complexityOfNewExtractedMethod > threshold) {
+				fitness += (complexityOfNewExtractedMethod - threshold) * 10;
+			}
+			reducedComplexity += s.reduction[i];
+
+			for (int parent = i - 1; parent >= 0; parent--) {
+				if (s.start[i] >= s.start[parent] && s.end[i] <= s.end[parent]) {
+					s.reduction[parent] -= s.reduction[i];
+					s.inherent[parent] -= s.inherent[i];
+					s.nestingComponent[parent] = s.nesting[i] - s.nesting[parent];
+				}
+			}
+		}
+
+		int finalMethodComplexity = initialComplexity - reducedComplexity;
+		if (finalMethodComplexity > threshold) {
+			fitness += (finalMethodComplexity - threshold) * 10;
+		}
+		return fitness;
+	}
+
+	/** Working arrays of one thread, grown to the largest solution seen. */
+	private static final class Scratch {
+		int[] start = new int[0];
+		int[] end = new int[0];
+		int[] reduction = new int[0];
+		int[] inherent = new int[0];
+		int[] nestingComponent = new int[0];
+		int[] nesting = new int[0];
+
+		void ensureCapacity(int size) {
+			if (start.length < size) {
+				int capacity = Math.max(size, 2 * start.length);
+				start = new int[capacity];
+				end = new int[capacity];
+				reduction = new int[capacity];
+				inherent = new int[capacity];
+				nestingComponent = new int[capacity];
+				nesting = new int[capacity];
+			}
+		}
+	}
+}
@@ -8,9 +8,10 @@ import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.MethodDeclaration;
 
-import main.neo.app.Constants;
 import main.neo.core.jdt.CodeExtractionMetrics;
 import main.neo.core.jdt.CognitiveComplexityMetrics;
+import main.neo.core.jdt.ComplexityIndex;
+import main.neo.core.jdt.ExtractionPreFilter;
 import main.neo.core.jdt.Utils;
 import main.neo.core.refactoringcache.RefactoringCache;
 
@@ -75,7 +76,8 @@ public class Sequence {
      * Simulates the extraction of this sequence to compute exact metrics.
      * <p>
      * <b>Note:</b> This operation is computationally expensive as it may involve
-     * checking preconditions and simulating AST rewrites. Prefer {@link #evaluate(RefactoringCache)}
+     * checking preconditions and simulating AST rewrites. Ranges rejected by
+     * {@link ExtractionPreFilter} skip that step. Prefer {@link #evaluate(RefactoringCache)}
      * if a cache is available.
      * </p>
      *
@@ -91,8 +93,14 @@ public class Sequence {
         ASTNode endNode = Utils.getStatementOrParent(siblingNodes.get(siblingNodes.size() - 1));
 
         // 1. Base extraction check (Eclipse JDT / Preconditions)
-        // This Utils method instantiates the CodeExtractionMetrics object for us
-        CodeExtractionMetrics result = Utils.checkCodeExtractionBetweenTwoNodes(compilationUnit, startNode, endNode);
+        // Ranges with an obvious syntactic problem are rejected up front, without
+        // creating a working copy; the rest go through the JDT refactoring, which
+        // instantiates the CodeExtractionMetrics object for us
+        ExtractionPreFilter.Reason rejection = ExtractionPreFilter.check(startNode, endNode);
+        CodeExtractionMetrics result = (rejection != null)
+                ? new CodeExtractionMetrics(false, rejection.getMessage(), false, 0, 0,
+                        new ArrayList<>(), new ArrayList<>(), 0L)
+                : Utils.checkCodeExtractionBetweenTwoNodes(compilationUnit, startNode, endNode);
 
         // 2. Compute Cognitive Complexity reductions manually
         int totalReduction = 0;
@@ -101,8 +109,10 @@ public class Sequence {
         int nestingContributors = 0;
         int maxNestingLevel = 0;
 
+        // One lookup per sibling: the metrics of a subtree come from the prefix sums of the index
+        ComplexityIndex index = complexityIndex();
         for (ASTNode node : this.siblingNodes) {
-            CognitiveComplexityMetrics metrics = Utils.computeMetricsIfExtracted(node);
+            CognitiveComplexityMetrics metrics = index.metricsIfExtracted(node);
             
             totalReduction += metrics.getCognitiveComplexityReduction();
             accInherent += metrics.getAccumulatedInherentCognitiveComplexity();
@@ -165,17 +175,31 @@ public class Sequence {
         if (siblingNodes.isEmpty()) {
             return null;
         }
+        return new ExtractionTextRange(getStartOffset(), getEndOffset());
+    }
 
-        ASTNode first = siblingNodes.get(0);
-        ASTNode last = siblingNodes.get(siblingNodes.size() - 1);
+    /**
+     * Start offset of the text range of this sequence, without allocating it.
+     * * @return The offset, or -1 if the sequence is empty.
+     */
+    public int getStartOffset() {
+        if (siblingNodes.isEmpty()) {
+            return -1;
+        }
+        return siblingNodes.get(0).getStartPosition();
+    }
 
+    /**
+     * End offset of the text range of this sequence, without allocating it.
+     * * @return The offset, or -1 if the sequence is empty.
+     */
+    public int getEndOffset() {
+        if (siblingNodes.isEmpty()) {
+            return -1;
+        }
         // Ensure we cover the full statement of the last node
-        ASTNode endNodeStatement = Utils.getStatementOrParent(last);
-        
-        int start = first.getStartPosition();
-        int end = endNodeStatement.getStartPosition() + endNodeStatement.getLength();
-
-        return new ExtractionTextRange(start, end);
+        ASTNode endNodeStatement = Utils.getStatementOrParent(siblingNodes.get(siblingNodes.size() - 1));
+        return endNodeStatement.getStartPosition() + endNodeStatement.getLength();
     }
 
     public List<ASTNode> getSiblingNodes() {
@@ -213,9 +237,8 @@ public class Sequence {
     }
 
     public int getAccumulatedCognitiveComplexity() {
-        return siblingNodes.stream()
-                .mapToInt(node -> Utils.getIntegerPropertyOfNode(node, Constants.ACCUMULATED_CONTRIBUTION_TO_COGNITIVE_COMPLEXITY))
-                .sum();
+        ComplexityIndex index = complexityIndex();
+        return siblingNodes.stream().mapToInt(index::accumulatedContribution).sum();
     }
 
     public int getComplexityWhenExtracted() {
@@ -223,21 +246,22 @@ public class Sequence {
     }
 
     public int getAccumulatedInherentComponent() {
-        return siblingNodes.stream()
-                .mapToInt(node -> Utils.getIntegerPropertyOfNode(node, Constants.ACCUMULATED_INHERENT_COGNITIVE_COMPLEXITY))
-                .sum();
+        ComplexityIndex index = complexityIndex();
+        return siblingNodes.stream().mapToInt(index::accumulatedInherent).sum();
     }
 
     public int getAccumulatedNestingComponent() {
-        return siblingNodes.stream()
-                .mapToInt(node -> Utils.getIntegerPropertyOfNode(node, Constants.ACCUMULATED_NESTING_COGNITIVE_COMPLEXITY))
-                .sum();
+        ComplexityIndex index = complexityIndex();
+        return siblingNodes.stream().mapToInt(index::accumulatedNesting).sum();
     }
 
     public int getNumberNestingContributors() {
-        return siblingNodes.stream()
-                .mapToInt(node -> Utils.getIntegerPropertyOfNode(node, Constants.NUMBER_OF_NESTING_CONTRIBUTORS))
-                .sum();
+        ComplexityIndex index = complexityIndex();
+        return siblingNodes.stream().mapToInt(index::nestingContributors).sum();
+    }
+
+    private ComplexityIndex complexityIndex() {
+        return siblingNodes.isEmpty() ? ComplexityIndex.EMPTY : ComplexityIndex.of(siblingNodes.get(0));
     }
 
     // -------------------------------------------------------------------------
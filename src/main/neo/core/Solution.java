@@ -29,6 +29,7 @@ import org.eclipse.text.edits.TextEdit;
 
 import main.neo.app.Constants;
 import main.neo.core.jdt.CodeExtractionMetrics;
+import main.neo.core.jdt.ComplexityIndex;
 import main.neo.core.jdt.Utils;
 
 /**
@@ -84,8 +85,7 @@ public class Solution {
 		this.compilationUnit = compilationUnit;
 		this.method = methodDeclarationNode;
 		this.methodName = ((MethodDeclaration) this.method).getName().toString();
-		this.initialComplexity = Utils.getIntegerPropertyOfNode(method,
-				Constants.ACCUMULATED_CONTRIBUTION_TO_COGNITIVE_COMPLEXITY);
+		this.initialComplexity = ComplexityIndex.of(method).accumulatedContribution(method);
 		this.fitness = Double.MAX_VALUE;
 	}
 
@@ -144,6 +144,47 @@ public class Solution {
 		this.threshold = other.threshold;
 	}
 
+	/**
+	 * Returns a copy of this solution bound to {@code targetMethod} in
+	 * {@code targetUnit}.
+	 * <p>
+	 * The target method must be textually identical to the method this solution
+	 * was computed on (e.g. the same method re-parsed from another working copy,
+	 * possibly shifted by edits made elsewhere in the file). Every sibling node
+	 * is mapped to the node with the same type and the same offset relative to
+	 * the method start; fitness, feasibility and metrics are carried over as they
+	 * do not depend on absolute offsets.
+	 * </p>
+	 *
+	 * @throws IllegalStateException if a node cannot be found in the target
+	 *                               method
+	 */
+	public Solution relocate(CompilationUnit targetUnit, MethodDeclaration targetMethod) {
+		int delta = targetMethod.getStartPosition() - method.getStartPosition();
+		List<Sequence> relocated = new ArrayList<>(sequenceList.size());
+		for (Sequence sequence : sequenceList) {
+			List<ASTNode> nodes = new ArrayList<>(sequence.getSiblingNodes().size());
+			for (ASTNode node : sequence.getSiblingNodes()) {
+				ASTNode target = Utils.findNode(targetMethod, node.getNodeType(), node.getStartPosition() + delta,
+						node.getLength());
+				if (target == null) {
+					throw new IllegalStateException("Cannot relocate " + sequence + " into method " + methodName);
+				}
+				nodes.add(target);
+			}
+			relocated.add(new Sequence(targetUnit, nodes));
+		}
+
+		Solution result = new Solution(relocated, targetUnit, targetMethod);
+		result.fitness = this.fitness;
+		result.feasible = this.feasible;
+		result.initialComplexity = this.initialComplexity;
+		result.reducedComplexity = this.reducedComplexity;
+		result.extractionMetricsStats = this.extractionMetricsStats;
+		result.threshold = this.threshold;
+		return result;
+	}
+
 	/**
 	 * Configures the cognitive complexity threshold used during fitness
 	 * evaluation.
@@ -396,6 +437,10 @@ public class Solution {
 	 * {@code simCtx.document} and the AST is rebuilt from that document before
 	 * processing the next extraction. The workspace file is never modified.
 	 * </p>
+	 * <p>
+	 * The changes of every extraction are created here, on the current AST: the
+	 * refactoring cache keeps only the scalar metrics of the candidates.
+	 * </p>
 	 */
 	private boolean applyExtractionsInternal(boolean simulate, SimulationContext simCtx)
 			throws CoreException, IOException {
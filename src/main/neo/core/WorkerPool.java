@@ -0,0 +1,78 @@
+package main.neo.core;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import main.neo.app.Constants;
+
+/**
+ * Bounded pool shared by the parallel steps of the analysis of a method: the
+ * concurrent cache fill, the cache prefetch, the parallel enumerative search
+ * and the component solver of the exact model.
+ * <p>
+ * These steps run inside analyses that are already spread over several
+ * threads (one per unit or per method), so a pool of their own per call would
+ * multiply the threads of the outer job by those of the inner step. They all
+ * submit their tasks here instead, and at most {@link Constants#WORKER_THREADS}
+ * of them run at a time, whatever the number of concurrent analyses.
+ * </p>
+ * <p>
+ * Tasks must not wait for other tasks of the pool, which could then deadlock;
+ * only the threads outside the pool do, and not while they keep long-running
+ * tasks of their own in it (the cache prefetch runs alongside a sequential
+ * search). The pool is never shut down: a caller stops its own tasks by
+ * cancelling their futures, and the idle threads are daemons.
+ * </p>
+ */
+public final class WorkerPool {
+
+	private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(Constants.WORKER_THREADS,
+			new ThreadFactory() {
+				private final AtomicInteger count = new AtomicInteger();
+
+				@Override
+				public Thread newThread(Runnable task) {
+					Thread thread = new Thread(task, "Refactorer worker " + count.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+
+	private WorkerPool() {
+	}
+
+	/** @return the shared executor; it must not be shut down. */
+	public static ExecutorService executor() {
+		return EXECUTOR;
+	}
+
+	/**
+	 * Waits for a task of the pool, rethrowing what it threw.
+	 *
+	 * @throws CancellationException if the calling thread is interrupted (its
+	 *                               interrupt status is kept) or the task was
+	 *                               cancelled.
+	 */
+	public static <R> R await(Future<R> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CancellationException("Interrupted while waiting for a worker");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+}
@@ -0,0 +1,291 @@
+package main.neo.core.graphs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import main.neo.core.ExtractionTextRange;
+import main.neo.core.refactoringcache.ExtractionRangeRelations;
+
+/**
+ * Immutable, array-backed view of the refactoring graphs of a method.
+ * <p>
+ * Vertices are identified by their lexicographic position, as in the ILP model:
+ * the root (the whole method body) is {@link #ROOT}, and the candidate
+ * extractions follow in their natural order. Containment is stored as the
+ * Hasse diagram of the no-conflicts graph, in compressed sparse row (CSR) form
+ * in both directions, and conflicts as a sorted adjacency array per vertex.
+ * </p>
+ * <p>
+ * Compared to the JGraphT graphs of a {@link GraphBundle}, there are no edge
+ * objects, boxed indices or hash sets per vertex: the whole structure is a few
+ * {@code int} arrays next to the vertices themselves. Containment between two
+ * vertices is a comparison of offsets, and the transitive queries walk the
+ * adjacency arrays by index.
+ * </p>
+ */
+public final class CompactExtractionGraph {
+
+	/** Index of the root vertex. */
+	public static final int ROOT = 0;
+
+	private final ExtractionVertex[] vertices;
+
+	// CSR arrays: the neighbours of vertex i are at [start[i], start[i + 1])
+	private final int[] parentStart;
+	private final int[] parents;
+	private final int[] childStart;
+	private final int[] children;
+	private final int[] conflictStart;
+	private final int[] conflicts;
+
+	/** Containment closure, computed on first use. */
+	private volatile ContainmentClosureIndex closure;
+
+	/**
+	 * Builds the graph of the given candidate extractions.
+	 *
+	 * @param candidates Feasible extractions, with distinct offsets; the root may be among them.
+	 * @param root       Vertex of the whole method body.
+	 */
+	public CompactExtractionGraph(Collection<ExtractionVertex> candidates, ExtractionVertex root) {
+		List<ExtractionVertex> sorted = new ArrayList<>(candidates.size());
+		ExtractionVertex rootVertex = root;
+		for (ExtractionVertex v : candidates) {
+			if (v.equals(root)) {
+				// Keep the instance of the candidates
+				rootVertex = v;
+			} else {
+				sorted.add(v);
+			}
+		}
+		Collections.sort(sorted);
+
+		int n = sorted.size() + 1;
+		this.vertices = new ExtractionVertex[n];
+		this.vertices[ROOT] = rootVertex;
+		List<ExtractionTextRange> ranges = new ArrayList<>(n - 1);
+		for (int i = 1; i < n; i++) {
+			vertices[i] = sorted.get(i - 1);
+			ranges.add(new ExtractionTextRange(vertices[i].getInitialOffset(), vertices[i].getEndOffset()));
+		}
+
+		ExtractionRangeRelations relations = new ExtractionRangeRelations(ranges);
+
+		// Containment edges (contained -> container), the root containing every maximal vertex
+		int[][] covers = relations.getCovers();
+		int[] from = new int[covers.length + n - 1];
+		int[] to = new int[from.length];
+		int edges = 0;
+		for (int[] cover : covers) {
+			from[edges] = cover[0] + 1;
+			to[edges++] = cover[1] + 1;
+		}
+		for (int i = 1; i < n; i++) {
+			if (!relations.isContained(i - 1)) {
+				from[edges] = i;
+				to[edges++] = ROOT;
+			}
+		}
+		this.parentStart = new int[n + 1];
+		this.parents = csr(n, from, to, edges, parentStart);
+		this.childStart = new int[n + 1];
+		this.children = csr(n, to, from, edges, childStart);
+
+		// Conflict edges, in both directions
+		int[][] pairs = relations.getConflicts();
+		int[] a = new int[2 * pairs.length];
+		int[] b = new int[a.length];
+		for (int k = 0; k < pairs.length; k++) {
+			a[2 * k] = b[2 * k + 1] = pairs[k][0] + 1;
+			b[2 * k] = a[2 * k + 1] = pairs[k][1] + 1;
+		}
+		this.conflictStart = new int[n + 1];
+		this.conflicts = csr(n, a, b, a.length, conflictStart);
+	}
+
+	// =========================================================================
+	// VERTICES
+	// =========================================================================
+
+	/** Returns the number of vertices, the root included. */
+	public int size() {
+		return vertices.length;
+	}
+
+	/** Returns the vertex at lexicographic position {@code i}. */
+	public ExtractionVertex vertex(int i) {
+		return vertices[i];
+	}
+
+	/** Returns the vertices in lexicographic order, the root first. */
+	public List<ExtractionVertex> vertices() {
+		return Collections.unmodifiableList(Arrays.asList(vertices));
+	}
+
+	/**
+	 * Returns the lexicographic position of {@code v}, or {@code -1} if it is not
+	 * a vertex of the graph.
+	 */
+	public int indexOf(ExtractionVertex v) {
+		if (vertices[ROOT].equals(v)) {
+			return ROOT;
+		}
+		int index = Arrays.binarySearch(vertices, 1, vertices.length, v);
+		return index < 0 ? -1 : index;
+	}
+
+	// =========================================================================
+	// CONTAINMENT
+	// =========================================================================
+
+	/** Returns the vertices immediately containing vertex {@code i}, in increasing order. */
+	public int[] parentsOf(int i) {
+		return Arrays.copyOfRange(parents, parentStart[i], parentStart[i + 1]);
+	}
+
+	/** Returns the vertices immediately contained in vertex {@code i}, in increasing order. */
+	public int[] childrenOf(int i) {
+		return Arrays.copyOfRange(children, childStart[i], childStart[i + 1]);
+	}
+
+	/** Checks whether vertex {@code i} strictly contains vertex {@code j}. */
+	public boolean contains(int i, int j) {
+		return i != j && (i == ROOT || vertices[i].contains(vertices[j]));
+	}
+
+	/**
+	 * Returns every vertex contained, directly or not, in vertex {@code i}, in
+	 * increasing order (the {@code previousVertices} of the no-conflicts graph).
+	 */
+	public int[] descendantsOf(int i) {
+		return closure().descendantsOf(i);
+	}
+
+	/**
+	 * Returns the vertices strictly between {@code j} and {@code i}: those
+	 * containing {@code j} and contained in {@code i}, in increasing order.
+	 *
+	 * @param j A vertex contained in {@code i}.
+	 * @param i The outer vertex.
+	 */
+	public int[] between(int j, int i) {
+		return closure().between(j, i);
+	}
+
+	/**
+	 * Returns the transitive closure of containment, computed on first use and
+	 * shared by every solver working on this graph.
+	 */
+	public ContainmentClosureIndex closure() {
+		ContainmentClosureIndex result = closure;
+		if (result == null) {
+			synchronized (this) {
+				result = closure;
+				if (result == null) {
+					closure = result = new ContainmentClosureIndex(this);
+				}
+			}
+		}
+		return result;
+	}
+
+	// Parents of vertex i without copying: parent(k) for k in [firstParent(i), endParent(i))
+	int firstParent(int i) {
+		return parentStart[i];
+	}
+
+	int endParent(int i) {
+		return parentStart[i + 1];
+	}
+
+	int parent(int k) {
+		return parents[k];
+	}
+
+	// =========================================================================
+	// CONFLICTS
+	// =========================================================================
+
+	/** Returns the vertices conflicting with vertex {@code i}, in increasing order. */
+	public int[] conflictsOf(int i) {
+		return Arrays.copyOfRange(conflicts, conflictStart[i], conflictStart[i + 1]);
+	}
+
+	/** Checks whether vertices {@code i} and {@code j} partially overlap. */
+	public boolean conflict(int i, int j) {
+		return Arrays.binarySearch(conflicts, conflictStart[i], conflictStart[i + 1], j) >= 0;
+	}
+
+	// =========================================================================
+	// COMPONENTS
+	// =========================================================================
+
+	/**
+	 * Splits the vertices other than the root into independent components: the
+	 * connected components of containment and conflicts, that is, of the
+	 * vertices whose ranges intersect.
+	 * <p>
+	 * The ranges of a component cover a single span of the method, and the spans
+	 * of different components are disjoint, so no vertex of a component contains
+	 * or conflicts with a vertex of another one. Only the root relates them.
+	 * </p>
+	 *
+	 * @return the vertices of every component in increasing order, the
+	 *         components ordered by offset.
+	 */
+	public int[][] components() {
+		List<int[]> result = new ArrayList<>();
+		int first = 1;
+		int end = Integer.MIN_VALUE;
+		// Vertices are sorted by start offset: a vertex starting after every range
+		// seen so far ends opens a new component
+		for (int i = 1; i < vertices.length; i++) {
+			if (i > first && vertices[i].getInitialOffset() > end) {
+				result.add(range(first, i));
+				first = i;
+			}
+			end = Math.max(end, vertices[i].getEndOffset());
+		}
+		if (first < vertices.length) {
+			result.add(range(first, vertices.length));
+		}
+		return result.toArray(new int[0][]);
+	}
+
+	private static int[] range(int from, int to) {
+		int[] result = new int[to - from];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = from + i;
+		}
+		return result;
+	}
+
+	// =========================================================================
+	// HELPERS
+	// =========================================================================
+
+	/**
+	 * Builds the CSR adjacency of the first {@code edges} edges {@code from[k] -> to[k]},
+	 * filling {@code start} and returning the sorted neighbour array.
+	 */
+	private static int[] csr(int n, int[] from, int[] to, int edges, int[] start) {
+		for (int k = 0; k < edges; k++) {
+			start[from[k] + 1]++;
+		}
+		for (int i = 0; i < n; i++) {
+			start[i + 1] += start[i];
+		}
+		int[] next = Arrays.copyOf(start, n);
+		int[] result = new int[edges];
+		for (int k = 0; k < edges; k++) {
+			result[next[from[k]]++] = to[k];
+		}
+		for (int i = 0; i < n; i++) {
+			Arrays.sort(result, start[i], start[i + 1]);
+		}
+		return result;
+	}
+}
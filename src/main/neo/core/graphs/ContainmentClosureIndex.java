@@ -0,0 +1,135 @@
+package main.neo.core.graphs;
+
+import java.util.Arrays;
+
+/**
+ * Transitive closure of the containment relation of a
+ * {@link CompactExtractionGraph}, computed once and shared by the solvers.
+ * <p>
+ * For every vertex, the index holds its <em>ancestors</em> (the vertices
+ * containing it, the root included) and its <em>descendants</em> (the vertices
+ * it contains, called ancestors by the ILP model, whose edges point from the
+ * contained vertex to its container), as sorted index arrays in compressed
+ * sparse row form. The ancestors of a vertex are collected in one walk up the
+ * Hasse diagram, marking visited vertices with a stamp instead of a set; the
+ * descendants are the transpose. Both cost time and space linear in the size
+ * of the closure.
+ * </p>
+ * <p>
+ * Containment itself is a comparison of offsets, so the vertices strictly
+ * between two nested vertices are read off the ancestors of the inner one, and
+ * the nesting distance between them is the difference of their nesting levels:
+ * neither needs a graph search.
+ * </p>
+ */
+public final class ContainmentClosureIndex {
+
+	private final CompactExtractionGraph graph;
+
+	// CSR arrays: the related vertices of vertex i are at [start[i], start[i + 1])
+	private final int[] ancestorStart;
+	private final int[] ancestors;
+	private final int[] descendantStart;
+	private final int[] descendants;
+
+	/**
+	 * Computes the closure of {@code graph}.
+	 *
+	 * @param graph The graph whose containment is indexed.
+	 */
+	public ContainmentClosureIndex(CompactExtractionGraph graph) {
+		this.graph = graph;
+		int n = graph.size();
+
+		// Ancestors of every vertex, by walking up its parents
+		int[][] up = new int[n][];
+		int[] stamp = new int[n];
+		int[] stack = new int[n];
+		int[] found = new int[n];
+		int total = 0;
+		for (int i = 0; i < n; i++) {
+			int count = 0;
+			int top = 0;
+			stack[top++] = i;
+			while (top > 0) {
+				int current = stack[--top];
+				for (int k = graph.firstParent(current); k < graph.endParent(current); k++) {
+					int parent = graph.parent(k);
+					// Stamps are i + 1, so the zero-initialized array marks nothing
+					if (stamp[parent] != i + 1) {
+						stamp[parent] = i + 1;
+						found[count++] = parent;
+						stack[top++] = parent;
+					}
+				}
+			}
+			up[i] = Arrays.copyOf(found, count);
+			Arrays.sort(up[i]);
+			total += count;
+		}
+
+		this.ancestorStart = new int[n + 1];
+		this.ancestors = new int[total];
+		this.descendantStart = new int[n + 1];
+		for (int i = 0; i < n; i++) {
+			ancestorStart[i + 1] = ancestorStart[i] + up[i].length;
+			System.arraycopy(up[i], 0, ancestors, ancestorStart[i], up[i].length);
+			for (int ancestor : up[i]) {
+				descendantStart[ancestor + 1]++;
+			}
+		}
+
+		// Transpose: visiting vertices in increasing order keeps every row sorted
+		for (int i = 0; i < n; i++) {
+			descendantStart[i + 1] += descendantStart[i];
+		}
+		this.descendants = new int[total];
+		int[] next = Arrays.copyOf(descendantStart, n);
+		for (int i = 0; i < n; i++) {
+			for (int k = ancestorStart[i]; k < ancestorStart[i + 1]; k++) {
+				descendants[next[ancestors[k]]++] = i;
+			}
+		}
+	}
+
+	/** Returns the vertices containing vertex {@code i}, in increasing order. */
+	public int[] ancestorsOf(int i) {
+		return Arrays.copyOfRange(ancestors, ancestorStart[i], ancestorStart[i + 1]);
+	}
+
+	/** Returns the vertices contained in vertex {@code i}, in increasing order. */
+	public int[] descendantsOf(int i) {
+		return Arrays.copyOfRange(descendants, descendantStart[i], descendantStart[i + 1]);
+	}
+
+	/** Returns the number of vertices contained in vertex {@code i}. */
+	public int descendantCount(int i) {
+		return descendantStart[i + 1] - descendantStart[i];
+	}
+
+	/**
+	 * Returns the vertices strictly between {@code j} and {@code i}: those
+	 * containing {@code j} and contained in {@code i}, in increasing order.
+	 *
+	 * @param j A vertex contained in {@code i}.
+	 * @param i The outer vertex.
+	 */
+	public int[] between(int j, int i) {
+		int[] result = new int[ancestorStart[j + 1] - ancestorStart[j]];
+		int count = 0;
+		for (int k = ancestorStart[j]; k < ancestorStart[j + 1]; k++) {
+			if (graph.contains(i, ancestors[k])) {
+				result[count++] = ancestors[k];
+			}
+		}
+		return Arrays.copyOf(result, count);
+	}
+
+	/**
+	 * Returns the nesting distance from {@code i} down to {@code j}, a vertex it
+	 * contains: the nesting level of {@code j} minus that of {@code i}.
+	 */
+	public int nestingDistance(int j, int i) {
+		return graph.vertex(j).getNesting() - graph.vertex(i).getNesting();
+	}
+}
@@ -0,0 +1,310 @@
+package main.neo.core.graphs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Presolve of a {@link CompactExtractionGraph}: removes the candidate
+ * extractions no optimal solution of the model needs, before a solver builds
+ * its model.
+ * <p>
+ * The model (see {@link main.neo.core.solvers.exact.ExactModel}) selects
+ * non-conflicting extractions, always with the root, so that the complexity
+ * left in every selected vertex after removing its selected children is at
+ * most the threshold, and minimises the number of selected vertices. Extracting
+ * a vertex {@code j} right under {@code i} removes
+ * {@code cc(j) + (nesting(j) - nesting(i)) * contributors(j)} from {@code i}.
+ * Three rules remove vertices, each one keeping an optimal solution:
+ * </p>
+ * <ul>
+ * <li><b>Unhelpful:</b> a vertex that removes nothing from any vertex
+ * containing it. Dropping it, with everything selected inside it, from a
+ * solution leaves a cheaper one.</li>
+ * <li><b>Infeasible:</b> a vertex whose own constraint no selection inside it
+ * can meet, however many vertices it takes: it is fixed to 0 by the
+ * threshold.</li>
+ * <li><b>Dominated:</b> of two nested vertices with nothing else between them,
+ * containing and contained by the same vertices and conflicting with the same
+ * ones (ranges that differ only by statements no other candidate starts or
+ * ends in), one whose complexity and nesting are not lower and which removes
+ * no more from any container than the other. Replacing it by the other keeps a
+ * solution valid at the same or lower cost. Equivalent extractions dominate
+ * each other; the inner one is kept.</li>
+ * </ul>
+ * <p>
+ * Every rule walks the containment closure or the Hasse diagram of the graph,
+ * never every pair of vertices.
+ * </p>
+ */
+public final class ExtractionGraphPresolve {
+
+	/**
+	 * Number of vertices each rule removed from a graph.
+	 */
+	public static final class Report {
+		private final int vertices;
+		private final int unhelpful;
+		private final int infeasible;
+		private final int dominated;
+
+		Report(int vertices, int unhelpful, int infeasible, int dominated) {
+			this.vertices = vertices;
+			this.unhelpful = unhelpful;
+			this.infeasible = infeasible;
+			this.dominated = dominated;
+		}
+
+		/** Number of candidate extractions before the presolve, the root excluded. */
+		public int getVertices() {
+			return vertices;
+		}
+
+		public int getUnhelpful() {
+			return unhelpful;
+		}
+
+		public int getInfeasible() {
+			return infeasible;
+		}
+
+		public int getDominated() {
+			return dominated;
+		}
+
+		/** Total number of candidate extractions removed. */
+		public int getRemoved() {
+			return unhelpful + infeasible + dominated;
+		}
+
+		@Override
+		public String toString() {
+			return "Presolve removed " + getRemoved() + " of " + vertices + " vertices (" + unhelpful + " unhelpful, "
+					+ infeasible + " infeasible, " + dominated + " dominated)";
+		}
+	}
+
+	private final int threshold;
+	private CompactExtractionGraph graph;
+	private Report report;
+
+	/**
+	 * @param threshold Cognitive complexity threshold of the model.
+	 */
+	public ExtractionGraphPresolve(int threshold) {
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Removes the unhelpful, infeasible and dominated vertices of a graph.
+	 *
+	 * @param input The graph to reduce; it is not modified.
+	 * @return A graph with the remaining vertices and the same root, or
+	 *         {@code input} itself if nothing was removed.
+	 */
+	public CompactExtractionGraph presolve(CompactExtractionGraph input) {
+		this.graph = input;
+		int vertices = input.size() - 1;
+
+		boolean[] removed = new boolean[input.size()];
+		int unhelpful = removeUnhelpful(removed);
+		int infeasible = removeInfeasible(removed);
+		rebuild(removed);
+
+		removed = new boolean[graph.size()];
+		int dominated = removeDominated(removed);
+		rebuild(removed);
+
+		this.report = new Report(vertices, unhelpful, infeasible, dominated);
+		return report.getRemoved() == 0 ? input : graph;
+	}
+
+	/** @return what the last {@link #presolve} removed, or {@code null} before the first one. */
+	public Report getReport() {
+		return report;
+	}
+
+	// --- Rules ---
+
+	private int removeUnhelpful(boolean[] removed) {
+		ContainmentClosureIndex closure = graph.closure();
+		int count = 0;
+		for (int i = 1; i < graph.size(); i++) {
+			int[] nesting = nestingRange(closure.ancestorsOf(i));
+			ExtractionVertex v = graph.vertex(i);
+			// The removed complexity is linear in the nesting of the container
+			if (weight(v, nesting[0]) <= 0 && weight(v, nesting[1]) <= 0) {
+				removed[i] = true;
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private int removeInfeasible(boolean[] removed) {
+		ContainmentClosureIndex closure = graph.closure();
+		// Contained vertices are strictly shorter: by increasing length, every vertex is
+		// checked after the vertices it contains
+		Integer[] order = new Integer[graph.size() - 1];
+		for (int i = 1; i < graph.size(); i++) {
+			order[i - 1] = i;
+		}
+		Arrays.sort(order, Comparator.comparingInt((Integer i) -> length(graph.vertex(i))));
+
+		int count = 0;
+		for (int i : order) {
+			ExtractionVertex v = graph.vertex(i);
+			int need = v.getComplexityWhenExtracted() - threshold;
+			if (!removed[i] && need > 0 && maxRemovable(closure.descendantsOf(i), v, removed) < need) {
+				removed[i] = true;
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private int removeDominated(boolean[] removed) {
+		ContainmentClosureIndex closure = graph.closure();
+		// Pairs (outer, inner) of the Hasse diagram with no other vertex in between, outer first
+		List<int[]> pairs = new ArrayList<>();
+		for (int i = 1; i < graph.size(); i++) {
+			int[] children = graph.childrenOf(i);
+			if (children.length == 1 && graph.parentsOf(children[0]).length == 1) {
+				pairs.add(new int[] { i, children[0] });
+			}
+		}
+		pairs.sort(Comparator.comparingInt((int[] pair) -> -length(graph.vertex(pair[0]))));
+
+		// A removed vertex is replaced by the vertex that dominated it
+		int[] replacement = new int[graph.size()];
+		for (int i = 0; i < replacement.length; i++) {
+			replacement[i] = i;
+		}
+		int count = 0;
+		for (int[] pair : pairs) {
+			int outer = pair[0];
+			while (replacement[outer] != outer) {
+				outer = replacement[outer];
+			}
+			int inner = pair[1];
+			if (!Arrays.equals(graph.conflictsOf(outer), graph.conflictsOf(inner))) {
+				continue;
+			}
+			int[] nesting = nestingRange(closure.ancestorsOf(outer));
+			if (dominates(inner, outer, nesting)) {
+				removed[outer] = true;
+				replacement[outer] = inner;
+				count++;
+			} else if (dominates(outer, inner, nesting)) {
+				removed[inner] = true;
+				replacement[inner] = outer;
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Whether vertex {@code a} can replace vertex {@code b} in any solution: it
+	 * leaves no more complexity to meet the threshold with the same children, and
+	 * removes at least as much from any container, whose nesting is within
+	 * {@code nesting}.
+	 */
+	private boolean dominates(int a, int b, int[] nesting) {
+		ExtractionVertex va = graph.vertex(a);
+		ExtractionVertex vb = graph.vertex(b);
+		return va.getComplexityWhenExtracted() <= vb.getComplexityWhenExtracted()
+				&& va.getNesting() <= vb.getNesting()
+				&& weight(va, nesting[0]) >= weight(vb, nesting[0])
+				&& weight(va, nesting[1]) >= weight(vb, nesting[1]);
+	}
+
+	// --- Helpers ---
+
+	/**
+	 * Best complexity the vertices among {@code candidates} that are not removed
+	 * can remove from {@code parent} together: a weighted interval scheduling of
+	 * disjoint vertices, at any cost.
+	 */
+	private long maxRemovable(int[] candidates, ExtractionVertex parent, boolean[] removed) {
+		int[] items = new int[candidates.length];
+		int m = 0;
+		for (int j : candidates) {
+			if (!removed[j] && weight(graph.vertex(j), parent.getNesting()) > 0) {
+				items[m++] = j;
+			}
+		}
+		Integer[] byEnd = new Integer[m];
+		for (int k = 0; k < m; k++) {
+			byEnd[k] = items[k];
+		}
+		Arrays.sort(byEnd, Comparator.comparingInt((Integer j) -> graph.vertex(j).getEndOffset()));
+		int[] ends = new int[m];
+		for (int k = 0; k < m; k++) {
+			ends[k] = graph.vertex(byEnd[k]).getEndOffset();
+		}
+
+		// best[k]: best weight of disjoint vertices among the first k by end offset
+		long[] best = new long[m + 1];
+		for (int k = 1; k <= m; k++) {
+			ExtractionVertex v = graph.vertex(byEnd[k - 1]);
+			// Vertices ending before v starts, found by binary search on the end offsets
+			int previous = lowerBound(ends, k - 1, v.getInitialOffset());
+			best[k] = Math.max(best[k - 1], best[previous] + weight(v, parent.getNesting()));
+		}
+		return best[m];
+	}
+
+	/** Number of the first {@code limit} values that are lower than {@code value}. */
+	private static int lowerBound(int[] sorted, int limit, int value) {
+		int low = 0;
+		int high = limit;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (sorted[middle] < value) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/** Lowest and highest nesting of the given vertices. */
+	private int[] nestingRange(int[] vertices) {
+		int min = Integer.MAX_VALUE;
+		int max = Integer.MIN_VALUE;
+		for (int i : vertices) {
+			min = Math.min(min, graph.vertex(i).getNesting());
+			max = Math.max(max, graph.vertex(i).getNesting());
+		}
+		return new int[] { min, max };
+	}
+
+	/** Keeps the vertices not removed, the root always. */
+	private void rebuild(boolean[] removed) {
+		List<ExtractionVertex> kept = new ArrayList<>();
+		for (int i = 1; i < graph.size(); i++) {
+			if (!removed[i]) {
+				kept.add(graph.vertex(i));
+			}
+		}
+		if (kept.size() < graph.size() - 1) {
+			graph = new CompactExtractionGraph(kept, graph.vertex(CompactExtractionGraph.ROOT));
+		}
+	}
+
+	private static int length(ExtractionVertex v) {
+		return v.getEndOffset() - v.getInitialOffset();
+	}
+
+	/**
+	 * Complexity removed from a container with the given nesting by extracting
+	 * {@code v} right under it: the interaction term of the model.
+	 */
+	private static long weight(ExtractionVertex v, int containerNesting) {
+		return v.getComplexityWhenExtracted()
+				+ (long) (v.getNesting() - containerNesting) * v.getNumberNestingContributors();
+	}
+}
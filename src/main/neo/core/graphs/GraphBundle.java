@@ -17,7 +17,13 @@ import org.jgrapht.graph.SimpleGraph;
  * <li><b>No-Conflict Graph:</b> Models compatible code extractions.</li>
  * <li><b>Full Graph:</b> A comprehensive view combining all relationships
  * (optional).</li>
+ * <li><b>Compact Graph:</b> The array-backed view the solvers consume.</li>
  * </ul>
+ * <p>
+ * {@link GraphService#buildGraphs} only fills the compact graph and leaves the
+ * JGraphT views empty; a caller that needs to inspect them fills them with
+ * {@link main.neo.core.refactoringcache.RefactoringCache#getGraphOfFeasibleRefactorings}.
+ * </p>
  */
 public class GraphBundle {
 
@@ -59,6 +65,22 @@ public class GraphBundle {
 	 */
 	public SimpleDirectedWeightedGraph<ExtractionVertex, DefaultWeightedEdge> full = null;
 
+	/**
+	 * The Compact Graph.
+	 * <p>
+	 * Containment and conflicts of the extractions, indexed by lexicographic
+	 * position (see {@link CompactExtractionGraph}). Null if the method body is
+	 * empty.
+	 * </p>
+	 */
+	public CompactExtractionGraph compact = null;
+
+	/**
+	 * What the presolve removed from the compact graph, or null if the graph
+	 * was not presolved.
+	 */
+	public ExtractionGraphPresolve.Report presolve = null;
+
 	/**
 	 * Clears all graph data.
 	 * <p>
@@ -73,5 +95,7 @@ public class GraphBundle {
 			Utils.clear(noConflicts);
 		if (conflicts != null)
 			Utils.clear(conflicts);
+		compact = null;
+		presolve = null;
 	}
 }
\ No newline at end of file
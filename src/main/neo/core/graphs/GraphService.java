@@ -15,24 +15,44 @@ import main.neo.core.refactoringcache.RefactoringCache;
 public class GraphService {
 
 	/**
-	 * Builds the complete set of graphs (Conflict, No-Conflict, Full) from the
-	 * refactoring cache.
+	 * Builds the graph the solvers consume from the refactoring cache.
 	 *
 	 * @param cache the cache containing valid refactoring opportunities
 	 * @param ast   the AST node of the method being analyzed (used to identify the
 	 *              root)
-	 * @return a populated {@link GraphBundle} containing the generated graphs
+	 * @return a {@link GraphBundle} holding the {@link CompactExtractionGraph}
+	 *         (null if the method body is empty) and empty JGraphT views
 	 */
 	public static GraphBundle buildGraphs(RefactoringCache cache, MethodDeclaration ast) {
 		ExtractionVertex root = Utils.getRootForGraphAssociatedToMethodBody(ast);
 
 		GraphBundle bundle = new GraphBundle();
-		bundle.full = cache.getGraphOfFeasibleRefactorings(bundle.noConflicts, bundle.conflicts);
-		// Touching root keeps the contract of identifying the method body, even though
-		// the graphs are no longer exported to disk.
-		if (root != null && bundle.full != null && !bundle.full.containsVertex(root)) {
-			bundle.full.addVertex(root);
+		if (root != null) {
+			bundle.compact = cache.getCompactGraphOfFeasibleRefactorings(root);
 		}
 		return bundle;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Builds the graph the solvers consume from the refactoring cache, without
+	 * the extractions no optimal solution needs (see
+	 * {@link ExtractionGraphPresolve}).
+	 *
+	 * @param cache     the cache containing valid refactoring opportunities
+	 * @param ast       the AST node of the method being analyzed (used to identify
+	 *                  the root)
+	 * @param threshold the cognitive complexity threshold the solvers enforce
+	 * @return a {@link GraphBundle} holding the reduced
+	 *         {@link CompactExtractionGraph} (null if the method body is empty)
+	 *         and the presolve report
+	 */
+	public static GraphBundle buildGraphs(RefactoringCache cache, MethodDeclaration ast, int threshold) {
+		GraphBundle bundle = buildGraphs(cache, ast);
+		if (bundle.compact != null) {
+			ExtractionGraphPresolve presolve = new ExtractionGraphPresolve(threshold);
+			bundle.compact = presolve.presolve(bundle.compact);
+			bundle.presolve = presolve.getReport();
+		}
+		return bundle;
+	}
+}
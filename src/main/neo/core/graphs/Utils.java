@@ -35,7 +35,7 @@ import org.jgrapht.nio.DefaultAttribute;
 import org.jgrapht.nio.ExportException;
 import org.jgrapht.nio.dot.DOTExporter;
 
-import main.neo.app.Constants;
+import main.neo.core.jdt.ComplexityIndex;
 
 /**
  * Utility class for graph processing and analysis.
@@ -380,10 +380,11 @@ public class Utils {
 		Statement lastStmt = (Statement) methodBody.statements().get(methodBody.statements().size() - 1);
 		int endPos = lastStmt.getStartPosition() + lastStmt.getLength();
 
-		// Retrieve pre-calculated properties from AST
-		int inherent = (int) ast.getProperty(Constants.ACCUMULATED_INHERENT_COGNITIVE_COMPLEXITY);
-		int nesting = (int) ast.getProperty(Constants.ACCUMULATED_NESTING_COGNITIVE_COMPLEXITY);
-		int contributors = (int) ast.getProperty(Constants.NUMBER_OF_NESTING_CONTRIBUTORS);
+		// Retrieve pre-calculated metrics from the complexity index of the method
+		ComplexityIndex index = ComplexityIndex.of(ast);
+		int inherent = index.accumulatedInherent(ast);
+		int nesting = index.accumulatedNesting(ast);
+		int contributors = index.nestingContributors(ast);
 
 		return new ExtractionVertex(startPos, endPos, inherent + nesting, inherent, nesting, contributors, 0);
 	}
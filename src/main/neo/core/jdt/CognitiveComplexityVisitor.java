@@ -1,7 +1,6 @@
 package main.neo.core.jdt;
 
 import org.eclipse.jdt.core.dom.*;
-import main.neo.app.Constants;
 import java.util.*;
 
 /**
@@ -18,7 +17,8 @@ import java.util.*;
  * </ul>
  * <p>
  * It computes accumulated metrics for each node to analyze which specific
- * blocks of code contribute most to the total complexity.
+ * blocks of code contribute most to the total complexity, and records them in
+ * the {@link ComplexityIndex} of the method.
  */
 public class CognitiveComplexityVisitor extends ASTVisitor {
 
@@ -32,10 +32,16 @@ public class CognitiveComplexityVisitor extends ASTVisitor {
 	public static class Result {
 		public final int complexity;
 		public final List<Location> locations;
+		public final ComplexityIndex index;
 
-		public Result(int complexity, List<Location> locations) {
+		public Result(int complexity, List<Location> locations, ComplexityIndex index) {
 			this.complexity = complexity;
 			this.locations = locations;
+			this.index = index;
+		}
+
+		public Result(int complexity, List<Location> locations) {
+			this(complexity, locations, ComplexityIndex.EMPTY);
 		}
 
 		public static Result empty() {
@@ -101,6 +107,7 @@ public class CognitiveComplexityVisitor extends ASTVisitor {
 	 */
 	private static class NodeContext {
 		final ASTNode node;
+		final int id;
 		final String specificType;
 		final String message;
 
@@ -116,9 +123,10 @@ public class CognitiveComplexityVisitor extends ASTVisitor {
 		int accRawNesting;
 		int nestingCount;
 
-		public NodeContext(ASTNode node, String specificType, String message, int contribution, int inherent,
+		public NodeContext(ASTNode node, int id, String specificType, String message, int contribution, int inherent,
 				int nestingCost, int nestingLevel) {
 			this.node = node;
+			this.id = id;
 			this.specificType = specificType;
 			this.message = message;
 			this.contribution = contribution;
@@ -138,25 +146,34 @@ public class CognitiveComplexityVisitor extends ASTVisitor {
 	// VISITOR STATE
 	// =========================================================================
 
+	private final ComplexityIndex.Builder index;
 	private final List<Location> locations = new ArrayList<>();
 	private final Set<ASTNode> ignored = new HashSet<>();
 	private final Stack<NodeContext> stack = new Stack<>();
 	private int complexity = 0;
 	private int currentNestingLevel = 0;
 
-	private CognitiveComplexityVisitor() {
+	private CognitiveComplexityVisitor(MethodDeclaration method) {
+		this.index = new ComplexityIndex.Builder(method);
 	}
 
 	/**
 	 * Entry point for calculating the complexity of a method.
+	 * <p>
+	 * The annotations of the nodes are collected in a {@link ComplexityIndex},
+	 * attached to the method once complete.
+	 * </p>
 	 */
 	public static Result methodComplexity(MethodDeclaration method) {
 		if (shouldAnalyzeMethod(method)) {
-			CognitiveComplexityVisitor visitor = new CognitiveComplexityVisitor();
+			CognitiveComplexityVisitor visitor = new CognitiveComplexityVisitor(method);
 			method.accept(visitor);
 
-			method.setProperty(Constants.CONTRIBUTION_TO_COGNITIVE_COMPLEXITY, visitor.complexity);
-			return new Result(visitor.complexity, visitor.locations);
+			// The method itself is annotated with the complexity of its whole body
+			visitor.index.annotate(visitor.index.idOf(method), visitor.complexity, 0, 0, 0);
+			ComplexityIndex index = visitor.index.build();
+			index.attachTo(method);
+			return new Result(visitor.complexity, visitor.locations, index);
 		}
 		return Result.empty();
 	}
@@ -188,7 +205,8 @@ public class CognitiveComplexityVisitor extends ASTVisitor {
 		if (nestingCost > 0) {
 			msg += " (incl " + nestingCost + " for nesting)";
 		}
-		stack.push(new NodeContext(node, specificType, msg, contribution, inherent, nestingCost, level));
+		stack.push(new NodeContext(node, index.idOf(node), specificType, msg, contribution, inherent, nestingCost,
+				level));
 	}
 
 	private void endNode() {
@@ -209,30 +227,19 @@ public class CognitiveComplexityVisitor extends ASTVisitor {
 		if (accumulatedComplexityByNesting < 0)
 			accumulatedComplexityByNesting = 0;
 
-		// 2. Set Standard Properties on the AST Node
-		ctx.node.setProperty(Constants.CONTRIBUTION_TO_COGNITIVE_COMPLEXITY, ctx.contribution);
-		ctx.node.setProperty(Constants.INHERENT_COGNITIVE_COMPLEXITY, ctx.inherent);
-		ctx.node.setProperty(Constants.NESTING_COGNITIVE_COMPLEXITY, ctx.nestingCost);
-		ctx.node.setProperty(Constants.NESTING_LEVEL, ctx.nestingLevel);
+		// 2. Record the Node in the Complexity Index
+		index.annotate(ctx.id, ctx.contribution, ctx.inherent, ctx.nestingCost, ctx.nestingLevel)
+				.accumulate(ctx.id, ctx.accContribution, ctx.accInherent, accumulatedComplexityByNesting,
+						ctx.nestingCount);
 
-		ctx.node.setProperty(Constants.ACCUMULATED_CONTRIBUTION_TO_COGNITIVE_COMPLEXITY, ctx.accContribution);
-		ctx.node.setProperty(Constants.ACCUMULATED_INHERENT_COGNITIVE_COMPLEXITY, ctx.accInherent);
-		ctx.node.setProperty(Constants.ACCUMULATED_NESTING_COGNITIVE_COMPLEXITY, accumulatedComplexityByNesting);
-		ctx.node.setProperty(Constants.NUMBER_OF_NESTING_CONTRIBUTORS, ctx.nestingCount);
-
-		// 3. Set properties for transparent containers
-		if (ctx.contribution == 0) {
-			ctx.node.setProperty(Constants.COGNITIVE_COMPLEXITY_OF_NESTED_CODE, ctx.accContribution);
-		}
-
-		// 4. Create Location entry
+		// 3. Create Location entry
 		if (ctx.contribution > 0) {
 			locations.add(new Location(ctx.message, ctx.node, ctx.specificType, ctx.contribution, ctx.inherent,
 					ctx.nestingCost, ctx.nestingLevel, ctx.accContribution, ctx.accInherent,
 					accumulatedComplexityByNesting, ctx.nestingCount));
 		}
 
-		// 5. Propagate totals to parent
+		// 4. Propagate totals to parent
 		if (!stack.isEmpty()) {
 			NodeContext parent = stack.peek();
 			parent.accContribution += ctx.accContribution;
@@ -438,22 +445,15 @@ public class CognitiveComplexityVisitor extends ASTVisitor {
 				previous = current;
 			}
 
-			// 2. Apply properties AND update Stack manually
+			// 2. Record the operators in the index AND update Stack manually
 			for (Map.Entry<InfixExpression, Integer> entry : nodeTotals.entrySet()) {
 				InfixExpression expr = entry.getKey();
 				int totalCost = entry.getValue();
 
 				complexity += totalCost;
 
-				expr.setProperty(Constants.CONTRIBUTION_TO_COGNITIVE_COMPLEXITY, totalCost);
-				expr.setProperty(Constants.INHERENT_COGNITIVE_COMPLEXITY, totalCost);
-				expr.setProperty(Constants.NESTING_COGNITIVE_COMPLEXITY, 0);
-				expr.setProperty(Constants.NESTING_LEVEL, currentNestingLevel);
-
-				expr.setProperty(Constants.ACCUMULATED_CONTRIBUTION_TO_COGNITIVE_COMPLEXITY, 0);
-				expr.setProperty(Constants.ACCUMULATED_INHERENT_COGNITIVE_COMPLEXITY, 0);
-				expr.setProperty(Constants.ACCUMULATED_NESTING_COGNITIVE_COMPLEXITY, 0);
-				expr.setProperty(Constants.NUMBER_OF_NESTING_CONTRIBUTORS, 0);
+				int id = index.idOf(expr);
+				index.annotate(id, totalCost, totalCost, 0, currentNestingLevel).accumulate(id, 0, 0, 0, 0);
 
 				if (!stack.isEmpty()) {
 					NodeContext parentCtx = stack.peek();
@@ -0,0 +1,371 @@
+package main.neo.core.jdt;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+
+/**
+ * Immutable table of the cognitive complexity annotations of the nodes of a
+ * method, computed by {@link CognitiveComplexityVisitor}.
+ * <p>
+ * Every node of the method gets an id in pre-order, so the descendants of a
+ * node are the ids in {@code (id, subtreeEnd(id))}. The annotations are
+ * parallel {@code int} arrays addressed by id: reading one is an identity
+ * lookup and an array access, with no property list scan and no boxing. Nodes
+ * the visitor did not annotate read as zero, like a missing property did.
+ * </p>
+ * <p>
+ * The pre-order is the entry order of an Euler tour of the method, so the
+ * index also keeps prefix sums, over the ids, of the quantities the metrics of
+ * an extraction add up: contributions, nesting levels and counts of the nodes
+ * paying a nesting penalty. {@link #metricsIfExtracted(int)} sums a whole
+ * subtree with a few subtractions, whatever its size and depth.
+ * </p>
+ * <p>
+ * The AST is not written to at all: the index of a method is kept in a side
+ * table keyed by its declaration, which does not keep the AST alive, and
+ * {@link #of(ASTNode)} finds it from any node of the method. Once built, an
+ * index is only read, so analyses running concurrently over the same method
+ * can share it.
+ * </p>
+ */
+public final class ComplexityIndex {
+
+	/** Index of the nodes outside of any analysed method: every annotation is zero. */
+	public static final ComplexityIndex EMPTY = new Builder(null).build();
+
+	/**
+	 * Index of every analysed method. AST nodes compare by identity, and a
+	 * method collected with its AST drops its entry.
+	 */
+	private static final Map<MethodDeclaration, ComplexityIndex> INDICES = Collections
+			.synchronizedMap(new WeakHashMap<>());
+
+	private final Map<ASTNode, Integer> ids;
+	private final ASTNode[] nodes;
+	private final int[] subtreeEnd;
+	private final boolean[] annotated;
+
+	// Annotations of the node itself
+	private final int[] contribution;
+	private final int[] inherent;
+	private final int[] nestingCost;
+	private final int[] nestingLevel;
+
+	// Annotations of the node and its descendants
+	private final int[] accumulatedContribution;
+	private final int[] accumulatedInherent;
+	private final int[] accumulatedNesting;
+	private final int[] nestingContributors;
+
+	/** Nodes whose nesting level adds to their contribution, as for {@code if} or loops. */
+	private final boolean[] paysNestingPenalty;
+
+	// Prefix sums over the ids: the sum over the ids [a, b) is prefix[b] - prefix[a]
+	private final int[] contributionPrefix;
+	private final int[] penaltyPrefix;
+	private final int[] penaltyLevelPrefix;
+	private final int[] topLevelPenaltyPrefix;
+
+	private ComplexityIndex(Builder builder) {
+		// The numbering is final once the builder is created; the annotations are copied
+		this.ids = builder.ids;
+		this.nodes = builder.nodes;
+		this.subtreeEnd = builder.subtreeEnd;
+		this.annotated = builder.annotated.clone();
+		this.contribution = builder.contribution.clone();
+		this.inherent = builder.inherent.clone();
+		this.nestingCost = builder.nestingCost.clone();
+		this.nestingLevel = builder.nestingLevel.clone();
+		this.accumulatedContribution = builder.accumulatedContribution.clone();
+		this.accumulatedInherent = builder.accumulatedInherent.clone();
+		this.accumulatedNesting = builder.accumulatedNesting.clone();
+		this.nestingContributors = builder.nestingContributors.clone();
+
+		int size = nodes.length;
+		this.paysNestingPenalty = new boolean[size];
+		this.contributionPrefix = new int[size + 1];
+		this.penaltyPrefix = new int[size + 1];
+		this.penaltyLevelPrefix = new int[size + 1];
+		this.topLevelPenaltyPrefix = new int[size + 1];
+		for (int id = 0; id < size; id++) {
+			boolean pays = annotated[id] && Utils.paysNestingPenalty(nodes[id]);
+			paysNestingPenalty[id] = pays;
+			contributionPrefix[id + 1] = contributionPrefix[id] + (annotated[id] ? contribution[id] : 0);
+			penaltyPrefix[id + 1] = penaltyPrefix[id] + (pays ? 1 : 0);
+			penaltyLevelPrefix[id + 1] = penaltyLevelPrefix[id] + (pays ? nestingLevel[id] : 0);
+			topLevelPenaltyPrefix[id + 1] = topLevelPenaltyPrefix[id] + (pays && nestingLevel[id] == 0 ? 1 : 0);
+		}
+	}
+
+	/**
+	 * Returns the index of the analysed method enclosing {@code node} (or declared
+	 * by it), or {@link #EMPTY} if the method has not been analysed.
+	 */
+	public static ComplexityIndex of(ASTNode node) {
+		for (ASTNode current = node; current != null; current = current.getParent()) {
+			if (current instanceof MethodDeclaration) {
+				ComplexityIndex index = INDICES.get(current);
+				if (index != null) {
+					return index;
+				}
+			}
+		}
+		return EMPTY;
+	}
+
+	/**
+	 * Attaches this index to the method it was built for, replacing the one of
+	 * an earlier analysis. The method itself is not modified.
+	 */
+	public void attachTo(MethodDeclaration method) {
+		INDICES.put(method, this);
+	}
+
+	// =========================================================================
+	// NODES
+	// =========================================================================
+
+	/** Returns the number of nodes of the method. */
+	public int size() {
+		return nodes.length;
+	}
+
+	/** Returns the id of {@code node}, or {@code -1} if it is not a node of the method. */
+	public int idOf(ASTNode node) {
+		Integer id = ids.get(node);
+		return id == null ? -1 : id;
+	}
+
+	public ASTNode node(int id) {
+		return nodes[id];
+	}
+
+	/** Returns the id following the last descendant of node {@code id}. */
+	public int subtreeEnd(int id) {
+		return subtreeEnd[id];
+	}
+
+	/** Checks whether node {@code id} contributes to the cognitive complexity. */
+	public boolean isAnnotated(int id) {
+		return annotated[id];
+	}
+
+	public boolean isAnnotated(ASTNode node) {
+		int id = idOf(node);
+		return id >= 0 && annotated[id];
+	}
+
+	// =========================================================================
+	// ANNOTATIONS BY ID
+	// =========================================================================
+
+	/** Complexity added by the node: inherent plus nesting penalty. */
+	public int contribution(int id) {
+		return contribution[id];
+	}
+
+	public int inherent(int id) {
+		return inherent[id];
+	}
+
+	/** Penalty paid by the node for its nesting. */
+	public int nestingCost(int id) {
+		return nestingCost[id];
+	}
+
+	/** Nesting depth of the node relative to the method. */
+	public int nestingLevel(int id) {
+		return nestingLevel[id];
+	}
+
+	/** Sum of the contributions of the node and its descendants. */
+	public int accumulatedContribution(int id) {
+		return accumulatedContribution[id];
+	}
+
+	/** Sum of the inherent complexities of the node and its descendants. */
+	public int accumulatedInherent(int id) {
+		return accumulatedInherent[id];
+	}
+
+	/** Nesting penalties of the descendants, relative to the node. */
+	public int accumulatedNesting(int id) {
+		return accumulatedNesting[id];
+	}
+
+	/** Number of nodes, the node included, paying a nesting penalty. */
+	public int nestingContributors(int id) {
+		return nestingContributors[id];
+	}
+
+	/** Checks whether the contribution of node {@code id} includes its nesting level. */
+	public boolean paysNestingPenalty(int id) {
+		return paysNestingPenalty[id];
+	}
+
+	// =========================================================================
+	// EXTRACTION METRICS
+	// =========================================================================
+
+	/**
+	 * Returns the metrics of the method that extracting node {@code id} would
+	 * create, as {@link Utils#computeMetricsIfExtracted(ASTNode)} defines them.
+	 * <p>
+	 * The nodes of the subtree keep their inherent complexity, and those paying a
+	 * nesting penalty pay it from the nesting level {@code b} of the extracted
+	 * node (nesting levels never decrease from a node to its descendants). Over
+	 * the subtree:
+	 * </p>
+	 * <ul>
+	 * <li>reduction = sum of the contributions;</li>
+	 * <li>inherent = reduction - sum of the levels of the penalty payers;</li>
+	 * <li>new complexity = reduction - b * number of penalty payers;</li>
+	 * <li>nesting contributors = penalty payers, but those at level 0 when
+	 * {@code b} is 0.</li>
+	 * </ul>
+	 */
+	public CognitiveComplexityMetrics metricsIfExtracted(int id) {
+		int end = subtreeEnd[id];
+		int baseLevel = nestingLevel[id];
+		int reduction = contributionPrefix[end] - contributionPrefix[id];
+		int payers = penaltyPrefix[end] - penaltyPrefix[id];
+		int payerLevels = penaltyLevelPrefix[end] - penaltyLevelPrefix[id];
+
+		int inherent = reduction - payerLevels;
+		int newComplexity = reduction - baseLevel * payers;
+		int contributors = (baseLevel > 0) ? payers
+				: payers - (topLevelPenaltyPrefix[end] - topLevelPenaltyPrefix[id]);
+		return new CognitiveComplexityMetrics(inherent, newComplexity - inherent, newComplexity, reduction,
+				contributors, baseLevel);
+	}
+
+	/** Same as {@link #metricsIfExtracted(int)}, all zero for a node outside of the method. */
+	public CognitiveComplexityMetrics metricsIfExtracted(ASTNode node) {
+		int id = idOf(node);
+		return id < 0 ? new CognitiveComplexityMetrics(0, 0, 0, 0, 0, 0) : metricsIfExtracted(id);
+	}
+
+	// =========================================================================
+	// ANNOTATIONS BY NODE (zero for nodes outside of the method)
+	// =========================================================================
+
+	public int accumulatedContribution(ASTNode node) {
+		int id = idOf(node);
+		return id < 0 ? 0 : accumulatedContribution[id];
+	}
+
+	public int accumulatedInherent(ASTNode node) {
+		int id = idOf(node);
+		return id < 0 ? 0 : accumulatedInherent[id];
+	}
+
+	public int accumulatedNesting(ASTNode node) {
+		int id = idOf(node);
+		return id < 0 ? 0 : accumulatedNesting[id];
+	}
+
+	public int nestingContributors(ASTNode node) {
+		int id = idOf(node);
+		return id < 0 ? 0 : nestingContributors[id];
+	}
+
+	// =========================================================================
+	// BUILDER
+	// =========================================================================
+
+	/**
+	 * Numbers the nodes of a method and collects their annotations. A builder is
+	 * confined to the thread analysing the method; the indexes it builds are
+	 * immutable.
+	 */
+	public static final class Builder {
+
+		private final Map<ASTNode, Integer> ids = new IdentityHashMap<>();
+		private ASTNode[] nodes;
+		private int[] subtreeEnd;
+		private final boolean[] annotated;
+		private final int[] contribution;
+		private final int[] inherent;
+		private final int[] nestingCost;
+		private final int[] nestingLevel;
+		private final int[] accumulatedContribution;
+		private final int[] accumulatedInherent;
+		private final int[] accumulatedNesting;
+		private final int[] nestingContributors;
+
+		/** Numbers the nodes of {@code root} in pre-order, none of them annotated. */
+		public Builder(ASTNode root) {
+			nodes = new ASTNode[16];
+			subtreeEnd = new int[16];
+			if (root != null) {
+				root.accept(new ASTVisitor() {
+					@Override
+					public void preVisit(ASTNode node) {
+						int id = ids.size();
+						if (id == nodes.length) {
+							nodes = Arrays.copyOf(nodes, 2 * id);
+							subtreeEnd = Arrays.copyOf(subtreeEnd, 2 * id);
+						}
+						ids.put(node, id);
+						nodes[id] = node;
+					}
+
+					@Override
+					public void postVisit(ASTNode node) {
+						subtreeEnd[ids.get(node)] = ids.size();
+					}
+				});
+			}
+
+			int size = ids.size();
+			nodes = Arrays.copyOf(nodes, size);
+			subtreeEnd = Arrays.copyOf(subtreeEnd, size);
+			annotated = new boolean[size];
+			contribution = new int[size];
+			inherent = new int[size];
+			nestingCost = new int[size];
+			nestingLevel = new int[size];
+			accumulatedContribution = new int[size];
+			accumulatedInherent = new int[size];
+			accumulatedNesting = new int[size];
+			nestingContributors = new int[size];
+		}
+
+		/** Returns the id of {@code node}, or {@code -1} if it is not a node of the root. */
+		public int idOf(ASTNode node) {
+			Integer id = ids.get(node);
+			return id == null ? -1 : id;
+		}
+
+		/** Sets the annotations of node {@code id} itself. */
+		public Builder annotate(int id, int contribution, int inherent, int nestingCost, int nestingLevel) {
+			this.annotated[id] = true;
+			this.contribution[id] = contribution;
+			this.inherent[id] = inherent;
+			this.nestingCost[id] = nestingCost;
+			this.nestingLevel[id] = nestingLevel;
+			return this;
+		}
+
+		/** Sets the annotations of node {@code id} and its descendants. */
+		public Builder accumulate(int id, int contribution, int inherent, int nesting, int contributors) {
+			this.annotated[id] = true;
+			this.accumulatedContribution[id] = contribution;
+			this.accumulatedInherent[id] = inherent;
+			this.accumulatedNesting[id] = nesting;
+			this.nestingContributors[id] = contributors;
+			return this;
+		}
+
+		public ComplexityIndex build() {
+			return new ComplexityIndex(this);
+		}
+	}
+}
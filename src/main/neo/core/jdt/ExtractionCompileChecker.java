@@ -0,0 +1,287 @@
+package main.neo.core.jdt;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.Position;
+import org.eclipse.text.edits.MalformedTreeException;
+import org.eclipse.text.edits.TextEdit;
+
+import main.neo.app.Constants;
+
+/**
+ * Checks whether a simulated method extraction still compiles.
+ * <p>
+ * A full check reparses the whole edited unit with bindings, which on large
+ * files dominates the time spent filling the refactoring cache. An extraction
+ * only touches the method the code is extracted from and adds the extracted
+ * method, so this checker replaces the body of every other method with
+ * {@code { throw null; }} before resolving: their declarations (and therefore
+ * the bindings everything else depends on) are kept, but their statements are
+ * not resolved again for every candidate. Constructors, initializers and field
+ * declarations are left untouched. The "did it compile before?" check reuses
+ * the problems of the resolved AST the extraction was computed on instead of
+ * resolving the unit once more.
+ * </p>
+ * <p>
+ * The shortcut is only taken when the unit compiled before the extraction;
+ * otherwise (or if the stubbed ranges cannot be mapped onto the edited source)
+ * the full reparse is used, so the verdict never differs from the previous
+ * behaviour. Setting {@link Constants#VERIFY_COMPILE_CHECK_WITH_FULL_REPARSE}
+ * cross-checks every verdict against the full reparse.
+ * </p>
+ * <p>
+ * One checker is kept per Java project, holding the compiler options used for
+ * every parse of that project and the outcome of the "did it compile before?"
+ * check, keyed by unit and source. That outcome depends on the rest of the
+ * project too, so while the plug-in is running ({@link #install()}) a
+ * project's checker is dropped on every Java model change of the project:
+ * edited or saved units, classpath or container changes, closing or removal.
+ * A checker whose project options changed since it was created is replaced
+ * on its next use. Without the listener no checker is cached.
+ * </p>
+ */
+public final class ExtractionCompileChecker {
+
+	private static final Logger LOGGER = Logger.getLogger(ExtractionCompileChecker.class.getName());
+
+	/** Body replacing the bodies of the methods not affected by the extraction. */
+	static final String STUB_BODY = "{ throw null; }";
+
+	/** Bound on the remembered baselines; they are all forgotten beyond it. */
+	private static final int MAX_BASELINES = 256;
+
+	private static final Map<IJavaProject, ExtractionCompileChecker> CHECKERS = new ConcurrentHashMap<>();
+
+	/** Drops the checkers of the projects changed in the Java model. */
+	private static final IElementChangedListener INVALIDATOR = event -> {
+		for (IJavaElementDelta delta : event.getDelta().getAffectedChildren()) {
+			if (delta.getElement() instanceof IJavaProject) {
+				CHECKERS.remove(delta.getElement());
+			}
+		}
+	};
+
+	private static volatile boolean installed;
+
+	private final IJavaProject project;
+	private final Map<String, String> compilerOptions;
+
+	/** Whether the unit compiled before the extraction, keyed by handle and source. */
+	private final Map<String, Boolean> baselineErrors = new ConcurrentHashMap<>();
+
+	private ExtractionCompileChecker(IJavaProject project) {
+		this.project = project;
+		this.compilerOptions = project.getOptions(true);
+	}
+
+	/**
+	 * Returns the checker of {@code project}, creating it on first use or when
+	 * the compiler options of the project changed.
+	 */
+	public static ExtractionCompileChecker forProject(IJavaProject project) {
+		if (!installed) {
+			return new ExtractionCompileChecker(project);
+		}
+		Map<String, String> options = project.getOptions(true);
+		return CHECKERS.compute(project, (key, checker) -> checker != null && checker.compilerOptions.equals(options)
+				? checker
+				: new ExtractionCompileChecker(project));
+	}
+
+	/**
+	 * Starts caching checkers, dropping them on Java model changes. Called when
+	 * the plug-in starts.
+	 */
+	public static void install() {
+		JavaCore.addElementChangedListener(INVALIDATOR, ElementChangedEvent.POST_CHANGE);
+		installed = true;
+	}
+
+	/** Stops caching checkers and drops the cached ones. */
+	public static void uninstall() {
+		installed = false;
+		JavaCore.removeElementChangedListener(INVALIDATOR);
+		CHECKERS.clear();
+	}
+
+	// =========================================================================
+	// COMPILE CHECK
+	// =========================================================================
+
+	/**
+	 * Applies a copy of {@code edit} to the source of {@code workingCopy} and
+	 * checks whether the result has compilation errors. {@code edit} itself is
+	 * left pristine, so callers can apply it later on their own document.
+	 *
+	 * @param workingCopy  unit the extraction was computed on
+	 * @param originalUnit AST of {@code workingCopy} before the extraction
+	 * @param editedMethod outermost method containing the extracted code, or
+	 *                     {@code null} if unknown
+	 * @param edit         text edit of the extraction
+	 * @return {@code true} if the edited unit does not compile
+	 */
+	public boolean hasCompilationErrors(ICompilationUnit workingCopy, CompilationUnit originalUnit,
+			MethodDeclaration editedMethod, TextEdit edit) throws CoreException, BadLocationException {
+		String source = workingCopy.getSource();
+
+		String stubbed = null;
+		if (editedMethod != null && !compiledWithErrors(workingCopy, originalUnit, source)) {
+			stubbed = applyAndStub(source, edit, stubRanges(originalUnit, editedMethod));
+		}
+		if (stubbed == null) {
+			return reparseWithErrors(workingCopy, apply(source, edit));
+		}
+
+		boolean errors = Utils.builtWithCompilationErrors(parse(workingCopy, stubbed));
+		if (Constants.VERIFY_COMPILE_CHECK_WITH_FULL_REPARSE) {
+			boolean fullErrors = reparseWithErrors(workingCopy, apply(source, edit));
+			if (fullErrors != errors) {
+				LOGGER.log(Level.WARNING, "Stubbed compile check of {0} disagrees with full reparse ({1} vs {2})",
+						new Object[] { workingCopy.getElementName(), errors, fullErrors });
+			}
+			return fullErrors;
+		}
+		return errors;
+	}
+
+	/**
+	 * Whether the unit had errors before the extraction. The resolved AST the
+	 * extraction was computed on already answers that, so its problems are
+	 * reused; a unit parsed without bindings is resolved once per source.
+	 */
+	private boolean compiledWithErrors(ICompilationUnit workingCopy, CompilationUnit originalUnit, String source)
+			throws CoreException {
+		if (originalUnit.getAST().hasResolvedBindings() && originalUnit.getLength() == source.length()) {
+			return Utils.builtWithCompilationErrors(originalUnit);
+		}
+		String key = workingCopy.getHandleIdentifier() + '#' + source.length() + '#' + source.hashCode();
+		Boolean errors = baselineErrors.get(key);
+		if (errors == null) {
+			errors = Utils.builtWithCompilationErrors(parse(workingCopy, source));
+			if (baselineErrors.size() >= MAX_BASELINES) {
+				baselineErrors.clear();
+			}
+			baselineErrors.put(key, errors);
+		}
+		return errors;
+	}
+
+	private boolean reparseWithErrors(ICompilationUnit workingCopy, String source) throws CoreException {
+		return Utils.builtWithCompilationErrors(parse(workingCopy, source));
+	}
+
+	private CompilationUnit parse(ICompilationUnit workingCopy, String source) {
+		ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
+		parser.setKind(ASTParser.K_COMPILATION_UNIT);
+		parser.setProject(project);
+		parser.setCompilerOptions(compilerOptions);
+		parser.setUnitName(workingCopy.getElementName());
+		parser.setSource(source.toCharArray());
+		parser.setResolveBindings(true);
+		parser.setBindingsRecovery(true);
+		return (CompilationUnit) parser.createAST(new NullProgressMonitor());
+	}
+
+	// =========================================================================
+	// STUBBING
+	// =========================================================================
+
+	private static String apply(String source, TextEdit edit) throws BadLocationException {
+		Document document = new Document(source);
+		edit.copy().apply(document);
+		return document.get();
+	}
+
+	/**
+	 * Returns the body ranges, in the original source, of the methods whose
+	 * bodies can be stubbed: every method with a body except constructors, the
+	 * edited method, the methods enclosing it and the methods nested in another
+	 * stubbed or kept method.
+	 */
+	public static List<Position> stubRanges(CompilationUnit unit, ASTNode editedMethod) {
+		int keptStart = editedMethod.getStartPosition();
+		int keptEnd = keptStart + editedMethod.getLength();
+		List<Position> ranges = new ArrayList<>();
+
+		unit.accept(new ASTVisitor() {
+			@Override
+			public boolean visit(MethodDeclaration node) {
+				int start = node.getStartPosition();
+				int end = start + node.getLength();
+				if (end <= keptStart || start >= keptEnd) {
+					if (!node.isConstructor() && node.getBody() != null) {
+						ranges.add(new Position(node.getBody().getStartPosition(), node.getBody().getLength()));
+						return false;
+					}
+					return true;
+				}
+				// Keep the edited method and everything nested in it, but look
+				// inside the methods enclosing it
+				return start != keptStart || end != keptEnd;
+			}
+		});
+		return ranges;
+	}
+
+	/**
+	 * Applies a copy of {@code edit} to {@code source}, then replaces every range
+	 * of {@code stubs} (given in the original source and tracked through the
+	 * edit) by {@link #STUB_BODY}.
+	 *
+	 * @return the stubbed edited source, or {@code null} if the edit touched one
+	 *         of the ranges
+	 */
+	public static String applyAndStub(String source, TextEdit edit, List<Position> stubs)
+			throws BadLocationException {
+		Document document = new Document(source);
+		for (Position stub : stubs) {
+			document.addPosition(stub);
+		}
+		try {
+			edit.copy().apply(document);
+		} catch (MalformedTreeException e) {
+			return null;
+		}
+
+		List<Position> tracked = new ArrayList<>(stubs);
+		tracked.sort(Comparator.comparingInt(Position::getOffset).reversed());
+		for (Position stub : tracked) {
+			document.removePosition(stub);
+		}
+		String edited = document.get();
+		StringBuilder result = new StringBuilder(edited);
+		int previousStart = Integer.MAX_VALUE;
+		for (Position stub : tracked) {
+			if (stub.isDeleted() || stub.getLength() < 2 || stub.getOffset() + stub.getLength() > previousStart
+					|| edited.charAt(stub.getOffset()) != '{'
+					|| edited.charAt(stub.getOffset() + stub.getLength() - 1) != '}') {
+				return null;
+			}
+			result.replace(stub.getOffset(), stub.getOffset() + stub.getLength(), STUB_BODY);
+			previousStart = stub.getOffset();
+		}
+		return result.toString();
+	}
+}
@@ -0,0 +1,504 @@
+package main.neo.core.jdt;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.AnonymousClassDeclaration;
+import org.eclipse.jdt.core.dom.Assignment;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.BodyDeclaration;
+import org.eclipse.jdt.core.dom.BreakStatement;
+import org.eclipse.jdt.core.dom.ChildListPropertyDescriptor;
+import org.eclipse.jdt.core.dom.ContinueStatement;
+import org.eclipse.jdt.core.dom.DoStatement;
+import org.eclipse.jdt.core.dom.EmptyStatement;
+import org.eclipse.jdt.core.dom.EnhancedForStatement;
+import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.ExpressionStatement;
+import org.eclipse.jdt.core.dom.ForStatement;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.LabeledStatement;
+import org.eclipse.jdt.core.dom.LambdaExpression;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.PostfixExpression;
+import org.eclipse.jdt.core.dom.PrefixExpression;
+import org.eclipse.jdt.core.dom.PrimitiveType;
+import org.eclipse.jdt.core.dom.ReturnStatement;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
+import org.eclipse.jdt.core.dom.Statement;
+import org.eclipse.jdt.core.dom.SwitchStatement;
+import org.eclipse.jdt.core.dom.ThrowStatement;
+import org.eclipse.jdt.core.dom.TypeDeclarationStatement;
+import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
+import org.eclipse.jdt.core.dom.VariableDeclarationStatement;
+import org.eclipse.jdt.core.dom.WhileStatement;
+
+/**
+ * Cheap syntactic check run before a candidate extraction is handed to the JDT
+ * {@code ExtractMethodRefactoring}.
+ * <p>
+ * Most candidate ranges are rejected by the JDT refactoring for reasons that
+ * can be read straight off the AST. This class recognises three of them and
+ * reports them with a {@link Reason} code, so the (expensive) working copy,
+ * precondition checks, change creation and re-parse are skipped:
+ * </p>
+ * <ul>
+ * <li>{@link Reason#BRANCH_TARGET_NOT_SELECTED}: a {@code break} or
+ * {@code continue} jumps out of the range and JDT cannot turn it into a
+ * {@code return}.</li>
+ * <li>{@link Reason#AMBIGUOUS_RETURN_VALUE}: the range assigns two or more
+ * locals declared outside it that the following statements read before
+ * writing.</li>
+ * <li>{@link Reason#PARTIAL_RETURN}: the range of a non-void method contains a
+ * {@code return} but ends with a statement that always completes normally.</li>
+ * </ul>
+ * <p>
+ * The check is deliberately conservative: every rule only fires when the JDT
+ * flow analysis is certain to report the same fatal error, and anything it is
+ * not sure about (missing bindings, nested lambdas or local classes, code
+ * after a {@code throw}) is passed on to JDT. A {@code null} result therefore
+ * means "ask JDT", never "feasible".
+ * </p>
+ */
+public final class ExtractionPreFilter {
+
+	/**
+	 * Reasons for which a range is rejected. The messages mirror the ones
+	 * reported by the JDT refactoring for the same problem.
+	 */
+	public enum Reason {
+		BRANCH_TARGET_NOT_SELECTED(
+				"Selection contains branch statement but corresponding branch target is not selected."),
+		AMBIGUOUS_RETURN_VALUE(
+				"Ambiguous return value: Selected block contains more than one assignment to local variables used in subsequent code."),
+		PARTIAL_RETURN(
+				"Selected statements contain a return statement but not all possible execution flows end in a return.");
+
+		private final String message;
+
+		Reason(String message) {
+			this.message = message;
+		}
+
+		public String getMessage() {
+			return message;
+		}
+	}
+
+	private ExtractionPreFilter() {
+		// utility class
+	}
+
+	/**
+	 * Checks the range of sibling statements going from {@code first} to
+	 * {@code last} (both inclusive).
+	 *
+	 * @return the reason why JDT would reject the range, or {@code null} if the
+	 *         range has to be checked by JDT
+	 */
+	public static Reason check(ASTNode first, ASTNode last) {
+		List<ASTNode> siblings = siblingsOf(first, last);
+		if (siblings == null) {
+			return null;
+		}
+		int from = siblings.indexOf(first);
+		int to = siblings.indexOf(last);
+		if (from < 0 || to < from) {
+			return null;
+		}
+		List<ASTNode> selected = siblings.subList(from, to + 1);
+		List<ASTNode> following = siblings.subList(to + 1, siblings.size());
+		int selectionStart = first.getStartPosition();
+		int selectionEnd = last.getStartPosition() + last.getLength();
+
+		ControlFlowScanner flow = new ControlFlowScanner(selectionStart, selectionEnd);
+		for (ASTNode node : selected) {
+			node.accept(flow);
+		}
+
+		// 1. Branches leaving the range
+		if (flow.escapingBranch) {
+			return canTurnBranchesIntoReturns(last) ? null : Reason.BRANCH_TARGET_NOT_SELECTED;
+		}
+
+		// 2. Returns in only some of the paths
+		if (flow.hasReturn) {
+			return isSimpleStatement(last) && isInNonVoidMethod(first) ? Reason.PARTIAL_RETURN : null;
+		}
+
+		// 3. More than one value flowing out of the range
+		if (!flow.hasThrow && !following.isEmpty() && countOutputLocals(selected, following) > 1) {
+			return Reason.AMBIGUOUS_RETURN_VALUE;
+		}
+		return null;
+	}
+
+	// =========================================================================
+	// RANGE NAVIGATION
+	// =========================================================================
+
+	/**
+	 * Returns the statement list holding both nodes, or {@code null} if they are
+	 * not siblings in a list.
+	 */
+	@SuppressWarnings("unchecked")
+	private static List<ASTNode> siblingsOf(ASTNode first, ASTNode last) {
+		if (!(first instanceof Statement) || !(last instanceof Statement)) {
+			return null;
+		}
+		ASTNode parent = first.getParent();
+		if (parent == null || parent != last.getParent() || first.getLocationInParent() != last.getLocationInParent()) {
+			return null;
+		}
+		if (first.getLocationInParent() instanceof ChildListPropertyDescriptor) {
+			return (List<ASTNode>) parent.getStructuralProperty(first.getLocationInParent());
+		}
+		return first == last ? Collections.singletonList(first) : null;
+	}
+
+	/** Nodes whose bodies are analysed by JDT as separate flows. */
+	private static boolean isFlowBoundary(ASTNode node) {
+		return node instanceof LambdaExpression || node instanceof AnonymousClassDeclaration
+				|| node instanceof TypeDeclarationStatement || node instanceof BodyDeclaration;
+	}
+
+	private static boolean isLoop(ASTNode node) {
+		return node instanceof ForStatement || node instanceof EnhancedForStatement || node instanceof WhileStatement
+				|| node instanceof DoStatement;
+	}
+
+	private static Statement loopBody(ASTNode loop) {
+		if (loop instanceof ForStatement) {
+			return ((ForStatement) loop).getBody();
+		} else if (loop instanceof EnhancedForStatement) {
+			return ((EnhancedForStatement) loop).getBody();
+		} else if (loop instanceof WhileStatement) {
+			return ((WhileStatement) loop).getBody();
+		}
+		return ((DoStatement) loop).getBody();
+	}
+
+	/**
+	 * JDT can still extract a range whose branches leave it when the range is the
+	 * tail of the body of the innermost enclosing loop: {@code continue} then
+	 * becomes {@code return}. Mirrors the structural part of that check.
+	 */
+	private static boolean canTurnBranchesIntoReturns(ASTNode last) {
+		ASTNode current = last.getParent();
+		while (current != null && !isLoop(current) && !(current instanceof SwitchStatement)) {
+			current = current.getParent();
+		}
+		if (current == null || current instanceof SwitchStatement) {
+			return false;
+		}
+		Statement body = loopBody(current);
+		if (!(body instanceof Block)) {
+			return false;
+		}
+		List<?> statements = ((Block) body).statements();
+		return body == last || (!statements.isEmpty() && statements.get(statements.size() - 1) == last);
+	}
+
+	/** Statements that always complete normally and never return. */
+	private static boolean isSimpleStatement(ASTNode node) {
+		return node instanceof ExpressionStatement || node instanceof VariableDeclarationStatement
+				|| node instanceof EmptyStatement;
+	}
+
+	/**
+	 * JDT accepts partial returns in void methods when the range ends the method,
+	 * so the rule is only applied to methods returning a value.
+	 */
+	private static boolean isInNonVoidMethod(ASTNode node) {
+		ASTNode current = node.getParent();
+		while (current != null && !isFlowBoundary(current)) {
+			current = current.getParent();
+		}
+		if (!(current instanceof MethodDeclaration)) {
+			return false;
+		}
+		MethodDeclaration method = (MethodDeclaration) current;
+		return !method.isConstructor() && method.getReturnType2() != null
+				&& !(method.getReturnType2() instanceof PrimitiveType
+						&& ((PrimitiveType) method.getReturnType2()).getPrimitiveTypeCode() == PrimitiveType.VOID);
+	}
+
+	// =========================================================================
+	// CONTROL FLOW
+	// =========================================================================
+
+	/**
+	 * Looks for returns, throws and branches leaving the range, ignoring the
+	 * bodies of nested lambdas and classes.
+	 */
+	private static final class ControlFlowScanner extends ASTVisitor {
+		private final int selectionStart;
+		private final int selectionEnd;
+
+		boolean hasReturn;
+		boolean hasThrow;
+		boolean escapingBranch;
+
+		ControlFlowScanner(int selectionStart, int selectionEnd) {
+			this.selectionStart = selectionStart;
+			this.selectionEnd = selectionEnd;
+		}
+
+		@Override
+		public boolean visit(LambdaExpression node) {
+			return false;
+		}
+
+		@Override
+		public boolean visit(AnonymousClassDeclaration node) {
+			return false;
+		}
+
+		@Override
+		public boolean visit(TypeDeclarationStatement node) {
+			return false;
+		}
+
+		@Override
+		public boolean visit(ReturnStatement node) {
+			hasReturn = true;
+			return true;
+		}
+
+		@Override
+		public boolean visit(ThrowStatement node) {
+			hasThrow = true;
+			return true;
+		}
+
+		@Override
+		public boolean visit(BreakStatement node) {
+			checkTarget(node, node.getLabel(), true);
+			return false;
+		}
+
+		@Override
+		public boolean visit(ContinueStatement node) {
+			checkTarget(node, node.getLabel(), false);
+			return false;
+		}
+
+		private void checkTarget(ASTNode branch, SimpleName label, boolean isBreak) {
+			ASTNode target = branch.getParent();
+			while (target != null && !isFlowBoundary(target) && !isTarget(target, label, isBreak)) {
+				target = target.getParent();
+			}
+			if (target == null || isFlowBoundary(target) || target.getStartPosition() < selectionStart
+					|| target.getStartPosition() + target.getLength() > selectionEnd) {
+				escapingBranch = true;
+			}
+		}
+
+		private static boolean isTarget(ASTNode node, SimpleName label, boolean isBreak) {
+			if (label != null) {
+				return node instanceof LabeledStatement
+						&& ((LabeledStatement) node).getLabel().getIdentifier().equals(label.getIdentifier());
+			}
+			return isLoop(node) || (isBreak && node instanceof SwitchStatement);
+		}
+	}
+
+	// =========================================================================
+	// DATA FLOW
+	// =========================================================================
+
+	/**
+	 * Counts the locals declared outside the range, assigned inside it and read
+	 * by the following statements before any new assignment. JDT returns such a
+	 * local from the extracted method, and can return at most one.
+	 */
+	private static int countOutputLocals(List<ASTNode> selected, List<ASTNode> following) {
+		AssignedLocalsCollector assigned = new AssignedLocalsCollector();
+		for (ASTNode node : selected) {
+			node.accept(assigned);
+		}
+		Set<IBinding> candidates = new HashSet<>(assigned.assigned);
+		candidates.removeAll(assigned.declared);
+		if (candidates.size() < 2) {
+			return 0;
+		}
+
+		FirstAccessScanner accesses = new FirstAccessScanner(candidates);
+		for (ASTNode node : following) {
+			node.accept(accesses);
+		}
+		int reads = 0;
+		for (Boolean isRead : accesses.firstAccess.values()) {
+			if (isRead) {
+				reads++;
+			}
+		}
+		return reads;
+	}
+
+	/** Resolves a name to a local variable (or parameter), or {@code null}. */
+	private static IBinding localVariable(Expression expression) {
+		if (!(expression instanceof SimpleName)) {
+			return null;
+		}
+		IBinding binding = ((SimpleName) expression).resolveBinding();
+		if (binding instanceof IVariableBinding && !((IVariableBinding) binding).isField()) {
+			return ((IVariableBinding) binding).getVariableDeclaration();
+		}
+		return null;
+	}
+
+	/** Collects the locals assigned and the locals declared in the range. */
+	private static final class AssignedLocalsCollector extends ASTVisitor {
+		final Set<IBinding> assigned = new HashSet<>();
+		final Set<IBinding> declared = new HashSet<>();
+
+		@Override
+		public boolean visit(LambdaExpression node) {
+			return false;
+		}
+
+		@Override
+		public boolean visit(AnonymousClassDeclaration node) {
+			return false;
+		}
+
+		@Override
+		public boolean visit(TypeDeclarationStatement node) {
+			return false;
+		}
+
+		@Override
+		public boolean visit(Assignment node) {
+			addAssigned(node.getLeftHandSide());
+			return true;
+		}
+
+		@Override
+		public boolean visit(PrefixExpression node) {
+			if (node.getOperator() == PrefixExpression.Operator.INCREMENT
+					|| node.getOperator() == PrefixExpression.Operator.DECREMENT) {
+				addAssigned(node.getOperand());
+			}
+			return true;
+		}
+
+		@Override
+		public boolean visit(PostfixExpression node) {
+			addAssigned(node.getOperand());
+			return true;
+		}
+
+		@Override
+		public boolean visit(VariableDeclarationFragment node) {
+			addDeclared(node.getName());
+			return true;
+		}
+
+		@Override
+		public boolean visit(SingleVariableDeclaration node) {
+			addDeclared(node.getName());
+			return true;
+		}
+
+		private void addAssigned(Expression expression) {
+			IBinding binding = localVariable(expression);
+			if (binding != null) {
+				assigned.add(binding);
+			}
+		}
+
+		private void addDeclared(SimpleName name) {
+			IBinding binding = localVariable(name);
+			if (binding != null) {
+				declared.add(binding);
+			}
+		}
+	}
+
+	/**
+	 * Records whether the first access to each candidate local is a read. Nodes
+	 * are visited in evaluation order where it differs from the source order
+	 * (right-hand side of assignments, for-loop updaters), and nested lambdas and
+	 * classes are skipped since they cannot see a local that is reassigned.
+	 */
+	private static final class FirstAccessScanner extends ASTVisitor {
+		private final Set<IBinding> candidates;
+		final Map<IBinding, Boolean> firstAccess = new HashMap<>();
+
+		FirstAccessScanner(Set<IBinding> candidates) {
+			this.candidates = candidates;
+		}
+
+		@Override
+		public boolean visit(LambdaExpression node) {
+			return false;
+		}
+
+		@Override
+		public boolean visit(AnonymousClassDeclaration node) {
+			return false;
+		}
+
+		@Override
+		public boolean visit(TypeDeclarationStatement node) {
+			return false;
+		}
+
+		@Override
+		public boolean visit(Assignment node) {
+			IBinding binding = localVariable(node.getLeftHandSide());
+			if (binding == null) {
+				return true;
+			}
+			if (node.getOperator() == Assignment.Operator.ASSIGN) {
+				node.getRightHandSide().accept(this);
+				record(binding, false);
+			} else {
+				record(binding, true);
+				node.getRightHandSide().accept(this);
+			}
+			return false;
+		}
+
+		@Override
+		public boolean visit(ForStatement node) {
+			acceptAll(node.initializers());
+			if (node.getExpression() != null) {
+				node.getExpression().accept(this);
+			}
+			node.getBody().accept(this);
+			acceptAll(node.updaters());
+			return false;
+		}
+
+		@Override
+		public boolean visit(SimpleName node) {
+			IBinding binding = localVariable(node);
+			if (binding != null) {
+				record(binding, true);
+			}
+			return false;
+		}
+
+		private void acceptAll(List<?> nodes) {
+			for (Object node : nodes) {
+				((ASTNode) node).accept(this);
+			}
+		}
+
+		private void record(IBinding binding, boolean isRead) {
+			if (candidates.contains(binding)) {
+				firstAccess.putIfAbsent(binding, isRead);
+			}
+		}
+	}
+}
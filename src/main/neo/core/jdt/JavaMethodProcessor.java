@@ -16,6 +16,7 @@ import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.dom.ASTRequestor;
 import org.eclipse.jdt.core.dom.ASTVisitor;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.MethodDeclaration;
@@ -146,7 +147,7 @@ public class JavaMethodProcessor {
 
 	private int processJavaProject(IJavaProject javaProject, List<String> errors,
 			Map<CompilationUnit, List<MethodComplexityRecord>> unitComplexities) {
-		int totalMethods = 0;
+		List<ICompilationUnit> units = new ArrayList<>();
 
 		try {
 			IPackageFragmentRoot[] roots = javaProject.getPackageFragmentRoots();
@@ -155,7 +156,7 @@ public class JavaMethodProcessor {
 			for (IPackageFragmentRoot root : roots) {
 				// Only process source folders (skip libraries/jars)
 				if (root.getKind() == IPackageFragmentRoot.K_SOURCE) {
-					totalMethods += processPackageFragmentRoot(root, errors, unitComplexities);
+					collectPackageFragmentRoot(root, errors, units);
 				}
 			}
 		} catch (CoreException e) {
@@ -163,58 +164,58 @@ public class JavaMethodProcessor {
 					+ e.getMessage());
 		}
 
-		return totalMethods;
+		return processICompilationUnits(javaProject, units, errors, unitComplexities);
 	}
 
-	private int processPackageFragmentRoot(IPackageFragmentRoot root, List<String> errors,
-			Map<CompilationUnit, List<MethodComplexityRecord>> unitComplexities) {
-		int methodCount = 0;
-
+	private void collectPackageFragmentRoot(IPackageFragmentRoot root, List<String> errors,
+			List<ICompilationUnit> units) {
 		try {
 			IJavaElement[] children = root.getChildren();
 
 			for (IJavaElement element : children) {
 				if (element instanceof IPackageFragment) {
 					IPackageFragment packageFragment = (IPackageFragment) element;
-					methodCount += processPackageFragment(packageFragment, errors, unitComplexities);
+					collectPackageFragment(packageFragment, errors, units);
 				}
 			}
 		} catch (JavaModelException e) {
 			errors.add("Error processing package fragment root '" + root.getElementName() + "': " + e.getMessage());
 		}
-
-		return methodCount;
 	}
 
-	private int processPackageFragment(IPackageFragment packageFragment, List<String> errors,
-			Map<CompilationUnit, List<MethodComplexityRecord>> unitComplexities) {
-		int methodCount = 0;
-
+	private void collectPackageFragment(IPackageFragment packageFragment, List<String> errors,
+			List<ICompilationUnit> units) {
 		try {
-			ICompilationUnit[] units = packageFragment.getCompilationUnits();
-
-			for (ICompilationUnit unit : units) {
-				methodCount += processICompilationUnit(unit, errors, unitComplexities);
-			}
+			units.addAll(List.of(packageFragment.getCompilationUnits()));
 		} catch (JavaModelException e) {
 			errors.add("Error accessing compilation units in package '" + packageFragment.getElementName() + "': "
 					+ e.getMessage());
 		}
-
-		return methodCount;
 	}
 
-	private int processICompilationUnit(ICompilationUnit unit, List<String> errors,
-	        Map<CompilationUnit, List<MethodComplexityRecord>> unitComplexities) {
-	    try {
-	        CompilationUnit compilationUnit = main.neo.core.jdt.Utils.parse(unit);
-	        if (compilationUnit == null) return 0;
+	/**
+	 * Parses the units of the project in a single batch and processes every AST
+	 * as it comes out of the parser, so the bindings of all the units are
+	 * resolved against the same lookup environment.
+	 */
+	private int processICompilationUnits(IJavaProject javaProject, List<ICompilationUnit> units,
+			List<String> errors, Map<CompilationUnit, List<MethodComplexityRecord>> unitComplexities) {
+		if (units.isEmpty()) {
+			return 0;
+		}
 
-	        return processCompilationUnit(compilationUnit, errors, unitComplexities);
-	    } catch (Exception e) {
-	        errors.add("Error parsing unit '" + unit.getElementName() + "': " + e.getMessage());
-	        return 0;
-	    }
+		int[] methodCount = new int[1];
+		try {
+			main.neo.core.jdt.Utils.parse(javaProject, units.toArray(new ICompilationUnit[0]), new ASTRequestor() {
+				@Override
+				public void acceptAST(ICompilationUnit source, CompilationUnit ast) {
+					methodCount[0] += processCompilationUnit(ast, errors, unitComplexities);
+				}
+			});
+		} catch (Exception e) {
+			errors.add("Error parsing units of project '" + javaProject.getElementName() + "': " + e.getMessage());
+		}
+		return methodCount[0];
 	}
 
 	public int processCompilationUnit(CompilationUnit compilationUnit, List<String> errors,
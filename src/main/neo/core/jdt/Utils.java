@@ -19,12 +19,14 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.compiler.IProblem;
 import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTRequestor;
 import org.eclipse.jdt.core.dom.ASTVisitor;
 import org.eclipse.jdt.core.dom.AnonymousClassDeclaration;
 import org.eclipse.jdt.core.dom.CatchClause;
@@ -46,13 +48,11 @@ import org.eclipse.jdt.core.dom.SwitchStatement;
 import org.eclipse.jdt.core.dom.WhileStatement;
 import org.eclipse.jdt.core.refactoring.CompilationUnitChange;
 import org.eclipse.jdt.internal.corext.refactoring.code.ExtractMethodRefactoring;
-import org.eclipse.jface.text.Document;
 import org.eclipse.ltk.core.refactoring.Change;
 import org.eclipse.ltk.core.refactoring.CompositeChange;
 import org.eclipse.ltk.core.refactoring.RefactoringStatus;
 import org.eclipse.text.edits.TextEdit;
 
-import main.neo.app.Constants;
 import main.neo.core.ExtractionTextRange;
 
 /**
@@ -169,6 +169,32 @@ public class Utils {
 		}
 	}
 
+	/**
+	 * Parses the {@link ICompilationUnit}s of a project in a single batch, with
+	 * the same settings as {@link #parse(ICompilationUnit)}. Binding resolution
+	 * shares one lookup environment across the batch, and each AST is passed to
+	 * the requestor as soon as it is created, without being retained.
+	 *
+	 * @param project     the project of the units.
+	 * @param sourceFiles the compilation units to parse.
+	 * @param requestor   receives every parsed AST.
+	 * @throws RuntimeException if there's a critical parsing error.
+	 */
+	public static void parse(IJavaProject project, ICompilationUnit[] sourceFiles, ASTRequestor requestor) {
+		ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
+		parser.setKind(ASTParser.K_COMPILATION_UNIT);
+		parser.setProject(project);
+		parser.setResolveBindings(true);
+		parser.setBindingsRecovery(true);
+		parser.setStatementsRecovery(false);
+
+		try {
+			parser.createASTs(sourceFiles, new String[0], requestor, new NullProgressMonitor());
+		} catch (Exception e) {
+			throw new RuntimeException("Failed to create ASTs for: " + project.getElementName(), e);
+		}
+	}
+
 	// =========================================================================
 	// REFACTORING & EXTRACTION
 	// =========================================================================
@@ -315,25 +341,15 @@ public class Utils {
 	                        feasible = false;
 	                        resultOfRefactoring = "Failed to extract TextEdit for simulation.";
 	                    } else {
-	                        // Apply a COPY of the edit to a raw String document for the
-	                        // compilation check. Applying the edit mutates internal state
-	                        // (e.g. MoveSourceEdit's source computation), so we must keep
-	                        // the original pristine so callers (Solution#simulateExtractMethods)
-	                        // can re-apply it later on their own running document.
-	                        Document document = new Document(workingCopy.getSource());
-	                        TextEdit editCopy = edit.copy();
-	                        editCopy.apply(document);
-
-	                        // Parse the updated string back into a temporary AST to check for errors
-	                        ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
-	                        parser.setSource(document.get().toCharArray());
-	                        parser.setProject(workingCopy.getJavaProject());
-	                        parser.setUnitName(workingCopy.getElementName());
-	                        parser.setResolveBindings(true);
-	                        parser.setBindingsRecovery(true);
-	                        
-	                        CompilationUnit astAfter = (CompilationUnit) parser.createAST(npm);
-	                        boolean compilationErrors = builtWithCompilationErrors(astAfter);
+	                        // Check a COPY of the edit applied to the working copy source.
+	                        // Applying the edit mutates internal state (e.g. MoveSourceEdit's
+	                        // source computation), so we must keep the original pristine so
+	                        // callers (Solution#simulateExtractMethods) can re-apply it later
+	                        // on their own running document. Only the edited and the extracted
+	                        // method are resolved again (see ExtractionCompileChecker).
+	                        boolean compilationErrors = ExtractionCompileChecker
+	                                .forProject(workingCopy.getJavaProject())
+	                                .hasCompilationErrors(workingCopy, originalUnit, md, edit);
 
 	                        if (compilationErrors) {
 	                            resultOfRefactoring = "Compilation unit does not compile after method extraction.";
@@ -666,21 +682,6 @@ public class Utils {
 	// AST PROPERTIES & NAVIGATION
 	// =========================================================================
 
-	/**
-	 * Get the integer value of the given property of a given node. * @param node
-	 * The AST node to inspect.
-	 * 
-	 * @param property The key of the property (usually from Constants).
-	 * @return Value of the given property, or 0 if null or not an Integer.
-	 */
-	public static int getIntegerPropertyOfNode(ASTNode node, String property) {
-		Object value = node.getProperty(property);
-		if (value instanceof Integer) {
-			return (Integer) value;
-		}
-		return 0;
-	}
-
 	/**
 	 * Get siblings found after the node (to the right in the source code). * @param
 	 * node The reference node.
@@ -815,13 +816,14 @@ public class Utils {
 	 */
 	public static List<ASTNode> getAllAncestorContributingToComplexity(ASTNode node) {
 		List<ASTNode> ancestors = new ArrayList<>();
+		ComplexityIndex index = ComplexityIndex.of(node);
 		ASTNode parent = node.getParent();
 
 		// Traverse up until we hit the method boundary
 		while (parent != null && !(parent instanceof MethodDeclaration
 				&& !(parent.getParent() instanceof AnonymousClassDeclaration))) {
 
-			if (parent.getProperty(Constants.CONTRIBUTION_TO_COGNITIVE_COMPLEXITY) != null) {
+			if (index.isAnnotated(parent)) {
 				ancestors.add(parent);
 			}
 			parent = parent.getParent();
@@ -923,10 +925,13 @@ public class Utils {
 	 * at the top level of a new method. It achieves this by:
 	 * <ol>
 	 * <li>Determining the current base nesting level of the node.</li>
-	 * <li>Iterating through all complexity-contributing descendants.</li>
+	 * <li>Summing the scores of all complexity-contributing descendants.</li>
 	 * <li>Removing the penalty of the current base nesting level from their
 	 * scores.</li>
 	 * </ol>
+	 * The sums over the descendants come from the prefix sums of the
+	 * {@link ComplexityIndex} of the method: see
+	 * {@link ComplexityIndex#metricsIfExtracted(int)}.
 	 * * @param node The AST node (usually a Block or Statement) representing the
 	 * code to be extracted.
 	 * 
@@ -938,73 +943,10 @@ public class Utils {
 			return new CognitiveComplexityMetrics(0, 0, 0, 0, 0, 0);
 		}
 
-		// 1. Base Level: The nesting level of the extraction root in the original code.
-		int baseLevel = getIntegerPropertyOfNode(node, Constants.NESTING_LEVEL);
-
-		List<ASTNode> complexityNodes = new ArrayList<>();
-		collectComplexityNodes(node, complexityNodes);
-
-		int totalInherent = 0;
-		int totalNewComplexity = 0;
-		int totalReduction = 0;
-		int numberOfNestingContributors = 0;
-
-		for (ASTNode cn : complexityNodes) {
-			int contribution = getIntegerPropertyOfNode(cn, Constants.CONTRIBUTION_TO_COGNITIVE_COMPLEXITY);
-			int currentLevel = getIntegerPropertyOfNode(cn, Constants.NESTING_LEVEL);
-			boolean paysPenalty = paysNestingPenalty(cn);
-
-			// 2. Calculate Inherent (Original) Complexity
-			int currentNestingCost = paysPenalty ? currentLevel : 0;
-			int inherent = contribution - currentNestingCost;
-
-			// 3. Calculate Projected (New) Complexity
-			// Calculate depth relative to the new method root (0-based)
-			int newDepth = Math.max(0, currentLevel - baseLevel);
-			int projectedNestingCost = paysPenalty ? newDepth : 0;
-			int projectedNodeComplexity = inherent + projectedNestingCost;
-
-			// 4. Update Totals
-			totalReduction += contribution;
-			totalInherent += inherent;
-			totalNewComplexity += projectedNodeComplexity;
-
-			// 5. Update Nesting Contributor Count
-			if (paysPenalty) {
-				// CASE A: Deep nodes (Children/Inner Loops)
-				// These always pay a nesting cost in the new method.
-				if (newDepth > 0) {
-					numberOfNestingContributors++;
-				}
-				// CASE B: Surface nodes (Root, Catch, Else, etc.)
-				// These are at the top level of the new method (Depth 0).
-				// They only contribute to the nesting count if the *original* context was
-				// nested.
-				else if (baseLevel > 0) {
-					numberOfNestingContributors++;
-				}
-			}
-		}
-
-		int totalProjectedNesting = totalNewComplexity - totalInherent;
-
-		return new CognitiveComplexityMetrics(totalInherent, totalProjectedNesting, totalNewComplexity, totalReduction,
-				numberOfNestingContributors, baseLevel);
-	}
-
-	private static void collectComplexityNodes(ASTNode node, List<ASTNode> result) {
-		if (node.getProperty(Constants.CONTRIBUTION_TO_COGNITIVE_COMPLEXITY) != null) {
-			result.add(node);
-		}
-
-		// Use the safe generic getChildren method
-		List<ASTNode> children = getChildren(node);
-		for (ASTNode child : children) {
-			collectComplexityNodes(child, result);
-		}
+		return ComplexityIndex.of(node).metricsIfExtracted(node);
 	}
 
-	private static boolean paysNestingPenalty(ASTNode node) {
+	static boolean paysNestingPenalty(ASTNode node) {
 		if (node instanceof IfStatement) {
 			// "else if" does not pay a penalty
 			if (node.getParent() instanceof IfStatement
@@ -1080,6 +1022,34 @@ public class Utils {
 		}
 	}
 
+	/**
+	 * Finds the node of the given type that spans exactly
+	 * {@code [start, start + length)} within {@code scope}.
+	 *
+	 * @return the matching node, or {@code null} if there is none
+	 */
+	public static ASTNode findNode(ASTNode scope, int nodeType, int start, int length) {
+		ASTNode[] found = new ASTNode[1];
+		scope.accept(new ASTVisitor(true) {
+			@Override
+			public boolean preVisit2(ASTNode node) {
+				if (found[0] != null) {
+					return false;
+				}
+				int nodeStart = node.getStartPosition();
+				if (nodeStart + node.getLength() < start || start + length < nodeStart) {
+					return false;
+				}
+				if (nodeStart == start && node.getLength() == length && node.getNodeType() == nodeType) {
+					found[0] = node;
+					return false;
+				}
+				return true;
+			}
+		});
+		return found[0];
+	}
+
 	/**
 	 * Visitor that locates AST nodes within a specific editor selection range.
 	 */
@@ -0,0 +1,251 @@
+package main.neo.core.refactoringcache;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.IntSupplier;
+import java.util.function.ObjIntConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.WorkingCopyOwner;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.NodeFinder;
+
+import main.neo.core.ExtractionTextRange;
+import main.neo.core.Sequence;
+import main.neo.core.WorkerPool;
+import main.neo.core.jdt.CodeExtractionMetrics;
+import main.neo.core.jdt.CognitiveComplexityVisitor;
+import main.neo.core.jdt.ComplexityIndex;
+import main.neo.core.jdt.Utils;
+
+/**
+ * Fills a {@link RefactoringCache} with the same ranges as
+ * {@link RefactoringCacheFiller}, checking them on several workers of the
+ * shared {@link WorkerPool}.
+ * <p>
+ * The candidate ranges, the (block, i, j) triples the exhaustive enumeration
+ * checks, are listed first, without running JDT. Ranges in different blocks
+ * (and different ranges of a block) are independent, so they are dealt out to
+ * the workers in turns. Each worker owns a private working copy of the unit,
+ * holding the source the method was parsed from, with its own AST: the
+ * extract-method checks of different workers never share a buffer or a parser,
+ * and a range has the same offsets in every copy.
+ * </p>
+ * <p>
+ * The metrics are written to the cache on the calling thread once the workers
+ * are done, in the order of the sequential filler, so the cache ends up the
+ * same. When the unit is not backed by the Java model, or there are too few
+ * candidates to share, the sequential filler runs instead.
+ * </p>
+ */
+public final class ConcurrentRefactoringCacheFiller {
+
+	private static final Logger LOGGER = Logger.getLogger(ConcurrentRefactoringCacheFiller.class.getName());
+
+	/** Fewest candidate ranges worth a worker of its own. */
+	static final int MIN_CANDIDATES_PER_WORKER = 16;
+
+	private ConcurrentRefactoringCacheFiller() {
+	}
+
+	/** A range to check: a block found by {@link SentencesSelectorVisitor} and the sentences [from, to]. */
+	static final class Candidate {
+		final int block;
+		final int from;
+		final int to;
+		final int start;
+		final int end;
+
+		Candidate(int block, int from, int to, int start, int end) {
+			this.block = block;
+			this.from = from;
+			this.to = to;
+			this.start = start;
+			this.end = end;
+		}
+	}
+
+	/**
+	 * Runs the exhaustive enumeration algorithm on a method, checking the
+	 * candidate ranges on up to {@code parallelism} workers.
+	 *
+	 * @param refactoringCache The cache to fill.
+	 * @param method           The method to analyze; its complexity index must be
+	 *                         attached.
+	 * @param parallelism      Maximum number of workers; values lower than 2 run
+	 *                         the sequential filler.
+	 */
+	public static void exhaustiveEnumerationAlgorithm(RefactoringCache refactoringCache, MethodDeclaration method,
+			int parallelism) {
+		CompilationUnit unit = refactoringCache.getCompilationUnit();
+		List<Candidate> candidates = candidates(refactoringCache, method);
+		int workers = Math.min(parallelism, candidates.size() / MIN_CANDIDATES_PER_WORKER);
+		ICompilationUnit icu = Utils.getICompilationUnit(unit);
+		if (workers < 2 || icu == null) {
+			RefactoringCacheFiller.exhaustiveEnumerationAlgorithm(refactoringCache, method);
+			return;
+		}
+
+		CodeExtractionMetrics[] metrics = new CodeExtractionMetrics[candidates.size()];
+		List<Future<CodeExtractionMetrics[]>> shards = new ArrayList<>();
+		try {
+			String source = icu.getSource();
+			for (int shard = 0; shard < workers; shard++) {
+				int first = shard;
+				shards.add(WorkerPool.executor().submit(() -> evaluateShard(icu, source, method, candidates, first, workers)));
+			}
+			for (int shard = 0; shard < workers; shard++) {
+				try {
+					CodeExtractionMetrics[] shardMetrics = shards.get(shard).get();
+					for (int c = shard; c < candidates.size(); c += workers) {
+						metrics[c] = shardMetrics[c];
+					}
+				} catch (ExecutionException e) {
+					// The ranges of the shard are checked below, on the shared unit
+					LOGGER.log(Level.WARNING, "Concurrent cache fill failed, checking the ranges sequentially: {0}",
+							e.getCause());
+				}
+			}
+		} catch (JavaModelException e) {
+			LOGGER.log(Level.WARNING, "Cannot read the source of the unit, checking the ranges sequentially: {0}", e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			for (Future<CodeExtractionMetrics[]> shard : shards) {
+				shard.cancel(true);
+			}
+		}
+
+		ExtractionMetricsTable cache = refactoringCache.cache;
+		List<Sequence> blocks = null;
+		for (int c = 0; c < candidates.size(); c++) {
+			Candidate candidate = candidates.get(c);
+			if (metrics[c] != null) {
+				cache.put(candidate.start, candidate.end, metrics[c]);
+			} else {
+				if (blocks == null) {
+					blocks = blocks(unit, method);
+				}
+				refactoringCache.getMetrics(sequence(unit, blocks, candidate));
+			}
+		}
+	}
+
+	/**
+	 * Ranges the exhaustive enumeration of {@code method} checks, in the order
+	 * {@link RefactoringCacheFiller} checks them, without the ones already in
+	 * the cache.
+	 */
+	public static List<ExtractionTextRange> candidateRanges(RefactoringCache refactoringCache,
+			MethodDeclaration method) {
+		List<ExtractionTextRange> ranges = new ArrayList<>();
+		for (Candidate candidate : candidates(refactoringCache, method)) {
+			ranges.add(new ExtractionTextRange(candidate.start, candidate.end));
+		}
+		return ranges;
+	}
+
+	static List<Candidate> candidates(RefactoringCache refactoringCache, MethodDeclaration method) {
+		CompilationUnit unit = refactoringCache.getCompilationUnit();
+		List<Sequence> blocks = blocks(unit, method);
+		ComplexityIndex complexity = ComplexityIndex.of(method);
+
+		List<Candidate> candidates = new ArrayList<>();
+		Set<Long> seen = new HashSet<>();
+		for (int b = 0; b < blocks.size(); b++) {
+			int block = b;
+			RefactoringCacheFiller.exploreSentenceSequence(blocks.get(b), complexity, (sentences, from, to) -> {
+				Sequence range = new Sequence(unit, sentences.getSiblingNodes().subList(from - 1, to));
+				int start = range.getStartOffset();
+				int end = range.getEndOffset();
+				// A range checked before (or already cached) is a cache hit for the sequential filler
+				if (refactoringCache.cache.indexOf(start, end) < 0 && seen.add(ExtractionMetricsTable.key(start, end))) {
+					candidates.add(new Candidate(block, from, to, start, end));
+				}
+				return true;
+			});
+		}
+		return candidates;
+	}
+
+	/**
+	 * Checks the candidates {@code first}, {@code first + step}, ... on a private
+	 * working copy holding {@code source}.
+	 *
+	 * @return the metrics of the checked candidates, by candidate index.
+	 */
+	private static CodeExtractionMetrics[] evaluateShard(ICompilationUnit icu, String source, MethodDeclaration method,
+			List<Candidate> candidates, int first, int step) throws CoreException {
+		CodeExtractionMetrics[] metrics = new CodeExtractionMetrics[candidates.size()];
+		int[] next = new int[] { first };
+		evaluate(icu, source, method, candidates, () -> {
+			int c = next[0];
+			next[0] += step;
+			return c < candidates.size() ? c : -1;
+		}, (cem, c) -> metrics[c] = cem);
+		return metrics;
+	}
+
+	/**
+	 * Checks the candidates handed out by {@code next} on a private working copy
+	 * holding {@code source}, until it returns a negative index or the thread is
+	 * interrupted.
+	 *
+	 * @param next    Index of the next candidate to check, or a negative value
+	 *                when there are no more.
+	 * @param checked Receives the metrics of every checked candidate with its
+	 *                index, on the worker thread.
+	 */
+	static void evaluate(ICompilationUnit icu, String source, MethodDeclaration method, List<Candidate> candidates,
+			IntSupplier next, ObjIntConsumer<CodeExtractionMetrics> checked) throws CoreException {
+		ICompilationUnit privateCopy = icu.getPrimary().getWorkingCopy(new WorkingCopyOwner() {
+		}, null);
+		try {
+			privateCopy.getBuffer().setContents(source);
+			CompilationUnit privateUnit = Utils.parse(privateCopy);
+			MethodDeclaration privateMethod = Utils.getMethodDeclaration(
+					NodeFinder.perform(privateUnit, method.getStartPosition(), method.getLength()));
+			if (privateMethod == null || privateMethod.getStartPosition() != method.getStartPosition()) {
+				throw new IllegalStateException("Method not found in the private copy: " + method.getName());
+			}
+			// The complexity index of the private AST, read by Sequence.evaluate
+			CognitiveComplexityVisitor.methodComplexity(privateMethod);
+			List<Sequence> blocks = blocks(privateUnit, privateMethod);
+
+			for (int c = next.getAsInt(); c >= 0; c = next.getAsInt()) {
+				if (Thread.currentThread().isInterrupted()) {
+					break;
+				}
+				Candidate candidate = candidates.get(c);
+				Sequence sequence = sequence(privateUnit, blocks, candidate);
+				if (sequence.getStartOffset() != candidate.start || sequence.getEndOffset() != candidate.end) {
+					throw new IllegalStateException("The private copy does not match the analysed unit");
+				}
+				checked.accept(sequence.evaluate(), c);
+			}
+		} finally {
+			privateCopy.discardWorkingCopy();
+		}
+	}
+
+	private static List<Sequence> blocks(CompilationUnit unit, ASTNode method) {
+		SentencesSelectorVisitor sentencesSelectorVisitor = new SentencesSelectorVisitor(unit);
+		method.accept(sentencesSelectorVisitor);
+		return sentencesSelectorVisitor.getSentencesToIterate();
+	}
+
+	private static Sequence sequence(CompilationUnit unit, List<Sequence> blocks, Candidate candidate) {
+		return new Sequence(unit,
+				blocks.get(candidate.block).getSiblingNodes().subList(candidate.from - 1, candidate.to));
+	}
+}
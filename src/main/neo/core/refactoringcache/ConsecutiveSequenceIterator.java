@@ -1,17 +1,18 @@
 package main.neo.core.refactoringcache;
 
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Stack;
 
-import main.neo.core.refactoringcache.mase.patterns.yieldreturn.IteratorYield;
-import main.neo.core.refactoringcache.mase.patterns.yieldreturn.Yield;
 import main.neo.core.solvers.exhaustivesearch.ExhaustiveEnumerationAlgorithm.Approach;
 
 /**
  * Iterator that generates consecutive sequences of sentences for analysis.
  * <p>
- * This class uses a yield-return pattern to lazily generate combinations of
- * sentence ranges (start, end) that are valid and contribute to cognitive
- * complexity.
+ * This class lazily generates combinations of sentence ranges (start, end)
+ * that are valid and contribute to cognitive complexity. The enumeration is a
+ * backtracking search run by an explicit-state iterator, so no thread is
+ * needed to suspend it between elements.
  * </p>
  */
 public class ConsecutiveSequenceIterator {
@@ -103,60 +104,153 @@ public class ConsecutiveSequenceIterator {
 	/**
 	 * Returns an Iterable that generates the sequences. * @return Iterable of
 	 * Stacks, where each Stack contains pairs of integers (start, end).
+	 * <p>
+	 * Every element is the same (mutable) stack, updated in place: consumers
+	 * must copy what they need before asking for the next element.
+	 * </p>
 	 */
 	public Iterable<Stack<Integer>> getIterable() {
-		// delegates to the private method utilizing the custom Yield pattern
-		return IteratorYield.getIterable(this::generateElementsRecursive);
+		return SequenceIterator::new;
 	}
 
 	/**
-	 * Entry point for the recursive generation.
-	 */
-	private void generateElementsRecursive(Yield<Stack<Integer>> yield) {
-		initializeDataStructures();
-		generateElementsRecursive(yield, 1);
-	}
-
-	/**
-	 * Recursive core that explores valid sentence sequences.
+	 * Explicit-state version of the recursive enumeration below, which yields the
+	 * current stack on entry to every recursion step and then, for every start
+	 * {@code i} with complexity and every end {@code j} (in {@link Approach}
+	 * order), recurses after {@code j} if {@code (i, j)} is a valid sequence:
 	 *
-	 * @param yield The yield context for returning values.
-	 * @param first The starting sentence index for this recursion step.
+	 * <pre>
+	 * generate(first):
+	 *     yield los
+	 *     for i in [first, lastWithCC]:
+	 *         for j in ends(i):
+	 *             if validSequence(i, j): push(i, j); generate(j + 1); pop()
+	 * </pre>
+	 * <p>
+	 * Each recursion level is a frame holding the loop counters {@code i} and
+	 * {@code j}, so the enumeration order and the calls to
+	 * {@link SentenceSequenceInfo#validSequence(int, int)} are exactly those of
+	 * the recursion, but no thread is needed to suspend it between elements.
+	 * Elements are computed lazily, on {@link #hasNext()}.
+	 * </p>
 	 */
-	private void generateElementsRecursive(Yield<Stack<Integer>> yield, int first) {
-		int last = sequence.numberOfSentences();
+	private final class SequenceIterator implements Iterator<Stack<Integer>> {
 
-		// Yield the current state of sequences (even if empty or partial)
-		yield.Return(los);
-
-		// Iterate through potential start points that have complexity
-		for (int i = first; i <= lastWithCC; i++) {
-			// A sequence starting at sentence {@code i} must end somewhere within the
-			// inclusive range [nextWithCC[i], last] so it captures at least one
-			// complexity-contributing statement. The chosen Approach only changes the
-			// order in which that range is explored, never the range itself.
-			int shortestEnd = nextWithCC[i];
-			int longestEnd = last;
-
-			// LONG_SEQUENCE_FIRST walks the range from the longest sequence (j = last)
-			// down to the shortest; SHORT_SEQUENCE_FIRST walks it the other way around.
-			boolean longSequenceFirst = approach.equals(Approach.LONG_SEQUENCE_FIRST);
-			int startIndex = longSequenceFirst ? longestEnd : shortestEnd;
-			int step = longSequenceFirst ? -1 : 1;
-
-			for (int j = startIndex; j >= shortestEnd && j <= longestEnd; j += step) {
-				if (sequence.validSequence(i, j)) {
-					los.push(i);
-					los.push(j);
+		private final int last;
+		private final boolean longSequenceFirst;
+
+		/** Loop counters of each frame; {@code ends[d]} is the next end to try. */
+		private final int[] starts;
+		private final int[] ends;
+		private int depth;
+
+		/** Whether the current element has been computed but not returned yet. */
+		private boolean ready;
+		private boolean exhausted;
+
+		SequenceIterator() {
+			initializeDataStructures();
+			this.last = sequence.numberOfSentences();
+			this.longSequenceFirst = approach.equals(Approach.LONG_SEQUENCE_FIRST);
+			// Every frame but the root one starts after the end of its parent's
+			// sequence, so there are at most last + 1 frames
+			this.starts = new int[last + 2];
+			this.ends = new int[last + 2];
+			enterFrame(1);
+			this.ready = true; // the root frame yields the empty stack
+		}
 
-					// Recurse to find the next sequence starting after j
-					generateElementsRecursive(yield, j + 1);
+		@Override
+		public boolean hasNext() {
+			if (!ready && !exhausted) {
+				ready = advance();
+				exhausted = !ready;
+			}
+			return ready;
+		}
 
-					// Backtrack
+		@Override
+		public Stack<Integer> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			ready = false;
+			return los;
+		}
+
+		/** Pushes a frame enumerating the sequences that start at {@code first} or later. */
+		private void enterFrame(int first) {
+			starts[depth] = first;
+			ends[depth] = first <= lastWithCC ? firstEnd(first) : 0;
+			depth++;
+		}
+
+		/**
+		 * Resumes the enumeration until the next element.
+		 *
+		 * @return {@code false} once every frame is exhausted
+		 */
+		private boolean advance() {
+			while (depth > 0) {
+				int frame = depth - 1;
+				if (nextValidPair(frame)) {
+					int j = ends[frame] - step();
+					los.push(starts[frame]);
+					los.push(j);
+					enterFrame(j + 1);
+					return true;
+				}
+				// Frame exhausted: return to the caller and backtrack
+				depth--;
+				if (depth > 0) {
 					los.pop();
 					los.pop();
 				}
 			}
+			return false;
+		}
+
+		/**
+		 * Moves the counters of {@code frame} past the next valid pair (start, end).
+		 * On success the pair is ({@code starts[frame]}, {@code ends[frame] - step()}).
+		 */
+		private boolean nextValidPair(int frame) {
+			int i = starts[frame];
+			int j = ends[frame];
+			while (i <= lastWithCC) {
+				// A sequence starting at sentence {@code i} must end somewhere within the
+				// inclusive range [nextWithCC[i], last] so it captures at least one
+				// complexity-contributing statement. The chosen Approach only changes the
+				// order in which that range is explored, never the range itself.
+				while (j >= nextWithCC[i] && j <= last) {
+					int end = j;
+					j += step();
+					if (sequence.validSequence(i, end)) {
+						starts[frame] = i;
+						ends[frame] = j;
+						return true;
+					}
+				}
+				i++;
+				if (i <= lastWithCC) {
+					j = firstEnd(i);
+				}
+			}
+			starts[frame] = i;
+			ends[frame] = j;
+			return false;
+		}
+
+		/**
+		 * LONG_SEQUENCE_FIRST walks the range from the longest sequence (j = last)
+		 * down to the shortest; SHORT_SEQUENCE_FIRST walks it the other way around.
+		 */
+		private int firstEnd(int start) {
+			return longSequenceFirst ? last : nextWithCC[start];
+		}
+
+		private int step() {
+			return longSequenceFirst ? -1 : 1;
 		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,359 @@
+package main.neo.core.refactoringcache;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.eclipse.ltk.core.refactoring.Change;
+
+import main.neo.core.ExtractionTextRange;
+import main.neo.core.jdt.CodeExtractionMetrics;
+
+/**
+ * Table of the metrics of the code extractions of a method, keyed by their
+ * text range.
+ * <p>
+ * Entries are flat records in parallel arrays, in insertion order, and are
+ * found through an open-addressing (linear probing) index over
+ * {@code start << 32 | end} keys. The accessors by entry index, like those of
+ * {@link RefactoringCacheFileReader}, read single fields, so looking up an
+ * entry and reading its metrics allocates nothing. Keys are copied into the
+ * table when an entry is put: modifying an {@link ExtractionTextRange} after
+ * using it as a key does not affect the table.
+ * </p>
+ * <p>
+ * Only the scalar metrics are kept, with the reason as an index into a table
+ * of distinct reasons. The JDT {@link Change} objects of the extractions, with
+ * the text edits of every candidate range, are not retained: metrics read from
+ * the table have no changes, and a {@link main.neo.core.Solution} recreates
+ * those of its sequences when it is simulated or applied.
+ * </p>
+ * <p>
+ * The table is also a {@link Map} view, for the code handling whole caches
+ * (loading, saving, filtering). That view materializes ranges and metrics on
+ * every read; the metrics are copies, so modifying them does not change the
+ * table. Removing an entry moves the last entry into its index.
+ * </p>
+ */
+public final class ExtractionMetricsTable extends AbstractMap<ExtractionTextRange, CodeExtractionMetrics> {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	/** Open-addressing index: entry index + 1, or 0 for a free slot. */
+	private int[] slots = new int[2 * INITIAL_CAPACITY];
+
+	private int size;
+
+	// Records, by entry index
+	private long[] keys = new long[INITIAL_CAPACITY];
+	private boolean[] feasible = new boolean[INITIAL_CAPACITY];
+	private boolean[] applied = new boolean[INITIAL_CAPACITY];
+	private int[] linesOfCode = new int[INITIAL_CAPACITY];
+	private int[] parameters = new int[INITIAL_CAPACITY];
+	private int[] reduction = new int[INITIAL_CAPACITY];
+	private int[] inherent = new int[INITIAL_CAPACITY];
+	private int[] nestingComponent = new int[INITIAL_CAPACITY];
+	private int[] contributors = new int[INITIAL_CAPACITY];
+	private int[] nesting = new int[INITIAL_CAPACITY];
+	private long[] runtime = new long[INITIAL_CAPACITY];
+	private int[] reason = new int[INITIAL_CAPACITY];
+
+	/** Distinct reasons, referenced by index from the records. */
+	private final List<String> reasons = new ArrayList<>();
+	private final Map<String, Integer> reasonIndexes = new HashMap<>();
+
+	public ExtractionMetricsTable() {
+	}
+
+	public ExtractionMetricsTable(Map<ExtractionTextRange, CodeExtractionMetrics> entries) {
+		putAll(entries);
+	}
+
+	// =========================================================================
+	// PRIMITIVE ACCESS
+	// =========================================================================
+
+	/** Key of a range in the index. */
+	public static long key(int start, int end) {
+		return ((long) start << 32) | (end & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Looks up the entry of a range.
+	 *
+	 * @return the entry index, or {@code -1} if the range is not in the table
+	 */
+	public int indexOf(int start, int end) {
+		long key = key(start, end);
+		int mask = slots.length - 1;
+		for (int slot = home(key, mask);; slot = (slot + 1) & mask) {
+			int entry = slots[slot] - 1;
+			if (entry < 0) {
+				return -1;
+			}
+			if (keys[entry] == key) {
+				return entry;
+			}
+		}
+	}
+
+	public int start(int index) {
+		return (int) (keys[index] >> 32);
+	}
+
+	public int end(int index) {
+		return (int) keys[index];
+	}
+
+	public boolean isFeasible(int index) {
+		return feasible[index];
+	}
+
+	public int reductionOfCognitiveComplexity(int index) {
+		return reduction[index];
+	}
+
+	public int accumulatedInherentComponent(int index) {
+		return inherent[index];
+	}
+
+	public int accumulatedNestingComponent(int index) {
+		return nestingComponent[index];
+	}
+
+	public int numberNestingContributors(int index) {
+		return contributors[index];
+	}
+
+	public int nesting(int index) {
+		return nesting[index];
+	}
+
+	/** Materializes the range of an entry. */
+	public ExtractionTextRange range(int index) {
+		return new ExtractionTextRange(start(index), end(index));
+	}
+
+	public String reason(int index) {
+		return reasons.get(reason[index]);
+	}
+
+	/** Materializes a copy of the metrics of an entry (without JDT changes). */
+	public CodeExtractionMetrics metrics(int index) {
+		return new CodeExtractionMetrics(feasible[index], reason(index), applied[index], linesOfCode[index],
+				parameters[index], new ArrayList<Change>(), new ArrayList<Change>(), reduction[index],
+				inherent[index], nestingComponent[index], contributors[index], nesting[index], runtime[index]);
+	}
+
+	/**
+	 * Stores the scalar metrics of a range, replacing those it had. The changes
+	 * of {@code metrics} are not retained.
+	 *
+	 * @return the entry index
+	 */
+	public int put(int start, int end, CodeExtractionMetrics metrics) {
+		long key = key(start, end);
+		int index = indexOf(start, end);
+		if (index < 0) {
+			if (2 * (size + 1) > slots.length) {
+				grow();
+			}
+			index = size++;
+			keys[index] = key;
+			insert(index);
+		}
+
+		feasible[index] = metrics.isFeasible();
+		applied[index] = metrics.isApplied();
+		linesOfCode[index] = metrics.getNumberOfExtractedLinesOfCode();
+		parameters[index] = metrics.getNumberOfParametersInExtractedMethod();
+		reduction[index] = metrics.getReductionOfCognitiveComplexity();
+		inherent[index] = metrics.getAccumulatedInherentComponent();
+		nestingComponent[index] = metrics.getAccumulatedNestingComponent();
+		contributors[index] = metrics.getNumberNestingContributors();
+		nesting[index] = metrics.getNesting();
+		runtime[index] = metrics.getRuntime();
+		reason[index] = reasonIndexes.computeIfAbsent(metrics.getReason(), r -> {
+			reasons.add(r);
+			return reasons.size() - 1;
+		});
+		return index;
+	}
+
+	/** Removes the entry at {@code index}, moving the last entry into it. */
+	public void remove(int index) {
+		delete(slotOf(keys[index]));
+
+		int last = size - 1;
+		if (index != last) {
+			keys[index] = keys[last];
+			feasible[index] = feasible[last];
+			applied[index] = applied[last];
+			linesOfCode[index] = linesOfCode[last];
+			parameters[index] = parameters[last];
+			reduction[index] = reduction[last];
+			inherent[index] = inherent[last];
+			nestingComponent[index] = nestingComponent[last];
+			contributors[index] = contributors[last];
+			nesting[index] = nesting[last];
+			runtime[index] = runtime[last];
+			reason[index] = reason[last];
+			slots[slotOf(keys[index])] = index + 1;
+		}
+		size--;
+	}
+
+	// =========================================================================
+	// MAP VIEW
+	// =========================================================================
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return indexOf(key) >= 0;
+	}
+
+	@Override
+	public CodeExtractionMetrics get(Object key) {
+		int index = indexOf(key);
+		return index < 0 ? null : metrics(index);
+	}
+
+	@Override
+	public CodeExtractionMetrics put(ExtractionTextRange range, CodeExtractionMetrics metrics) {
+		int index = indexOf(range.getStart(), range.getEnd());
+		CodeExtractionMetrics previous = index < 0 ? null : metrics(index);
+		put(range.getStart(), range.getEnd(), metrics);
+		return previous;
+	}
+
+	@Override
+	public CodeExtractionMetrics remove(Object key) {
+		int index = indexOf(key);
+		if (index < 0) {
+			return null;
+		}
+		CodeExtractionMetrics previous = metrics(index);
+		remove(index);
+		return previous;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(slots, 0);
+		reasons.clear();
+		reasonIndexes.clear();
+		size = 0;
+	}
+
+	@Override
+	public Set<Map.Entry<ExtractionTextRange, CodeExtractionMetrics>> entrySet() {
+		return new AbstractSet<>() {
+			@Override
+			public Iterator<Map.Entry<ExtractionTextRange, CodeExtractionMetrics>> iterator() {
+				return new Iterator<>() {
+					private int next;
+
+					@Override
+					public boolean hasNext() {
+						return next < size;
+					}
+
+					@Override
+					public Map.Entry<ExtractionTextRange, CodeExtractionMetrics> next() {
+						if (next >= size) {
+							throw new NoSuchElementException();
+						}
+						int index = next++;
+						return new SimpleImmutableEntry<>(range(index), metrics(index));
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	// =========================================================================
+	// INDEX
+	// =========================================================================
+
+	private int indexOf(Object key) {
+		if (!(key instanceof ExtractionTextRange range) || range.getStart() == null || range.getEnd() == null) {
+			return -1;
+		}
+		return indexOf(range.getStart(), range.getEnd());
+	}
+
+	private static int home(long key, int mask) {
+		return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+	}
+
+	/** Slot holding the entry of {@code key}, which must be in the table. */
+	private int slotOf(long key) {
+		int mask = slots.length - 1;
+		int slot = home(key, mask);
+		while (keys[slots[slot] - 1] != key) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private void insert(int index) {
+		int mask = slots.length - 1;
+		int slot = home(keys[index], mask);
+		while (slots[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		slots[slot] = index + 1;
+	}
+
+	/** Frees a slot, shifting back the entries probed past it. */
+	private void delete(int hole) {
+		int mask = slots.length - 1;
+		for (int slot = (hole + 1) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+			int home = home(keys[slots[slot] - 1], mask);
+			// The entry may fill the hole unless its home lies after the hole, up to its slot
+			if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+				slots[hole] = slots[slot];
+				hole = slot;
+			}
+		}
+		slots[hole] = 0;
+	}
+
+	private void grow() {
+		int capacity = 2 * keys.length;
+		keys = Arrays.copyOf(keys, capacity);
+		feasible = Arrays.copyOf(feasible, capacity);
+		applied = Arrays.copyOf(applied, capacity);
+		linesOfCode = Arrays.copyOf(linesOfCode, capacity);
+		parameters = Arrays.copyOf(parameters, capacity);
+		reduction = Arrays.copyOf(reduction, capacity);
+		inherent = Arrays.copyOf(inherent, capacity);
+		nestingComponent = Arrays.copyOf(nestingComponent, capacity);
+		contributors = Arrays.copyOf(contributors, capacity);
+		nesting = Arrays.copyOf(nesting, capacity);
+		runtime = Arrays.copyOf(runtime, capacity);
+		reason = Arrays.copyOf(reason, capacity);
+
+		slots = new int[2 * capacity];
+		for (int index = 0; index < size; index++) {
+			insert(index);
+		}
+	}
+}
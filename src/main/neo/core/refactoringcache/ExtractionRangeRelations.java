@@ -0,0 +1,164 @@
+package main.neo.core.refactoringcache;
+
+import java.util.Arrays;
+import java.util.List;
+
+import main.neo.core.ExtractionTextRange;
+
+/**
+ * Containment and conflict relations among a list of distinct text ranges,
+ * computed with a sweep line.
+ * <p>
+ * The ranges are swept in their natural order (start ascending, end
+ * descending) keeping the <em>active</em> ranges, those whose end has not been
+ * passed yet. Every active range either contains the current range or
+ * partially overlaps it, so each step only visits related pairs. Among the
+ * containers, the immediate ones (those with no other container in between)
+ * are read off a staircase: scanning the active ranges by decreasing start, a
+ * container is immediate if it ends before every container seen so far. The
+ * result is the Hasse diagram of containment, the same edges a transitive
+ * reduction of the full containment graph leaves, without building that graph.
+ * </p>
+ * <p>
+ * Ranges are identified by their position in the input list. Both relations
+ * are reported in the order of an all-pairs loop over the list (by smaller
+ * index, then larger index), so graphs built from them have the same iteration
+ * order as graphs built by that loop.
+ * </p>
+ */
+public class ExtractionRangeRelations {
+
+	private final int[] starts;
+	private final int[] ends;
+	private final boolean[] contained;
+
+	private long[] covers = new long[16];
+	private int coverCount;
+	private long[] conflicts = new long[16];
+	private int conflictCount;
+
+	/**
+	 * Computes the relations among {@code ranges}.
+	 *
+	 * @param ranges Distinct text ranges.
+	 */
+	public ExtractionRangeRelations(List<ExtractionTextRange> ranges) {
+		int n = ranges.size();
+		this.starts = new int[n];
+		this.ends = new int[n];
+		this.contained = new boolean[n];
+		for (int i = 0; i < n; i++) {
+			starts[i] = ranges.get(i).getStart();
+			ends[i] = ranges.get(i).getEnd();
+		}
+
+		sweep(sortedIndices(ranges));
+
+		covers = Arrays.copyOf(covers, coverCount);
+		conflicts = Arrays.copyOf(conflicts, conflictCount);
+		Arrays.sort(covers);
+		Arrays.sort(conflicts);
+	}
+
+	/**
+	 * Returns the immediate containment pairs, as {@code {contained, container}}
+	 * indices.
+	 */
+	public int[][] getCovers() {
+		int[][] result = new int[covers.length][];
+		for (int k = 0; k < covers.length; k++) {
+			int i = first(covers[k]);
+			int j = second(covers[k]);
+			// Pairs are stored as (smaller, larger) index: recover the direction
+			result[k] = (starts[i] >= starts[j] && ends[i] <= ends[j]) ? new int[] { i, j } : new int[] { j, i };
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the partially overlapping pairs, as {@code {i, j}} indices with
+	 * {@code i < j}.
+	 */
+	public int[][] getConflicts() {
+		int[][] result = new int[conflicts.length][];
+		for (int k = 0; k < conflicts.length; k++) {
+			result[k] = new int[] { first(conflicts[k]), second(conflicts[k]) };
+		}
+		return result;
+	}
+
+	/**
+	 * Checks whether the range at index {@code i} is contained in another range
+	 * of the list.
+	 */
+	public boolean isContained(int i) {
+		return contained[i];
+	}
+
+	// --- Sweep ---
+
+	private void sweep(Integer[] order) {
+		int[] active = new int[order.length];
+		int activeCount = 0;
+
+		for (int q : order) {
+			// Ranges ending before q starts end before every later range starts too
+			int kept = 0;
+			for (int k = 0; k < activeCount; k++) {
+				if (ends[active[k]] >= starts[q]) {
+					active[kept++] = active[k];
+				}
+			}
+			activeCount = kept;
+
+			// Active ranges start before q (or at the same offset and end later):
+			// they either contain q or partially overlap it
+			int minEnd = Integer.MAX_VALUE;
+			for (int k = activeCount - 1; k >= 0; k--) {
+				int p = active[k];
+				if (ends[p] >= ends[q]) {
+					contained[q] = true;
+					if (ends[p] < minEnd) {
+						minEnd = ends[p];
+						covers = add(covers, coverCount++, pair(p, q));
+					}
+				} else {
+					conflicts = add(conflicts, conflictCount++, pair(p, q));
+				}
+			}
+
+			active[activeCount++] = q;
+		}
+	}
+
+	private Integer[] sortedIndices(List<ExtractionTextRange> ranges) {
+		Integer[] order = new Integer[ranges.size()];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> ranges.get(a).compareTo(ranges.get(b)));
+		return order;
+	}
+
+	// --- Helper Methods ---
+
+	private static long pair(int a, int b) {
+		return ((long) Math.min(a, b) << 32) | Math.max(a, b);
+	}
+
+	private static int first(long pair) {
+		return (int) (pair >>> 32);
+	}
+
+	private static int second(long pair) {
+		return (int) pair;
+	}
+
+	private static long[] add(long[] array, int index, long value) {
+		if (index == array.length) {
+			array = Arrays.copyOf(array, array.length * 2);
+		}
+		array[index] = value;
+		return array;
+	}
+}
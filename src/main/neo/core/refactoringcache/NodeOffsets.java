@@ -0,0 +1,87 @@
+package main.neo.core.refactoringcache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.Javadoc;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+
+/**
+ * {@link StoredOffsets} that identify the offsets of a method by the AST nodes
+ * starting or ending there, rather than by their distance to the start of the
+ * method.
+ * <p>
+ * A start offset is stored as the preorder index of the outermost node starting
+ * there, and an end offset as the postorder index of the outermost node ending
+ * there; Javadoc comments are skipped. As the indices only depend on the shape
+ * of the AST, the stored ranges of a method remain valid when its whitespace or
+ * comments change, or when it moves within its file.
+ * </p>
+ */
+final class NodeOffsets implements StoredOffsets {
+
+	private final int[] starts;
+	private final int[] ends;
+	private final Map<Integer, Integer> startPositions = new HashMap<>();
+	private final Map<Integer, Integer> endPositions = new HashMap<>();
+
+	NodeOffsets(MethodDeclaration method) {
+		List<ASTNode> preorder = new ArrayList<>();
+		List<ASTNode> postorder = new ArrayList<>();
+		method.accept(new ASTVisitor() {
+			@Override
+			public boolean preVisit2(ASTNode node) {
+				// Javadoc comments are not part of the shape of the method
+				if (node instanceof Javadoc) {
+					return false;
+				}
+				preorder.add(node);
+				return true;
+			}
+
+			@Override
+			public void postVisit(ASTNode node) {
+				postorder.add(node);
+			}
+		});
+
+		starts = new int[preorder.size()];
+		for (int i = 0; i < starts.length; i++) {
+			starts[i] = preorder.get(i).getStartPosition();
+			startPositions.putIfAbsent(starts[i], i);
+		}
+		ends = new int[postorder.size()];
+		for (int i = 0; i < ends.length; i++) {
+			ASTNode node = postorder.get(i);
+			ends[i] = node.getStartPosition() + node.getLength();
+		}
+		// The outermost node ending at an offset is the last one visited in postorder
+		for (int i = ends.length - 1; i >= 0; i--) {
+			endPositions.putIfAbsent(ends[i], i);
+		}
+	}
+
+	@Override
+	public int encodeStart(int offset) {
+		return startPositions.getOrDefault(offset, -1);
+	}
+
+	@Override
+	public int encodeEnd(int offset) {
+		return endPositions.getOrDefault(offset, -1);
+	}
+
+	@Override
+	public int decodeStart(int position) {
+		return position >= 0 && position < starts.length ? starts[position] : -1;
+	}
+
+	@Override
+	public int decodeEnd(int position) {
+		return position >= 0 && position < ends.length ? ends[position] : -1;
+	}
+}
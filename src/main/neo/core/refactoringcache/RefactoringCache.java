@@ -1,10 +1,8 @@
 package main.neo.core.refactoringcache;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -12,7 +10,6 @@ import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.MethodDeclaration;
 import org.eclipse.jdt.core.dom.NodeFinder;
-import org.eclipse.ltk.core.refactoring.Change;
 import org.jgrapht.alg.TransitiveReduction;
 import org.jgrapht.graph.DefaultEdge;
 import org.jgrapht.graph.DefaultWeightedEdge;
@@ -21,6 +18,7 @@ import org.jgrapht.graph.SimpleGraph;
 
 import main.neo.core.ExtractionTextRange;
 import main.neo.core.Sequence;
+import main.neo.core.graphs.CompactExtractionGraph;
 import main.neo.core.graphs.ExtractionVertex;
 import main.neo.core.jdt.CodeExtractionMetrics;
 
@@ -39,14 +37,25 @@ public class RefactoringCache {
 	private final MethodDeclaration methodDeclaration;
 
 	/**
-	 * Map storing metrics for specific code offsets (start, end).
+	 * Table storing metrics for specific code offsets (start, end).
 	 */
-	public Map<ExtractionTextRange, CodeExtractionMetrics> cache;
+	public ExtractionMetricsTable cache;
+
+	/**
+	 * Workers checking ranges ahead of a lazy search, or null.
+	 */
+	private RefactoringCachePrefetcher prefetcher;
+
+	/**
+	 * Persisted entries of the method, read from the mapped file on demand, or
+	 * null.
+	 */
+	private RefactoringCacheFileReader stored;
 
 	public RefactoringCache(CompilationUnit compilationUnit, MethodDeclaration methodDeclaration) {
 		this.compilationUnit = compilationUnit;
 		this.methodDeclaration = methodDeclaration;
-		this.cache = new HashMap<>();
+		this.cache = new ExtractionMetricsTable();
 	}
 
 	public RefactoringCache(String path, String fileName, CompilationUnit compilationUnit) throws IOException {
@@ -72,32 +81,24 @@ public class RefactoringCache {
 			MethodDeclaration methodDeclaration) throws IOException {
 		this.compilationUnit = compilationUnit;
 		this.methodDeclaration = methodDeclaration;
-		this.cache = new HashMap<>();
-
-		try (BufferedReader br = new BufferedReader(new FileReader(path + fileName))) {
-			String line = br.readLine(); // Skip CSV header
-
-			while ((line = br.readLine()) != null) {
-				String[] tokens = line.split(",");
-				// Parse feasibility (1 = true, 0 = false)
-				boolean isFeasible = Integer.parseInt(tokens[2].trim()) == 1;
-
-				CodeExtractionMetrics metrics = new CodeExtractionMetrics(isFeasible, tokens[3], // reason
-						false, // isVariableDeclaration (defaulted false in original)
-						Integer.parseInt(tokens[5].trim()), // extractedLOC
-						Integer.parseInt(tokens[4].trim()), // parameters
-						new ArrayList<Change>(), new ArrayList<Change>(), Integer.parseInt(tokens[6].trim()), // reductionCC
-						Integer.parseInt(tokens[8].trim()), // accumulatedInherent
-						Integer.parseInt(tokens[9].trim()), // accumulatedNesting
-						Integer.parseInt(tokens[10].trim()), // numberNestingContributors
-						Integer.parseInt(tokens[11].trim()), // nesting
-						Long.parseLong(tokens[12].trim()) // runtime
-				);
-
-				ExtractionTextRange pair = new ExtractionTextRange(Integer.parseInt(tokens[0].trim()), Integer.parseInt(tokens[1].trim()));
-				this.cache.put(pair, metrics);
-			}
-		}
+		this.cache = new ExtractionMetricsTable(RefactoringCacheCsvConverter.readCsv(Path.of(path + fileName)));
+	}
+
+	/**
+	 * Initialize the refactoring cache from a binary file (see
+	 * {@link RefactoringCacheFileReader}). Its entries are read on demand: a
+	 * missing range is looked up in the file before it is evaluated, and
+	 * {@link #loadStoredEntries()} copies them all into the table.
+	 *
+	 * @param reader            Open reader; its offsets must already be mapped to
+	 *                          {@code compilationUnit}.
+	 * @param compilationUnit   The AST CompilationUnit.
+	 * @param methodDeclaration The MethodDeclaration (can be null).
+	 */
+	public RefactoringCache(RefactoringCacheFileReader reader, CompilationUnit compilationUnit,
+			MethodDeclaration methodDeclaration) {
+		this(compilationUnit, methodDeclaration);
+		this.stored = reader;
 	}
 
 	/**
@@ -112,17 +113,21 @@ public class RefactoringCache {
 			return null;
 		}
 
-		ExtractionTextRange key = sequence.getTextRange();
-		CodeExtractionMetrics result = cache.get(key);
+		int start = sequence.getStartOffset();
+		int end = sequence.getEndOffset();
+		int index = cache.indexOf(start, end);
 
-		if (result == null) {
-			// Miss: Evaluate and update cache
-			result = sequence.evaluate();
-			cache.put(key, result);
+		if (index < 0) {
+			// Miss: read the persisted entry, or evaluate (unless a prefetch worker already did), and update cache
+			CodeExtractionMetrics metrics = storedMetrics(start, end);
+			if (metrics == null && prefetcher != null) {
+				metrics = prefetcher.take(start, end);
+			}
+			index = cache.put(start, end, metrics != null ? metrics : sequence.evaluate());
 		}
 
 		// Return a copy to prevent external modification of the cached value
-		return new CodeExtractionMetrics(result);
+		return cache.metrics(index);
 	}
 
 	@Override
@@ -154,6 +159,11 @@ public class RefactoringCache {
 	 * Populates two graphs: 1. A dependency graph of feasible refactorings (based
 	 * on containment). 2. A conflict graph where refactorings overlap.
 	 * </p>
+	 * <p>
+	 * Containment edges only link each refactoring to the ones immediately
+	 * containing it; both relations are computed by
+	 * {@link ExtractionRangeRelations}.
+	 * </p>
 	 *
 	 * @param graphWithoutConflicts Target graph to store valid inclusions (no
 	 *                              conflicts).
@@ -177,66 +187,34 @@ public class RefactoringCache {
 		offsetPairs = new ArrayList<ExtractionTextRange>(feasibleRefactorings.keySet());
 
 		result = new SimpleDirectedWeightedGraph<>(DefaultWeightedEdge.class);
+		ExtractionVertex[] vertices = createVertices(offsetPairs, feasibleRefactorings, result);
+		ExtractionRangeRelations relations = new ExtractionRangeRelations(offsetPairs);
 
-		// Iterate the list of offset pairs
-		for (int i = 0; i < offsetPairs.size(); i++) {
-			ExtractionTextRange p = offsetPairs.get(i);
-			CodeExtractionMetrics codeExtractionMetrics = cache.get(p);
-			ExtractionVertex vertexP = new ExtractionVertex(p.getStart(), p.getEnd(),
-					codeExtractionMetrics.getReductionOfCognitiveComplexity(),
-					codeExtractionMetrics.getAccumulatedInherentComponent(),
-					codeExtractionMetrics.getAccumulatedNestingComponent(),
-					codeExtractionMetrics.getNumberNestingContributors(), codeExtractionMetrics.getNesting());
-			result.addVertex(vertexP);
-
-			// Iterate over the next elements of the list
-			for (int j = i + 1; j < offsetPairs.size(); j++) {
-				ExtractionTextRange q = offsetPairs.get(j);
-				CodeExtractionMetrics codeExtractionMetrics2 = cache.get(q);
-				ExtractionVertex vertexQ = new ExtractionVertex(q.getStart(), q.getEnd(),
-						codeExtractionMetrics2.getReductionOfCognitiveComplexity(),
-						codeExtractionMetrics2.getAccumulatedInherentComponent(),
-						codeExtractionMetrics2.getAccumulatedNestingComponent(),
-						codeExtractionMetrics2.getNumberNestingContributors(), codeExtractionMetrics2.getNesting());
-				result.addVertex(vertexQ);
-
-				// q is contained in p
-				if (ExtractionTextRange.isContained(q, p)) {
-					edge = result.addEdge(vertexQ, vertexP);
-					result.setEdgeWeight(edge, 1);
-				}
-				// p is contained in q
-				else if (ExtractionTextRange.isContained(p, q)) {
-					edge = result.addEdge(vertexP, vertexQ);
-					result.setEdgeWeight(edge, 1);
-				}
-				// q overlapped by p (conflict)
-				else if (ExtractionTextRange.overlapping(p, q)) {
-					// add conflicts to conflict graph
-					conflictsGraph.addVertex(vertexP);
-					conflictsGraph.addVertex(vertexQ);
-					conflictsGraph.addEdge(vertexQ, vertexP);
-				}
-			}
+		// immediate containments only: the graph is already transitively reduced
+		for (int[] cover : relations.getCovers()) {
+			edge = result.addEdge(vertices[cover[0]], vertices[cover[1]]);
+			result.setEdgeWeight(edge, 1);
+		}
+
+		// add conflicts (partial overlaps) to conflict graph
+		for (int[] conflict : relations.getConflicts()) {
+			conflictsGraph.addVertex(vertices[conflict[0]]);
+			conflictsGraph.addVertex(vertices[conflict[1]]);
+			conflictsGraph.addEdge(vertices[conflict[1]], vertices[conflict[0]]);
 		}
 
 		// add root and its corresponding edges to the graph
 		if (root != null) {
 			if (result.addVertex(root)){
-				for (ExtractionVertex v : result.vertexSet()) {
-					if (!v.equals(root)) {
-						if (result.outDegreeOf(v) == 0) {
-							edge = result.addEdge(v, root);
-							result.setEdgeWeight(edge, 1);
-						}
+				for (int i = 0; i < vertices.length; i++) {
+					if (!relations.isContained(i)) {
+						edge = result.addEdge(vertices[i], root);
+						result.setEdgeWeight(edge, 1);
 					}
 				}
 			}
 		}
 
-		// transitivity reduction on the graph
-		TransitiveReduction.INSTANCE.reduce(result);
-
 		// store the current graph that does not contain conflicts
 		main.neo.core.graphs.Utils.copy(result, graphWithoutConflicts);
 
@@ -270,43 +248,47 @@ public class RefactoringCache {
 				DefaultWeightedEdge.class);
 
 		// Build Graph
-		for (int i = 0; i < offsetPairs.size(); i++) {
-			ExtractionTextRange p = offsetPairs.get(i);
-			ExtractionVertex vertexP = createVertex(p, feasibleRefactorings.get(p));
-			result.addVertex(vertexP);
-
-			for (int j = i + 1; j < offsetPairs.size(); j++) {
-				ExtractionTextRange q = offsetPairs.get(j);
-				ExtractionVertex vertexQ = createVertex(q, feasibleRefactorings.get(q));
-				result.addVertex(vertexQ);
-
-				if (ExtractionTextRange.isContained(q, p)) {
-					DefaultWeightedEdge edge = result.addEdge(vertexQ, vertexP);
-					if (edge != null)
-						result.setEdgeWeight(edge, 1);
-				} else if (ExtractionTextRange.isContained(p, q)) {
-					DefaultWeightedEdge edge = result.addEdge(vertexP, vertexQ);
-					if (edge != null)
-						result.setEdgeWeight(edge, 1);
-				}
-			}
+		ExtractionVertex[] vertices = createVertices(offsetPairs, feasibleRefactorings, result);
+		ExtractionRangeRelations relations = new ExtractionRangeRelations(offsetPairs);
+		for (int[] cover : relations.getCovers()) {
+			DefaultWeightedEdge edge = result.addEdge(vertices[cover[0]], vertices[cover[1]]);
+			if (edge != null)
+				result.setEdgeWeight(edge, 1);
 		}
 
 		// Attach Root (Method Declaration)
 		if (root != null && result.addVertex(root)) {
-			for (ExtractionVertex v : result.vertexSet()) {
-				if (!v.equals(root) && result.outDegreeOf(v) == 0) {
-					DefaultWeightedEdge edge = result.addEdge(v, root);
+			for (int i = 0; i < vertices.length; i++) {
+				if (!relations.isContained(i)) {
+					DefaultWeightedEdge edge = result.addEdge(vertices[i], root);
 					if (edge != null)
 						result.setEdgeWeight(edge, 1);
 				}
 			}
 		}
 
-		TransitiveReduction.INSTANCE.reduce(result);
 		return result;
 	}
 
+	/**
+	 * Generate the array-backed graph of the feasible refactorings, without
+	 * building any JGraphT graph.
+	 *
+	 * @param root The root node (the method body).
+	 * @return The graph, with {@code root} at {@link CompactExtractionGraph#ROOT}.
+	 */
+	public CompactExtractionGraph getCompactGraphOfFeasibleRefactorings(ExtractionVertex root) {
+		List<ExtractionVertex> vertices = new ArrayList<>();
+		for (int i = 0; i < cache.size(); i++) {
+			if (cache.isFeasible(i)) {
+				vertices.add(new ExtractionVertex(cache.start(i), cache.end(i),
+						cache.reductionOfCognitiveComplexity(i), cache.accumulatedInherentComponent(i),
+						cache.accumulatedNestingComponent(i), cache.numberNestingContributors(i), cache.nesting(i)));
+			}
+		}
+		return new CompactExtractionGraph(vertices, root);
+	}
+
 	/**
 	 * Reduces the graph by removing redundant refactorings that do not offer better
 	 * cognitive complexity reduction than their sub-components.
@@ -384,14 +366,14 @@ public class RefactoringCache {
 
 		for (int i = 0; i < offsetPairs.size(); i++) {
 			ExtractionTextRange p = offsetPairs.get(i);
-			CodeExtractionMetrics metricsP = cache.get(p);
+			CodeExtractionMetrics metricsP = feasibleRefactorings.get(p);
 
 			for (int j = 0; j < offsetPairs.size(); j++) {
 				if (i == j)
 					continue;
 
 				ExtractionTextRange q = offsetPairs.get(j);
-				CodeExtractionMetrics metricsQ = cache.get(q);
+				CodeExtractionMetrics metricsQ = feasibleRefactorings.get(q);
 
 				// If both refactorings yield the same reduction, remove the one that
 				// contains/is contained by the other
@@ -411,6 +393,48 @@ public class RefactoringCache {
 		return result;
 	}
 
+	/**
+	 * Copies every persisted entry not in the table yet into it, for the
+	 * solvers that need the whole cache. Records failing their integrity check
+	 * are skipped.
+	 *
+	 * @return {@code false} if a persisted record was corrupted, in which case
+	 *         the table lacks its entry
+	 */
+	public boolean loadStoredEntries() {
+		if (stored == null) {
+			return true;
+		}
+		boolean intact = true;
+		for (int i = 0; i < stored.size(); i++) {
+			int start = stored.start(i);
+			int end = stored.end(i);
+			if (start < 0 || end < 0 || !stored.verify(i)) {
+				intact = false;
+			} else if (cache.indexOf(start, end) < 0) {
+				cache.put(start, end, stored.metrics(i));
+			}
+		}
+		return intact;
+	}
+
+	/** Metrics of a range read from the persisted entries, or null if absent or corrupted. */
+	private CodeExtractionMetrics storedMetrics(int start, int end) {
+		if (stored == null) {
+			return null;
+		}
+		int index = stored.indexOf(start, end);
+		return index >= 0 && stored.verify(index) ? stored.metrics(index) : null;
+	}
+
+	void setStoredEntries(RefactoringCacheFileReader stored) {
+		this.stored = stored;
+	}
+
+	void setPrefetcher(RefactoringCachePrefetcher prefetcher) {
+		this.prefetcher = prefetcher;
+	}
+
 	public CompilationUnit getCompilationUnit() {
 		return this.compilationUnit;
 	}
@@ -419,6 +443,18 @@ public class RefactoringCache {
 		return this.methodDeclaration;
 	}
 
+	// Helper to create the vertices of the given ranges, in order, and add them to the graph
+	private ExtractionVertex[] createVertices(List<ExtractionTextRange> offsetPairs,
+			Map<ExtractionTextRange, CodeExtractionMetrics> metrics,
+			SimpleDirectedWeightedGraph<ExtractionVertex, DefaultWeightedEdge> graph) {
+		ExtractionVertex[] vertices = new ExtractionVertex[offsetPairs.size()];
+		for (int i = 0; i < vertices.length; i++) {
+			vertices[i] = createVertex(offsetPairs.get(i), metrics.get(offsetPairs.get(i)));
+			graph.addVertex(vertices[i]);
+		}
+		return vertices;
+	}
+
 	// Helper to create vertex to avoid code duplication
 	private ExtractionVertex createVertex(ExtractionTextRange p, CodeExtractionMetrics metrics) {
 		return new ExtractionVertex(p.getStart(), p.getEnd(), metrics.getReductionOfCognitiveComplexity(),
@@ -0,0 +1,82 @@
+package main.neo.core.refactoringcache;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.ltk.core.refactoring.Change;
+
+import main.neo.core.ExtractionTextRange;
+import main.neo.core.jdt.CodeExtractionMetrics;
+
+/**
+ * Reads refactoring caches in the legacy CSV layout and converts them to the
+ * binary layout of {@link RefactoringCacheFileWriter}.
+ * <p>
+ * Expected CSV header: "Offset_A, Offset_B, feasibility, reason, #parameters,
+ * extractedLOC, reductionCC, extractedMethodCC, accumulatedInherentComponent,
+ * accumulatedNestingComponent, numberNestingContributors, nesting, runtime"
+ * </p>
+ */
+public final class RefactoringCacheCsvConverter {
+
+	private RefactoringCacheCsvConverter() {
+		// utility class
+	}
+
+	/**
+	 * Parses a legacy CSV refactoring cache.
+	 *
+	 * @param csv path of the CSV file
+	 * @return the entries keyed by their absolute text range
+	 * @throws IOException if the file cannot be read
+	 */
+	public static Map<ExtractionTextRange, CodeExtractionMetrics> readCsv(Path csv) throws IOException {
+		Map<ExtractionTextRange, CodeExtractionMetrics> entries = new HashMap<>();
+
+		try (BufferedReader br = Files.newBufferedReader(csv)) {
+			String line = br.readLine(); // Skip CSV header
+
+			while ((line = br.readLine()) != null) {
+				String[] tokens = line.split(",");
+				// Parse feasibility (1 = true, 0 = false)
+				boolean isFeasible = Integer.parseInt(tokens[2].trim()) == 1;
+
+				CodeExtractionMetrics metrics = new CodeExtractionMetrics(isFeasible, tokens[3], // reason
+						false, // isVariableDeclaration (defaulted false in original)
+						Integer.parseInt(tokens[5].trim()), // extractedLOC
+						Integer.parseInt(tokens[4].trim()), // parameters
+						new ArrayList<Change>(), new ArrayList<Change>(), Integer.parseInt(tokens[6].trim()), // reductionCC
+						Integer.parseInt(tokens[8].trim()), // accumulatedInherent
+						Integer.parseInt(tokens[9].trim()), // accumulatedNesting
+						Integer.parseInt(tokens[10].trim()), // numberNestingContributors
+						Integer.parseInt(tokens[11].trim()), // nesting
+						Long.parseLong(tokens[12].trim()) // runtime
+				);
+
+				ExtractionTextRange pair = new ExtractionTextRange(Integer.parseInt(tokens[0].trim()),
+						Integer.parseInt(tokens[1].trim()));
+				entries.put(pair, metrics);
+			}
+		}
+		return entries;
+	}
+
+	/**
+	 * Converts a legacy CSV refactoring cache into a binary one. Offsets are kept
+	 * absolute (base offset 0).
+	 *
+	 * @param csv    path of the CSV file to read
+	 * @param binary path of the binary file to (re)write
+	 * @return number of converted entries
+	 */
+	public static int convert(Path csv, Path binary) throws IOException {
+		Map<ExtractionTextRange, CodeExtractionMetrics> entries = readCsv(csv);
+		RefactoringCacheFileWriter.write(binary, entries, 0);
+		return entries.size();
+	}
+}
@@ -0,0 +1,280 @@
+package main.neo.core.refactoringcache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.zip.CRC32;
+
+import org.eclipse.ltk.core.refactoring.Change;
+
+import main.neo.core.ExtractionTextRange;
+import main.neo.core.jdt.CodeExtractionMetrics;
+
+/**
+ * Reads a binary refactoring cache file through a memory-mapped
+ * {@link FileChannel}.
+ * <p>
+ * The file is made of a fixed-size header, an array of fixed-width records
+ * sorted by (start, end) and a table with the distinct infeasibility reasons:
+ * </p>
+ * <pre>
+ * header  : magic:int version:int records:int reasons:int reasonTable:long reasonsCrc32:long
+ * record  : start:int end:int runtime:long flags:int reason:int loc:int params:int
+ *           reduction:int inherent:int nesting:int contributors:int nestingLevel:int crc32:int
+ * reasons : (length:int utf8:byte[length])*
+ * </pre>
+ * <p>
+ * Opening a file only validates its header and its (small) reason table, and
+ * never reads the records: each record carries the CRC-32 of its fields, which
+ * {@link #verify(int)} checks when the record is used. The accessors read
+ * single fields straight from the mapping, so nothing is allocated until an
+ * entry is materialized with {@link #metrics(int)} or {@link #range(int)}. The
+ * mapping remains valid after the file channel is closed, which happens as
+ * soon as the file is mapped. Offsets are
+ * stored as positions translated by a {@link StoredOffsets}, for instance
+ * relative to the start of the method.
+ * </p>
+ */
+public class RefactoringCacheFileReader implements AutoCloseable {
+
+	/** Magic number identifying a binary refactoring cache ("RFCB"). */
+	public static final int MAGIC = 0x52464342;
+
+	/** Version of the binary layout. */
+	public static final int VERSION = 2;
+
+	public static final int HEADER_SIZE = 32;
+	public static final int RECORD_SIZE = 56;
+
+	static final int START = 0;
+	static final int END = 4;
+	static final int RUNTIME = 8;
+	static final int FLAGS = 16;
+	static final int REASON = 20;
+	static final int LOC = 24;
+	static final int PARAMETERS = 28;
+	static final int REDUCTION = 32;
+	static final int INHERENT = 36;
+	static final int NESTING = 40;
+	static final int CONTRIBUTORS = 44;
+	static final int NESTING_LEVEL = 48;
+	static final int CHECKSUM = 52;
+
+	static final int FEASIBLE_FLAG = 1;
+
+	private final ByteBuffer buffer;
+	private final int size;
+	private final String[] reasons;
+	private final StoredOffsets offsets;
+
+	private RefactoringCacheFileReader(ByteBuffer buffer, StoredOffsets offsets) throws IOException {
+		this.buffer = buffer;
+		this.offsets = offsets;
+
+		if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+			throw new IOException("Not a binary refactoring cache");
+		}
+		if (buffer.getInt(4) != VERSION) {
+			throw new IOException("Unsupported binary refactoring cache version " + buffer.getInt(4));
+		}
+		this.size = buffer.getInt(8);
+		int reasonCount = buffer.getInt(12);
+		long reasonTable = buffer.getLong(16);
+		// Every reason takes at least its length
+		if (size < 0 || reasonCount < 0 || reasonTable != HEADER_SIZE + (long) size * RECORD_SIZE
+				|| reasonTable > buffer.limit() || reasonCount > (buffer.limit() - reasonTable) / 4) {
+			throw new IOException("Corrupted binary refactoring cache header");
+		}
+		this.reasons = readReasons((int) reasonTable, reasonCount, buffer.getLong(24));
+	}
+
+	/** Decodes the reason table, checking its bounds and its CRC-32. */
+	private String[] readReasons(int position, int count, long checksum) throws IOException {
+		String[] decoded = new String[count];
+		int start = position;
+		for (int i = 0; i < count; i++) {
+			int length = position + 4 <= buffer.limit() ? buffer.getInt(position) : -1;
+			if (length < 0 || position + 4 + length > buffer.limit()) {
+				throw new IOException("Truncated binary refactoring cache reason table");
+			}
+			byte[] bytes = new byte[length];
+			buffer.get(position + 4, bytes);
+			decoded[i] = new String(bytes, StandardCharsets.UTF_8);
+			position += 4 + length;
+		}
+		CRC32 crc = new CRC32();
+		crc.update(buffer.slice(start, position - start));
+		if (crc.getValue() != checksum) {
+			throw new IOException("Corrupted binary refactoring cache reason table");
+		}
+		return decoded;
+	}
+
+	/**
+	 * Maps {@code file} and validates its header and reason table.
+	 *
+	 * @param baseOffset offset added to every stored start/end offset
+	 * @throws IOException if the file cannot be read or is not a valid cache
+	 */
+	public static RefactoringCacheFileReader open(Path file, int baseOffset) throws IOException {
+		return open(file, StoredOffsets.relativeTo(baseOffset));
+	}
+
+	/**
+	 * Maps {@code file} and validates its header and reason table.
+	 *
+	 * @param offsets translation of the stored positions to offsets
+	 * @throws IOException if the file cannot be read or is not a valid cache
+	 */
+	public static RefactoringCacheFileReader open(Path file, StoredOffsets offsets) throws IOException {
+		MappedByteBuffer mapped;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		return new RefactoringCacheFileReader(mapped.order(ByteOrder.BIG_ENDIAN), offsets);
+	}
+
+	/**
+	 * Checks the CRC-32 of a record.
+	 *
+	 * @return {@code true} if the stored checksum matches the fields of the record
+	 */
+	public boolean verify(int index) {
+		return (int) checksum(buffer, position(index)) == buffer.getInt(position(index) + CHECKSUM);
+	}
+
+	/**
+	 * Checks the CRC-32 of every record, reading the whole file.
+	 *
+	 * @return {@code true} if every record is intact
+	 */
+	public boolean verify() {
+		for (int i = 0; i < size; i++) {
+			if (!verify(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** CRC-32 of the fields of the record at {@code position}, all but the checksum itself. */
+	static long checksum(ByteBuffer buffer, int position) {
+		CRC32 crc = new CRC32();
+		crc.update(buffer.slice(position, CHECKSUM));
+		return crc.getValue();
+	}
+
+	/** @return number of records in the file. */
+	public int size() {
+		return size;
+	}
+
+	/** @return the start offset of a record, or {@code -1} if its stored position is not valid */
+	public int start(int index) {
+		return offsets.decodeStart(field(index, START));
+	}
+
+	/** @return the end offset of a record, or {@code -1} if its stored position is not valid */
+	public int end(int index) {
+		return offsets.decodeEnd(field(index, END));
+	}
+
+	public boolean isFeasible(int index) {
+		return (field(index, FLAGS) & FEASIBLE_FLAG) != 0;
+	}
+
+	public int reductionOfCognitiveComplexity(int index) {
+		return field(index, REDUCTION);
+	}
+
+	public int accumulatedInherentComponent(int index) {
+		return field(index, INHERENT);
+	}
+
+	public int accumulatedNestingComponent(int index) {
+		return field(index, NESTING);
+	}
+
+	public int numberNestingContributors(int index) {
+		return field(index, CONTRIBUTORS);
+	}
+
+	public int nesting(int index) {
+		return field(index, NESTING_LEVEL);
+	}
+
+	/**
+	 * Binary search for the record of a range.
+	 *
+	 * @return the record index, or {@code -1} if the range is not stored
+	 */
+	public int indexOf(int start, int end) {
+		int storedStart = offsets.encodeStart(start);
+		int storedEnd = offsets.encodeEnd(end);
+		if (storedStart < 0 || storedEnd < 0) {
+			return -1;
+		}
+		int low = 0;
+		int high = size - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int cmp = Integer.compare(field(mid, START), storedStart);
+			if (cmp == 0) {
+				cmp = Integer.compare(field(mid, END), storedEnd);
+			}
+			if (cmp < 0) {
+				low = mid + 1;
+			} else if (cmp > 0) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+
+	/** Materializes the range of a record. */
+	public ExtractionTextRange range(int index) {
+		return new ExtractionTextRange(start(index), end(index));
+	}
+
+	/** Materializes the metrics of a record (without JDT changes). */
+	public CodeExtractionMetrics metrics(int index) {
+		return new CodeExtractionMetrics(isFeasible(index), reason(index), false, field(index, LOC),
+				field(index, PARAMETERS), new ArrayList<Change>(), new ArrayList<Change>(),
+				reductionOfCognitiveComplexity(index), accumulatedInherentComponent(index),
+				accumulatedNestingComponent(index), numberNestingContributors(index), nesting(index),
+				buffer.getLong(position(index) + RUNTIME));
+	}
+
+	public String reason(int index) {
+		int reason = field(index, REASON);
+		if (reason < 0 || reason >= reasons.length) {
+			throw new IllegalStateException("Corrupted reason index " + reason + " in record " + index);
+		}
+		return reasons[reason];
+	}
+
+	private int field(int index, int offset) {
+		return buffer.getInt(position(index) + offset);
+	}
+
+	private int position(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Record " + index + " out of " + size);
+		}
+		return HEADER_SIZE + index * RECORD_SIZE;
+	}
+
+	/** Nothing to release: the file channel is closed once the file is mapped. */
+	@Override
+	public void close() {
+		// the mapping is released with the reader
+	}
+}
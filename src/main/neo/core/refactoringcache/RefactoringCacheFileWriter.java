@@ -0,0 +1,141 @@
+package main.neo.core.refactoringcache;
+
+import static main.neo.core.refactoringcache.RefactoringCacheFileReader.CONTRIBUTORS;
+import static main.neo.core.refactoringcache.RefactoringCacheFileReader.CHECKSUM;
+import static main.neo.core.refactoringcache.RefactoringCacheFileReader.END;
+import static main.neo.core.refactoringcache.RefactoringCacheFileReader.FEASIBLE_FLAG;
+import static main.neo.core.refactoringcache.RefactoringCacheFileReader.FLAGS;
+import static main.neo.core.refactoringcache.RefactoringCacheFileReader.HEADER_SIZE;
+import static main.neo.core.refactoringcache.RefactoringCacheFileReader.INHERENT;
+import static main.neo.core.refactoringcache.RefactoringCacheFileReader.LOC;
+import static main.neo.core.refactoringcache.RefactoringCacheFileReader.NESTING;
+import static main.neo.core.refactoringcache.RefactoringCacheFileReader.NESTING_LEVEL;
+import static main.neo.core.refactoringcache.RefactoringCacheFileReader.PARAMETERS;
+import static main.neo.core.refactoringcache.RefactoringCacheFileReader.REASON;
+import static main.neo.core.refactoringcache.RefactoringCacheFileReader.RECORD_SIZE;
+import static main.neo.core.refactoringcache.RefactoringCacheFileReader.REDUCTION;
+import static main.neo.core.refactoringcache.RefactoringCacheFileReader.RUNTIME;
+import static main.neo.core.refactoringcache.RefactoringCacheFileReader.START;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import main.neo.core.ExtractionTextRange;
+import main.neo.core.jdt.CodeExtractionMetrics;
+
+/**
+ * Writes refactoring cache entries in the binary layout read by
+ * {@link RefactoringCacheFileReader}.
+ * <p>
+ * Records are sorted by stored (start, end) so the reader can binary-search
+ * them, and offsets are stored as translated by a {@link StoredOffsets}; ranges
+ * without a stored position are left out. JDT changes are never
+ * written: they are only meaningful for the working copy they were computed
+ * on.
+ * </p>
+ */
+public final class RefactoringCacheFileWriter {
+
+	private RefactoringCacheFileWriter() {
+		// utility class
+	}
+
+	/**
+	 * Writes {@code entries} to {@code file}, replacing its contents.
+	 *
+	 * @param baseOffset offset subtracted from every start/end offset
+	 */
+	public static void write(Path file, Map<ExtractionTextRange, CodeExtractionMetrics> entries, int baseOffset)
+			throws IOException {
+		write(file, entries, StoredOffsets.relativeTo(baseOffset));
+	}
+
+	/**
+	 * Writes {@code entries} to {@code file}, replacing its contents.
+	 *
+	 * @param offsets translation of the offsets to stored positions
+	 */
+	public static void write(Path file, Map<ExtractionTextRange, CodeExtractionMetrics> entries,
+			StoredOffsets offsets) throws IOException {
+		// Stored (start, end) positions of the ranges that have one, and the index of the range
+		List<int[]> positions = new ArrayList<>(entries.size());
+		List<ExtractionTextRange> ranges = new ArrayList<>(entries.size());
+		for (ExtractionTextRange range : entries.keySet()) {
+			int start = offsets.encodeStart(range.getStart());
+			int end = offsets.encodeEnd(range.getEnd());
+			if (start >= 0 && end >= 0) {
+				positions.add(new int[] { start, end, ranges.size() });
+				ranges.add(range);
+			}
+		}
+		positions.sort((a, b) -> a[0] != b[0] ? Integer.compare(a[0], b[0]) : Integer.compare(a[1], b[1]));
+
+		Map<String, Integer> reasonIndexes = new HashMap<>();
+		ByteArrayOutputStream reasonTable = new ByteArrayOutputStream();
+		ByteBuffer records = ByteBuffer.allocate(ranges.size() * RECORD_SIZE).order(ByteOrder.BIG_ENDIAN);
+
+		for (int i = 0; i < positions.size(); i++) {
+			int[] stored = positions.get(i);
+			CodeExtractionMetrics metrics = entries.get(ranges.get(stored[2]));
+			String reason = metrics.getReason() != null ? metrics.getReason() : "";
+			Integer reasonIndex = reasonIndexes.get(reason);
+			if (reasonIndex == null) {
+				reasonIndex = reasonIndexes.size();
+				reasonIndexes.put(reason, reasonIndex);
+				byte[] bytes = reason.getBytes(StandardCharsets.UTF_8);
+				reasonTable.write(ByteBuffer.allocate(4).putInt(bytes.length).array());
+				reasonTable.write(bytes);
+			}
+
+			int position = i * RECORD_SIZE;
+			records.putInt(position + START, stored[0]);
+			records.putInt(position + END, stored[1]);
+			records.putLong(position + RUNTIME, metrics.getRuntime());
+			records.putInt(position + FLAGS, metrics.isFeasible() ? FEASIBLE_FLAG : 0);
+			records.putInt(position + REASON, reasonIndex);
+			records.putInt(position + LOC, metrics.getNumberOfExtractedLinesOfCode());
+			records.putInt(position + PARAMETERS, metrics.getNumberOfParametersInExtractedMethod());
+			records.putInt(position + REDUCTION, metrics.getReductionOfCognitiveComplexity());
+			records.putInt(position + INHERENT, metrics.getAccumulatedInherentComponent());
+			records.putInt(position + NESTING, metrics.getAccumulatedNestingComponent());
+			records.putInt(position + CONTRIBUTORS, metrics.getNumberNestingContributors());
+			records.putInt(position + NESTING_LEVEL, metrics.getNesting());
+			records.putInt(position + CHECKSUM, (int) RefactoringCacheFileReader.checksum(records, position));
+		}
+
+		ByteBuffer reasons = ByteBuffer.wrap(reasonTable.toByteArray());
+		CRC32 crc = new CRC32();
+		crc.update(reasons.duplicate());
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.BIG_ENDIAN);
+		header.putInt(RefactoringCacheFileReader.MAGIC);
+		header.putInt(RefactoringCacheFileReader.VERSION);
+		header.putInt(ranges.size());
+		header.putInt(reasonIndexes.size());
+		header.putLong(HEADER_SIZE + (long) ranges.size() * RECORD_SIZE);
+		header.putLong(crc.getValue());
+		header.flip();
+		records.clear();
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer[] parts = { header, records, reasons };
+			long total = header.remaining() + records.remaining() + reasons.remaining();
+			long written = 0;
+			while (written < total) {
+				written += channel.write(parts);
+			}
+		}
+	}
+}
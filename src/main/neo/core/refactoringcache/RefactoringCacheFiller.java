@@ -3,9 +3,9 @@ package main.neo.core.refactoringcache;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.EmptyStatement;
 
-import main.neo.app.Constants;
 import main.neo.core.Sequence;
 import main.neo.core.jdt.CodeExtractionMetrics;
+import main.neo.core.jdt.ComplexityIndex;
 import main.neo.core.refactoringcache.ConsecutiveSequenceIterator.SentenceSequenceInfo;
 
 /**
@@ -13,10 +13,21 @@ import main.neo.core.refactoringcache.ConsecutiveSequenceIterator.SentenceSequen
  * <p>
  * This class orchestrates the exhaustive enumeration of all possible valid
  * refactoring sequences within a given method to "warm up" the cache.
+ * {@link ConcurrentRefactoringCacheFiller} fills the cache with the same
+ * ranges on several workers.
  * </p>
  */
 public class RefactoringCacheFiller {
 
+	/**
+	 * Receives the ranges [from, to] (1-based, inclusive) of a sequence of
+	 * sibling statements the exploration visits.
+	 */
+	interface RangeVisitor {
+		/** @return whether the range is a feasible extraction. */
+		boolean visit(Sequence sentences, int from, int to);
+	}
+
 	/**
 	 * Explores all valid subsequences within a specific list of sibling statements.
 	 *
@@ -24,6 +35,24 @@ public class RefactoringCacheFiller {
 	 * @param refactoringCache The cache to populate.
 	 */
 	private static void exploreSentenceSequence(Sequence sentences, RefactoringCache refactoringCache) {
+		exploreSentenceSequence(sentences, ComplexityIndex.of(refactoringCache.getMethodDeclaration()),
+				(sequence, from, to) -> {
+					// Create a temporary Sequence object for the range [from, to]
+					Sequence subSequence = new Sequence(refactoringCache.getCompilationUnit(),
+							sequence.getSiblingNodes().subList(from - 1, to));
+
+					// Check feasibility (this call populates the cache internally)
+					CodeExtractionMetrics cem = refactoringCache.getMetrics(subSequence);
+					return cem.isFeasible();
+				});
+	}
+
+	/**
+	 * Visits the ranges of a list of sibling statements the exhaustive
+	 * enumeration checks, in the order it checks them. Ranges bounded by an empty
+	 * statement are skipped.
+	 */
+	static void exploreSentenceSequence(Sequence sentences, ComplexityIndex complexity, RangeVisitor visitor) {
 		new ValidSentenceSequencesExplorer(new SentenceSequenceInfo() {
 
 			@Override
@@ -33,19 +62,9 @@ public class RefactoringCacheFiller {
 
 			@Override
 			public int cognitiveComplexityOfSentence(int sentence) {
-				ASTNode node = sentences.getSiblingNodes().get(sentence - 1);
-
-				// 1. Try to get the accumulated complexity (direct contribution)
-				Integer complexity = (Integer) node
-						.getProperty(Constants.ACCUMULATED_CONTRIBUTION_TO_COGNITIVE_COMPLEXITY);
-
-				// 2. If null, it might be a container (e.g., TryStatement) containing complex
-				// code
-				if (complexity == null) {
-					complexity = (Integer) node.getProperty(Constants.COGNITIVE_COMPLEXITY_OF_NESTED_CODE);
-				}
-
-				return (complexity != null) ? complexity : 0;
+				// Accumulated complexity: the contribution of the sentence and the code
+				// nested in it (e.g., in a TryStatement)
+				return complexity.accumulatedContribution(sentences.getSiblingNodes().get(sentence - 1));
 			}
 
 			@Override
@@ -54,14 +73,7 @@ public class RefactoringCacheFiller {
 				if (isEmptyStatement(from) || isEmptyStatement(to)) {
 					return false;
 				}
-
-				// Create a temporary Sequence object for the range [from, to]
-				Sequence subSequence = new Sequence(refactoringCache.getCompilationUnit(),
-						sentences.getSiblingNodes().subList(from - 1, to));
-
-				// Check feasibility (this call populates the cache internally)
-				CodeExtractionMetrics cem = refactoringCache.getMetrics(subSequence);
-				return cem.isFeasible();
+				return visitor.visit(sentences, from, to);
 			}
 
 			private boolean isEmptyStatement(int sentence) {
@@ -0,0 +1,171 @@
+package main.neo.core.refactoringcache;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+
+import main.neo.core.WorkerPool;
+import main.neo.core.jdt.CodeExtractionMetrics;
+import main.neo.core.jdt.Utils;
+import main.neo.core.refactoringcache.ConcurrentRefactoringCacheFiller.Candidate;
+import main.neo.core.solvers.exhaustivesearch.ExhaustiveEnumerationAlgorithm.Approach;
+
+/**
+ * Checks, on background workers of the shared {@link WorkerPool}, the ranges
+ * an enumerative search is about to query from a {@link RefactoringCache} that
+ * was not filled beforehand.
+ * <p>
+ * The search fills the cache lazily: {@link SentenceSequenceIterator} asks
+ * {@link RefactoringCache#getMetrics(main.neo.core.Sequence)} for a range the
+ * first time it reaches it. While the prefetcher is open, the workers walk the
+ * candidate ranges of {@link ConcurrentRefactoringCacheFiller} in the order the
+ * iterators reach them (block by block, by start and then by end in
+ * {@link Approach} order), each one on a private working copy of the unit. A
+ * miss takes the metrics a worker already computed instead of running the
+ * extract-method check again; ranges not checked yet are checked on the calling
+ * thread as before, and the workers skip them.
+ * </p>
+ * <p>
+ * The cache itself is only written on the calling thread. When the unit is not
+ * backed by the Java model, or no worker is requested, nothing is prefetched.
+ * </p>
+ */
+public final class RefactoringCachePrefetcher implements AutoCloseable {
+
+	private static final Logger LOGGER = Logger.getLogger(RefactoringCachePrefetcher.class.getName());
+
+	private final RefactoringCache refactoringCache;
+
+	/** The workers, or {@code null} if nothing is prefetched. */
+	private final List<Future<?>> workers;
+
+	/** Metrics checked by the workers and not taken by the cache yet. */
+	private final Map<Long, CodeExtractionMetrics> prefetched = new ConcurrentHashMap<>();
+
+	/** Ranges a worker is checking, has checked, or the cache already asked for. */
+	private final Set<Long> claimed = ConcurrentHashMap.newKeySet();
+
+	/** Number of ranges the workers have checked. */
+	private final AtomicInteger checked = new AtomicInteger();
+
+	private RefactoringCachePrefetcher(RefactoringCache refactoringCache, List<Future<?>> workers) {
+		this.refactoringCache = refactoringCache;
+		this.workers = workers;
+	}
+
+	/**
+	 * Starts prefetching the ranges of {@code method} that are not in the cache
+	 * yet, and attaches the prefetcher to the cache until it is closed.
+	 *
+	 * @param refactoringCache The cache the search will query.
+	 * @param method           The method to analyze; its complexity index must be
+	 *                         attached.
+	 * @param approach         The enumeration approach of the search.
+	 * @param parallelism      Number of workers; values lower than 1 disable the
+	 *                         prefetch.
+	 * @return the prefetcher, to be closed once the search is done.
+	 */
+	public static RefactoringCachePrefetcher start(RefactoringCache refactoringCache, MethodDeclaration method,
+			Approach approach, int parallelism) {
+		ICompilationUnit icu = Utils.getICompilationUnit(refactoringCache.getCompilationUnit());
+		if (parallelism < 1 || icu == null) {
+			return new RefactoringCachePrefetcher(refactoringCache, null);
+		}
+
+		List<Candidate> candidates = ConcurrentRefactoringCacheFiller.candidates(refactoringCache, method);
+		Comparator<Candidate> byEnd = Comparator.comparingInt(candidate -> candidate.to);
+		candidates.sort(Comparator.<Candidate>comparingInt(candidate -> candidate.block)
+				.thenComparingInt(candidate -> candidate.from)
+				.thenComparing(approach == Approach.LONG_SEQUENCE_FIRST ? byEnd.reversed() : byEnd));
+		int workers = Math.min(parallelism, candidates.size());
+		if (workers == 0) {
+			return new RefactoringCachePrefetcher(refactoringCache, null);
+		}
+
+		String source;
+		try {
+			source = icu.getSource();
+		} catch (JavaModelException e) {
+			LOGGER.log(Level.WARNING, "Cannot read the source of the unit, nothing is prefetched: {0}", e);
+			return new RefactoringCachePrefetcher(refactoringCache, null);
+		}
+
+		RefactoringCachePrefetcher prefetcher = new RefactoringCachePrefetcher(refactoringCache, new ArrayList<>());
+		AtomicInteger cursor = new AtomicInteger();
+		for (int worker = 0; worker < workers; worker++) {
+			prefetcher.workers.add(WorkerPool.executor()
+					.submit(() -> prefetcher.prefetch(icu, source, method, candidates, cursor)));
+		}
+		refactoringCache.setPrefetcher(prefetcher);
+		return prefetcher;
+	}
+
+	/** Worker loop: checks the next unclaimed candidate until there are none left. */
+	private void prefetch(ICompilationUnit icu, String source, MethodDeclaration method, List<Candidate> candidates,
+			AtomicInteger cursor) {
+		try {
+			ConcurrentRefactoringCacheFiller.evaluate(icu, source, method, candidates, () -> {
+				for (int c = cursor.getAndIncrement(); c < candidates.size(); c = cursor.getAndIncrement()) {
+					Candidate candidate = candidates.get(c);
+					if (claimed.add(ExtractionMetricsTable.key(candidate.start, candidate.end))) {
+						return c;
+					}
+				}
+				return -1;
+			}, (metrics, c) -> {
+				Candidate candidate = candidates.get(c);
+				prefetched.put(ExtractionMetricsTable.key(candidate.start, candidate.end), metrics);
+				checked.incrementAndGet();
+			});
+		} catch (CoreException | RuntimeException e) {
+			// The ranges left are checked by the cache on a miss
+			LOGGER.log(Level.FINE, "Cache prefetch stopped: {0}", e);
+		}
+	}
+
+	/**
+	 * Takes the metrics of a range checked by a worker, and keeps the workers
+	 * from checking it afterwards.
+	 *
+	 * @return the metrics, or {@code null} if no worker has checked the range.
+	 */
+	CodeExtractionMetrics take(int start, int end) {
+		long key = ExtractionMetricsTable.key(start, end);
+		claimed.add(key);
+		return prefetched.remove(key);
+	}
+
+	/** @return the number of ranges the workers have checked so far. */
+	public int getCheckedCount() {
+		return checked.get();
+	}
+
+	/** @return the number of checked ranges the cache has not taken yet. */
+	public int getPendingCount() {
+		return prefetched.size();
+	}
+
+	/** Stops the workers and detaches the prefetcher from the cache. */
+	@Override
+	public void close() {
+		if (workers != null) {
+			for (Future<?> worker : workers) {
+				worker.cancel(true);
+			}
+			refactoringCache.setPrefetcher(null);
+		}
+		prefetched.clear();
+	}
+}
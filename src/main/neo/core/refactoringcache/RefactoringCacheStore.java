@@ -0,0 +1,369 @@
+package main.neo.core.refactoringcache;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.StructuralPropertyDescriptor;
+
+import main.boot.Activator;
+import main.neo.app.Constants;
+
+/**
+ * Durable store of {@link RefactoringCache} contents, so re-analysing a method
+ * that has not changed skips the (expensive) cache filling step.
+ * <p>
+ * Each method is stored in its own binary file (see
+ * {@link RefactoringCacheFileReader}), named after a SHA-256 key computed
+ * from the normalised source of the method declaration, the JDT compliance
+ * level of its project and the store format version. The normalised source is
+ * the method as printed from its AST, without its Javadoc, so whitespace and
+ * comments do not affect the key. Offsets are stored as AST node positions (see
+ * {@link NodeOffsets}), so an entry remains valid when the method moves within
+ * its file or is reformatted. Any other edit to the method yields a different
+ * key, which is how stale entries are invalidated; bumping
+ * {@link #FORMAT_VERSION} invalidates every entry at once.
+ * </p>
+ * <p>
+ * The store is bounded in size. It keeps a running total of the bytes of its
+ * entries, read from the directory once and updated on every write and delete;
+ * when a write takes the total over budget, the least recently used entries
+ * are evicted until the store fits in it again. Entries whose header
+ * or reason table cannot be read (truncated, corrupted or written by another
+ * format version) are deleted and reported as misses; a corrupted record is
+ * only detected, and treated as a miss, when it is read.
+ * </p>
+ */
+public class RefactoringCacheStore {
+
+	private static final Logger LOGGER = Logger.getLogger(RefactoringCacheStore.class.getName());
+
+	/**
+	 * Version of the stored entries; bump it whenever the layout or the way the
+	 * metrics are computed changes.
+	 */
+	static final int FORMAT_VERSION = 3;
+
+	/** Fraction of the budget kept after an eviction pass, to avoid evicting on every write. */
+	private static final double EVICTION_LOW_WATERMARK = 0.9;
+
+	private static RefactoringCacheStore defaultStore;
+
+	private final Path directory;
+	private final long maxBytes;
+
+	/**
+	 * Bytes of the stored entries, or {@code -1} until read from the directory.
+	 * Concurrent writes of the same entry may make it drift; every eviction pass
+	 * recounts it. Guarded by {@code this}.
+	 */
+	private long storedBytes = -1;
+
+	public RefactoringCacheStore(Path directory, long maxBytes) {
+		this.directory = directory;
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Returns the store located under the plugin state location, or {@code null}
+	 * when the plugin is not running (e.g. in plain unit tests).
+	 */
+	public static synchronized RefactoringCacheStore getDefault() {
+		if (defaultStore == null) {
+			Activator plugin = Activator.getDefault();
+			if (plugin == null) {
+				return null;
+			}
+			Path directory = plugin.getStateLocation().append(Constants.REFACTORING_CACHE_STORE_FOLDER).toFile()
+					.toPath();
+			defaultStore = new RefactoringCacheStore(directory, Constants.REFACTORING_CACHE_STORE_MAX_BYTES);
+		}
+		return defaultStore;
+	}
+
+	// =========================================================================
+	// LOAD / SAVE
+	// =========================================================================
+
+	/**
+	 * Attaches the stored entries of its method to {@code cache}. The file is
+	 * mapped and only its header and reason table are checked: the records are
+	 * read, and their checksums verified, when the cache looks them up (see
+	 * {@link RefactoringCache#loadStoredEntries()}).
+	 *
+	 * @return {@code true} on a hit; {@code false} if there is no (valid) entry,
+	 *         in which case {@code cache} is left untouched
+	 */
+	public boolean load(RefactoringCache cache) {
+		MethodDeclaration method = cache.getMethodDeclaration();
+		String key = key(cache.getCompilationUnit(), method);
+		if (key == null) {
+			return false;
+		}
+		Path file = fileFor(key);
+		if (!Files.isRegularFile(file)) {
+			return false;
+		}
+
+		try {
+			cache.setStoredEntries(RefactoringCacheFileReader.open(file, new NodeOffsets(method)));
+		} catch (IOException | RuntimeException e) {
+			LOGGER.log(Level.FINE, "Discarding unreadable refactoring cache entry " + file, e);
+			deleteEntry(file);
+			return false;
+		}
+
+		touch(file);
+		return true;
+	}
+
+	/**
+	 * Stores the contents of {@code cache} and evicts old entries if the store
+	 * exceeds its budget. Failures are logged and otherwise ignored: the store
+	 * is only an accelerator.
+	 */
+	public void save(RefactoringCache cache) {
+		MethodDeclaration method = cache.getMethodDeclaration();
+		String key = key(cache.getCompilationUnit(), method);
+		if (key == null) {
+			return;
+		}
+
+		Path file = fileFor(key);
+		Path tmp = null;
+		try {
+			Files.createDirectories(directory);
+			seedStoredBytes();
+			tmp = Files.createTempFile(directory, key, ".tmp");
+			RefactoringCacheFileWriter.write(tmp, cache.cache, new NodeOffsets(method));
+			long size = Files.size(tmp);
+			long replaced = sizeOf(file);
+			move(tmp, file);
+			if (addStoredBytes(size - replaced) > maxBytes) {
+				evict();
+			}
+		} catch (IOException e) {
+			LOGGER.log(Level.FINE, "Cannot store refactoring cache entry " + file, e);
+			if (tmp != null) {
+				delete(tmp);
+			}
+		}
+	}
+
+	/** Removes the stored entry of the given method, if any. */
+	public void invalidate(CompilationUnit compilationUnit, MethodDeclaration method) {
+		String key = key(compilationUnit, method);
+		if (key != null) {
+			deleteEntry(fileFor(key));
+		}
+	}
+
+	/** Removes every stored entry. */
+	public synchronized void clear() {
+		for (Path file : entries()) {
+			delete(file);
+		}
+		storedBytes = -1;
+	}
+
+	// =========================================================================
+	// KEYS
+	// =========================================================================
+
+	/**
+	 * Computes the store key of a method, or {@code null} if there is no method.
+	 */
+	String key(CompilationUnit compilationUnit, MethodDeclaration method) {
+		if (compilationUnit == null || method == null) {
+			return null;
+		}
+		String source = normalisedSource(method);
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(("v" + FORMAT_VERSION + "|" + complianceLevel(compilationUnit) + "|")
+					.getBytes(StandardCharsets.UTF_8));
+			digest.update(source.getBytes(StandardCharsets.UTF_8));
+			return HexFormat.of().formatHex(digest.digest());
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	/**
+	 * Prints every property of the method but its Javadoc from the AST: the
+	 * printed source has no comments and its own layout.
+	 */
+	private static String normalisedSource(MethodDeclaration method) {
+		StringBuilder source = new StringBuilder();
+		for (Object property : method.structuralPropertiesForType()) {
+			StructuralPropertyDescriptor descriptor = (StructuralPropertyDescriptor) property;
+			if (descriptor != MethodDeclaration.JAVADOC_PROPERTY) {
+				source.append(descriptor.getId()).append('=').append(method.getStructuralProperty(descriptor))
+						.append('\n');
+			}
+		}
+		return source.toString();
+	}
+
+	private static String complianceLevel(CompilationUnit compilationUnit) {
+		ITypeRoot typeRoot = compilationUnit.getTypeRoot();
+		IJavaProject project = typeRoot != null ? typeRoot.getJavaProject() : null;
+		String compliance = project != null ? project.getOption(JavaCore.COMPILER_COMPLIANCE, true) : null;
+		return compliance != null ? compliance : "JLS" + compilationUnit.getAST().apiLevel();
+	}
+
+	private Path fileFor(String key) {
+		return directory.resolve(key + Constants.FILE_EXTENSION_FOR_PERSISTENT_REFACTORING_CACHE);
+	}
+
+	// =========================================================================
+	// FILE MAINTENANCE
+	// =========================================================================
+
+	/** Reads the size of the stored entries from the directory, the first time only. */
+	private synchronized void seedStoredBytes() {
+		if (storedBytes < 0) {
+			long total = 0;
+			for (Path file : entries()) {
+				total += sizeOf(file);
+			}
+			storedBytes = total;
+		}
+	}
+
+	/** @return the updated size of the stored entries. */
+	private synchronized long addStoredBytes(long delta) {
+		seedStoredBytes();
+		storedBytes = Math.max(0, storedBytes + delta);
+		return storedBytes;
+	}
+
+	/** Deletes an entry and takes its size off the stored bytes. */
+	private void deleteEntry(Path file) {
+		seedStoredBytes();
+		long size = sizeOf(file);
+		if (delete(file)) {
+			addStoredBytes(-size);
+		}
+	}
+
+	/**
+	 * Deletes the least recently used entries while the store exceeds its
+	 * budget, down to {@link #EVICTION_LOW_WATERMARK} of it, and recounts the
+	 * stored bytes from the directory.
+	 */
+	synchronized void evict() {
+		List<StoredEntry> stored = new ArrayList<>();
+		long total = 0;
+		for (Path file : entries()) {
+			try {
+				StoredEntry entry = new StoredEntry(file, Files.size(file), Files.getLastModifiedTime(file));
+				stored.add(entry);
+				total += entry.size;
+			} catch (IOException e) {
+				// concurrently evicted or being replaced: ignore
+			}
+		}
+		storedBytes = total;
+		if (total <= maxBytes) {
+			return;
+		}
+
+		stored.sort(Comparator.comparing(entry -> entry.lastUsed));
+		long target = (long) (maxBytes * EVICTION_LOW_WATERMARK);
+		for (StoredEntry entry : stored) {
+			if (total <= target) {
+				break;
+			}
+			if (delete(entry.file)) {
+				total -= entry.size;
+			}
+		}
+		storedBytes = total;
+	}
+
+	/** Size and last use of a stored entry, snapshotted for an eviction pass. */
+	private static final class StoredEntry {
+		final Path file;
+		final long size;
+		final FileTime lastUsed;
+
+		StoredEntry(Path file, long size, FileTime lastUsed) {
+			this.file = file;
+			this.size = size;
+			this.lastUsed = lastUsed;
+		}
+	}
+
+	private List<Path> entries() {
+		List<Path> files = new ArrayList<>();
+		if (!Files.isDirectory(directory)) {
+			return files;
+		}
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+				"*" + Constants.FILE_EXTENSION_FOR_PERSISTENT_REFACTORING_CACHE)) {
+			for (Path file : stream) {
+				files.add(file);
+			}
+		} catch (IOException e) {
+			LOGGER.log(Level.FINE, "Cannot list refactoring cache store " + directory, e);
+		}
+		return files;
+	}
+
+	private static void move(Path from, Path to) throws IOException {
+		try {
+			Files.move(from, to, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private static void touch(Path file) {
+		try {
+			Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+		} catch (IOException e) {
+			// only affects eviction order
+		}
+	}
+
+	/** @return whether the file existed and was deleted. */
+	private static boolean delete(Path file) {
+		try {
+			return Files.deleteIfExists(file);
+		} catch (NoSuchFileException e) {
+			// already gone
+		} catch (IOException e) {
+			LOGGER.log(Level.FINE, "Cannot delete refactoring cache entry " + file, e);
+		}
+		return false;
+	}
+
+	/** @return the size of the file, or 0 if it does not exist. */
+	private static long sizeOf(Path file) {
+		try {
+			return Files.size(file);
+		} catch (IOException e) {
+			return 0;
+		}
+	}
+}
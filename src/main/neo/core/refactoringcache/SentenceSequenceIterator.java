@@ -9,9 +9,9 @@ import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.EmptyStatement;
 
-import main.neo.app.Constants;
 import main.neo.core.Sequence;
 import main.neo.core.jdt.CodeExtractionMetrics;
+import main.neo.core.jdt.ComplexityIndex;
 import main.neo.core.refactoringcache.ConsecutiveSequenceIterator.SentenceSequenceInfo;
 import main.neo.core.solvers.exhaustivesearch.ExhaustiveEnumerationAlgorithm.Approach;
 
@@ -46,6 +46,7 @@ public class SentenceSequenceIterator implements Iterable<List<Sequence>> {
 	public SentenceSequenceIterator(Sequence sentences, RefactoringCache refactoringCache, Approach approach) {
 		this.compilationUnit = refactoringCache.getCompilationUnit();
 		this.sentences = sentences;
+		ComplexityIndex complexity = ComplexityIndex.of(refactoringCache.getMethodDeclaration());
 
 		// Initialize the underlying integer-based iterator with specific logic for
 		// ASTNodes
@@ -59,10 +60,7 @@ public class SentenceSequenceIterator implements Iterable<List<Sequence>> {
 			@Override
 			public int cognitiveComplexityOfSentence(int sentence) {
 				// Sentences are 1-based in the iterator, but 0-based in the list
-				ASTNode node = sentences.getSiblingNodes().get(sentence - 1);
-
-				Integer acc = (Integer) node.getProperty(Constants.ACCUMULATED_CONTRIBUTION_TO_COGNITIVE_COMPLEXITY);
-				return (acc != null) ? acc : 0;
+				return complexity.accumulatedContribution(sentences.getSiblingNodes().get(sentence - 1));
 			}
 
 			@Override
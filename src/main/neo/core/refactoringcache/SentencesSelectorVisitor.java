@@ -12,8 +12,8 @@ import org.eclipse.jdt.core.dom.Statement;
 import org.eclipse.jdt.core.dom.SwitchCase;
 import org.eclipse.jdt.core.dom.SwitchStatement;
 
-import main.neo.app.Constants;
 import main.neo.core.Sequence;
+import main.neo.core.jdt.ComplexityIndex;
 
 /**
  * Visitor that traverses the AST to identify valid "sentences" (sequences of
@@ -32,6 +32,7 @@ public class SentencesSelectorVisitor extends ASTVisitor {
 
 	private final CompilationUnit compilationUnit;
 	private final List<Sequence> sentencesToIterate;
+	private ComplexityIndex complexity;
 
 	public SentencesSelectorVisitor(CompilationUnit cu) {
 		this.compilationUnit = cu;
@@ -40,6 +41,11 @@ public class SentencesSelectorVisitor extends ASTVisitor {
 
 	@Override
 	public void preVisit(ASTNode node) {
+		if (complexity == null) {
+			// The first node visited is the root of the visit, in the analysed method
+			complexity = ComplexityIndex.of(node);
+		}
+
 		// 1. Handle Blocks: Treat the entire list of statements in a block as a
 		// potential sequence source.
 		if (node instanceof Block) {
@@ -61,9 +67,7 @@ public class SentencesSelectorVisitor extends ASTVisitor {
 				case ASTNode.FOR_STATEMENT:
 				case ASTNode.IF_STATEMENT:
 				case ASTNode.WHILE_STATEMENT:
-					Integer acc = (Integer) node
-							.getProperty(Constants.ACCUMULATED_CONTRIBUTION_TO_COGNITIVE_COMPLEXITY);
-					if (acc != null && acc > 0) {
+					if (complexity.accumulatedContribution(node) > 0) {
 						getSentencesToIterate().add(new Sequence(this.compilationUnit, Arrays.asList(node)));
 					}
 					break;
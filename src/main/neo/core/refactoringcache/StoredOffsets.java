@@ -0,0 +1,50 @@
+package main.neo.core.refactoringcache;
+
+/**
+ * Translates the offsets of the extractions of a method to and from the
+ * positions stored in a refactoring cache file (see
+ * {@link RefactoringCacheFileReader}). Records are sorted by stored position,
+ * and a range is looked up by its stored position.
+ */
+public interface StoredOffsets {
+
+	/** @return the stored position of a range starting at {@code offset}, or {@code -1} if it has none */
+	int encodeStart(int offset);
+
+	/** @return the stored position of a range ending at {@code offset}, or {@code -1} if it has none */
+	int encodeEnd(int offset);
+
+	/** @return the start offset of a stored position, or {@code -1} if it is not valid */
+	int decodeStart(int position);
+
+	/** @return the end offset of a stored position, or {@code -1} if it is not valid */
+	int decodeEnd(int position);
+
+	/**
+	 * Offsets stored relative to {@code baseOffset} (usually the start of the
+	 * method), which is subtracted on write and added back on read.
+	 */
+	static StoredOffsets relativeTo(int baseOffset) {
+		return new StoredOffsets() {
+			@Override
+			public int encodeStart(int offset) {
+				return offset - baseOffset;
+			}
+
+			@Override
+			public int encodeEnd(int offset) {
+				return offset - baseOffset;
+			}
+
+			@Override
+			public int decodeStart(int position) {
+				return position + baseOffset;
+			}
+
+			@Override
+			public int decodeEnd(int position) {
+				return position + baseOffset;
+			}
+		};
+	}
+}
@@ -24,4 +24,16 @@ public interface RefactoringSolver {
 	 * @throws Exception if the solving process encounters a critical error
 	 */
 	Solution solve(SolverContext ctx, RefactoringCache cache) throws Exception;
+
+	/**
+	 * Asks a running {@link #solve} to stop as soon as possible, for instance
+	 * because another solver already found a good enough solution.
+	 * <p>
+	 * The interrupted call may return the best solution found so far,
+	 * {@code null}, or throw. Solvers that cannot be interrupted ignore the
+	 * request.
+	 * </p>
+	 */
+	default void cancel() {
+	}
 }
\ No newline at end of file
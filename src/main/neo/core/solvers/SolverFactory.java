@@ -3,6 +3,7 @@ package main.neo.core.solvers;
 import main.neo.app.Constants;
 import main.neo.core.solvers.config.EnumerativeSearchConfig;
 import main.neo.core.solvers.config.IlpConfig;
+import main.neo.core.solvers.exact.ExactSolver;
 import main.neo.core.solvers.exhaustivesearch.EnumerativeSearchSolver;
 import main.neo.core.solvers.exhaustivesearch.ExhaustiveEnumerationAlgorithm.Approach;
 import main.neo.core.solvers.ilp.IlpSolver;
@@ -28,18 +29,29 @@ public class SolverFactory {
             case ILP:
                 return new IlpSolver(new IlpConfig(Constants.TIME_LIMIT, Constants.WORKING_MEMORY));
                 
+            case EXACT:
+                return new ExactSolver();
+                
             case ES_LONG_SEQUENCE_FIRST:
                 return new EnumerativeSearchSolver(new EnumerativeSearchConfig(
-                        10000, 
-                        Approach.LONG_SEQUENCE_FIRST));
+                        enumerativeSearchEvaluations(),
+                        Approach.LONG_SEQUENCE_FIRST,
+                        Constants.ENUMERATIVE_SEARCH_PARALLELISM));
                 
             case ES_SHORT_SEQUENCE_FIRST:
                 return new EnumerativeSearchSolver(new EnumerativeSearchConfig(
-                        10000, 
-                        Approach.SHORT_SEQUENCE_FIRST));
+                        enumerativeSearchEvaluations(),
+                        Approach.SHORT_SEQUENCE_FIRST,
+                        Constants.ENUMERATIVE_SEARCH_PARALLELISM));
                 
             default:
                 throw new UnsupportedOperationException("Solver not implemented yet: " + type);
         }
     }
+
+    /** The larger budget only applies when the search runs on several workers. */
+    private static int enumerativeSearchEvaluations() {
+        return Constants.ENUMERATIVE_SEARCH_PARALLELISM > 1 ? Constants.PARALLEL_ENUMERATIVE_SEARCH_EVALUATIONS
+                : Constants.ENUMERATIVE_SEARCH_EVALUATIONS;
+    }
 }
\ No newline at end of file
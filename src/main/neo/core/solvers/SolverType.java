@@ -12,6 +12,9 @@ public enum SolverType {
     
     /** Integer Linear Programming solver (exact optimization). */
     ILP("ILP"),
+
+    /** Exact optimization of the ILP model in pure Java (no native dependency). */
+    EXACT("EXACT"),
     
     /** Exhaustive Search: Prioritizes longest sequences first (greedy heuristic). */
     ES_LONG_SEQUENCE_FIRST("ES-LSF"),
@@ -33,6 +36,29 @@ public enum SolverType {
         return key;
     }
 
+    /**
+     * Whether the solver needs every feasible extraction in the refactoring cache
+     * before it runs.
+     * <p>
+     * The exact solvers build their model from the whole cache. The enumerative
+     * searches query it only for the ranges their iterators reach, so the cache
+     * can be filled lazily, on first access.
+     * </p>
+     * @return {@code true} for ILP and EXACT.
+     */
+    public boolean needsFilledCache() {
+        return this == ILP || this == EXACT;
+    }
+
+    /**
+     * Whether a solution of the solver is a proven optimum of the model, rather
+     * than the best one a heuristic search found.
+     * @return {@code true} for ILP and EXACT.
+     */
+    public boolean isExact() {
+        return this == ILP || this == EXACT;
+    }
+
     /**
      * Helper to find the corresponding Enum from a string key (case-insensitive).
      * <p>
@@ -1,12 +1,14 @@
 package main.neo.core.solvers.config;
 
+import main.neo.app.Constants;
 import main.neo.core.solvers.exhaustivesearch.ExhaustiveEnumerationAlgorithm.Approach;
 
 /**
  * Configuration specific to the Enumerative Search (Exhaustive) solver.
  * <p>
  * Controls the search strategy (e.g., Longest First vs Shortest First) and limits
- * the search space by defining a maximum number of evaluations.
+ * the search space by defining a maximum number of evaluations, which can be
+ * spread over several worker threads.
  * </p>
  */
 public class EnumerativeSearchConfig implements SolverConfig {
@@ -18,12 +20,18 @@ public class EnumerativeSearchConfig implements SolverConfig {
      */
     private final int evaluations;
 
+    /**
+     * The number of worker threads evaluating candidates; 1 runs the search sequentially.
+     */
+    private final int parallelism;
+
     /**
      * Default constructor.
-     * Sets evaluations to 10,000 and approach to {@code LONG_SEQUENCE_FIRST}.
+     * Sets evaluations to {@link Constants#ENUMERATIVE_SEARCH_EVALUATIONS} and approach to
+     * {@code LONG_SEQUENCE_FIRST}.
      */
     public EnumerativeSearchConfig() {
-        this(10000, Approach.LONG_SEQUENCE_FIRST);
+        this(Constants.ENUMERATIVE_SEARCH_EVALUATIONS, Approach.LONG_SEQUENCE_FIRST);
     }
 
     /**
@@ -33,8 +41,20 @@ public class EnumerativeSearchConfig implements SolverConfig {
      * @param approach    The search strategy (heuristic) to use.
      */
     public EnumerativeSearchConfig(int evaluations, Approach approach) {
+        this(evaluations, approach, 1);
+    }
+
+    /**
+     * Constructor with custom settings, including the number of worker threads.
+     *
+     * @param evaluations The maximum number of candidates to evaluate.
+     * @param approach    The search strategy (heuristic) to use.
+     * @param parallelism The number of worker threads (1 for a sequential search).
+     */
+    public EnumerativeSearchConfig(int evaluations, Approach approach, int parallelism) {
         this.evaluations = evaluations;
         this.approach = approach;
+        this.parallelism = Math.max(1, parallelism);
     }
 
     public int getEvaluations() {
@@ -44,4 +64,8 @@ public class EnumerativeSearchConfig implements SolverConfig {
     public Approach getApproach() {
         return approach;
     }
+
+    public int getParallelism() {
+        return parallelism;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package main.neo.core.solvers.config;
+
+import java.util.List;
+
+import main.neo.core.solvers.SolverType;
+
+/**
+ * Configuration specific to the portfolio solver, which runs several solvers
+ * concurrently on the same method.
+ * <p>
+ * Lists the solvers to race and the fitness at which a heuristic solution is
+ * good enough to stop the heuristic solvers after it. A solution of an exact
+ * solver is preferred to any heuristic one, so the exact solvers are always
+ * waited for.
+ * </p>
+ */
+public class PortfolioConfig implements SolverConfig {
+
+    /**
+     * The solvers to run, in order of preference between equally fit solutions.
+     */
+    private final List<SolverType> solvers;
+
+    /**
+     * Fitness at or below which a heuristic solution is accepted without waiting
+     * for the heuristic solvers after it.
+     */
+    private final double targetFitness;
+
+    /**
+     * Constructor with the default target fitness.
+     * <p>
+     * Sets the target fitness to 1: a single extraction meeting the threshold,
+     * which no solution can improve on.
+     * </p>
+     *
+     * @param solvers The solvers to run.
+     */
+    public PortfolioConfig(List<SolverType> solvers) {
+        this(solvers, 1);
+    }
+
+    /**
+     * Constructor with custom settings.
+     *
+     * @param solvers       The solvers to run.
+     * @param targetFitness Fitness at or below which a heuristic solution stops the
+     *                      heuristic solvers after it.
+     */
+    public PortfolioConfig(List<SolverType> solvers, double targetFitness) {
+        this.solvers = List.copyOf(solvers);
+        this.targetFitness = targetFitness;
+    }
+
+    public List<SolverType> getSolvers() {
+        return solvers;
+    }
+
+    public double getTargetFitness() {
+        return targetFitness;
+    }
+}
@@ -0,0 +1,458 @@
+package main.neo.core.solvers.exact;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+
+import main.neo.core.WorkerPool;
+import main.neo.core.graphs.CompactExtractionGraph;
+import main.neo.core.graphs.ContainmentClosureIndex;
+import main.neo.core.graphs.ExtractionVertex;
+
+/**
+ * Pure-Java exact solver for the model {@link main.neo.core.solvers.ilp.Model}
+ * hands to CPLEX.
+ * <p>
+ * <b>Model:</b> select a set of extractions, always including the root (the
+ * whole method body), with no two conflicting (partially overlapping) ones, so
+ * that for every selected vertex $i$
+ * </p>
+ * <pre>
+ * cc(i) - sum over the selected children j of i of (cc(j) + (nesting(j) - nesting(i)) * contributors(j)) &lt;= threshold
+ * </pre>
+ * <p>
+ * where the children of $i$ are the selected vertices it contains with no other
+ * selected vertex in between (the $Z_{ji}$ variables of the ILP), and minimise
+ * the number of selected vertices.
+ * </p>
+ * <p>
+ * <b>Algorithm:</b> since conflicting vertices cannot be selected together, the
+ * selected vertices form a containment tree, and the children of a vertex are
+ * pairwise disjoint. The term a child adds to the constraint of its parent does
+ * not depend on what is selected inside the child, so the cheapest selection
+ * inside a vertex can be computed once, bottom-up (by increasing length): for
+ * every vertex $i$ the children are chosen by a weighted interval scheduling
+ * over the vertices $i$ contains, looking for the smallest total cost (the
+ * cheapest selection inside every child, the child included) whose total weight
+ * covers {@code cc(i) - threshold}. That dynamic program runs one cost at a
+ * time, so it stops at the optimal cost.
+ * </p>
+ * <p>
+ * The vertices inside each vertex are read from the
+ * {@link ContainmentClosureIndex} of the graph, so the work is proportional to
+ * the size of the containment closure rather than to the square of the number
+ * of vertices. Conflicts are derived from the offsets of the vertices, with the
+ * same predicate the graphs of the ILP are built from: two ranges are disjoint
+ * if one starts after the other ends.
+ * </p>
+ */
+public class ExactModel {
+
+    private static final int INFEASIBLE = Integer.MAX_VALUE;
+
+    private final CompactExtractionGraph graph;
+    private final ContainmentClosureIndex closure;
+    private final int threshold;
+
+    /** Cost of the cheapest feasible selection inside each vertex, the vertex included. */
+    private int[] cost;
+
+    /** Children selected for each vertex by the cheapest selection. */
+    private int[][] children;
+
+    private volatile boolean cancelled;
+
+    /**
+     * Constructs the model.
+     *
+     * @param vertices  Candidate extractions (feasible refactorings); the root may be among them.
+     * @param root      Vertex of the whole method body, always selected.
+     * @param threshold Cognitive complexity threshold to enforce.
+     */
+    public ExactModel(Collection<ExtractionVertex> vertices, ExtractionVertex root, int threshold) {
+        this(new CompactExtractionGraph(vertices, root), threshold);
+    }
+
+    /**
+     * Constructs the model of a graph, sharing its containment closure.
+     *
+     * @param graph     Graph of the candidate extractions, the root always selected.
+     * @param threshold Cognitive complexity threshold to enforce.
+     */
+    public ExactModel(CompactExtractionGraph graph, int threshold) {
+        this.graph = graph;
+        this.closure = graph.closure();
+        this.threshold = threshold;
+    }
+
+    /**
+     * Solves the model.
+     *
+     * @return The selected vertices other than the root, sorted by offset, or {@code null} if no
+     *         selection meets the threshold.
+     */
+    public List<ExtractionVertex> solve() {
+        return solve(1);
+    }
+
+    /**
+     * Solves the model, the independent components of the graph (see
+     * {@link CompactExtractionGraph#components()}) on up to {@code parallelism} workers of the
+     * shared {@link WorkerPool}.
+     * <p>
+     * The vertices of a component only contain vertices of the same component, so the cheapest
+     * selection inside each of them is computed component by component. The components only
+     * share the constraint of the root: for every component, the best weight its vertices can
+     * remove from the root at each cost is computed separately, and the budgets are recombined
+     * by a max-plus convolution of those curves, looking for the smallest total cost that covers
+     * {@code cc(root) - threshold}.
+     * </p>
+     *
+     * @param parallelism Maximum number of workers; values lower than 2 solve the components on
+     *                    the calling thread.
+     * @return The selected vertices other than the root, sorted by offset, or {@code null} if no
+     *         selection meets the threshold.
+     * @throws CancellationException if the model is cancelled (see {@link #cancel()}) or the
+     *         calling thread is interrupted while waiting for the workers.
+     */
+    public List<ExtractionVertex> solve(int parallelism) {
+        int n = graph.size();
+        cost = new int[n];
+        children = new int[n][];
+
+        // Rank of every vertex by end offset, the order the interval scheduling needs
+        Integer[] byEnd = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            byEnd[i] = i;
+        }
+        Arrays.sort(byEnd, Comparator.comparingInt((Integer i) -> graph.vertex(i).getEndOffset())
+                .thenComparingInt(i -> graph.vertex(i).getInitialOffset()));
+        int[] endRank = new int[n];
+        for (int r = 0; r < n; r++) {
+            endRank[byEnd[r]] = r;
+        }
+
+        // Each component writes the cost and children of its own vertices only
+        int[][] components = graph.components();
+        int workers = Math.min(parallelism, components.length);
+        if (workers > 1) {
+            // Worker k solves the components k, k + workers, ...
+            List<Future<?>> shards = new ArrayList<>(workers);
+            try {
+                for (int shard = 0; shard < workers; shard++) {
+                    int first = shard;
+                    shards.add(WorkerPool.executor().submit(() -> {
+                        for (int c = first; c < components.length; c += workers) {
+                            solveComponent(components[c], endRank);
+                        }
+                    }));
+                }
+                for (Future<?> shard : shards) {
+                    WorkerPool.await(shard);
+                }
+            } finally {
+                for (Future<?> shard : shards) {
+                    shard.cancel(true);
+                }
+            }
+        } else {
+            for (int[] component : components) {
+                solveComponent(component, endRank);
+            }
+        }
+        solveRoot(components, endRank);
+
+        if (cost[CompactExtractionGraph.ROOT] == INFEASIBLE) {
+            return null;
+        }
+
+        List<Integer> selected = new ArrayList<>();
+        collect(CompactExtractionGraph.ROOT, selected);
+        // Lexicographic positions follow the natural order of the vertices
+        selected.sort(null);
+        List<ExtractionVertex> result = new ArrayList<>(selected.size());
+        for (int i : selected) {
+            result.add(graph.vertex(i));
+        }
+        return result;
+    }
+
+    /**
+     * Stops a running {@link #solve}, on the calling thread and on every worker, at the next vertex
+     * or cost it considers; the interrupted call throws a {@link CancellationException}.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Returns the optimal objective value (number of selected vertices, the root included), or
+     * {@code -1} if the model is infeasible or has not been solved.
+     */
+    public int getObjectiveValue() {
+        return (cost == null || cost[CompactExtractionGraph.ROOT] == INFEASIBLE) ? -1
+                : cost[CompactExtractionGraph.ROOT];
+    }
+
+    // --- Dynamic Programming ---
+
+    /**
+     * Solves the vertices of a component. Contained vertices are strictly shorter: processing by
+     * increasing length solves every vertex after all the vertices it contains.
+     */
+    private void solveComponent(int[] component, int[] endRank) {
+        Integer[] order = new Integer[component.length];
+        for (int k = 0; k < component.length; k++) {
+            order[k] = component[k];
+        }
+        Arrays.sort(order, Comparator.comparingInt((Integer i) -> length(graph.vertex(i))));
+        for (int i : order) {
+            solveVertex(i, endRank);
+        }
+    }
+
+    private void solveVertex(int i, int[] endRank) {
+        checkCancelled();
+        ExtractionVertex vertex = graph.vertex(i);
+        int need = vertex.getComplexityWhenExtracted() - threshold;
+        if (need <= 0) {
+            cost[i] = 1;
+            children[i] = new int[0];
+            return;
+        }
+
+        Schedule schedule = new Schedule(closure.descendantsOf(i), vertex, endRank);
+        if (schedule.maxWeight() < need) {
+            cost[i] = INFEASIBLE;
+            return;
+        }
+        int c = schedule.extendUntil(need);
+        cost[i] = 1 + c;
+        children[i] = schedule.chosen(c);
+    }
+
+    /**
+     * Solves the root, recombining the best weight each component can remove from it at every
+     * cost.
+     */
+    private void solveRoot(int[][] components, int[] endRank) {
+        ExtractionVertex root = graph.vertex(CompactExtractionGraph.ROOT);
+        int need = root.getComplexityWhenExtracted() - threshold;
+        if (need <= 0) {
+            cost[CompactExtractionGraph.ROOT] = 1;
+            children[CompactExtractionGraph.ROOT] = new int[0];
+            return;
+        }
+
+        // Quick infeasibility test: best weight of every component at any cost
+        Schedule[] schedules = new Schedule[components.length];
+        long reachable = 0;
+        for (int k = 0; k < components.length; k++) {
+            schedules[k] = new Schedule(components[k], root, endRank);
+            reachable += schedules[k].maxWeight();
+        }
+        if (reachable < need) {
+            cost[CompactExtractionGraph.ROOT] = INFEASIBLE;
+            return;
+        }
+
+        // total[c]: best weight of the components merged so far with total cost c;
+        // share[k][c]: cost given to component k in that selection
+        long[] total = { 0 };
+        int[][] share = new int[components.length][];
+        for (int k = 0; k < components.length; k++) {
+            checkCancelled();
+            // Past its best weight, or past need, a component gains nothing from a larger budget
+            long[] curve = schedules[k].curve(need);
+            long[] merged = new long[total.length + curve.length - 1];
+            int[] choice = new int[merged.length];
+            Arrays.fill(merged, -1);
+            for (int a = 0; a < total.length; a++) {
+                for (int b = 0; b < curve.length; b++) {
+                    if (total[a] + curve[b] > merged[a + b]) {
+                        merged[a + b] = total[a] + curve[b];
+                        choice[a + b] = b;
+                    }
+                }
+            }
+            // Every split a + b is tried, so every total cost up to the sum of the curves is reached
+            total = merged;
+            share[k] = choice;
+        }
+
+        int c = 0;
+        while (total[c] < need) {
+            c++;
+        }
+        cost[CompactExtractionGraph.ROOT] = 1 + c;
+
+        List<Integer> chosen = new ArrayList<>();
+        for (int k = components.length - 1; k >= 0; k--) {
+            int b = share[k][c];
+            for (int child : schedules[k].chosen(b)) {
+                chosen.add(child);
+            }
+            c -= b;
+        }
+        children[CompactExtractionGraph.ROOT] = chosen.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Weighted interval scheduling of the candidate children of a vertex: the solved, disjoint
+     * vertices among {@code candidates} that reduce its complexity, each one costing the cheapest
+     * selection inside it.
+     */
+    private final class Schedule {
+        private final int m;
+        private final int[] items;
+        private final int[] weights;
+        private final int[] previous;
+        private final long maxWeight;
+
+        /** best.get(c)[k]: best weight of disjoint candidates among the first k with total cost <= c. */
+        private final List<long[]> best = new ArrayList<>();
+
+        Schedule(int[] candidates, ExtractionVertex parent, int[] endRank) {
+            // Candidate children: solved vertices that reduce the complexity of the parent, by end offset
+            long[] keys = new long[candidates.length];
+            int count = 0;
+            for (int j : candidates) {
+                if (cost[j] != INFEASIBLE && weight(graph.vertex(j), parent) > 0) {
+                    keys[count++] = ((long) endRank[j] << 32) | j;
+                }
+            }
+            Arrays.sort(keys, 0, count);
+            this.m = count;
+            this.items = new int[m];
+            this.weights = new int[m];
+            for (int k = 0; k < m; k++) {
+                items[k] = (int) keys[k];
+                weights[k] = weight(graph.vertex(items[k]), parent);
+            }
+
+            // previous[k]: number of candidates ending before candidate k starts
+            this.previous = new int[m];
+            for (int k = 0; k < m; k++) {
+                previous[k] = countEndingBefore(items, k, graph.vertex(items[k]).getInitialOffset());
+            }
+
+            // Best weight at any cost
+            long[] unbounded = new long[m + 1];
+            for (int k = 1; k <= m; k++) {
+                unbounded[k] = Math.max(unbounded[k - 1], unbounded[previous[k - 1]] + weights[k - 1]);
+            }
+            this.maxWeight = unbounded[m];
+        }
+
+        long maxWeight() {
+            return maxWeight;
+        }
+
+        /** Best weight with total cost at most {@code c}, computing the layers up to {@code c}. */
+        long weightAt(int c) {
+            while (best.size() <= c) {
+                checkCancelled();
+                int layerCost = best.size();
+                long[] layer = new long[m + 1];
+                for (int k = 1; k <= m; k++) {
+                    layer[k] = layer[k - 1];
+                    int itemCost = cost[items[k - 1]];
+                    // Every cost is at least one, so the layer layerCost - itemCost is complete
+                    if (itemCost <= layerCost) {
+                        layer[k] = Math.max(layer[k],
+                                best.get(layerCost - itemCost)[previous[k - 1]] + weights[k - 1]);
+                    }
+                }
+                best.add(layer);
+            }
+            return best.get(c)[m];
+        }
+
+        /**
+         * Smallest cost whose best weight reaches {@code need}. The layers run one cost at a time,
+         * so the search stops at the optimal cost; {@code need} must be at most {@link #maxWeight()}.
+         */
+        int extendUntil(long need) {
+            int c = 0;
+            while (weightAt(c) < need) {
+                c++;
+            }
+            return c;
+        }
+
+        /** Best weight at every cost, up to the first one reaching {@code min(need, maxWeight)}. */
+        long[] curve(long need) {
+            int last = extendUntil(Math.min(need, maxWeight));
+            long[] result = new long[last + 1];
+            for (int c = 0; c <= last; c++) {
+                result[c] = weightAt(c);
+            }
+            return result;
+        }
+
+        /** Candidates chosen by the best selection with total cost at most {@code c}. */
+        int[] chosen(int c) {
+            return reconstruct(best, c, m, items, previous);
+        }
+    }
+
+    private void checkCancelled() {
+        if (cancelled) {
+            throw new CancellationException("Exact model cancelled");
+        }
+    }
+
+    private int[] reconstruct(List<long[]> best, int c, int m, int[] items, int[] previous) {
+        List<Integer> chosen = new ArrayList<>();
+        int k = m;
+        while (k > 0) {
+            long[] layer = best.get(c);
+            if (layer[k] == layer[k - 1]) {
+                k--;
+            } else {
+                chosen.add(items[k - 1]);
+                c -= cost[items[k - 1]];
+                k = previous[k - 1];
+            }
+        }
+        return chosen.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private int countEndingBefore(int[] items, int limit, int start) {
+        int low = 0;
+        int high = limit;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (graph.vertex(items[middle]).getEndOffset() < start) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void collect(int i, List<Integer> result) {
+        for (int child : children[i]) {
+            result.add(child);
+            collect(child, result);
+        }
+    }
+
+    private static int length(ExtractionVertex v) {
+        return v.getEndOffset() - v.getInitialOffset();
+    }
+
+    /**
+     * Complexity removed from {@code parent} by extracting {@code child} right under it: the
+     * interaction term of the ILP.
+     */
+    static int weight(ExtractionVertex child, ExtractionVertex parent) {
+        int distance = child.getNesting() - parent.getNesting();
+        return child.getComplexityWhenExtracted() + distance * child.getNumberNestingContributors();
+    }
+}
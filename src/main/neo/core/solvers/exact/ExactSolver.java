@@ -0,0 +1,113 @@
+package main.neo.core.solvers.exact;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+import main.neo.app.Constants;
+import main.neo.core.Sequence;
+import main.neo.core.Solution;
+import main.neo.core.graphs.CompactExtractionGraph;
+import main.neo.core.graphs.ExtractionVertex;
+import main.neo.core.graphs.GraphBundle;
+import main.neo.core.graphs.GraphService;
+import main.neo.core.refactoringcache.RefactoringCache;
+import main.neo.core.solvers.RefactoringSolver;
+import main.neo.core.solvers.SolverContext;
+
+/**
+ * {@link RefactoringSolver} that solves the model of the ILP solver to
+ * optimality without any native dependency.
+ * <p>
+ * Builds an {@link ExactModel} over the compact graph, sharing its
+ * containment closure with the other solvers of the bundle, and
+ * turns the optimal selection into a {@link Solution}, as the ILP solver does
+ * with the first optimal solution found by CPLEX. The independent components
+ * of the graph are solved in parallel and merged at the root. Returns
+ * {@code null} when no selection meets the threshold, so callers can fall back
+ * to the enumerative search.
+ * </p>
+ */
+public class ExactSolver implements RefactoringSolver {
+
+	private volatile boolean cancelled;
+	private volatile ExactModel model;
+
+	/**
+	 * Stops the model being solved, components included; the interrupted
+	 * {@link #solve} throws a {@link CancellationException}.
+	 */
+	@Override
+	public void cancel() {
+		cancelled = true;
+		ExactModel current = model;
+		if (current != null) {
+			current.cancel();
+		}
+	}
+
+	@Override
+	public Solution solve(SolverContext ctx, RefactoringCache cache) throws Exception {
+		if (cancelled) {
+			throw new CancellationException("Exact solver cancelled");
+		}
+		GraphBundle graphs = ctx.getGraphs();
+		boolean localBuild = false;
+
+		if (graphs == null) {
+			graphs = GraphService.buildGraphs(cache, ctx.ast, ctx.threshold);
+			localBuild = true;
+		}
+
+		try {
+			CompactExtractionGraph graph = graphs.compact;
+			if (graph == null) {
+				// Empty method body: nothing to extract
+				return null;
+			}
+			ExactModel current = new ExactModel(graph, ctx.threshold);
+			model = current;
+			if (cancelled) {
+				// Cancelled before the model was installed
+				current.cancel();
+			}
+			List<ExtractionVertex> selected = current.solve(Constants.COMPONENT_SOLVER_PARALLELISM);
+			if (selected == null) {
+				return null;
+			}
+
+			Solution solution = new Solution(toSequences(selected, ctx.compilationUnit), ctx.compilationUnit, ctx.ast)
+					.setThreshold(ctx.threshold);
+			solution.evaluate(cache);
+			return solution;
+		} finally {
+			model = null;
+			if (localBuild) {
+				graphs.clear();
+			}
+		}
+	}
+
+	/**
+	 * Finds the AST nodes of every selected vertex, the same way the ILP model
+	 * does.
+	 */
+	private static List<Sequence> toSequences(List<ExtractionVertex> selected, CompilationUnit compilationUnit) {
+		List<Sequence> result = new ArrayList<>();
+		for (ExtractionVertex v : selected) {
+			int initialOffset = v.getInitialOffset();
+			int length = v.getEndOffset() - initialOffset;
+			int startLine = compilationUnit.getLineNumber(initialOffset);
+			int startColumn = compilationUnit.getColumnNumber(initialOffset);
+
+			List<ASTNode> nodes = new main.neo.core.jdt.Utils.NodeFinderVisitorForGivenSelection(compilationUnit,
+					compilationUnit.getPosition(startLine, startColumn), length + 1).getNodes();
+
+			result.add(new Sequence(compilationUnit, nodes));
+		}
+		return result;
+	}
+}
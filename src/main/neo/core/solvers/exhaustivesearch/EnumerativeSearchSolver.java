@@ -1,5 +1,10 @@
 package main.neo.core.solvers.exhaustivesearch;
 
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import main.neo.core.FitnessEvaluator;
+import main.neo.core.Sequence;
 import main.neo.core.Solution;
 import main.neo.core.refactoringcache.RefactoringCache;
 import main.neo.core.solvers.RefactoringSolver;
@@ -14,36 +19,95 @@ import main.neo.core.solvers.config.EnumerativeSearchConfig;
  * strategy (longest vs shortest sequence first). Reports nothing to disk; the
  * caller receives the best solution directly.
  * </p>
+ * <p>
+ * With more than one worker configured, the candidates are evaluated in
+ * parallel by {@link ExhaustiveEnumerationAlgorithm#runParallel}, which returns
+ * the same solution as the sequential search: both evaluate the same first
+ * candidates, up to the configured number of evaluations.
+ * </p>
+ * <p>
+ * Both searches skip the branches whose {@link FitnessLowerBound} shows they
+ * cannot beat the best solution found so far, so those candidates are neither
+ * built nor evaluated.
+ * </p>
+ * <p>
+ * Candidates are ranked by a {@link FitnessEvaluator}, which computes their
+ * fitness over primitive arrays; only the best one becomes a {@link Solution}
+ * and is evaluated, materializing its metrics.
+ * </p>
  */
 public class EnumerativeSearchSolver implements RefactoringSolver {
 
 	private final EnumerativeSearchConfig config;
 
+	private volatile boolean cancelled;
+
 	public EnumerativeSearchSolver(EnumerativeSearchConfig config) {
 		this.config = config;
 	}
 
+	/**
+	 * Stops the search at the next candidate or branch it considers; the
+	 * interrupted {@link #solve} throws a {@link CancellationException}, whether
+	 * the search runs sequentially or in parallel.
+	 */
+	@Override
+	public void cancel() {
+		cancelled = true;
+	}
+
 	@Override
+	@SuppressWarnings("unchecked")
 	public Solution solve(SolverContext ctx, RefactoringCache cache) throws Exception {
-		final Solution[] best = new Solution[] { null };
+		final List<Sequence>[] best = new List[] { null };
+		final double[] bestFitness = new double[] { Double.MAX_VALUE };
 
 		ExhaustiveEnumerationAlgorithm eea = new ExhaustiveEnumerationAlgorithm(cache, ctx.ast,
 				this.config.getApproach());
+		FitnessLowerBound lowerBound = eea.fitnessLowerBound(ctx.threshold);
+
+		// Candidates are ranked without building them; only the winner is evaluated
+		FitnessEvaluator evaluator = eea.fitnessEvaluator(ctx.threshold);
+
+		if (this.config.getParallelism() > 1) {
+			List<Sequence> winner = eea.runParallel(sequences -> {
+				checkCancelled();
+				return sequences;
+			}, evaluator::fitness, lowerBound::of, this.config.getEvaluations(), this.config.getParallelism());
+			return toSolution(winner, ctx, cache);
+		}
+
+		eea.run(sequences -> {
+			checkCancelled();
+			double fitness = evaluator.fitness(sequences);
 
-		try {
-			eea.run(sequences -> {
-				Solution sol = new Solution(sequences, ctx.compilationUnit, ctx.ast).setThreshold(ctx.threshold);
-				sol.evaluate(cache);
-
-				if (best[0] == null || sol.getFitness() < best[0].getFitness()) {
-					best[0] = sol;
-				}
-			}, this.config.getEvaluations());
-		} catch (RuntimeException e) {
-			// Early-termination signal raised by the exhaustive enumerator: best solution
-			// found so far is already stored in {@code best[0]}.
+			if (best[0] == null || fitness < bestFitness[0]) {
+				best[0] = sequences;
+				bestFitness[0] = fitness;
+			}
+		}, this.config.getEvaluations(),
+				// Only a strictly better solution replaces the best one found so far
+				partial -> {
+					checkCancelled();
+					return best[0] == null || lowerBound.of(partial) < bestFitness[0];
+				});
+
+		return toSolution(best[0], ctx, cache);
+	}
+
+	private void checkCancelled() {
+		if (cancelled) {
+			throw new CancellationException("Enumerative search cancelled");
 		}
+	}
 
-		return best[0];
+	/** Evaluates the winning sequences, materializing the metrics of the solution. */
+	private static Solution toSolution(List<Sequence> sequences, SolverContext ctx, RefactoringCache cache) {
+		if (sequences == null) {
+			return null;
+		}
+		Solution solution = new Solution(sequences, ctx.compilationUnit, ctx.ast).setThreshold(ctx.threshold);
+		solution.evaluate(cache);
+		return solution;
 	}
 }
\ No newline at end of file
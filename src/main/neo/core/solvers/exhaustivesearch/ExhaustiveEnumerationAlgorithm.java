@@ -2,13 +2,21 @@ package main.neo.core.solvers.exhaustivesearch;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Stack;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
 import java.util.stream.Collectors;
 
 import org.eclipse.jdt.core.dom.ASTNode;
 
+import main.neo.core.FitnessEvaluator;
 import main.neo.core.Sequence;
+import main.neo.core.jdt.ComplexityIndex;
 import main.neo.core.refactoringcache.RefactoringCache;
 import main.neo.core.refactoringcache.SentenceSequenceIterator;
 import main.neo.core.refactoringcache.SentencesSelectorVisitor;
@@ -69,15 +77,31 @@ public class ExhaustiveEnumerationAlgorithm {
      * @param maxElements The maximum number of solutions to generate.
      */
     public void run(Consumer<List<Sequence>> consumer, long maxElements) {
+        run(consumer, maxElements, t -> true);
+    }
+
+    /**
+     * Executes the search, pruning partial combinations, and streams valid solutions to the consumer.
+     *
+     * @param consumer    Accepts a complete list of refactoring Sequences representing a solution.
+     * @param maxElements The maximum number of solutions to generate.
+     * @param validity    Tested on every partial combination (one choice per block decided so far);
+     *                    if it returns {@code false}, no solution starting with it is generated.
+     *                    Pruned combinations do not count towards {@code maxElements}.
+     *                    At most {@code maxElements} choices are tried per block, as in
+     *                    {@link #runParallel}, so that both search the same combinations.
+     */
+    public void run(Consumer<List<Sequence>> consumer, long maxElements, Predicate<Stack<List<Sequence>>> validity) {
         // 1. Prepare iterators for each block of code identified by the visitor
         List<Iterable<List<Sequence>>> elementsToIterate = sentencesSelectorVisitor.getSentencesToIterate().stream()
-                .map(sequence -> new SentenceSequenceIterator(sequence, refactoringCache, approach))
+                .map(sequence -> limit(new SentenceSequenceIterator(sequence, refactoringCache, approach),
+                        maxElements))
                 .collect(Collectors.toList());
 
         // 2. Initialize the generic exhaustive enumerator
-        // The predicate is technically unused here (always true) because validity is handled 
-        // implicitly by the iterators or the cache.
-        ExhaustiveEnumeration<List<Sequence>> ee = new ExhaustiveEnumeration<>(elementsToIterate, t -> true);
+        // The feasibility of every extraction is handled by the iterators; the predicate only
+        // prunes branches (e.g. those that cannot beat the best solution found so far).
+        ExhaustiveEnumeration<List<Sequence>> ee = new ExhaustiveEnumeration<>(elementsToIterate, validity);
 
         // 3. Run the search
         ee.run(stackOfSolutions -> {
@@ -93,6 +117,100 @@ public class ExhaustiveEnumerationAlgorithm {
         }, maxElements);
     }
 
+    /**
+     * Executes the search on several threads and returns the best solution.
+     * <p>
+     * The choices of every block are materialized first, on the calling thread: iterating them
+     * queries (and may fill) the refactoring cache, which is not thread-safe. Afterwards every
+     * range the workers evaluate is already in the cache, so they only read it. At most
+     * {@code maxElements} choices are kept per block, which is all a search limited to
+     * {@code maxElements} solutions can reach.
+     * </p>
+     *
+     * @param evaluator   Evaluates a complete list of refactoring Sequences. Called concurrently.
+     * @param fitness     Fitness of an evaluated solution (lower is better).
+     * @param lowerBound  Lower bound on the fitness of the solutions starting with a partial
+     *                    combination (one choice per block decided so far). Called concurrently.
+     * @param maxElements The maximum number of solutions to evaluate.
+     * @param parallelism Number of workers, on the shared {@link main.neo.core.WorkerPool}.
+     * @return The best evaluated solution, or {@code null} if there is none.
+     * @see ParallelExhaustiveEnumeration
+     */
+    public <S> S runParallel(Function<List<Sequence>, S> evaluator, ToDoubleFunction<S> fitness,
+            ToDoubleFunction<List<List<Sequence>>> lowerBound, long maxElements, int parallelism) {
+        // 1. Materialize the choices of each block of code identified by the visitor
+        List<List<List<Sequence>>> elementsToIterate = new ArrayList<>();
+        for (Sequence sequence : sentencesSelectorVisitor.getSentencesToIterate()) {
+            List<List<Sequence>> choices = new ArrayList<>();
+            for (List<Sequence> choice : new SentenceSequenceIterator(sequence, refactoringCache, approach)) {
+                if (choices.size() >= maxElements) {
+                    break;
+                }
+                choices.add(choice);
+            }
+            elementsToIterate.add(choices);
+        }
+
+        // 2. Initialize the parallel enumerator
+        ParallelExhaustiveEnumeration<List<Sequence>> pee = new ParallelExhaustiveEnumeration<>(elementsToIterate,
+                lowerBound);
+
+        // 3. Run the search, flattening the choices of all blocks into a single List<Sequence>
+        return pee.run(choices -> {
+            List<Sequence> result = new ArrayList<>();
+            for (List<Sequence> partial : choices) {
+                result.addAll(partial);
+            }
+            return evaluator.apply(result);
+        }, fitness, maxElements, parallelism);
+    }
+
+    /**
+     * Creates the admissible lower bound on the fitness of the solutions of this search.
+     *
+     * @param threshold Cognitive complexity threshold of the solutions.
+     * @return A bound over the blocks of code identified by the visitor, in search order.
+     */
+    public FitnessLowerBound fitnessLowerBound(int threshold) {
+        return new FitnessLowerBound(refactoringCache, sentencesSelectorVisitor.getSentencesToIterate(),
+                ComplexityIndex.of(method).accumulatedContribution(method),
+                threshold);
+    }
+
+    /**
+     * Creates the evaluator ranking the solutions of this search, over the ranges cached so far.
+     *
+     * @param threshold Cognitive complexity threshold of the solutions.
+     * @return An evaluator giving the fitness {@link main.neo.core.Solution#evaluate} would.
+     */
+    public FitnessEvaluator fitnessEvaluator(int threshold) {
+        return new FitnessEvaluator(refactoringCache,
+                ComplexityIndex.of(method).accumulatedContribution(method),
+                threshold);
+    }
+
+    /** The first {@code maxElements} elements of {@code iterable}. */
+    private static <E> Iterable<E> limit(Iterable<E> iterable, long maxElements) {
+        return () -> new Iterator<E>() {
+            private final Iterator<E> iterator = iterable.iterator();
+            private long returned;
+
+            @Override
+            public boolean hasNext() {
+                return returned < maxElements && iterator.hasNext();
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                returned++;
+                return iterator.next();
+            }
+        };
+    }
+
     /**
      * Calculates the total size of the search space.
      *
@@ -0,0 +1,115 @@
+package main.neo.core.solvers.exhaustivesearch;
+
+import java.util.List;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+
+import main.neo.core.Sequence;
+import main.neo.core.Solution;
+import main.neo.core.jdt.ComplexityIndex;
+import main.neo.core.refactoringcache.RefactoringCache;
+
+/**
+ * Admissible lower bound on the fitness of every {@link Solution} extending a
+ * partial combination of the enumerative search (one choice per block decided so
+ * far).
+ * <p>
+ * The fitness of a solution with {@code k} extractions is {@code k}, plus ten
+ * times the excess over the threshold of every extracted method and of the
+ * remaining method. The bound drops the excess of the extracted methods and
+ * assumes that every block still to be decided gives up all its cognitive
+ * complexity:
+ * </p>
+ * <pre>
+ * k + 10 * max(0, initial - (reduced + reducible) - threshold)
+ * </pre>
+ * <p>
+ * where {@code reduced} adds up the reductions of the extractions chosen so far
+ * and {@code reducible} the reductions of the whole statement lists of the
+ * remaining blocks. {@link Solution#evaluate} subtracts the reduction of every
+ * nested extraction from the one enclosing it, so the reduction of a solution is
+ * that of its outermost extractions, and the reduction of a range of statements
+ * is the sum of the (non-negative) reductions of its statements: neither can
+ * exceed {@code reduced + reducible}.
+ * </p>
+ * <p>
+ * Instances only read the refactoring cache and the AST, so they can be shared by
+ * several threads.
+ * </p>
+ */
+public class FitnessLowerBound {
+
+    private final RefactoringCache refactoringCache;
+    private final int initialComplexity;
+    private final int threshold;
+
+    /** {@code reducible[d]}: reductions of the statement lists of the blocks from {@code d} on. */
+    private final int[] reducible;
+
+    /**
+     * Constructs the bound of a search over {@code blocks}.
+     *
+     * @param refactoringCache  Cache holding the metrics of the candidate extractions.
+     * @param blocks            The statement lists the search picks one choice from, in order.
+     * @param initialComplexity Cognitive complexity of the method before refactoring.
+     * @param threshold         Cognitive complexity threshold of the solutions.
+     */
+    public FitnessLowerBound(RefactoringCache refactoringCache, List<Sequence> blocks, int initialComplexity,
+            int threshold) {
+        this.refactoringCache = refactoringCache;
+        this.initialComplexity = initialComplexity;
+        this.threshold = threshold;
+        this.reducible = new int[blocks.size() + 1];
+        for (int depth = blocks.size() - 1; depth >= 0; depth--) {
+            reducible[depth] = reducible[depth + 1] + reductionOfNodes(blocks.get(depth).getSiblingNodes());
+        }
+    }
+
+    /**
+     * Returns a lower bound on the fitness of every solution whose first blocks are decided by
+     * {@code prefix}.
+     *
+     * @param prefix The choices of the first {@code prefix.size()} blocks.
+     * @return The bound; never greater than the fitness of a feasible completion.
+     */
+    public double of(List<List<Sequence>> prefix) {
+        int extractions = 0;
+        long reduced = 0;
+        for (List<Sequence> choice : prefix) {
+            extractions += choice.size();
+            for (Sequence sequence : choice) {
+                reduced += reductionOf(sequence);
+            }
+        }
+
+        long excess = initialComplexity - reduced - reducible[prefix.size()] - threshold;
+        return extractions + 10.0 * Math.max(0, excess);
+    }
+
+    // --- Helper Methods ---
+
+    /**
+     * Reduction of a single extraction, read from the cache without copying the metrics. Ranges
+     * missing from the cache are computed from the AST instead of evaluated, so the cache is never
+     * written.
+     */
+    private int reductionOf(Sequence sequence) {
+        int index = refactoringCache.cache.indexOf(sequence.getStartOffset(), sequence.getEndOffset());
+        if (index >= 0) {
+            return Math.max(0, refactoringCache.cache.reductionOfCognitiveComplexity(index));
+        }
+        return reductionOfNodes(sequence.getSiblingNodes());
+    }
+
+    private static int reductionOfNodes(List<ASTNode> nodes) {
+        if (nodes.isEmpty()) {
+            return 0;
+        }
+        ComplexityIndex index = ComplexityIndex.of(nodes.get(0));
+        int reduction = 0;
+        for (ASTNode node : nodes) {
+            reduction += Math.max(0, index.metricsIfExtracted(node).getCognitiveComplexityReduction());
+        }
+        return reduction;
+    }
+}
@@ -0,0 +1,298 @@
+package main.neo.core.solvers.exhaustivesearch;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+import main.neo.core.WorkerPool;
+
+/**
+ * Parallel variant of {@link ExhaustiveEnumeration} that looks for the best
+ * complete combination instead of streaming every combination to a consumer,
+ * and returns the combination a sequential search with the same budget keeps.
+ * <p>
+ * The sequential search walks the tree depth-first (the last list varies
+ * fastest), skips a branch whose lower bound is not below the best fitness
+ * found so far, keeps the first strictly better combination, and stops after
+ * {@code maxElements} evaluated combinations: pruned ones do not count. Which
+ * combinations it evaluates thus depends on every earlier one.
+ * </p>
+ * <p>
+ * Leaves of the search tree are numbered in the order the sequential search
+ * visits them, and split into chunks of consecutive leaves. Workers walk the
+ * chunks speculatively, each with the best fitness known when it was started,
+ * and record every branch they enter (with its lower bound) and every
+ * combination they evaluate. Such a bound is never below the one the
+ * sequential search would have at the same point, so a worker prunes a subset
+ * of what the sequential search prunes. The calling thread then replays the
+ * records in chunk order with the exact sequential bound, which decides which
+ * combinations count and which one wins; only the cheap replay is sequential.
+ * </p>
+ *
+ * @param <T> The type of elements being enumerated.
+ */
+public class ParallelExhaustiveEnumeration<T> {
+
+    /** Number of chunks per worker the leaves of the budget are split into, for load balancing. */
+    private static final int TASKS_PER_WORKER = 16;
+
+    /** Number of chunks per worker walked ahead of the replay. */
+    private static final int CHUNKS_IN_FLIGHT_PER_WORKER = 2;
+
+    private final List<List<T>> elementsToIterate;
+    private final ToDoubleFunction<List<T>> lowerBound;
+
+    /** {@code leavesBelow[d]}: number of leaves under a node of depth {@code d}, saturated at {@link Long#MAX_VALUE}. */
+    private final long[] leavesBelow;
+
+    /**
+     * Constructs a new enumerator.
+     *
+     * @param elementsToIterate The choices of every level; unlike {@link ExhaustiveEnumeration}
+     * they must be materialized, since the workers index into them concurrently.
+     * @param lowerBound        Lower bound on the fitness of every combination starting with the
+     * given prefix (one element for each of the first levels). Called concurrently; the prefix is a
+     * view that must not be kept.
+     */
+    public ParallelExhaustiveEnumeration(List<List<T>> elementsToIterate, ToDoubleFunction<List<T>> lowerBound) {
+        this.elementsToIterate = elementsToIterate;
+        this.lowerBound = lowerBound;
+        this.leavesBelow = new long[elementsToIterate.size() + 1];
+        this.leavesBelow[elementsToIterate.size()] = 1;
+        for (int depth = elementsToIterate.size() - 1; depth >= 0; depth--) {
+            leavesBelow[depth] = saturatedMultiply(leavesBelow[depth + 1], elementsToIterate.get(depth).size());
+        }
+    }
+
+    /**
+     * Searches the combinations on {@code parallelism} workers and returns the best of the first
+     * {@code maxElements} the sequential search evaluates.
+     *
+     * @param evaluator   Evaluates a complete combination, given as a fresh list holding one element
+     * per level. Called concurrently from several threads.
+     * @param fitness     Fitness of an evaluated combination (lower is better).
+     * @param maxElements The maximum number of combinations to evaluate; pruned combinations do not
+     * count.
+     * @param parallelism Number of chunks walked at a time on the shared {@link WorkerPool}.
+     * @return The evaluation of the best combination, or {@code null} if there is none.
+     * @throws CancellationException if the evaluator or the lower bound throws it (or the calling
+     * thread is interrupted); other exceptions they throw are rethrown as well.
+     */
+    public <S> S run(Function<List<T>, S> evaluator, ToDoubleFunction<S> fitness, long maxElements,
+            int parallelism) {
+        long leaves = leavesBelow[0];
+        if (leaves <= 0 || maxElements <= 0) {
+            return null;
+        }
+
+        int workers = Math.max(1, parallelism);
+        long chunk = Math.max(1, maxElements / ((long) workers * TASKS_PER_WORKER));
+        Replay<S> replay = new Replay<>(maxElements);
+        Deque<Future<Trace<S>>> pending = new ArrayDeque<>();
+        ExecutorService pool = WorkerPool.executor();
+        try {
+            long next = 0;
+            while (!replay.isDone()) {
+                while (pending.size() < workers * CHUNKS_IN_FLIGHT_PER_WORKER && next < leaves) {
+                    long from = next;
+                    long to = Math.min(leaves, saturatedAdd(from, chunk));
+                    double bound = replay.bestFitness;
+                    pending.add(pool.submit(() -> new Speculation<>(evaluator, fitness, from, to, bound).walk()));
+                    next = to;
+                }
+                if (pending.isEmpty()) {
+                    break;
+                }
+                replay.apply(WorkerPool.await(pending.poll()));
+            }
+            return replay.best;
+        } finally {
+            for (Future<Trace<S>> future : pending) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of combinations (the size of the Cartesian product), saturated at
+     * {@link Long#MAX_VALUE}.
+     */
+    public long count() {
+        return leavesBelow[0];
+    }
+
+    // --- Search ---
+
+    /** Whether a branch with the given lower bound is skipped; {@code NaN} stands for no best yet. */
+    private static boolean prunes(double lowerBound, double bestFitness) {
+        return !Double.isNaN(bestFitness) && lowerBound >= bestFitness;
+    }
+
+    /** What a worker did in a chunk, in depth-first order. */
+    private static final class Trace<S> {
+        private final long from;
+        private int size;
+        /** Depth of an entered branch, or the number of levels for an evaluated combination. */
+        private int[] depths = new int[64];
+        /** First leaf of the branch, or leaf of the combination. */
+        private long[] positions = new long[64];
+        /** Lower bound of the branch ({@code NaN} if not computed), or fitness of the combination. */
+        private double[] values = new double[64];
+        private final List<S> evaluations = new ArrayList<>();
+
+        Trace(long from) {
+            this.from = from;
+        }
+
+        void add(int depth, long position, double value) {
+            if (size == depths.length) {
+                depths = Arrays.copyOf(depths, size * 2);
+                positions = Arrays.copyOf(positions, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            depths[size] = depth;
+            positions[size] = position;
+            values[size] = value;
+            size++;
+        }
+    }
+
+    /** Speculative walk of the leaves in {@code [from, to)}. */
+    private final class Speculation<S> {
+        private final Function<List<T>, S> evaluator;
+        private final ToDoubleFunction<S> fitness;
+        private final long from;
+        private final long to;
+        private final List<T> prefix = new ArrayList<>(Collections.nCopies(elementsToIterate.size(), (T) null));
+        private final Trace<S> trace;
+        private double bestFitness;
+
+        Speculation(Function<List<T>, S> evaluator, ToDoubleFunction<S> fitness, long from, long to,
+                double bestFitness) {
+            this.evaluator = evaluator;
+            this.fitness = fitness;
+            this.from = from;
+            this.to = to;
+            this.bestFitness = bestFitness;
+            this.trace = new Trace<>(from);
+        }
+
+        Trace<S> walk() {
+            walk(0, 0);
+            return trace;
+        }
+
+        /** Walks the subtree of a node of depth {@code depth} whose first leaf is {@code base}. */
+        private void walk(int depth, long base) {
+            if (depth == elementsToIterate.size()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException("Enumeration cancelled");
+                }
+                S evaluation = evaluator.apply(new ArrayList<>(prefix));
+                double value = fitness.applyAsDouble(evaluation);
+                trace.add(depth, base, value);
+                trace.evaluations.add(evaluation);
+                if (Double.isNaN(bestFitness) || value < bestFitness) {
+                    bestFitness = value;
+                }
+                return;
+            }
+
+            List<T> choices = elementsToIterate.get(depth);
+            long span = leavesBelow[depth + 1];
+            int first = (int) Math.min(choices.size(), Math.max(0, from - base) / span);
+            for (int choice = first; choice < choices.size(); choice++) {
+                long childBase = saturatedAdd(base, saturatedMultiply(span, choice));
+                if (childBase >= to) {
+                    break;
+                }
+                prefix.set(depth, choices.get(choice));
+                if (childBase < from) {
+                    // Entered in an earlier chunk, whose replay decided whether it is pruned
+                    trace.add(depth, childBase, Double.NaN);
+                } else {
+                    double bound = lowerBound.applyAsDouble(prefix.subList(0, depth + 1));
+                    trace.add(depth, childBase, bound);
+                    if (prunes(bound, bestFitness)) {
+                        continue;
+                    }
+                }
+                walk(depth + 1, childBase);
+            }
+            prefix.set(depth, null);
+        }
+    }
+
+    /** The sequential search, replayed over the traces of consecutive chunks. */
+    private final class Replay<S> {
+        private final long maxElements;
+        private long evaluated;
+        private S best;
+        private double bestFitness = Double.NaN;
+        /** Whether the branch entered last at every depth is pruned. */
+        private final boolean[] pruned = new boolean[elementsToIterate.size()];
+
+        Replay(long maxElements) {
+            this.maxElements = maxElements;
+        }
+
+        boolean isDone() {
+            return evaluated >= maxElements;
+        }
+
+        void apply(Trace<S> trace) {
+            int levels = elementsToIterate.size();
+            // Events below a pruned branch are skipped
+            int skipBelow = Integer.MAX_VALUE;
+            int leaf = 0;
+            for (int i = 0; i < trace.size && !isDone(); i++) {
+                int depth = trace.depths[i];
+                if (depth == levels) {
+                    S evaluation = trace.evaluations.get(leaf++);
+                    if (depth > skipBelow) {
+                        continue;
+                    }
+                    evaluated++;
+                    double value = trace.values[i];
+                    // Only a strictly better combination replaces the best one
+                    if (Double.isNaN(bestFitness) || value < bestFitness) {
+                        best = evaluation;
+                        bestFitness = value;
+                    }
+                    continue;
+                }
+                if (depth > skipBelow) {
+                    continue;
+                }
+                skipBelow = Integer.MAX_VALUE;
+                if (trace.positions[i] >= trace.from) {
+                    pruned[depth] = prunes(trace.values[i], bestFitness);
+                }
+                if (pruned[depth]) {
+                    skipBelow = depth;
+                }
+            }
+        }
+    }
+
+    // --- Helper Methods ---
+
+    private static long saturatedMultiply(long a, long b) {
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        return (high != 0 || low < 0) ? Long.MAX_VALUE : low;
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return (sum < 0) ? Long.MAX_VALUE : sum;
+    }
+}
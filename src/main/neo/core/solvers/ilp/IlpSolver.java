@@ -3,12 +3,9 @@ package main.neo.core.solvers.ilp;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import org.jgrapht.graph.DefaultWeightedEdge;
-
 import ilog.cplex.CpxException;
 import ilog.cplex.IloCplex;
 import main.neo.core.Solution;
-import main.neo.core.graphs.ExtractionVertex;
 import main.neo.core.graphs.GraphBundle;
 import main.neo.core.graphs.GraphService;
 import main.neo.core.jdt.Utils;
@@ -31,10 +28,23 @@ public class IlpSolver implements RefactoringSolver {
 	private static final Logger LOGGER = Logger.getLogger(IlpSolver.class.getName());
 	private final IlpConfig config;
 
+	private volatile boolean cancelled;
+	private volatile IloCplex.Aborter aborter;
+
 	public IlpSolver(IlpConfig config) {
 		this.config = config;
 	}
 
+	/** Aborts the CPLEX optimization, which then returns the solutions found so far. */
+	@Override
+	public void cancel() {
+		cancelled = true;
+		IloCplex.Aborter current = aborter;
+		if (current != null) {
+			current.abort();
+		}
+	}
+
 	@Override
 	public Solution solve(SolverContext ctx, RefactoringCache cache) throws Exception {
 		// Guard: skip immediately if CPLEX native library is not available.
@@ -48,14 +58,18 @@ public class IlpSolver implements RefactoringSolver {
 		boolean localBuild = false;
 
 		if (graphs == null) {
-			graphs = GraphService.buildGraphs(cache, ctx.ast);
+			graphs = GraphService.buildGraphs(cache, ctx.ast, ctx.threshold);
 			localBuild = true;
 		}
 
-		Model<ExtractionVertex, DefaultWeightedEdge> m = null;
+		Model m = null;
 
 		try {
-			m = new Model<>(graphs.conflicts, graphs.noConflicts, graphs.full, ctx.threshold);
+			if (graphs.compact == null) {
+				// Empty method body: nothing to extract
+				return null;
+			}
+			m = new Model(graphs.compact, ctx.threshold);
 
 			// Silence CPLEX output entirely.
 			m.cplex.setOut(null);
@@ -69,6 +83,14 @@ public class IlpSolver implements RefactoringSolver {
 			m.cplex.setParam(IloCplex.Param.WorkMem, config.getWorkingMemory());
 			m.cplex.setParam(IloCplex.IntParam.PopulateLim, 10);
 
+			IloCplex.Aborter current = new IloCplex.Aborter();
+			m.cplex.use(current);
+			aborter = current;
+			if (cancelled) {
+				// Cancelled before the aborter was installed
+				current.abort();
+			}
+
 			m.cplex.populate();
 
 			int numberOfOptimalSolutions = m.collectOptimalSolutions();
@@ -93,6 +115,7 @@ public class IlpSolver implements RefactoringSolver {
 			LOGGER.log(Level.WARNING, "Unexpected ILP failure for method " + ctx.record.methodName, ex);
 			throw ex;
 		} finally {
+			aborter = null;
 			if (m != null && m.cplex != null) {
 				m.cplex.end();
 			}
@@ -6,8 +6,9 @@ import ilog.concert.IloNumVar;
 import ilog.cplex.IloCplex;
 import main.neo.core.Sequence;
 import main.neo.core.Solution;
+import main.neo.core.graphs.CompactExtractionGraph;
+import main.neo.core.graphs.ContainmentClosureIndex;
 import main.neo.core.graphs.ExtractionVertex;
-import main.neo.core.graphs.Utils;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -20,16 +21,13 @@ import java.util.logging.Logger;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.CompilationUnit;
-import org.jgrapht.Graph;
-import org.jgrapht.graph.DefaultEdge;
-import org.jgrapht.graph.SimpleDirectedGraph;
-import org.jgrapht.graph.SimpleGraph;
 
 /**
  * The Integer Linear Programming (ILP) Model wrapper.
  * <p>
  * This class translates the refactoring graphs into a mathematical
- * model solvable by CPLEX.
+ * model solvable by CPLEX. Vertex $i$ is the vertex at lexicographic position
+ * $i$ of the {@link CompactExtractionGraph}, the root being $i = 0$.
  * </p>
  * <p>
  * <b>Variables:</b>
@@ -38,24 +36,18 @@ import org.jgrapht.graph.SimpleGraph;
  * <li>$Z_{ji}$: Auxiliary binary variable. 1 if both ancestor $j$ and descendant $i$ are extracted.</li>
  * </ul>
  * </p>
- * * 
- *
- * @param <V> The vertex type (must extend {@link ExtractionVertex}).
- * @param <E> The edge type.
  */
-public class Model<V extends ExtractionVertex, E> {
+public class Model {
 
     private static final Logger LOGGER = Logger.getLogger(Model.class.getName());
 
     public IloCplex cplex;
 
     // --- Model Data ---
-    private final SimpleGraph<ExtractionVertex, DefaultEdge> conflictGraph;
-    private final SimpleDirectedGraph<V, E> graphNoConflicts; // Dependency/Nesting graph
-    private final SimpleDirectedGraph<V, E> fullGraph;
-    
-    private final List<ExtractionVertex> sortedVertices;
-    private final Map<ExtractionVertex, Integer> vertexToIndexMap;
+    /** Containment and conflicts, indexed by lexicographic position. */
+    private final CompactExtractionGraph graph;
+    /** Closure of containment, shared with the other solvers working on the graph. */
+    private final ContainmentClosureIndex closure;
     private final int numExtractions;
 
     /** Cognitive complexity threshold to enforce in the ILP constraints. */
@@ -71,26 +63,17 @@ public class Model<V extends ExtractionVertex, E> {
     public Set<String> uniqueSolutions;
 
     /**
-     * Constructs the ILP model from the provided graphs.
+     * Constructs the ILP model from the provided graph.
      *
-     * @param conflicts   The graph representing mutually exclusive refactorings.
-     * @param noConflicts The graph representing nesting (allows calculating complexity reduction).
-     * @param graph       The full graph containing all relationships.
+     * @param graph     The graph of the refactorings (nesting and conflicts).
+     * @param threshold Cognitive complexity threshold to enforce.
      * @throws IloException If CPLEX initialization fails.
      */
-    public Model(SimpleGraph<ExtractionVertex, DefaultEdge> conflicts, 
-                 SimpleDirectedGraph<V, E> noConflicts,
-                 SimpleDirectedGraph<V, E> graph,
-                 int threshold) throws IloException {
-
-        this.conflictGraph = conflicts;
-        this.graphNoConflicts = noConflicts;
-        this.fullGraph = graph;
+    public Model(CompactExtractionGraph graph, int threshold) throws IloException {
+
+        this.graph = graph;
+        this.closure = graph.closure();
         this.threshold = threshold;
-        
-        // Pre-process vertices: Sort lexicographically for consistent indexing
-        this.sortedVertices = Utils.getVerticesSortedByTheirLexicographicPosition((Graph<ExtractionVertex, E>) fullGraph);
-        this.vertexToIndexMap = Utils.mapVerticesToTheirLexicographicPosition((Graph<ExtractionVertex, E>) fullGraph);
         this.uniqueSolutions = new HashSet<>();
 
         this.cplex = new IloCplex();
@@ -99,7 +82,7 @@ public class Model<V extends ExtractionVertex, E> {
         cplex.setOut(null);
 
         // Initialize Variables
-        this.numExtractions = graph.vertexSet().size();
+        this.numExtractions = graph.size();
         this.zVariables = new HashMap<>(numExtractions * 10); // Capacity hint
         
         
@@ -108,12 +91,7 @@ public class Model<V extends ExtractionVertex, E> {
 
         // Define Z variables SPARSELY - only for ancestor relationships
         for (int i = 0; i < numExtractions; i++) {
-            ExtractionVertex vertexI = sortedVertices.get(i);
-            List<ExtractionVertex> ancestors = (List<ExtractionVertex>) Utils.previousVertices(graphNoConflicts, (V) vertexI);
-            
-            for (ExtractionVertex ancestor : ancestors) {
-                int j = vertexToIndexMap.get(ancestor);
-                
+            for (int j : closure.descendantsOf(i)) {
                 // Create Z variable only for this (j,i) pair
                 IloNumVar zVar = cplex.boolVar();
                 ZVariableKey key = new ZVariableKey(j, i);
@@ -172,10 +150,9 @@ public class Model<V extends ExtractionVertex, E> {
      * accounting for the penalty of nested extractions.
      * </p>
      */
-    @SuppressWarnings("unchecked")
     private void addComplexityConstraints() throws IloException {
-        for (int i = 0; i < sortedVertices.size(); i++) {
-            ExtractionVertex vertexI = sortedVertices.get(i);
+        for (int i = 0; i < numExtractions; i++) {
+            ExtractionVertex vertexI = graph.vertex(i);
             IloLinearNumExpr expr = cplex.linearNumExpr();
             
             // Base complexity reduction of extracting vertex I
@@ -186,18 +163,12 @@ public class Model<V extends ExtractionVertex, E> {
             expr.addTerm(complexityDelta, this.decisionVariables[i]);
             
             // Adjust for ancestors (nested extractions)
-            List<ExtractionVertex> ancestors = (List<ExtractionVertex>) Utils.previousVertices(graphNoConflicts, (V) vertexI);
-            
-            for (ExtractionVertex ancestor : ancestors) {
-                int indexJ = vertexToIndexMap.get(ancestor);
+            for (int indexJ : closure.descendantsOf(i)) {
+                ExtractionVertex ancestor = graph.vertex(indexJ);
                 
                 // Calculate penalty/adjustment if both I and J are extracted
                 int sum = ancestor.getAccumulatedInherentComponent() + ancestor.getAccumulatedNestingComponent();
-                int distance = Utils.getNestingDistanceBetweenVertices(
-                        (SimpleDirectedGraph<ExtractionVertex, E>) this.graphNoConflicts, 
-                        sortedVertices.get(indexJ), 
-                        vertexI
-                );
+                int distance = closure.nestingDistance(indexJ, i);
                 int contributors = ancestor.getNumberNestingContributors();
                 sum += distance * contributors;
 
@@ -221,7 +192,6 @@ public class Model<V extends ExtractionVertex, E> {
      * considering intermediate nodes in the path.
      * </p>
      */
-    @SuppressWarnings("unchecked")
     private IloLinearNumExpr createLinearizationConstraint(int j, int i) throws IloException {
         IloLinearNumExpr expr = cplex.linearNumExpr();
         
@@ -230,13 +200,9 @@ public class Model<V extends ExtractionVertex, E> {
         expr.addTerm(1, zVar);
         
         // Find vertices strictly between J and I
-        List<ExtractionVertex> intermediateNodes = Utils.verticesBetweenTwoVertices(
-                (Graph<ExtractionVertex, E>) this.graphNoConflicts, 
-                sortedVertices.get(i), 
-                sortedVertices.get(j)
-        );
+        int[] intermediateNodes = closure.between(j, i);
         
-        int pathSize = intermediateNodes.size();
+        int pathSize = intermediateNodes.length;
 
         // Formula: Z_ji * (1 + |L|) - |L| - X_j + Sum(X_k for k in L) <= 0
         // This forces Z_ji to be 0 if the path is broken (i.e., not all intermediates are selected)?
@@ -246,8 +212,7 @@ public class Model<V extends ExtractionVertex, E> {
         expr.setConstant(-pathSize);
         expr.addTerm(-1, this.decisionVariables[j]);
         
-        for (ExtractionVertex k : intermediateNodes) {
-            int indexK = vertexToIndexMap.get(k);
+        for (int indexK : intermediateNodes) {
             expr.addTerm(1, this.decisionVariables[indexK]);
         }
 
@@ -262,9 +227,9 @@ public class Model<V extends ExtractionVertex, E> {
      * </p>
      */
     private void addConflictConstraints() throws IloException {
-        for (int i = 0; i < sortedVertices.size() - 1; i++) {
-            for (int j = i + 1; j < sortedVertices.size(); j++) {
-                if (this.conflictGraph.containsEdge(sortedVertices.get(i), sortedVertices.get(j))) {
+        for (int i = 0; i < numExtractions - 1; i++) {
+            for (int j : graph.conflictsOf(i)) {
+                if (j > i) {
                     IloLinearNumExpr conflictExpr = cplex.linearNumExpr();
                     conflictExpr.addTerm(1, decisionVariables[i]);
                     conflictExpr.addTerm(1, decisionVariables[j]);
@@ -290,12 +255,12 @@ public class Model<V extends ExtractionVertex, E> {
 
         try {
             // Iterate starting from 1 (skipping the root/method node at 0)
-            for (int i = 1; i < sortedVertices.size(); i++) {
+            for (int i = 1; i < numExtractions; i++) {
                 double val = cplex.getValue(decisionVariables[i], index);
                 
                 // Check if variable is 1 (allowing for floating point tolerance)
                 if (val > 0.9 && val < 1.1) {
-                    ExtractionVertex v = sortedVertices.get(i);
+                    ExtractionVertex v = graph.vertex(i);
                     int initialOffset = v.getInitialOffset();
                     int length = v.getEndOffset() - initialOffset;
                     int startLine = compilationUnit.getLineNumber(initialOffset);
@@ -348,7 +313,7 @@ public class Model<V extends ExtractionVertex, E> {
             if (Math.abs(cplex.getObjValue(x) - bestObjValue) < 1E-6) {
                 StringBuilder signature = new StringBuilder();
                 signature.append('0');
-                for (int i = 1; i < sortedVertices.size(); i++) {
+                for (int i = 1; i < numExtractions; i++) {
                     double val = cplex.getValue(decisionVariables[i], x);
                     signature.append((val > 0.9 && val < 1.1) ? '1' : '0');
                 }
@@ -0,0 +1,240 @@
+package main.neo.core.solvers.portfolio;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import main.neo.core.Solution;
+import main.neo.core.refactoringcache.RefactoringCache;
+import main.neo.core.solvers.RefactoringSolver;
+import main.neo.core.solvers.SolverContext;
+import main.neo.core.solvers.SolverFactory;
+import main.neo.core.solvers.SolverType;
+import main.neo.core.solvers.config.PortfolioConfig;
+
+/**
+ * {@link RefactoringSolver} that runs several solvers concurrently on the same
+ * method and keeps the best solution, so the latency of a method is that of
+ * the fastest conclusive solver rather than the sum of all of them.
+ * <p>
+ * Every solver of the {@link PortfolioConfig} runs on its own thread. The
+ * returned solution does not depend on which solver finishes first: it is the
+ * solution of the first exact solver of the configuration that finds one (a
+ * proven optimum, preferred as the sequential fallback does), or else the
+ * fittest heuristic solution, the first one in configuration order on ties.
+ * The portfolio stops as soon as no solver still running can change that
+ * choice: once an exact solver returns a solution and the exact solvers before
+ * it are done, or once the exact solvers found nothing and the heuristic
+ * solvers before the first one still running reached the target fitness. The
+ * remaining solvers are then cancelled (see {@link RefactoringSolver#cancel()}),
+ * and the portfolio returns once they have stopped.
+ * </p>
+ * <p>
+ * The solvers only read the refactoring cache, which must therefore be filled
+ * before the portfolio runs. A solver that fails counts as one that found
+ * nothing. The solver that produced the returned solution is available from
+ * {@link #getWinner()}.
+ * </p>
+ */
+public class PortfolioSolver implements RefactoringSolver {
+
+	private static final Logger LOGGER = Logger.getLogger(PortfolioSolver.class.getName());
+
+	private final PortfolioConfig config;
+	private final Function<SolverType, RefactoringSolver> factory;
+
+	private final List<RefactoringSolver> running = new ArrayList<>();
+	private volatile boolean cancelled;
+	private volatile SolverType winner;
+
+	public PortfolioSolver(PortfolioConfig config) {
+		this(config, SolverFactory::getSolver);
+	}
+
+	/**
+	 * @param config  The solvers to run and the target fitness.
+	 * @param factory Creates a fresh solver of every type in the portfolio.
+	 */
+	public PortfolioSolver(PortfolioConfig config, Function<SolverType, RefactoringSolver> factory) {
+		this.config = config;
+		this.factory = factory;
+	}
+
+	/** {@link #choose} result while a solver still running may change the choice. */
+	private static final int UNDECIDED = -2;
+
+	/** {@link #choose} result when no solver found a solution. */
+	private static final int NONE = -1;
+
+	/** A solver's result. */
+	private static final class Result {
+		final int index;
+		final Solution solution;
+
+		Result(int index, Solution solution) {
+			this.index = index;
+			this.solution = solution;
+		}
+	}
+
+	@Override
+	public Solution solve(SolverContext ctx, RefactoringCache cache) throws Exception {
+		List<SolverType> types = config.getSolvers();
+		winner = null;
+		if (types.isEmpty()) {
+			return null;
+		}
+
+		// finished[i]: whether solver i is done; solutions[i]: what it found
+		boolean[] finished = new boolean[types.size()];
+		Solution[] solutions = new Solution[types.size()];
+		int chosen = UNDECIDED;
+		ExecutorService executor = Executors.newFixedThreadPool(types.size());
+		try {
+			CompletionService<Result> results = new ExecutorCompletionService<>(executor);
+			synchronized (running) {
+				for (int i = 0; i < types.size(); i++) {
+					int index = i;
+					SolverType type = types.get(i);
+					RefactoringSolver solver = factory.apply(type);
+					running.add(solver);
+					results.submit(() -> new Result(index, solveQuietly(solver, type, ctx, cache)));
+				}
+			}
+
+			while (chosen == UNDECIDED && !cancelled) {
+				Result result = results.take().get();
+				finished[result.index] = true;
+				solutions[result.index] = result.solution;
+				chosen = choose(types, finished, solutions);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			// solveQuietly does not throw: only an error can get here
+			throw new IllegalStateException("Portfolio solver failed for " + ctx.record.methodName, e.getCause());
+		} finally {
+			cancelRunning();
+			executor.shutdownNow();
+			awaitTermination(executor);
+		}
+
+		if (chosen == UNDECIDED) {
+			// Cancelled or interrupted: the best of what the finished solvers found
+			Arrays.fill(finished, true);
+			chosen = choose(types, finished, solutions);
+		}
+		if (chosen == NONE) {
+			return null;
+		}
+		winner = types.get(chosen);
+		LOGGER.log(Level.FINE, "{0} won the portfolio for {1}",
+				new Object[] { winner.getKey(), ctx.record.methodName });
+		return solutions[chosen];
+	}
+
+	/**
+	 * Chooses the solution to return from the solvers done so far.
+	 *
+	 * @return the index of the winning solver, {@link #NONE} if every solver is
+	 *         done without a solution, or {@link #UNDECIDED} if a solver still
+	 *         running may change the choice.
+	 */
+	private int choose(List<SolverType> types, boolean[] finished, Solution[] solutions) {
+		// An exact solution wins, the first in configuration order
+		for (int i = 0; i < types.size(); i++) {
+			if (types.get(i).isExact()) {
+				if (!finished[i]) {
+					return UNDECIDED;
+				}
+				if (solutions[i] != null) {
+					return i;
+				}
+			}
+		}
+		// Then the fittest heuristic solution, the first one on ties
+		int best = NONE;
+		for (int i = 0; i < types.size(); i++) {
+			if (types.get(i).isExact()) {
+				continue;
+			}
+			if (!finished[i]) {
+				// A later solver can at best tie with a solution at the target
+				return best != NONE && solutions[best].getFitness() <= config.getTargetFitness() ? best
+						: UNDECIDED;
+			}
+			if (solutions[i] != null && (best == NONE || solutions[i].getFitness() < solutions[best].getFitness())) {
+				best = i;
+			}
+		}
+		return best;
+	}
+
+	/** Cancels every solver still running, and the portfolio itself. */
+	@Override
+	public void cancel() {
+		cancelled = true;
+		cancelRunning();
+	}
+
+	/**
+	 * Returns the solver whose solution the last {@link #solve} returned, or
+	 * {@code null} if it returned none.
+	 */
+	public SolverType getWinner() {
+		return winner;
+	}
+
+	private void cancelRunning() {
+		synchronized (running) {
+			for (RefactoringSolver solver : running) {
+				solver.cancel();
+			}
+			running.clear();
+		}
+	}
+
+	/**
+	 * Waits for the cancelled solvers to return, so none of them is still
+	 * reading the cache when the portfolio does; an interrupt does not cut the
+	 * wait short, but is kept.
+	 */
+	private static void awaitTermination(ExecutorService executor) {
+		boolean interrupted = false;
+		while (true) {
+			try {
+				if (executor.awaitTermination(1, TimeUnit.SECONDS)) {
+					break;
+				}
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Runs a solver, translating any failure (including a missing CPLEX native
+	 * library) into a {@code null} result.
+	 */
+	private static Solution solveQuietly(RefactoringSolver solver, SolverType type, SolverContext ctx,
+			RefactoringCache cache) {
+		try {
+			return solver.solve(ctx, cache);
+		} catch (UnsatisfiedLinkError | Exception e) {
+			LOGGER.log(Level.FINE, type.getKey() + " solver found nothing for " + ctx.record.methodName, e);
+			return null;
+		}
+	}
+}
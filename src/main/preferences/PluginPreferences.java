@@ -4,13 +4,17 @@ import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.core.runtime.preferences.InstanceScope;
 
 import main.boot.Activator;
+import main.neo.core.solvers.SolverType;
 
 public final class PluginPreferences {
     
     private static final String KEY_LANGUAGE = "pluginLanguage";
     private static final String KEY_ILP_PATH = "ilpExecutablePath";
+    private static final String KEY_SOLVER = "solver";
     private static final String DEFAULT_LANGUAGE = "English";
     private static final String DEFAULT_ILP_PATH = "";
+    /** Key of the solver chosen when none is configured: the exact one, ILP or EXACT. */
+    public static final String AUTOMATIC_SOLVER = "Auto";
     
     private static boolean cplexLoaded = false;
 
@@ -64,6 +68,43 @@ public final class PluginPreferences {
         }
     }
     
+    /**
+     * @return the key of the configured solver: {@link #AUTOMATIC_SOLVER}, or
+     *         that of an enumerative search, which fills the refactoring cache
+     *         lazily instead of checking every extraction first.
+     */
+    public static String getSolver() {
+        try {
+            IEclipsePreferences prefs = InstanceScope.INSTANCE.getNode(Activator.PLUGIN_ID);
+            String solver = prefs.get(KEY_SOLVER, AUTOMATIC_SOLVER);
+            if (SolverType.ES_LONG_SEQUENCE_FIRST.getKey().equals(solver)
+                    || SolverType.ES_SHORT_SEQUENCE_FIRST.getKey().equals(solver)) {
+                return solver;
+            }
+            return AUTOMATIC_SOLVER;
+        } catch (Exception e) {
+            return AUTOMATIC_SOLVER;
+        }
+    }
+
+    public static void setSolver(String solver) {
+        try {
+            IEclipsePreferences prefs = InstanceScope.INSTANCE.getNode(Activator.PLUGIN_ID);
+            prefs.put(KEY_SOLVER, solver != null ? solver : AUTOMATIC_SOLVER);
+            prefs.flush();
+        } catch (Exception e) {
+        }
+    }
+
+    /**
+     * @return the configured enumerative search, or {@code null} if the exact
+     *         solver is chosen automatically.
+     */
+    public static SolverType getEnumerativeSolver() {
+        String solver = getSolver();
+        return AUTOMATIC_SOLVER.equals(solver) ? null : SolverType.fromKey(solver);
+    }
+
     public static boolean isCplexLoaded() {
         return cplexLoaded;
     }
@@ -99,7 +140,8 @@ public final class PluginPreferences {
         path = path.trim();
         
         try {
-        	System.load(path + "/libcplex2212.dylib");
+        	// libcplex2212.so, libcplex2212.dylib or cplex2212.dll depending on the platform
+        	System.load(path + "/" + System.mapLibraryName("cplex2212"));
             
             cplexLoaded = true;
             System.out.println(">> CPLEX: Librería cargada correctamente desde: " + path);
@@ -10,17 +10,26 @@ import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.MethodDeclaration;
 
+import main.neo.app.Constants;
 import main.neo.core.Solution;
 import main.neo.core.Solution.SimulationResult;
 import main.neo.core.graphs.GraphBundle;
 import main.neo.core.graphs.GraphService;
 import main.neo.core.jdt.JavaMethodProcessor.MethodComplexityRecord;
+import main.neo.core.refactoringcache.ConcurrentRefactoringCacheFiller;
 import main.neo.core.refactoringcache.RefactoringCache;
-import main.neo.core.refactoringcache.RefactoringCacheFiller;
+import main.neo.core.refactoringcache.RefactoringCachePrefetcher;
+import main.neo.core.refactoringcache.RefactoringCacheStore;
 import main.neo.core.solvers.RefactoringSolver;
 import main.neo.core.solvers.SolverContext;
 import main.neo.core.solvers.SolverFactory;
 import main.neo.core.solvers.SolverType;
+import main.neo.core.solvers.config.EnumerativeSearchConfig;
+import main.neo.core.solvers.config.PortfolioConfig;
+import main.neo.core.solvers.exhaustivesearch.EnumerativeSearchSolver;
+import main.neo.core.solvers.exhaustivesearch.ExhaustiveEnumerationAlgorithm.Approach;
+import main.neo.core.solvers.portfolio.PortfolioSolver;
+import main.preferences.PluginPreferences;
 
 /**
  * Orchestrator that drives the {@code main.neo} refactoring pipeline (cache
@@ -28,9 +37,10 @@ import main.neo.core.solvers.SolverType;
  * and adapts the result to the plugin's {@link RefactorComparison} domain
  * model.
  * <p>
- * The engine never persists artefacts to disk: solver outputs, refactoring
- * caches and applied extractions are kept in memory and surfaced through the
- * UI.
+ * The engine never modifies the analysed files: solver outputs and applied
+ * extractions are kept in memory and surfaced through the UI. The only
+ * artefacts written to disk are refactoring caches, persisted in the
+ * {@link RefactoringCacheStore} so unchanged methods are not re-explored.
  * </p>
  */
 public final class CodeExtractionEngine {
@@ -57,37 +67,147 @@ public final class CodeExtractionEngine {
 	public static List<RefactorComparison> analyseAndPlan(CompilationUnit cu, ICompilationUnit icuWorkingCopy,
 			MethodDeclaration node, int cc, int threshold) throws CoreException {
 
-		if (node == null || cu == null || cc <= threshold) {
+		Plan plan = plan(cu, node, cc, threshold);
+		if (plan == null) {
 			return Collections.emptyList();
 		}
+		return simulate(plan, icuWorkingCopy);
+	}
 
-		// 1. Build the cache of feasible refactoring opportunities for this method.
+	/**
+	 * Runs the planning half of the pipeline (cache, graphs and solver) without
+	 * touching any working copy.
+	 * <p>
+	 * Planning only reads {@code cu} and the working copy it was parsed from, so
+	 * independent methods can be planned concurrently as long as each one is
+	 * parsed from its own private working copy. The returned plan can then be
+	 * moved to the shared unit with {@link Plan#relocate(CompilationUnit, MethodDeclaration)}
+	 * and simulated with {@link #simulate(Plan, ICompilationUnit)}.
+	 * </p>
+	 *
+	 * @return the best plan found, or {@code null} if no improving refactoring
+	 *         exists
+	 */
+	public static Plan plan(CompilationUnit cu, MethodDeclaration node, int cc, int threshold) {
+		// An enumerative search chosen in the preferences fills the cache lazily
+		SolverType searchSolver = PluginPreferences.getEnumerativeSolver();
+		if (searchSolver != null) {
+			return plan(cu, node, cc, threshold, searchSolver);
+		}
+		// Without the CPLEX native library, the same model is solved in pure Java
+		SolverType exactSolver = PluginPreferences.isCplexLoaded() ? SolverType.ILP : SolverType.EXACT;
+		return plan(cu, node, cc, threshold, exactSolver);
+	}
+
+	/**
+	 * Runs the planning half of the pipeline with the given solver.
+	 * <p>
+	 * The exact solvers (ILP and EXACT) need the whole refactoring cache, which
+	 * is filled before they run. The long-sequence-first enumerative search
+	 * runs after the given one if it finds nothing, or races it on the same
+	 * cache when {@link Constants#SOLVER_PORTFOLIO} is set, with the same
+	 * result. An enumerative search, chosen in the {@link PluginPreferences},
+	 * runs directly instead, filling the cache lazily: only the extractions its
+	 * iterators reach are checked, while background workers check the next ones
+	 * in iteration order. The search then runs sequentially, consuming the
+	 * combinations as its iterators produce them, and keeps the shared pool for
+	 * the prefetch. Such a partial cache is not persisted.
+	 * </p>
+	 *
+	 * @param solverType the solver to run first
+	 * @return the best plan found, or {@code null} if no improving refactoring
+	 *         exists
+	 */
+	public static Plan plan(CompilationUnit cu, MethodDeclaration node, int cc, int threshold,
+			SolverType solverType) {
+
+		if (node == null || cu == null || cc <= threshold) {
+			return null;
+		}
+
+		// 1. Build the cache of feasible refactoring opportunities for this method,
+		// reusing the persisted one when the method has not changed since. Its
+		// records are read as the solver looks them up, or all at once for the
+		// exact solvers.
 		RefactoringCache cache = new RefactoringCache(cu, node);
-		RefactoringCacheFiller.exhaustiveEnumerationAlgorithm(cache, node);
+		RefactoringCacheStore store = RefactoringCacheStore.getDefault();
+		boolean filled = store != null && store.load(cache);
+		if (filled && solverType.needsFilledCache() && !cache.loadStoredEntries()) {
+			// A stored record was corrupted: fill the missing entries and rewrite it
+			filled = false;
+		}
+		if (!filled && solverType.needsFilledCache()) {
+			ConcurrentRefactoringCacheFiller.exhaustiveEnumerationAlgorithm(cache, node,
+					Constants.CACHE_FILL_PARALLELISM);
+			if (store != null) {
+				store.save(cache);
+			}
+			filled = true;
+		}
 
 		// 2. Build the solver context (record + threshold).
 		int lineNumber = cu.getLineNumber(node.getStartPosition());
 		MethodComplexityRecord record = new MethodComplexityRecord(node.getName().getIdentifier(), lineNumber, cc, node);
 
-		Solution solution;
-		boolean usedILP;
-		SolverContext ctx = new SolverContext(cu, record, SolverType.ILP.getKey(), threshold);
-		GraphBundle graphs = GraphService.buildGraphs(cache, node);
+		if (!solverType.needsFilledCache()) {
+			SolverContext ctx = new SolverContext(cu, record, solverType.getKey(), threshold);
+			if (filled) {
+				return toPlan(runFallback(ctx, cache, solverType), solverType);
+			}
+			try (RefactoringCachePrefetcher prefetcher = RefactoringCachePrefetcher.start(cache, node,
+					approachOf(solverType), Constants.CACHE_PREFETCH_PARALLELISM)) {
+				return toPlan(runLazySearch(ctx, cache, solverType), solverType);
+			}
+		}
+
+		SolverContext ctx = new SolverContext(cu, record, solverType.getKey(), threshold);
+		GraphBundle graphs = GraphService.buildGraphs(cache, node, threshold);
+		if (graphs.presolve != null) {
+			LOGGER.log(Level.FINE, "{0}: {1}", new Object[] { record.methodName, graphs.presolve });
+		}
 		ctx.setPrecomputedGraphs(graphs);
 
-		solution = runSolver(ctx, cache);
-		usedILP = solution != null;
+		if (Constants.SOLVER_PORTFOLIO) {
+			return runPortfolio(ctx, cache, solverType);
+		}
+
+		Solution solution = runSolver(ctx, cache, solverType);
+		SolverType winner = solverType;
 		
 		if(solution == null) {
-			// Fallback to enumerative search if CPLEX is unavailable or failed.
+			// Fallback to enumerative search if the exact solver failed or found no
+			// solution meeting the threshold.
 			ctx = new SolverContext(cu, record, SolverType.ES_LONG_SEQUENCE_FIRST.getKey(), threshold);
-			solution = runFallback(ctx, cache);
-			usedILP = false;
+			solution = runFallback(ctx, cache, SolverType.ES_LONG_SEQUENCE_FIRST);
+			winner = SolverType.ES_LONG_SEQUENCE_FIRST;
 		}
 
+		return toPlan(solution, winner);
+	}
+
+	private static Plan toPlan(Solution solution, SolverType solver) {
 		if (solution == null || solution.getSequenceList() == null || solution.getSequenceList().isEmpty()) {
-			return Collections.emptyList();
+			return null;
 		}
+		return new Plan(solution, solver);
+	}
+
+	private static Approach approachOf(SolverType solverType) {
+		return solverType == SolverType.ES_SHORT_SEQUENCE_FIRST ? Approach.SHORT_SEQUENCE_FIRST
+				: Approach.LONG_SEQUENCE_FIRST;
+	}
+
+	/**
+	 * Simulates a plan on a working copy without touching the file.
+	 *
+	 * @param plan           plan produced by {@link #plan(CompilationUnit, MethodDeclaration, int, int)}
+	 * @param icuWorkingCopy working copy used for in-memory simulation; its buffer
+	 *                       is updated with the simulated extractions
+	 * @return a singleton list with the {@link RefactorComparison}, or an empty
+	 *         list if the extractions could not be simulated
+	 */
+	public static List<RefactorComparison> simulate(Plan plan, ICompilationUnit icuWorkingCopy) throws CoreException {
+		Solution solution = plan.getSolution();
 
 		// 3. Simulate the extractions on a working copy without touching the file.
 		SimulationResult sim = solution.simulateExtractMethods(icuWorkingCopy);
@@ -102,38 +222,111 @@ public final class CodeExtractionEngine {
 				.reducedComplexity(solution.getReducedComplexity())
 				.numberOfExtractions(solution.getSize())
 				.stats(solution.getExtractionMetricsStats())
-				.usedILP(usedILP)
+				.usedILP(plan.isUsedILP())
+				.solver(plan.getSolver())
 				.build();
 
 		return List.of(comparison);
 	}
 
 	/**
-	 * Runs the configured ILP solver. Any failure (including a missing CPLEX
-	 * native library) is logged and translated into a {@code null} result so the
-	 * caller can fall back to the enumerative search.
+	 * Runs the given exact solver (CPLEX-backed ILP or its pure-Java
+	 * counterpart). Any failure (including a missing CPLEX native library) is
+	 * logged and translated into a {@code null} result so the caller can fall
+	 * back to the enumerative search.
 	 */
-	private static Solution runSolver(SolverContext ctx, RefactoringCache cache) {
+	private static Solution runSolver(SolverContext ctx, RefactoringCache cache, SolverType type) {
 		try {
-			RefactoringSolver solver = SolverFactory.getSolver(SolverType.ILP);
+			RefactoringSolver solver = SolverFactory.getSolver(type);
 			return solver.solve(ctx, cache);
 		} catch (UnsatisfiedLinkError | Exception e) {
-			LOGGER.log(Level.FINE, "ILP solver unavailable for " + ctx.record.methodName + "; using fallback", e);
+			LOGGER.log(Level.FINE, type.getKey() + " solver unavailable for " + ctx.record.methodName + "; using fallback", e);
 			return null;
 		}
 	}
 
 	/**
-	 * Runs the long-sequence-first enumerative search as a deterministic fallback
-	 * when the ILP solver is not available.
+	 * Races the configured exact solver against the long-sequence-first
+	 * enumerative search on the filled cache. An optimal solution cancels the
+	 * search; otherwise the enumerative result is kept, as the sequential
+	 * fallback would.
 	 */
-	private static Solution runFallback(SolverContext ctx, RefactoringCache cache) {
+	private static Plan runPortfolio(SolverContext ctx, RefactoringCache cache, SolverType exactSolver) {
+		List<SolverType> solvers = List.of(exactSolver, SolverType.ES_LONG_SEQUENCE_FIRST);
+		PortfolioSolver portfolio = new PortfolioSolver(new PortfolioConfig(solvers));
 		try {
-			RefactoringSolver solver = SolverFactory.getSolver(SolverType.ES_LONG_SEQUENCE_FIRST);
+			Solution solution = portfolio.solve(ctx, cache);
+			return toPlan(solution, portfolio.getWinner());
+		} catch (Exception e) {
+			LOGGER.log(Level.WARNING, "Solver portfolio failed for " + ctx.record.methodName, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Runs an enumerative search, either as a deterministic fallback when the ILP
+	 * solver is not available or as the solver of choice.
+	 */
+	private static Solution runFallback(SolverContext ctx, RefactoringCache cache, SolverType type) {
+		try {
+			RefactoringSolver solver = SolverFactory.getSolver(type);
 			return solver.solve(ctx, cache);
 		} catch (Exception e) {
-			LOGGER.log(Level.WARNING, "Enumerative-search fallback failed for " + ctx.record.methodName, e);
+			LOGGER.log(Level.WARNING, type.getKey() + " search failed for " + ctx.record.methodName, e);
 			return null;
 		}
 	}
+
+	/**
+	 * Runs an enumerative search sequentially on a cache filled as it goes: the
+	 * parallel search would first materialise the choices of every block, and
+	 * so check their extractions, on the calling thread.
+	 */
+	private static Solution runLazySearch(SolverContext ctx, RefactoringCache cache, SolverType type) {
+		try {
+			RefactoringSolver solver = new EnumerativeSearchSolver(
+					new EnumerativeSearchConfig(Constants.ENUMERATIVE_SEARCH_EVALUATIONS, approachOf(type)));
+			return solver.solve(ctx, cache);
+		} catch (Exception e) {
+			LOGGER.log(Level.WARNING, type.getKey() + " search failed for " + ctx.record.methodName, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Refactoring plan chosen by a solver for a single method, together with the
+	 * solver family that produced it.
+	 */
+	public static final class Plan {
+		private final Solution solution;
+		private final SolverType solver;
+
+		Plan(Solution solution, SolverType solver) {
+			this.solution = solution;
+			this.solver = solver;
+		}
+
+		public Solution getSolution() {
+			return solution;
+		}
+
+		/** Whether the plan was produced by the CPLEX-backed ILP solver. */
+		public boolean isUsedILP() {
+			return solver == SolverType.ILP;
+		}
+
+		/** The solver that produced the plan. */
+		public SolverType getSolver() {
+			return solver;
+		}
+
+		/**
+		 * Returns the same plan bound to {@code targetMethod} in
+		 * {@code targetUnit}, whose body must be textually identical to the one the
+		 * plan was computed on.
+		 */
+		public Plan relocate(CompilationUnit targetUnit, MethodDeclaration targetMethod) {
+			return new Plan(solution.relocate(targetUnit, targetMethod), solver);
+		}
+	}
 }
@@ -3,6 +3,7 @@ package main.refactor;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 
 import main.neo.core.jdt.CodeExtractionMetricsStats;
+import main.neo.core.solvers.SolverType;
 
 public class RefactorComparison {
 	private final String name;
@@ -13,6 +14,7 @@ public class RefactorComparison {
 	private final int numberOfExtractions;
 	private final CodeExtractionMetricsStats stats;
 	private final boolean usedILP;
+	private final SolverType solver;
 
 	public static Builder builder() {
 		return new Builder();
@@ -26,6 +28,7 @@ public class RefactorComparison {
 		this.numberOfExtractions = b.numberOfExtractions;
 		this.stats = b.stats;
 		this.usedILP = b.usedILP;
+		this.solver = b.solver;
 	}
 
 	public String getName() {
@@ -60,6 +63,11 @@ public class RefactorComparison {
 		return usedILP;
 	}
 
+	/** The solver that produced the refactoring, or {@code null} if unknown. */
+	public SolverType getSolver() {
+		return solver;
+	}
+
 	public static class Builder {
 		private String name;
 		private int reducedComplexity;
@@ -68,6 +76,7 @@ public class RefactorComparison {
 		private String refactoredSource;
 		private CodeExtractionMetricsStats stats;
 		private boolean usedILP = false;
+		private SolverType solver;
 
 		public Builder name(String v) {
 			this.name = v;
@@ -107,6 +116,11 @@ public class RefactorComparison {
 			return this;
 		}
 
+		public Builder solver(SolverType v) {
+			this.solver = v;
+			return this;
+		}
+
 		public RefactorComparison build() {
 			return new RefactorComparison(this);
 		}
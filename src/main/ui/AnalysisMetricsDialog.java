@@ -44,6 +44,7 @@ import main.model.common.LocStats;
 import main.model.method.MethodMetrics;
 import main.model.project.ProjectMetrics;
 import main.model.workspace.WorkspaceMetrics;
+import main.neo.core.solvers.SolverType;
 import main.refactor.RefactorApplier;
 import main.session.ActionType;
 import main.ui.RefactorConfirmationDialog.SelectedClassInfo;
@@ -769,7 +770,7 @@ public class AnalysisMetricsDialog extends TitleAreaDialog {
                 for (int idx=0; idx<refactoredAll.size(); idx++) {
                     MethodMetrics ref = refactoredAll.get(idx);
                     TableItem item = new TableItem(table, SWT.NONE);
-                    String algorithm = ref.isUsedILP() ? "ILP" : "ESH";
+                    String algorithm = algorithmOf(ref);
                     
                     int colOffset = showCheckboxes ? 1 : 0;
                     
@@ -866,7 +867,7 @@ public class AnalysisMetricsDialog extends TitleAreaDialog {
                     for (int idx=0; idx<refactoredAll.size(); idx++) {
                         MethodMetrics ref = refactoredAll.get(idx);
                         TableItem item = new TableItem(table, SWT.NONE);
-                        String algorithm = ref.isUsedILP() ? "ILP" : "ESH";
+                        String algorithm = algorithmOf(ref);
                         
                         int colOffset = showCheckboxes ? 1 : 0;
                         
@@ -931,6 +932,18 @@ public class AnalysisMetricsDialog extends TitleAreaDialog {
         return refactored.getName().equals(original.getName());
     }
 
+    /**
+     * Returns the label of the solver that refactored a method: ILP, EXACT
+     * (the same model solved without CPLEX) or ESH (an enumerative search).
+     */
+    private static String algorithmOf(MethodMetrics refactored) {
+        SolverType solver = refactored.getSolver();
+        if (solver == null) {
+            return refactored.isUsedILP() ? "ILP" : "ESH";
+        }
+        return solver.isExact() ? solver.getKey() : "ESH";
+    }
+
     private void populateClassTable(Table table, ClassMetrics full) {
         ClassMetrics trimmed = full.getMethodsWithRefactors().getFirst();
     	int[] rowNum = {1};
@@ -951,7 +964,7 @@ public class AnalysisMetricsDialog extends TitleAreaDialog {
             for (int idx=0; idx<refactoredAll.size(); idx++) {
                 MethodMetrics ref = refactoredAll.get(idx);
                 TableItem item = new TableItem(table, SWT.NONE);
-                String algorithm = ref.isUsedILP() ? "ILP" : "ESH";
+                String algorithm = algorithmOf(ref);
                 if (idx == 0) {
                     item.setText(new String[] {
                         Integer.toString(rowNum[0]++),
@@ -1,5 +1,7 @@
 package main.ui;
 
+import java.util.Arrays;
+
 import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.jface.dialogs.TitleAreaDialog;
 import org.eclipse.swt.SWT;
@@ -14,12 +16,18 @@ import org.eclipse.swt.widgets.Label;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.Text;
 
+import main.neo.core.solvers.SolverType;
 import main.preferences.PluginPreferences;
 
 public class ConfigurationDialog extends TitleAreaDialog {
 
     private Combo languageCombo;
     private Text ilpPathText;
+    private Combo solverCombo;
+
+    /** Solver keys, in the order of {@link #solverCombo}. */
+    private static final String[] SOLVERS = { PluginPreferences.AUTOMATIC_SOLVER,
+            SolverType.ES_LONG_SEQUENCE_FIRST.getKey(), SolverType.ES_SHORT_SEQUENCE_FIRST.getKey() };
 
     public ConfigurationDialog(Shell parentShell) {
         super(parentShell);
@@ -113,6 +121,28 @@ public class ConfigurationDialog extends TitleAreaDialog {
         statusGD.horizontalSpan = 3;
         ilpStatus.setLayoutData(statusGD);
 
+        Label solverLabel = new Label(content, SWT.NONE);
+        solverLabel.setText(isEnglish ? "Solver:" : "Algoritmo:");
+
+        solverCombo = new Combo(content, SWT.DROP_DOWN | SWT.READ_ONLY);
+        GridData solverComboGD = new GridData(SWT.FILL, SWT.CENTER, true, false);
+        solverComboGD.horizontalSpan = 2;
+        solverCombo.setLayoutData(solverComboGD);
+        solverCombo.setItems(isEnglish
+            ? new String[] {"Exact (ILP if CPLEX is loaded)", "Enumerative search, longest sequences first", "Enumerative search, shortest sequences first"}
+            : new String[] {"Exacto (ILP si CPLEX está cargado)", "Búsqueda enumerativa, secuencias largas primero", "Búsqueda enumerativa, secuencias cortas primero"});
+        solverCombo.select(Math.max(0, Arrays.asList(SOLVERS).indexOf(PluginPreferences.getSolver())));
+
+        Label solverHint = new Label(content, SWT.WRAP);
+        solverHint.setText(isEnglish
+            ? "An enumerative search only checks the extractions it reaches, so it starts sooner on large methods, but its plan may not be optimal."
+            : "Una búsqueda enumerativa solo comprueba las extracciones que alcanza, por lo que empieza antes en métodos grandes, pero su plan puede no ser óptimo.");
+        solverHint.setForeground(content.getDisplay().getSystemColor(SWT.COLOR_DARK_GRAY));
+        GridData solverHintGD = new GridData(SWT.FILL, SWT.CENTER, true, false);
+        solverHintGD.horizontalSpan = 3;
+        solverHintGD.widthHint = 480;
+        solverHint.setLayoutData(solverHintGD);
+
         Label separator2 = new Label(content, SWT.NONE);
         GridData sep2GD = new GridData(SWT.FILL, SWT.CENTER, true, false);
         sep2GD.horizontalSpan = 3;
@@ -147,6 +177,8 @@ public class ConfigurationDialog extends TitleAreaDialog {
         int langIndex = languageCombo.getSelectionIndex();
         String language = langIndex == 1 ? "English" : "Castellano";
         PluginPreferences.setPluginLanguage(language);
+
+        PluginPreferences.setSolver(SOLVERS[Math.max(0, solverCombo.getSelectionIndex())]);
         
         String ilpPath = ilpPathText.getText().trim();
         String previousPath = PluginPreferences.getIlpExecutablePath();
@@ -1,24 +1,81 @@
 package test.analyzer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Hashtable;
+import java.util.List;
 import java.util.Map;
 
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTParser;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.MethodDeclaration;
 import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import main.analyzer.ComplexityAnalyzer;
+import main.builder.ClassAnalysis;
+import main.builder.MethodAnalysis;
+import main.common.utils.Utils;
+import main.preferences.ProjectPreferences;
+import test.objectmothers.JavaProjectMother;
 
 class ComplexityAnalyzerTest {
 
+    private static final String ORDERS = """
+            package p;
+
+            public class Orders {
+              int total(int[] xs, boolean strict) {
+                int sum = 0;
+                for (int x : xs) {
+                  if (x > 0) {
+                    sum += x;
+                  } else if (strict) {
+                    sum -= x;
+                  }
+                }
+                if (sum > 100) {
+                  sum = 100;
+                }
+                return sum;
+              }
+
+              int count(int[] xs, int limit) {
+                int n = 0;
+                for (int x : xs) {
+                  if (x < limit) {
+                    n++;
+                  }
+                  while (x > limit) {
+                    x /= 2;
+                  }
+                }
+                return n;
+              }
+
+              String label(int x) {
+                if (x > 0) {
+                  if (x > 10) {
+                    return "many";
+                  }
+                  return "some";
+                }
+                return "none";
+              }
+            }
+            """;
+
     @Test
     void given_newInstance_when_construct_should_notBeNull() {
         assertNotNull(new ComplexityAnalyzer());
@@ -29,6 +86,16 @@ class ComplexityAnalyzerTest {
         assertThrows(Exception.class, () -> new ComplexityAnalyzer().analyze(null, null));
     }
 
+    @Test
+    void given_parallelInstance_when_analyzeNullCompilationUnit_throws_exception() {
+        assertThrows(Exception.class, () -> new ComplexityAnalyzer(4).analyze(null, null));
+    }
+
+    @Test
+    void given_nullCompilationUnit_when_analyzeIfWithinThreshold_throws_exception() {
+        assertThrows(Exception.class, () -> new ComplexityAnalyzer().analyzeIfWithinThreshold(null, null));
+    }
+
     @Test
     void given_methodWithIfElse_when_computeCognitiveComplexity_should_returnPositiveValue() {
         final String src = """
@@ -56,6 +123,91 @@ class ComplexityAnalyzerTest {
         analyzer.expose(firstMethod(src));
     }
 
+    @Test
+    void given_severalMethodsAboveThreshold_when_analyzeConcurrently_should_planAsSequentially() throws Exception {
+        final IJavaProject project = JavaProjectMother.withSources("ComplexityAnalyzerTest",
+                Map.of("Orders", ORDERS));
+        Assumptions.assumeTrue(project != null, "Eclipse workspace not available");
+        try {
+            ProjectPreferences.setComplexityThreshold(project.getProject(), 3);
+            final ICompilationUnit icu = JavaProjectMother.units(project).getFirst();
+
+            final ClassAnalysis sequential = new ComplexityAnalyzer().analyze(Utils.parserAST(icu), icu);
+            final ClassAnalysis concurrent = new ComplexityAnalyzer(4).analyze(Utils.parserAST(icu), icu);
+
+            assertEquals(sequential.getRefactoredSource(), concurrent.getRefactoredSource());
+            assertEquals(plans(sequential.getRefactoredMethods()), plans(concurrent.getRefactoredMethods()));
+            assertTrue(sequential.getRefactoredMethods().stream().anyMatch(m -> m.getNumberOfExtractions() > 0));
+        } finally {
+            JavaProjectMother.delete(project);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 5, 50 })
+    void given_unitWithinThreshold_when_analyzeIfWithinThreshold_should_matchTheFullAnalysis(final int threshold)
+            throws Exception {
+        final IJavaProject project = JavaProjectMother.withSources("ComplexityAnalyzerTestWithin",
+                Map.of("Orders", ORDERS));
+        Assumptions.assumeTrue(project != null, "Eclipse workspace not available");
+        try {
+            ProjectPreferences.setComplexityThreshold(project.getProject(), threshold);
+            final ICompilationUnit icu = JavaProjectMother.units(project).getFirst();
+
+            final ClassAnalysis prescreen = new ComplexityAnalyzer()
+                    .analyzeIfWithinThreshold(Utils.parserASTWithoutBindings(icu), icu);
+            final ClassAnalysis full = new ComplexityAnalyzer().analyze(Utils.parserAST(icu), icu);
+
+            assertNotNull(prescreen);
+            assertEquals(full.getClassName(), prescreen.getClassName());
+            assertEquals(full.getPath(), prescreen.getPath());
+            assertEquals(full.getComplexityThreshold(), prescreen.getComplexityThreshold());
+            assertEquals(full.getCurrentSource(), prescreen.getCurrentSource());
+            assertEquals(full.getRefactoredSource(), prescreen.getRefactoredSource());
+            assertEquals(methods(full.getCurrentMethods()), methods(prescreen.getCurrentMethods()));
+            assertEquals(methods(full.getRefactoredMethods()), methods(prescreen.getRefactoredMethods()));
+        } finally {
+            JavaProjectMother.delete(project);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 3, 4 })
+    void given_unitAboveThreshold_when_analyzeIfWithinThreshold_should_leaveItToTheFullAnalysis(final int threshold)
+            throws Exception {
+        final IJavaProject project = JavaProjectMother.withSources("ComplexityAnalyzerTestAbove",
+                Map.of("Orders", ORDERS));
+        Assumptions.assumeTrue(project != null, "Eclipse workspace not available");
+        try {
+            ProjectPreferences.setComplexityThreshold(project.getProject(), threshold);
+            final ICompilationUnit icu = JavaProjectMother.units(project).getFirst();
+
+            final ClassAnalysis prescreen = new ComplexityAnalyzer()
+                    .analyzeIfWithinThreshold(Utils.parserASTWithoutBindings(icu), icu);
+            final ClassAnalysis full = new ComplexityAnalyzer().analyze(Utils.parserAST(icu), icu);
+
+            assertNull(prescreen);
+            assertTrue(full.getCurrentMethods().stream().anyMatch(m -> m.getCc() > threshold));
+        } finally {
+            JavaProjectMother.delete(project);
+        }
+    }
+
+    /** Every method with its signature, complexity, size, extractions and reduced complexity. */
+    private static List<String> methods(final List<MethodAnalysis> methods) {
+        return methods.stream()
+                .map(m -> m.getSignature() + " " + m.getCc() + " " + m.getLoc() + " " + m.getNumberOfExtractions()
+                        + " " + m.getReducedComplexity())
+                .toList();
+    }
+
+    /** The plan of every method: its signature, extractions and reduced complexity. */
+    private static List<String> plans(final List<MethodAnalysis> methods) {
+        return methods.stream()
+                .map(m -> m.getSignature() + " " + m.getNumberOfExtractions() + " " + m.getReducedComplexity())
+                .toList();
+    }
+
     private MethodDeclaration firstMethod(final String source) {
         final ASTParser parser = ASTParser.newParser(AST.JLS21);
         @SuppressWarnings({ "rawtypes", "unchecked" })
@@ -3,6 +3,8 @@ package test.builder;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 
 import main.builder.ProjectFilesAnalyzer;
@@ -23,4 +25,26 @@ class ProjectFilesAnalyzerTest {
     void given_nullProject_when_analyzeProject_throws_nullPointerException() {
         assertThrows(NullPointerException.class, () -> new ProjectFilesAnalyzer().analyzeProject(null));
     }
+
+    @Test
+    void given_nullProject_when_collectSourceFiles_throws_nullPointerException() {
+        assertThrows(NullPointerException.class, () -> new ProjectFilesAnalyzer().collectSourceFiles(null));
+    }
+
+    @Test
+    void given_nullFile_when_prescreenFile_throws_nullPointerException() {
+        assertThrows(NullPointerException.class, () -> new ProjectFilesAnalyzer().prescreenFile(null));
+    }
+
+    @Test
+    void given_nullUnit_when_analyzeUnit_throws_nullPointerException() {
+        assertThrows(NullPointerException.class, () -> new ProjectFilesAnalyzer().analyzeUnit(null, null));
+    }
+
+    @Test
+    void given_nullProject_when_parseFiles_throws_nullPointerException() {
+        assertThrows(NullPointerException.class,
+                () -> new ProjectFilesAnalyzer().parseFiles(null, List.of(), null, (position, icu, cu) -> {
+                }));
+    }
 }
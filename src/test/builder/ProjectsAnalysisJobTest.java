@@ -0,0 +1,225 @@
+package test.builder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.IJavaProject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import main.builder.ClassAnalysis;
+import main.builder.MethodAnalysis;
+import main.builder.ProjectAnalysis;
+import main.builder.ProjectFilesAnalyzer;
+import main.builder.ProjectsAnalysisJob;
+import test.objectmothers.JavaProjectMother;
+
+class ProjectsAnalysisJobTest {
+
+    private static final ProjectsAnalysisJob.Listener NO_OP = new ProjectsAnalysisJob.Listener() {
+        @Override
+        public void analysisCompleted(List<ProjectAnalysis> analyses) {
+        }
+
+        @Override
+        public void analysisFailed(Throwable error) {
+        }
+    };
+
+    /** A method above the default threshold, so that its unit needs the full analysis. */
+    private static final String COMPLEX_METHOD = """
+            int c(int x) {
+                int r = 0;
+                for (int i = 0; i < x; i++) {
+                    if (i > 1) {
+                        for (int j = 0; j < i; j++) {
+                            if (j % 2 == 0) {
+                                if (j > 3) { r++; } else { r--; }
+                            }
+                        }
+                    }
+                }
+                return r;
+            }""";
+
+    private IJavaProject project;
+
+    @BeforeEach
+    void setUp() {
+        project = JavaProjectMother.withSources("ProjectsAnalysisJobTest", Map.of(
+                "Alpha", "package p; public class Alpha { int a(int x) { return x > 0 ? x : -x; } }",
+                "Beta", "package p; public class Beta { void b() {} }",
+                "Gamma", "package p; public interface Gamma { void g(); }",
+                "Delta", "package p; public class Delta { int d(int x) { if (x > 0) { return 1; } return 0; } }"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        JavaProjectMother.delete(project);
+    }
+
+    @Test
+    void given_noProjects_when_construct_should_beUserJob() {
+        ProjectsAnalysisJob job = new ProjectsAnalysisJob("analysis", List.of(), NO_OP);
+        assertNotNull(job);
+        assertTrue(job.isUser());
+    }
+
+    @Test
+    void given_nullProjects_when_construct_throws_nullPointerException() {
+        assertThrows(NullPointerException.class, () -> new ProjectsAnalysisJob("analysis", null, NO_OP));
+    }
+
+    @Test
+    void given_nullListener_when_construct_throws_nullPointerException() {
+        assertThrows(NullPointerException.class, () -> new ProjectsAnalysisJob("analysis", List.of(), null));
+    }
+
+    @Test
+    void given_project_when_run_should_reportEveryUnitAndCompleteInScanOrder() throws Exception {
+        Assumptions.assumeTrue(project != null, "Eclipse workspace not available");
+        RecordingListener listener = new RecordingListener();
+        RecordingMonitor monitor = new RecordingMonitor();
+
+        IStatus status = new TestJob(listener, 3).runWith(monitor);
+
+        assertEquals(IStatus.OK, status.getSeverity());
+        assertNull(listener.failure);
+        assertEquals(1, listener.completed.size());
+        List<IFile> files = new ProjectFilesAnalyzer().collectSourceFiles(project.getProject());
+        List<String> classes = new ArrayList<>();
+        for (IFile file : files) {
+            if (!file.getName().equals("Gamma.java")) { // interfaces are not analysed
+                classes.add(file.getName());
+            }
+        }
+        assertEquals(classes, listener.completed.getFirst().getFiles().stream().map(ClassAnalysis::getClassName)
+                .toList());
+        // One progress step per unit, interfaces included
+        assertEquals(files.size(), monitor.subTasks.size());
+        assertTrue(monitor.done);
+    }
+
+    @Test
+    void given_cancelledMonitor_when_run_should_returnCancelStatusWithoutNotifying() {
+        Assumptions.assumeTrue(project != null, "Eclipse workspace not available");
+        RecordingListener listener = new RecordingListener();
+        RecordingMonitor monitor = new RecordingMonitor();
+        monitor.setCanceled(true);
+
+        IStatus status = new TestJob(listener, 3).runWith(monitor);
+
+        assertEquals(IStatus.CANCEL, status.getSeverity());
+        assertNull(listener.completed);
+        assertNull(listener.failure);
+        assertTrue(monitor.done);
+    }
+
+    @Test
+    void given_closedProject_when_run_should_omitIt() throws Exception {
+        Assumptions.assumeTrue(project != null, "Eclipse workspace not available");
+        project.getProject().close(null);
+        RecordingListener listener = new RecordingListener();
+
+        IStatus status = new TestJob(listener, 2).runWith(new NullProgressMonitor());
+
+        assertEquals(IStatus.OK, status.getSeverity());
+        assertEquals(List.of(), listener.completed);
+    }
+
+    @Test
+    void given_unitsAboveThreshold_when_run_should_matchTheSequentialAnalysis() throws Exception {
+        Map<String, String> sources = new HashMap<>();
+        for (int i = 0; i < 6; i++) {
+            sources.put("Complex" + i, "package p; public class Complex" + i + " { " + COMPLEX_METHOD + " }");
+        }
+        sources.put("Simple", "package p; public class Simple { int s(int x) { return x > 0 ? x : -x; } }");
+        IJavaProject complex = JavaProjectMother.withSources("ProjectsAnalysisJobTestComplex", sources);
+        Assumptions.assumeTrue(complex != null, "Eclipse workspace not available");
+        try {
+            RecordingListener listener = new RecordingListener();
+
+            IStatus status = new TestJob(List.of(complex.getProject()), listener, 3).runWith(new NullProgressMonitor());
+
+            assertEquals(IStatus.OK, status.getSeverity());
+            assertNull(listener.failure);
+            ProjectAnalysis sequential = new ProjectFilesAnalyzer().analyzeProject(complex.getProject());
+            assertEquals(summary(sequential), summary(listener.completed.getFirst()));
+            assertEquals(7, listener.completed.getFirst().getFiles().size());
+        } finally {
+            JavaProjectMother.delete(complex);
+        }
+    }
+
+    /** The classes of an analysis with the name and complexity of their methods, in order. */
+    private static List<String> summary(ProjectAnalysis analysis) {
+        List<String> summary = new ArrayList<>();
+        for (ClassAnalysis ca : analysis.getFiles()) {
+            for (MethodAnalysis method : ca.getCurrentMethods()) {
+                summary.add(ca.getClassName() + "." + method.getSignature() + " cc=" + method.getCc() + " loc="
+                        + method.getLoc());
+            }
+        }
+        return summary;
+    }
+
+    /** Exposes {@link ProjectsAnalysisJob#run} to run the job on the test thread. */
+    private final class TestJob extends ProjectsAnalysisJob {
+        TestJob(ProjectsAnalysisJob.Listener listener, int workers) {
+            this(List.of(project.getProject()), listener, workers);
+        }
+
+        TestJob(List<IProject> projects, ProjectsAnalysisJob.Listener listener, int workers) {
+            super("analysis", projects, listener, new ProjectFilesAnalyzer(), workers);
+        }
+
+        IStatus runWith(IProgressMonitor monitor) {
+            return run(monitor);
+        }
+    }
+
+    private static final class RecordingListener implements ProjectsAnalysisJob.Listener {
+        List<ProjectAnalysis> completed;
+        Throwable failure;
+
+        @Override
+        public void analysisCompleted(List<ProjectAnalysis> analyses) {
+            completed = analyses;
+        }
+
+        @Override
+        public void analysisFailed(Throwable error) {
+            failure = error;
+        }
+    }
+
+    private static final class RecordingMonitor extends NullProgressMonitor {
+        final List<String> subTasks = new ArrayList<>();
+        boolean done;
+
+        @Override
+        public void subTask(String name) {
+            subTasks.add(name);
+        }
+
+        @Override
+        public void done() {
+            done = true;
+        }
+    }
+}
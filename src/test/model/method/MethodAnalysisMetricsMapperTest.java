@@ -1,6 +1,7 @@
 package test.model.method;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -11,6 +12,7 @@ import org.junit.jupiter.api.Test;
 import main.builder.MethodAnalysis;
 import main.model.method.MethodAnalysisMetricsMapper;
 import main.model.method.MethodMetrics;
+import main.neo.core.solvers.SolverType;
 import main.refactor.RefactorComparison;
 import test.objectmothers.MethodAnalysisMother;
 import test.objectmothers.RefactorComparisonMother;
@@ -47,6 +49,17 @@ class MethodAnalysisMetricsMapperTest {
         assertNull(ma.getCompilationUnitRefactored());
     }
 
+    @Test
+    void given_comparisonOfThePureJavaExactSolver_when_mapped_should_keepTheSolverAndNotReportILP() {
+        final RefactorComparison c = RefactorComparison.builder().name("foo").numberOfExtractions(1)
+                .usedILP(false).solver(SolverType.EXACT).build();
+        final MethodAnalysis ma = MethodAnalysisMetricsMapper.toMethodAnalysis(List.of(c)).getFirst();
+        final MethodMetrics m = MethodAnalysisMetricsMapper.toMethodMetrics(List.of(ma)).getFirst();
+        assertEquals(SolverType.EXACT, ma.getSolver());
+        assertEquals(SolverType.EXACT, m.getSolver());
+        assertFalse(m.isUsedILP());
+    }
+
     @Test
     void given_emptyComparisonList_when_toMethodAnalysis_should_returnEmpty() {
         assertTrue(MethodAnalysisMetricsMapper.toMethodAnalysis(List.<RefactorComparison>of()).isEmpty());
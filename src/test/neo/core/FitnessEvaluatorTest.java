@@ -0,0 +1,147 @@
+package test.neo.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IfStatement;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import main.neo.core.FitnessEvaluator;
+import main.neo.core.Sequence;
+import main.neo.core.Solution;
+import main.neo.core.jdt.CodeExtractionMetrics;
+import main.neo.core.jdt.ComplexityIndex;
+import main.neo.core.refactoringcache.RefactoringCache;
+
+class FitnessEvaluatorTest {
+
+    private static final int THRESHOLD = 2;
+    private static final int INITIAL_COMPLEXITY = 12;
+
+    private CompilationUnit cu;
+    private MethodDeclaration method;
+    private List<ASTNode> statements;
+    private List<ASTNode> nested;
+    private RefactoringCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cu = parse("""
+                class A {
+                    void m(int x) {
+                        if (x > 0) {
+                            System.out.println(1);
+                            if (x > 2) {
+                                System.out.println(2);
+                            }
+                        }
+                        while (x > 1) {
+                            x--;
+                        }
+                        System.out.println(3);
+                    }
+                }""");
+        method = ((TypeDeclaration) cu.types().getFirst()).getMethods()[0];
+        ComplexityIndex.Builder complexity = new ComplexityIndex.Builder(method);
+        complexity.accumulate(complexity.idOf(method), INITIAL_COMPLEXITY, 0, 0, 0).build().attachTo(method);
+        statements = new ArrayList<>(method.getBody().statements());
+        nested = new ArrayList<>(((Block) ((IfStatement) statements.get(0)).getThenStatement()).statements());
+
+        cache = new RefactoringCache(cu, method);
+        put(outer(0, 1), metrics(true, 5, 3, 1, 1));
+        put(outer(0, 2), metrics(true, 8, 5, 2, 1));
+        put(outer(1, 3), metrics(true, 4, 3, 1, 1));
+        put(outer(2, 3), metrics(false, 0, 0, 0, 1));
+        put(inner(0, 2), metrics(true, 3, 2, 2, 2));
+        put(inner(1, 2), metrics(true, 2, 1, 1, 2));
+    }
+
+    @Test
+    void given_singleExtraction_when_fitness_should_penaliseBothMethodsAboveThreshold() {
+        FitnessEvaluator evaluator = new FitnessEvaluator(cache, INITIAL_COMPLEXITY, THRESHOLD);
+
+        // One extraction, 10 * (3 + 1 - 2) for it and 10 * (12 - 5 - 2) for the method
+        assertEquals(71.0, evaluator.fitness(List.of(outer(0, 1))));
+    }
+
+    @Test
+    void given_nestedAndInfeasibleSolutions_when_fitness_should_matchSolutionEvaluate() {
+        FitnessEvaluator evaluator = new FitnessEvaluator(cache, INITIAL_COMPLEXITY, THRESHOLD);
+
+        List<List<Sequence>> solutions = List.of(List.of(), List.of(outer(0, 1)), List.of(outer(0, 1), inner(1, 2)),
+                List.of(outer(0, 1), inner(0, 2)), List.of(outer(0, 2), inner(1, 2)),
+                List.of(outer(0, 2), inner(0, 2), inner(1, 2)), List.of(outer(1, 3)),
+                List.of(outer(0, 1), outer(2, 3)));
+        for (List<Sequence> sequences : solutions) {
+            Solution solution = new Solution(new ArrayList<>(sequences), cu, method).setThreshold(THRESHOLD);
+            solution.evaluate(cache);
+
+            assertEquals(solution.getFitness(), evaluator.fitness(sequences), sequences.toString());
+        }
+    }
+
+    @Test
+    void given_rangeCachedAfterConstruction_when_fitness_should_findIt() {
+        RefactoringCache empty = new RefactoringCache(cu, method);
+        FitnessEvaluator evaluator = new FitnessEvaluator(empty, INITIAL_COMPLEXITY, THRESHOLD);
+        empty.cache.put(outer(0, 1).getTextRange(), metrics(true, 5, 3, 1, 1));
+
+        assertEquals(71.0, evaluator.fitness(List.of(outer(0, 1))));
+        assertEquals(1, empty.cache.size());
+    }
+
+    @Test
+    void given_rangeMissingFromCache_when_fitness_should_evaluateItWithoutCachingIt() {
+        CompilationUnit unit = parse("class B { int m() { int a = 1; int b = 2; return a + b; } }");
+        MethodDeclaration other = ((TypeDeclaration) unit.types().getFirst()).getMethods()[0];
+        List<ASTNode> body = new ArrayList<>(other.getBody().statements());
+        RefactoringCache empty = new RefactoringCache(unit, other);
+        FitnessEvaluator evaluator = new FitnessEvaluator(empty, INITIAL_COMPLEXITY, THRESHOLD);
+
+        // Both locals are used afterwards, so the range cannot be extracted
+        assertEquals(Double.MAX_VALUE, evaluator.fitness(List.of(new Sequence(unit, body.subList(0, 2)))));
+        assertEquals(0, empty.cache.size());
+    }
+
+    private Sequence outer(int from, int to) {
+        return new Sequence(cu, statements.subList(from, to));
+    }
+
+    private Sequence inner(int from, int to) {
+        return new Sequence(cu, nested.subList(from, to));
+    }
+
+    private void put(Sequence sequence, CodeExtractionMetrics metrics) {
+        cache.cache.put(sequence.getTextRange(), metrics);
+    }
+
+    private static CodeExtractionMetrics metrics(boolean feasible, int reduction, int inherent, int nestingComponent,
+            int nesting) {
+        return new CodeExtractionMetrics(feasible, "", false, 1, 0, new ArrayList<>(), new ArrayList<>(), reduction,
+                inherent, nestingComponent, 1, nesting, 0L);
+    }
+
+    private static CompilationUnit parse(String source) {
+        final ASTParser parser = ASTParser.newParser(AST.JLS21);
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        final Map options = new Hashtable<>(JavaCore.getOptions());
+        JavaCore.setComplianceOptions(JavaCore.VERSION_21, options);
+        parser.setCompilerOptions(options);
+        parser.setSource(source.toCharArray());
+        parser.setKind(ASTParser.K_COMPILATION_UNIT);
+        return (CompilationUnit) parser.createAST(null);
+    }
+}
@@ -0,0 +1,144 @@
+package test.neo.core.graphs;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import main.neo.core.ExtractionTextRange;
+import main.neo.core.graphs.CompactExtractionGraph;
+import main.neo.core.graphs.ExtractionVertex;
+
+class CompactExtractionGraphTest {
+
+    private static ExtractionVertex vertex(int start, int end) {
+        return new ExtractionVertex(start, end, 0, 0, 0, 0, 0);
+    }
+
+    @Test
+    void given_candidates_when_building_should_indexRootFirstThenByOffsets() {
+        ExtractionVertex root = vertex(0, 100);
+        CompactExtractionGraph graph = new CompactExtractionGraph(
+                List.of(vertex(30, 40), vertex(10, 50), vertex(10, 20), vertex(15, 60)), root);
+
+        assertEquals(5, graph.size());
+        assertSame(root, graph.vertex(CompactExtractionGraph.ROOT));
+        assertEquals(List.of(root, vertex(10, 20), vertex(10, 50), vertex(15, 60), vertex(30, 40)),
+                graph.vertices());
+        assertEquals(3, graph.indexOf(vertex(15, 60)));
+        assertEquals(-1, graph.indexOf(vertex(15, 61)));
+
+        assertArrayEquals(new int[] { 2, 3 }, graph.parentsOf(4));
+        assertArrayEquals(new int[] { 2, 3 }, graph.childrenOf(CompactExtractionGraph.ROOT));
+        assertArrayEquals(new int[] { 1, 4 }, graph.descendantsOf(2));
+        assertArrayEquals(new int[] { 1, 2, 3, 4 }, graph.descendantsOf(CompactExtractionGraph.ROOT));
+        assertArrayEquals(new int[] { 2, 3 }, graph.between(4, CompactExtractionGraph.ROOT));
+        assertArrayEquals(new int[] { 1, 2 }, graph.conflictsOf(3));
+        assertTrue(graph.conflict(1, 3));
+        assertFalse(graph.conflict(1, 4));
+    }
+
+    @Test
+    void given_disjointBlocks_when_components_should_groupTheIntersectingVertices() {
+        // [10, 20] and [20, 30] touch, so they conflict; [40, 45] is inside [35, 50]
+        CompactExtractionGraph graph = new CompactExtractionGraph(List.of(vertex(10, 20), vertex(20, 30),
+                vertex(35, 50), vertex(40, 45), vertex(60, 70), vertex(12, 15)), vertex(0, 100));
+
+        int[][] components = graph.components();
+
+        assertEquals(3, components.length);
+        assertArrayEquals(new int[] { 1, 2, 3 }, components[0]);
+        assertArrayEquals(new int[] { 4, 5 }, components[1]);
+        assertArrayEquals(new int[] { 6 }, components[2]);
+        for (int[] a : components) {
+            for (int[] b : components) {
+                if (a == b) {
+                    continue;
+                }
+                for (int i : a) {
+                    for (int j : b) {
+                        assertFalse(graph.contains(i, j) || graph.conflict(i, j));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void given_onlyTheRoot_when_components_should_returnNone() {
+        assertEquals(0, new CompactExtractionGraph(List.of(), vertex(0, 100)).components().length);
+    }
+
+    @Test
+    void given_rootAmongCandidates_when_building_should_keepItOnce() {
+        ExtractionVertex candidateRoot = vertex(0, 100);
+        CompactExtractionGraph graph = new CompactExtractionGraph(List.of(vertex(10, 20), candidateRoot),
+                vertex(0, 100));
+
+        assertEquals(2, graph.size());
+        assertSame(candidateRoot, graph.vertex(CompactExtractionGraph.ROOT));
+        assertArrayEquals(new int[] { CompactExtractionGraph.ROOT }, graph.parentsOf(1));
+    }
+
+    @Test
+    void given_randomCandidates_when_building_should_matchTheContainmentAndConflictRelations() {
+        Random random = new Random(17);
+        for (int round = 0; round < 100; round++) {
+            Set<ExtractionVertex> candidates = new LinkedHashSet<>();
+            int count = 1 + random.nextInt(80);
+            while (candidates.size() < count) {
+                int start = random.nextInt(200);
+                candidates.add(vertex(start, start + random.nextInt(60)));
+            }
+            CompactExtractionGraph graph = new CompactExtractionGraph(candidates, vertex(-1, Integer.MAX_VALUE));
+
+            int n = graph.size();
+            for (int i = 0; i < n; i++) {
+                int v = i;
+                assertEquals(i, graph.indexOf(graph.vertex(i)));
+                assertArrayEquals(IntStream.range(0, n).filter(j -> contains(graph, v, j)).toArray(),
+                        graph.descendantsOf(i));
+                assertArrayEquals(IntStream.range(0, n).filter(j -> covers(graph, j, v)).toArray(),
+                        graph.parentsOf(i));
+                assertArrayEquals(IntStream.range(0, n).filter(j -> covers(graph, v, j)).toArray(),
+                        graph.childrenOf(i));
+                assertArrayEquals(IntStream.range(0, n).filter(j -> overlaps(graph, v, j)).toArray(),
+                        graph.conflictsOf(i));
+                for (int j : graph.descendantsOf(i)) {
+                    int inner = j;
+                    assertArrayEquals(
+                            IntStream.range(0, n).filter(k -> contains(graph, v, k) && contains(graph, k, inner))
+                                    .toArray(),
+                            graph.between(j, i));
+                }
+            }
+        }
+    }
+
+    // --- Reference relations, from the offsets ---
+
+    private static boolean contains(CompactExtractionGraph graph, int i, int j) {
+        return i != j && graph.vertex(i).contains(graph.vertex(j));
+    }
+
+    private static boolean covers(CompactExtractionGraph graph, int outer, int inner) {
+        return contains(graph, outer, inner) && IntStream.range(0, graph.size())
+                .noneMatch(k -> contains(graph, outer, k) && contains(graph, k, inner));
+    }
+
+    private static boolean overlaps(CompactExtractionGraph graph, int i, int j) {
+        ExtractionVertex p = graph.vertex(i);
+        ExtractionVertex q = graph.vertex(j);
+        return ExtractionTextRange.overlapping(new ExtractionTextRange(p.getInitialOffset(), p.getEndOffset()),
+                new ExtractionTextRange(q.getInitialOffset(), q.getEndOffset()));
+    }
+}
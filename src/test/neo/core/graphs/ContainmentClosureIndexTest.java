@@ -0,0 +1,77 @@
+package test.neo.core.graphs;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import main.neo.core.graphs.CompactExtractionGraph;
+import main.neo.core.graphs.ContainmentClosureIndex;
+import main.neo.core.graphs.ExtractionVertex;
+
+class ContainmentClosureIndexTest {
+
+    private static ExtractionVertex vertex(int start, int end, int nesting) {
+        return new ExtractionVertex(start, end, 0, 0, 0, 0, nesting);
+    }
+
+    @Test
+    void given_nestedCandidates_when_indexing_should_returnAncestorsDescendantsAndNestingDistances() {
+        // [30, 40] sits in both [10, 50] and [15, 60], which overlap
+        CompactExtractionGraph graph = new CompactExtractionGraph(List.of(vertex(10, 20, 2), vertex(10, 50, 1),
+                vertex(15, 60, 1), vertex(30, 40, 3)), vertex(0, 100, 0));
+        ContainmentClosureIndex closure = graph.closure();
+
+        assertSame(closure, graph.closure());
+        assertArrayEquals(new int[] { 0, 2, 3 }, closure.ancestorsOf(4));
+        assertArrayEquals(new int[0], closure.ancestorsOf(CompactExtractionGraph.ROOT));
+        assertArrayEquals(new int[] { 1, 4 }, closure.descendantsOf(2));
+        assertEquals(4, closure.descendantCount(CompactExtractionGraph.ROOT));
+        assertArrayEquals(new int[] { 2, 3 }, closure.between(4, CompactExtractionGraph.ROOT));
+        assertArrayEquals(new int[0], closure.between(4, 2));
+        assertEquals(3, closure.nestingDistance(4, CompactExtractionGraph.ROOT));
+        assertEquals(1, closure.nestingDistance(1, 2));
+    }
+
+    @Test
+    void given_randomCandidates_when_indexing_should_matchTheContainmentOfTheOffsets() {
+        Random random = new Random(23);
+        for (int round = 0; round < 100; round++) {
+            Set<ExtractionVertex> candidates = new LinkedHashSet<>();
+            int count = 1 + random.nextInt(80);
+            while (candidates.size() < count) {
+                int start = random.nextInt(200);
+                candidates.add(vertex(start, start + random.nextInt(60), random.nextInt(5)));
+            }
+            CompactExtractionGraph graph = new CompactExtractionGraph(candidates,
+                    vertex(-1, Integer.MAX_VALUE, 0));
+            ContainmentClosureIndex closure = new ContainmentClosureIndex(graph);
+
+            int n = graph.size();
+            for (int i = 0; i < n; i++) {
+                int v = i;
+                int[] descendants = IntStream.range(0, n).filter(j -> graph.contains(v, j)).toArray();
+                assertArrayEquals(descendants, closure.descendantsOf(i));
+                assertEquals(descendants.length, closure.descendantCount(i));
+                assertArrayEquals(IntStream.range(0, n).filter(j -> graph.contains(j, v)).toArray(),
+                        closure.ancestorsOf(i));
+                for (int j : descendants) {
+                    int inner = j;
+                    assertArrayEquals(
+                            IntStream.range(0, n).filter(k -> graph.contains(v, k) && graph.contains(k, inner))
+                                    .toArray(),
+                            closure.between(j, i));
+                    assertEquals(graph.vertex(j).getNesting() - graph.vertex(i).getNesting(),
+                            closure.nestingDistance(j, i));
+                }
+            }
+        }
+    }
+}
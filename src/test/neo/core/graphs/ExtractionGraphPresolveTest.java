@@ -0,0 +1,129 @@
+package test.neo.core.graphs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import main.neo.core.graphs.CompactExtractionGraph;
+import main.neo.core.graphs.ExtractionGraphPresolve;
+import main.neo.core.graphs.ExtractionVertex;
+import main.neo.core.solvers.exact.ExactModel;
+
+class ExtractionGraphPresolveTest {
+
+    private static final int THRESHOLD = 5;
+
+    private static ExtractionVertex vertex(int start, int end, int inherent, int nesting, int contributors,
+            int level) {
+        return new ExtractionVertex(start, end, inherent + nesting, inherent, nesting, contributors, level);
+    }
+
+    @Test
+    void given_randomModels_when_presolve_should_keepTheOptimum() {
+        Random random = new Random(24);
+        int removed = 0;
+        for (int round = 0; round < 500; round++) {
+            List<ExtractionVertex> vertices = new ArrayList<>();
+            int count = 1 + random.nextInt(30);
+            while (vertices.size() < count) {
+                int start = 1 + random.nextInt(90);
+                int end = start + 1 + random.nextInt(99 - start);
+                ExtractionVertex v = vertex(start, end, random.nextInt(9), random.nextInt(4), random.nextInt(4),
+                        random.nextInt(4));
+                addIfAbsent(vertices, v);
+                // Ranges that only differ by a statement at either end, with similar metrics
+                if (random.nextBoolean() && start > 1) {
+                    addIfAbsent(vertices, vertex(start - 1, end, v.getAccumulatedInherentComponent(),
+                            v.getAccumulatedNestingComponent() + random.nextInt(2), v.getNumberNestingContributors(),
+                            v.getNesting()));
+                }
+            }
+            ExtractionVertex root = vertex(0, 100, 8 + random.nextInt(20), random.nextInt(10), 3, 0);
+
+            CompactExtractionGraph graph = new CompactExtractionGraph(vertices, root);
+            ExtractionGraphPresolve presolve = new ExtractionGraphPresolve(THRESHOLD);
+            CompactExtractionGraph reduced = presolve.presolve(graph);
+
+            assertEquals(new ExactModel(graph, THRESHOLD).solve() == null ? -1 : objective(graph),
+                    new ExactModel(reduced, THRESHOLD).solve() == null ? -1 : objective(reduced),
+                    vertices + " / " + root);
+            assertEquals(graph.size() - reduced.size(), presolve.getReport().getRemoved());
+            assertSame(root, reduced.vertex(CompactExtractionGraph.ROOT));
+            removed += presolve.getReport().getRemoved();
+        }
+        assertTrue(removed > 0);
+    }
+
+    @Test
+    void given_vertexWithoutComplexity_when_presolve_should_removeItAsUnhelpful() {
+        ExtractionVertex useful = vertex(10, 20, 4, 0, 0, 1);
+        ExtractionVertex empty = vertex(30, 40, 0, 0, 2, 0);
+        CompactExtractionGraph graph = new CompactExtractionGraph(List.of(useful, empty), vertex(0, 100, 9, 0, 0, 0));
+
+        ExtractionGraphPresolve presolve = new ExtractionGraphPresolve(THRESHOLD);
+        CompactExtractionGraph reduced = presolve.presolve(graph);
+
+        assertEquals(List.of(graph.vertex(CompactExtractionGraph.ROOT), useful), reduced.vertices());
+        assertEquals(1, presolve.getReport().getUnhelpful());
+    }
+
+    @Test
+    void given_vertexAboveThresholdWithNothingInside_when_presolve_should_fixItToZero() {
+        ExtractionVertex tooComplex = vertex(10, 20, 9, 0, 0, 1);
+        ExtractionVertex fine = vertex(30, 40, 4, 0, 0, 1);
+        CompactExtractionGraph graph = new CompactExtractionGraph(List.of(tooComplex, fine),
+                vertex(0, 100, 14, 0, 0, 0));
+
+        ExtractionGraphPresolve presolve = new ExtractionGraphPresolve(THRESHOLD);
+        CompactExtractionGraph reduced = presolve.presolve(graph);
+
+        assertEquals(List.of(graph.vertex(CompactExtractionGraph.ROOT), fine), reduced.vertices());
+        assertEquals(1, presolve.getReport().getInfeasible());
+    }
+
+    @Test
+    void given_equivalentNestedRanges_when_presolve_should_keepTheInnerOne() {
+        // [10, 30] only adds statements without complexity to [12, 30]
+        ExtractionVertex outer = vertex(10, 30, 4, 0, 0, 1);
+        ExtractionVertex inner = vertex(12, 30, 4, 0, 0, 1);
+        ExtractionVertex other = vertex(40, 50, 3, 0, 0, 1);
+        CompactExtractionGraph graph = new CompactExtractionGraph(List.of(outer, inner, other),
+                vertex(0, 100, 12, 0, 0, 0));
+
+        ExtractionGraphPresolve presolve = new ExtractionGraphPresolve(THRESHOLD);
+        CompactExtractionGraph reduced = presolve.presolve(graph);
+
+        assertEquals(List.of(graph.vertex(CompactExtractionGraph.ROOT), inner, other), reduced.vertices());
+        assertEquals(1, presolve.getReport().getDominated());
+        assertEquals(2, new ExactModel(reduced, THRESHOLD).solve().size());
+    }
+
+    @Test
+    void given_nothingToRemove_when_presolve_should_returnTheSameGraph() {
+        CompactExtractionGraph graph = new CompactExtractionGraph(List.of(vertex(10, 20, 4, 0, 0, 1)),
+                vertex(0, 100, 9, 0, 0, 0));
+
+        ExtractionGraphPresolve presolve = new ExtractionGraphPresolve(THRESHOLD);
+
+        assertSame(graph, presolve.presolve(graph));
+        assertEquals(0, presolve.getReport().getRemoved());
+    }
+
+    private static int objective(CompactExtractionGraph graph) {
+        ExactModel model = new ExactModel(graph, THRESHOLD);
+        model.solve();
+        return model.getObjectiveValue();
+    }
+
+    private static void addIfAbsent(List<ExtractionVertex> vertices, ExtractionVertex v) {
+        if (!vertices.contains(v)) {
+            vertices.add(v);
+        }
+    }
+}
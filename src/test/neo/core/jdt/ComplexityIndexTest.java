@@ -0,0 +1,247 @@
+package test.neo.core.jdt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IfStatement;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import main.neo.core.jdt.CognitiveComplexityMetrics;
+import main.neo.core.jdt.CognitiveComplexityVisitor;
+import main.neo.core.jdt.ComplexityIndex;
+import main.neo.core.jdt.Utils;
+
+class ComplexityIndexTest {
+
+    private MethodDeclaration method;
+    private ASTNode outerIf;
+    private ASTNode forStatement;
+    private ASTNode increment;
+    private CognitiveComplexityVisitor.Result result;
+
+    @BeforeEach
+    void setUp() {
+        CompilationUnit cu = parse("""
+                class A {
+                    void m(int x) {
+                        if (x > 0) {
+                            for (int i = 0; i < x; i++) {
+                                if (x > 1 && x < 5) {
+                                    x--;
+                                }
+                            }
+                        }
+                        x++;
+                    }
+                }""");
+        method = ((TypeDeclaration) cu.types().getFirst()).getMethods()[0];
+        outerIf = (ASTNode) method.getBody().statements().get(0);
+        forStatement = (ASTNode) ((Block) ((IfStatement) outerIf).getThenStatement()).statements().get(0);
+        increment = (ASTNode) method.getBody().statements().get(1);
+        result = CognitiveComplexityVisitor.methodComplexity(method);
+    }
+
+    @Test
+    void given_analysedMethod_when_methodComplexity_should_recordTheAnnotationsInTheIndex() {
+        // if +1, for +2 (nesting 1), inner if +3 (nesting 2), && +1
+        assertEquals(7, result.complexity);
+        ComplexityIndex index = ComplexityIndex.of(forStatement);
+        assertSame(result.index, index);
+
+        int outer = index.idOf(outerIf);
+        assertEquals(1, index.contribution(outer));
+        assertEquals(0, index.nestingLevel(outer));
+        assertEquals(7, index.accumulatedContribution(outer));
+        assertEquals(4, index.accumulatedInherent(outer));
+        assertEquals(3, index.accumulatedNesting(outer));
+        assertEquals(2, index.nestingContributors(outer));
+
+        int loop = index.idOf(forStatement);
+        assertEquals(2, index.contribution(loop));
+        assertEquals(1, index.inherent(loop));
+        assertEquals(1, index.nestingCost(loop));
+        assertEquals(1, index.nestingLevel(loop));
+
+        assertEquals(7, index.accumulatedContribution(method));
+        assertEquals(0, index.accumulatedContribution(increment));
+    }
+
+    @Test
+    void given_analysedMethod_when_methodComplexity_should_leaveTheTreeUntouched() {
+        List<ASTNode> annotatedNodes = new ArrayList<>();
+        method.accept(new ASTVisitor() {
+            @Override
+            public void preVisit(ASTNode node) {
+                if (!node.properties().isEmpty()) {
+                    annotatedNodes.add(node);
+                }
+            }
+        });
+
+        assertEquals(List.of(), annotatedNodes);
+        assertSame(ComplexityIndex.of(method), ComplexityIndex.of(method.getBody()));
+        assertNotSame(ComplexityIndex.EMPTY, ComplexityIndex.of(method));
+    }
+
+    @Test
+    void given_node_when_readingItsSubtree_should_coverExactlyItsDescendants() {
+        ComplexityIndex index = result.index;
+        for (int id = 0; id < index.size(); id++) {
+            int[] descendants = new int[1];
+            index.node(id).accept(new ASTVisitor() {
+                @Override
+                public void preVisit(ASTNode node) {
+                    descendants[0]++;
+                }
+            });
+
+            assertEquals(descendants[0], index.subtreeEnd(id) - id);
+            for (int descendant = id + 1; descendant < index.subtreeEnd(id); descendant++) {
+                assertTrue(isAncestor(index.node(id), index.node(descendant)));
+            }
+        }
+    }
+
+    @Test
+    void given_nestedLoop_when_computeMetricsIfExtracted_should_readItsSubtreeFromTheIndex() {
+        CognitiveComplexityMetrics metrics = Utils.computeMetricsIfExtracted(forStatement);
+
+        // for +1, inner if +2 (nesting 1 in the new method), && +1
+        assertEquals(6, metrics.getCognitiveComplexityReduction());
+        assertEquals(3, metrics.getAccumulatedInherentCognitiveComplexity());
+        assertEquals(1, metrics.getAccumulatedNestingCognitiveComplexity());
+        assertEquals(4, metrics.getCognitiveComplexityWhenExtractedAsNewMethod());
+        assertEquals(2, metrics.getNumberOfNestingContributors());
+        assertEquals(1, metrics.getNestingLevel());
+    }
+
+    @Test
+    void given_everyNode_when_metricsIfExtracted_should_matchTheWalkOfItsSubtree() {
+        CompilationUnit cu = parse("""
+                class B {
+                    int n(int x, java.util.List<Integer> list) {
+                        outer:
+                        for (int i = 0; i < x; i++) {
+                            try {
+                                switch (x) {
+                                case 1:
+                                    if (x > 2 || x < -2 && x != 0) {
+                                        break outer;
+                                    } else if (x == 3) {
+                                        x = x > 4 ? 1 : 2;
+                                    } else {
+                                        while (x-- > 0) {
+                                            list.forEach(e -> { if (e > 0) { System.out.println(e); } });
+                                        }
+                                    }
+                                    break;
+                                default:
+                                    do {
+                                        x++;
+                                    } while (x < 10 && i > 0);
+                                }
+                            } catch (RuntimeException e) {
+                                new Runnable() {
+                                    public void run() {
+                                        for (Integer v : list) {
+                                            if (v == null) {
+                                                continue outer;
+                                            }
+                                        }
+                                    }
+                                }.run();
+                            }
+                        }
+                        return x;
+                    }
+                }""");
+        MethodDeclaration other = ((TypeDeclaration) cu.types().getFirst()).getMethods()[0];
+        ComplexityIndex index = CognitiveComplexityVisitor.methodComplexity(other).index;
+
+        for (int id = 0; id < index.size(); id++) {
+            CognitiveComplexityMetrics expected = walk(index, id);
+            CognitiveComplexityMetrics actual = index.metricsIfExtracted(id);
+
+            String node = index.node(id).getClass().getSimpleName() + " " + id;
+            assertEquals(expected.getCognitiveComplexityReduction(), actual.getCognitiveComplexityReduction(), node);
+            assertEquals(expected.getAccumulatedInherentCognitiveComplexity(),
+                    actual.getAccumulatedInherentCognitiveComplexity(), node);
+            assertEquals(expected.getAccumulatedNestingCognitiveComplexity(),
+                    actual.getAccumulatedNestingCognitiveComplexity(), node);
+            assertEquals(expected.getCognitiveComplexityWhenExtractedAsNewMethod(),
+                    actual.getCognitiveComplexityWhenExtractedAsNewMethod(), node);
+            assertEquals(expected.getNumberOfNestingContributors(), actual.getNumberOfNestingContributors(), node);
+            assertEquals(expected.getNestingLevel(), actual.getNestingLevel(), node);
+        }
+    }
+
+    @Test
+    void given_methodNotAnalysed_when_of_should_returnTheEmptyIndex() {
+        CompilationUnit cu = parse("class B { void n() { if (true) { } } }");
+        MethodDeclaration other = ((TypeDeclaration) cu.types().getFirst()).getMethods()[0];
+
+        assertSame(ComplexityIndex.EMPTY, ComplexityIndex.of(other));
+        assertEquals(0, ComplexityIndex.of(other).accumulatedContribution(other));
+    }
+
+    /** Metrics of extracting node {@code root}, node by node over its subtree. */
+    private static CognitiveComplexityMetrics walk(ComplexityIndex index, int root) {
+        int baseLevel = index.nestingLevel(root);
+        int inherent = 0;
+        int newComplexity = 0;
+        int reduction = 0;
+        int contributors = 0;
+        for (int id = root; id < index.subtreeEnd(root); id++) {
+            if (index.isAnnotated(id)) {
+                boolean pays = index.paysNestingPenalty(id);
+                int level = index.nestingLevel(id);
+                int newDepth = Math.max(0, level - baseLevel);
+                reduction += index.contribution(id);
+                inherent += index.contribution(id) - (pays ? level : 0);
+                newComplexity += index.contribution(id) - (pays ? level : 0) + (pays ? newDepth : 0);
+                if (pays && (newDepth > 0 || baseLevel > 0)) {
+                    contributors++;
+                }
+            }
+        }
+        return new CognitiveComplexityMetrics(inherent, newComplexity - inherent, newComplexity, reduction,
+                contributors, baseLevel);
+    }
+
+    private static boolean isAncestor(ASTNode ancestor, ASTNode node) {
+        for (ASTNode current = node.getParent(); current != null; current = current.getParent()) {
+            if (current == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static CompilationUnit parse(String source) {
+        final ASTParser parser = ASTParser.newParser(AST.JLS21);
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        final Map options = new Hashtable<>(JavaCore.getOptions());
+        JavaCore.setComplianceOptions(JavaCore.VERSION_21, options);
+        parser.setCompilerOptions(options);
+        parser.setSource(source.toCharArray());
+        parser.setKind(ASTParser.K_COMPILATION_UNIT);
+        return (CompilationUnit) parser.createAST(null);
+    }
+}
@@ -0,0 +1,169 @@
+package test.neo.core.jdt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.eclipse.jface.text.Position;
+import org.eclipse.text.edits.InsertEdit;
+import org.eclipse.text.edits.MultiTextEdit;
+import org.eclipse.text.edits.ReplaceEdit;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import main.neo.core.jdt.ExtractionCompileChecker;
+import test.objectmothers.JavaProjectMother;
+
+class ExtractionCompileCheckerTest {
+
+    private static final String SOURCE = """
+            import java.util.List;
+            abstract class A {
+                int f = 1;
+                A() {
+                    f = 2;
+                }
+                int before(int x) {
+                    return x + f;
+                }
+                void edited(int x) {
+                    Runnable r = new Runnable() {
+                        public void run() {
+                            System.out.println(x);
+                        }
+                    };
+                    System.out.println(x);
+                    r.run();
+                }
+                abstract void declared();
+                List<String> after() {
+                    class Local {
+                        int g() { return 1; }
+                    }
+                    return List.of(String.valueOf(new Local().g()));
+                }
+            }
+            """;
+
+    @Test
+    void given_unit_when_stubRanges_should_coverOnlyBodiesOfUnaffectedMethods() {
+        CompilationUnit cu = parse(SOURCE);
+
+        List<Position> ranges = ExtractionCompileChecker.stubRanges(cu, method(cu, "edited"));
+
+        assertEquals(2, ranges.size());
+        assertEquals(body(cu, "before"), ranges.get(0));
+        assertEquals(body(cu, "after"), ranges.get(1));
+    }
+
+    @Test
+    void given_extractionEdit_when_applyAndStub_should_keepEditedAndExtractedMethods() throws Exception {
+        CompilationUnit cu = parse(SOURCE);
+        MethodDeclaration edited = method(cu, "edited");
+        String call = "System.out.println(x);\n        r.run();";
+        int selection = SOURCE.indexOf(call);
+        int insertion = edited.getStartPosition() + edited.getLength();
+        MultiTextEdit edit = new MultiTextEdit();
+        edit.addChild(new ReplaceEdit(selection, call.length(), "extracted(x, r);"));
+        edit.addChild(new InsertEdit(insertion,
+                "\n    private void extracted(int x, Runnable r) {\n        " + call + "\n    }"));
+
+        String stubbed = ExtractionCompileChecker.applyAndStub(SOURCE, edit,
+                ExtractionCompileChecker.stubRanges(cu, edited));
+
+        assertTrue(stubbed.contains("int before(int x) { throw null; }"));
+        assertTrue(stubbed.contains("List<String> after() { throw null; }"));
+        assertTrue(stubbed.contains("f = 2;"));
+        assertTrue(stubbed.contains("extracted(x, r);"));
+        assertTrue(stubbed.contains("private void extracted(int x, Runnable r) {"));
+        assertTrue(stubbed.contains("public void run() {\n                System.out.println(x);"));
+        assertFalse(stubbed.contains("class Local"));
+        assertEquals(0, parse(stubbed).getProblems().length);
+    }
+
+    @Test
+    void given_editTouchingStubbedMethod_when_applyAndStub_should_returnNull() throws Exception {
+        CompilationUnit cu = parse(SOURCE);
+        MethodDeclaration before = method(cu, "before");
+        ReplaceEdit edit = new ReplaceEdit(before.getBody().getStartPosition(), before.getBody().getLength(), "");
+
+        assertNull(ExtractionCompileChecker.applyAndStub(SOURCE, edit,
+                ExtractionCompileChecker.stubRanges(cu, method(cu, "edited"))));
+    }
+
+    @Test
+    void given_notInstalled_when_forProject_should_createAFreshChecker() {
+        IJavaProject project = JavaProjectMother.withSources("ExtractionCompileCheckerTest",
+                Map.of("B", "package p; class B {}"));
+        Assumptions.assumeTrue(project != null, "Eclipse workspace not available");
+        try {
+            assertNotSame(ExtractionCompileChecker.forProject(project), ExtractionCompileChecker.forProject(project));
+        } finally {
+            JavaProjectMother.delete(project);
+        }
+    }
+
+    @Test
+    void given_installed_when_projectOrOptionsChange_should_dropTheChecker() throws Exception {
+        IJavaProject project = JavaProjectMother.withSources("ExtractionCompileCheckerTest",
+                Map.of("B", "package p; class B {}"));
+        Assumptions.assumeTrue(project != null, "Eclipse workspace not available");
+        ExtractionCompileChecker.install();
+        try {
+            ExtractionCompileChecker checker = ExtractionCompileChecker.forProject(project);
+            assertSame(checker, ExtractionCompileChecker.forProject(project));
+
+            // A unit added to the project may fix (or break) the others
+            IPackageFragment fragment = (IPackageFragment) JavaProjectMother.units(project).getFirst().getParent();
+            fragment.createCompilationUnit("C.java", "package p; class C {}", true, null);
+            ExtractionCompileChecker afterEdit = ExtractionCompileChecker.forProject(project);
+            assertNotSame(checker, afterEdit);
+
+            project.setOption(JavaCore.COMPILER_PB_UNUSED_LOCAL, JavaCore.ERROR);
+            assertNotSame(afterEdit, ExtractionCompileChecker.forProject(project));
+        } finally {
+            ExtractionCompileChecker.uninstall();
+            JavaProjectMother.delete(project);
+        }
+    }
+
+    private static CompilationUnit parse(String source) {
+        final ASTParser parser = ASTParser.newParser(AST.JLS21);
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        final Map options = new Hashtable<>(JavaCore.getOptions());
+        JavaCore.setComplianceOptions(JavaCore.VERSION_21, options);
+        parser.setCompilerOptions(options);
+        parser.setSource(source.toCharArray());
+        parser.setKind(ASTParser.K_COMPILATION_UNIT);
+        return (CompilationUnit) parser.createAST(null);
+    }
+
+    private static MethodDeclaration method(CompilationUnit cu, String name) {
+        for (MethodDeclaration md : ((TypeDeclaration) cu.types().getFirst()).getMethods()) {
+            if (md.getName().getIdentifier().equals(name)) {
+                return md;
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    private static Position body(CompilationUnit cu, String name) {
+        MethodDeclaration md = method(cu, name);
+        return new Position(md.getBody().getStartPosition(), md.getBody().getLength());
+    }
+}
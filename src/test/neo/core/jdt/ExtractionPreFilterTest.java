@@ -0,0 +1,299 @@
+package test.neo.core.jdt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Hashtable;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.NodeFinder;
+import org.eclipse.jdt.core.dom.Statement;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import main.neo.core.jdt.CodeExtractionMetrics;
+import main.neo.core.jdt.ExtractionPreFilter;
+import main.neo.core.jdt.ExtractionPreFilter.Reason;
+import main.neo.core.jdt.Utils;
+import test.objectmothers.JavaProjectMother;
+
+/**
+ * The corpus below lists ranges the pre-filter must leave to JDT and ranges it
+ * must reject. The verdict of the JDT {@code ExtractMethodRefactoring} is not
+ * written down but derived, by running the refactoring on each fixture in a
+ * Java project: ranges JDT accepts must never be rejected by the pre-filter,
+ * and ranges the pre-filter rejects must be rejected by JDT with the same
+ * message.
+ */
+class ExtractionPreFilterTest {
+
+    private IJavaProject project;
+
+    @AfterEach
+    void tearDown() {
+        JavaProjectMother.delete(project);
+    }
+
+
+    /** Ranges left to JDT, which accepts them: name, method, first statement, last statement. */
+    static Stream<Arguments> rangesAcceptedByJdt() {
+        return Stream.of(
+                Arguments.of("single local flowing out", """
+                        int m(int x) {
+                            int a = 0;
+                            int b = 0;
+                            a = x;
+                            b = x * 2;
+                            System.out.println(a);
+                            return 0;
+                        }""", "a = x;", "b = x * 2;"),
+                Arguments.of("locals overwritten before being read", """
+                        int m(int x) {
+                            int a = 0;
+                            int b = 0;
+                            a = x;
+                            b = x * 2;
+                            a = 3;
+                            b = a + 4;
+                            return b;
+                        }""", "a = x;", "b = x * 2;"),
+                Arguments.of("fields flowing out", """
+                        int f;
+                        int g;
+                        void m(int x) {
+                            f = x;
+                            g = x * 2;
+                            System.out.println(f + g);
+                        }""", "f = x;", "g = x * 2;"),
+                Arguments.of("continue at the tail of a loop body", """
+                        void m(int x) {
+                            for (int i = 0; i < x; i++) {
+                                System.out.println(x);
+                                if (i == 0) continue;
+                                System.out.println(i);
+                            }
+                        }""", "if (i == 0) continue;", "System.out.println(i);"),
+                Arguments.of("break targeting a selected loop", """
+                        int m(int x) {
+                            for (int i = 0; i < x; i++) {
+                                if (i == 3) break;
+                            }
+                            System.out.println(x);
+                            return x;
+                        }""", "for (int i = 0; i < x; i++) {", "for (int i = 0; i < x; i++) {"),
+                Arguments.of("labeled break targeting a selected loop", """
+                        int m(int x) {
+                            outer: for (int i = 0; i < x; i++) {
+                                for (int j = 0; j < i; j++) {
+                                    if (j == 3) break outer;
+                                }
+                            }
+                            return x;
+                        }""", "outer: for", "outer: for"),
+                Arguments.of("return on every path", """
+                        int m(int x) {
+                            System.out.println(x);
+                            if (x > 0) {
+                                return 1;
+                            }
+                            return 2;
+                        }""", "if (x > 0) {", "return 2;"),
+                Arguments.of("partial return ending a void method", """
+                        void m(int x) {
+                            System.out.println(-x);
+                            if (x > 0) return;
+                            System.out.println(x);
+                        }""", "if (x > 0) return;", "System.out.println(x);"),
+                Arguments.of("return inside a lambda", """
+                        int m(int x) {
+                            Runnable r = () -> {
+                                return;
+                            };
+                            r.run();
+                            return x;
+                        }""", "Runnable r = () -> {", "r.run();"));
+    }
+
+    /** Ranges rejected up front: name, method, first statement, last statement, reason. */
+    static Stream<Arguments> rangesRejectedByJdt() {
+        return Stream.of(
+                Arguments.of("break leaving a loop before its tail", """
+                        void m(int x) {
+                            for (int i = 0; i < x; i++) {
+                                if (i == 3) break;
+                                System.out.println(i);
+                                System.out.println(-i);
+                            }
+                        }""", "if (i == 3) break;", "System.out.println(i);", Reason.BRANCH_TARGET_NOT_SELECTED),
+                Arguments.of("break leaving a switch", """
+                        void m(int x) {
+                            switch (x) {
+                            case 1:
+                                System.out.println(x);
+                                break;
+                            default:
+                                System.out.println(-x);
+                            }
+                        }""", "System.out.println(x);", "break;", Reason.BRANCH_TARGET_NOT_SELECTED),
+                Arguments.of("labeled continue leaving to an outer loop", """
+                        void m(int x) {
+                            outer: for (int i = 0; i < x; i++) {
+                                for (int j = 0; j < i; j++) {
+                                    if (j > 2) continue outer;
+                                }
+                                System.out.println(i);
+                            }
+                        }""", "for (int j = 0; j < i; j++) {", "for (int j = 0; j < i; j++) {",
+                        Reason.BRANCH_TARGET_NOT_SELECTED),
+                Arguments.of("two locals flowing out", """
+                        void m(int x) {
+                            int a = 0;
+                            int b = 0;
+                            a = x;
+                            b = x * 2;
+                            System.out.println(a + b);
+                        }""", "a = x;", "b = x * 2;", Reason.AMBIGUOUS_RETURN_VALUE),
+                Arguments.of("increments flowing out", """
+                        void m(int a, int b) {
+                            a++;
+                            b += 2;
+                            if (a > 0) {
+                                System.out.println(b);
+                            }
+                            b = a;
+                        }""", "a++;", "b += 2;", Reason.AMBIGUOUS_RETURN_VALUE),
+                Arguments.of("locals read by a later self-assignment", """
+                        void m(int x) {
+                            int a = 0;
+                            int b = 0;
+                            a = x;
+                            b = x * 2;
+                            a = a + b;
+                            System.out.println(a);
+                        }""", "a = x;", "b = x * 2;", Reason.AMBIGUOUS_RETURN_VALUE),
+                Arguments.of("return in only some paths", """
+                        int m(int x) {
+                            if (x > 0) {
+                                return 1;
+                            }
+                            System.out.println(x);
+                            return 0;
+                        }""", "if (x > 0) {", "System.out.println(x);", Reason.PARTIAL_RETURN));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("rangesAcceptedByJdt")
+    void given_rangeAcceptedByJdt_when_check_should_notReject(String name, String method, String first,
+            String last) throws Exception {
+        String source = PREFIX + method + "\n}";
+        CompilationUnit cu = parse(source, true);
+        assertNull(ExtractionPreFilter.check(statement(cu, source, first), statement(cu, source, last)), name);
+
+        CodeExtractionMetrics jdt = extractWithJdt(method, first, last);
+        assertTrue(jdt.isFeasible(), name + ": " + jdt.getReason());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("rangesRejectedByJdt")
+    void given_rangeRejectedByJdt_when_check_should_rejectWithReason(String name, String method, String first,
+            String last, Reason reason) throws Exception {
+        String source = PREFIX + method + "\n}";
+        CompilationUnit cu = parse(source, true);
+        assertEquals(reason, ExtractionPreFilter.check(statement(cu, source, first), statement(cu, source, last)),
+                name);
+
+        CodeExtractionMetrics jdt = extractWithJdt(method, first, last);
+        assertFalse(jdt.isFeasible(), name);
+        assertEquals(reason.getMessage(), jdt.getReason(), name);
+    }
+
+    @Test
+    void given_noBindings_when_checkTwoLocalsFlowingOut_should_leaveItToJdt() {
+        String source = PREFIX + """
+                void m(int x) {
+                    int a = 0;
+                    int b = 0;
+                    a = x;
+                    b = x * 2;
+                    System.out.println(a + b);
+                }""" + "\n}";
+        CompilationUnit cu = parse(source, false);
+        assertNull(ExtractionPreFilter.check(statement(cu, source, "a = x;"), statement(cu, source, "b = x * 2;")));
+    }
+
+    @Test
+    void given_nodesWithDifferentParents_when_check_should_leaveItToJdt() {
+        String source = PREFIX + """
+                void m(int x) {
+                    for (int i = 0; i < x; i++) {
+                        if (i == 3) break;
+                    }
+                    System.out.println(x);
+                }""" + "\n}";
+        CompilationUnit cu = parse(source, true);
+        assertNull(ExtractionPreFilter.check(statement(cu, source, "if (i == 3) break;"),
+                statement(cu, source, "System.out.println(x);")));
+    }
+
+    private static final String PREFIX = "class A {\n";
+
+    /**
+     * Runs the JDT refactoring, with the compile check of the extracted code, on
+     * the range of {@code method} declared in a unit of a fresh Java project.
+     */
+    private CodeExtractionMetrics extractWithJdt(String method, String first, String last) throws Exception {
+        String source = "package " + JavaProjectMother.PACKAGE + ";\n" + PREFIX + method + "\n}";
+        project = JavaProjectMother.withSources("ExtractionPreFilterTest", Map.of("A", source));
+        Assumptions.assumeTrue(project != null, "Eclipse workspace not available");
+
+        ICompilationUnit unit = JavaProjectMother.units(project).getFirst();
+        ASTParser parser = ASTParser.newParser(AST.JLS21);
+        parser.setSource(unit);
+        parser.setResolveBindings(true);
+        CompilationUnit cu = (CompilationUnit) parser.createAST(null);
+        ASTNode start = statement(cu, unit.getSource(), first);
+        ASTNode end = statement(cu, unit.getSource(), last);
+        return Utils.extractCode(cu, start.getStartPosition(),
+                end.getStartPosition() + end.getLength() - start.getStartPosition(), "extracted", true);
+    }
+
+    private static CompilationUnit parse(String source, boolean resolveBindings) {
+        final ASTParser parser = ASTParser.newParser(AST.JLS21);
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        final Map options = new Hashtable<>(JavaCore.getOptions());
+        JavaCore.setComplianceOptions(JavaCore.VERSION_21, options);
+        parser.setCompilerOptions(options);
+        parser.setSource(source.toCharArray());
+        parser.setKind(ASTParser.K_COMPILATION_UNIT);
+        if (resolveBindings) {
+            parser.setEnvironment(new String[0], new String[0], null, true);
+            parser.setUnitName("A.java");
+            parser.setResolveBindings(true);
+        }
+        return (CompilationUnit) parser.createAST(null);
+    }
+
+    /** Finds the statement starting at the first occurrence of {@code snippet} in {@code source}. */
+    private static ASTNode statement(CompilationUnit cu, String source, String snippet) {
+        final int offset = source.indexOf(snippet);
+        ASTNode node = NodeFinder.perform(cu, offset, snippet.length());
+        while (node != null && !(node instanceof Statement && node.getStartPosition() == offset)) {
+            node = node.getParent();
+        }
+        return node;
+    }
+}
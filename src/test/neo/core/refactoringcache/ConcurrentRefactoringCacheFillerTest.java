@@ -0,0 +1,151 @@
+package test.neo.core.refactoringcache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import main.common.utils.Utils;
+import main.neo.core.ExtractionTextRange;
+import main.neo.core.jdt.CodeExtractionMetrics;
+import main.neo.core.jdt.CognitiveComplexityVisitor;
+import main.neo.core.refactoringcache.ConcurrentRefactoringCacheFiller;
+import main.neo.core.refactoringcache.RefactoringCache;
+import main.neo.core.refactoringcache.RefactoringCacheFiller;
+import test.objectmothers.JavaProjectMother;
+
+class ConcurrentRefactoringCacheFillerTest {
+
+    private CompilationUnit unit;
+    private MethodDeclaration method;
+
+    @BeforeEach
+    void setUp() {
+        unit = parse(source());
+        method = method(unit);
+    }
+
+    @Test
+    void given_method_when_candidateRanges_should_listTheRangesOfTheSequentialFillInOrder() {
+        RefactoringCache sequential = new RefactoringCache(unit, method);
+        RefactoringCacheFiller.exhaustiveEnumerationAlgorithm(sequential, method);
+
+        List<ExtractionTextRange> candidates = ConcurrentRefactoringCacheFiller
+                .candidateRanges(new RefactoringCache(unit, method), method);
+
+        assertFalse(candidates.isEmpty());
+        assertEquals(new ArrayList<>(sequential.cache.keySet()), candidates);
+    }
+
+    @Test
+    void given_cachedRanges_when_candidateRanges_should_skipThem() {
+        RefactoringCache cache = new RefactoringCache(unit, method);
+        List<ExtractionTextRange> all = ConcurrentRefactoringCacheFiller.candidateRanges(cache, method);
+        ExtractionTextRange cached = all.get(all.size() / 2);
+        cache.cache.put(cached.getStart(), cached.getEnd(),
+                new CodeExtractionMetrics(false, "cached", false, 0, 0, new ArrayList<>(), new ArrayList<>(), 0L));
+
+        List<ExtractionTextRange> remaining = ConcurrentRefactoringCacheFiller.candidateRanges(cache, method);
+
+        List<ExtractionTextRange> expected = new ArrayList<>(all);
+        expected.remove(cached);
+        assertEquals(expected, remaining);
+    }
+
+    @Test
+    void given_unitWithoutJavaModel_when_fillConcurrently_should_fillTheSameCacheAsTheSequentialFiller() {
+        RefactoringCache sequential = new RefactoringCache(unit, method);
+        RefactoringCacheFiller.exhaustiveEnumerationAlgorithm(sequential, method);
+
+        RefactoringCache concurrent = new RefactoringCache(unit, method);
+        ConcurrentRefactoringCacheFiller.exhaustiveEnumerationAlgorithm(concurrent, method, 8);
+
+        assertEquals(new ArrayList<>(sequential.cache.keySet()), new ArrayList<>(concurrent.cache.keySet()));
+        for (ExtractionTextRange range : sequential.cache.keySet()) {
+            assertEquals(sequential.cache.get(range).isFeasible(), concurrent.cache.get(range).isFeasible());
+            assertEquals(sequential.cache.get(range).getReductionOfCognitiveComplexity(),
+                    concurrent.cache.get(range).getReductionOfCognitiveComplexity());
+        }
+    }
+
+    @Test
+    void given_unitInJavaModel_when_fillConcurrently_should_checkOnWorkersAndFillTheSameCache() throws Exception {
+        IJavaProject project = JavaProjectMother.withSources("ConcurrentRefactoringCacheFillerTest",
+                Map.of("A", "package p;\n" + source()));
+        Assumptions.assumeTrue(project != null, "Eclipse workspace not available");
+        try {
+            ICompilationUnit icu = JavaProjectMother.units(project).getFirst();
+            CompilationUnit sequentialUnit = Utils.parserAST(icu);
+            MethodDeclaration sequentialMethod = method(sequentialUnit);
+            RefactoringCache sequential = new RefactoringCache(sequentialUnit, sequentialMethod);
+            RefactoringCacheFiller.exhaustiveEnumerationAlgorithm(sequential, sequentialMethod);
+
+            CompilationUnit concurrentUnit = Utils.parserAST(icu);
+            MethodDeclaration concurrentMethod = method(concurrentUnit);
+            RefactoringCache concurrent = new RefactoringCache(concurrentUnit, concurrentMethod);
+            // Backed by the Java model, with enough candidates for four workers: the ranges are checked on workers
+            assertNotNull(main.neo.core.jdt.Utils.getICompilationUnit(concurrentUnit));
+            assertTrue(ConcurrentRefactoringCacheFiller.candidateRanges(concurrent, concurrentMethod).size() >= 4 * 16);
+            ConcurrentRefactoringCacheFiller.exhaustiveEnumerationAlgorithm(concurrent, concurrentMethod, 4);
+
+            assertEquals(new ArrayList<>(sequential.cache.keySet()), new ArrayList<>(concurrent.cache.keySet()));
+            for (ExtractionTextRange range : sequential.cache.keySet()) {
+                CodeExtractionMetrics expected = sequential.cache.get(range);
+                CodeExtractionMetrics actual = concurrent.cache.get(range);
+                assertEquals(expected.isFeasible(), actual.isFeasible(), range.toString());
+                assertEquals(expected.getReason(), actual.getReason(), range.toString());
+                assertEquals(expected.getReductionOfCognitiveComplexity(), actual.getReductionOfCognitiveComplexity(),
+                        range.toString());
+                assertEquals(expected.getNumberOfParametersInExtractedMethod(),
+                        actual.getNumberOfParametersInExtractedMethod(), range.toString());
+            }
+        } finally {
+            JavaProjectMother.delete(project);
+        }
+    }
+
+    /** A method with enough candidate ranges to share among several workers. */
+    private static String source() {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 12; i++) {
+            body.append("if (x > ").append(i).append(") { x--; for (int k = 0; k < x; k++) { y += k; } }\n");
+            body.append("y++;\n");
+        }
+        body.append("switch (x) { case 1: if (y > 0) { y--; } y++; break; default: x++; }\n");
+        return "class A { int m(int x, int y) {\n" + body + "return y; } }";
+    }
+
+    private static MethodDeclaration method(CompilationUnit unit) {
+        MethodDeclaration method = ((TypeDeclaration) unit.types().getFirst()).getMethods()[0];
+        CognitiveComplexityVisitor.methodComplexity(method);
+        return method;
+    }
+
+    private static CompilationUnit parse(String source) {
+        final ASTParser parser = ASTParser.newParser(AST.JLS21);
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        final Map options = new Hashtable<>(JavaCore.getOptions());
+        JavaCore.setComplianceOptions(JavaCore.VERSION_21, options);
+        parser.setCompilerOptions(options);
+        parser.setSource(source.toCharArray());
+        parser.setKind(ASTParser.K_COMPILATION_UNIT);
+        return (CompilationUnit) parser.createAST(null);
+    }
+}
@@ -0,0 +1,170 @@
+package test.neo.core.refactoringcache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Stack;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import main.neo.core.refactoringcache.ConsecutiveSequenceIterator;
+import main.neo.core.refactoringcache.ConsecutiveSequenceIterator.SentenceSequenceInfo;
+import main.neo.core.refactoringcache.mase.patterns.yieldreturn.IteratorYield;
+import main.neo.core.refactoringcache.mase.patterns.yieldreturn.Operation;
+import main.neo.core.refactoringcache.mase.patterns.yieldreturn.Yield;
+import main.neo.core.solvers.exhaustivesearch.ExhaustiveEnumerationAlgorithm.Approach;
+
+class ConsecutiveSequenceIteratorTest {
+
+    @ParameterizedTest
+    @EnumSource(Approach.class)
+    void given_randomBlocks_when_iterate_should_matchRecursiveYieldEnumeration(Approach approach) {
+        Random random = new Random(42);
+        for (int sample = 0; sample < 40; sample++) {
+            RandomBlock block = new RandomBlock(random, 1 + random.nextInt(9));
+
+            List<String> calls = new ArrayList<>();
+            List<List<Integer>> actual = collect(
+                    new ConsecutiveSequenceIterator(block.logging(calls), approach).getIterable().iterator());
+
+            List<String> expectedCalls = new ArrayList<>();
+            List<List<Integer>> expected = collect(
+                    IteratorYield.getIterator(new RecursiveEnumeration(block.logging(expectedCalls), approach)));
+
+            assertEquals(expected, actual, "sample " + sample);
+            assertEquals(expectedCalls, calls, "sample " + sample);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Approach.class)
+    void given_blockWithoutComplexity_when_iterate_should_yieldOnlyEmptyStack(Approach approach) {
+        SentenceSequenceInfo block = new RandomBlock(new Random(1), 0);
+
+        Iterator<Stack<Integer>> iterator = new ConsecutiveSequenceIterator(block, approach).getIterable().iterator();
+
+        assertEquals(List.of(List.of()), collect(iterator));
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    private static List<List<Integer>> collect(Iterator<Stack<Integer>> iterator) {
+        List<List<Integer>> result = new ArrayList<>();
+        while (iterator.hasNext()) {
+            result.add(new ArrayList<>(iterator.next()));
+        }
+        return result;
+    }
+
+    /** Block with random complexities and a random (but fixed) validity relation. */
+    static final class RandomBlock implements SentenceSequenceInfo {
+        private final int[] complexity;
+        private final boolean[][] valid;
+
+        RandomBlock(Random random, int sentences) {
+            complexity = new int[sentences + 1];
+            valid = new boolean[sentences + 1][sentences + 1];
+            for (int i = 1; i <= sentences; i++) {
+                complexity[i] = random.nextInt(3) == 0 ? 0 : 1 + random.nextInt(4);
+                for (int j = i; j <= sentences; j++) {
+                    valid[i][j] = random.nextInt(4) != 0;
+                }
+            }
+        }
+
+        SentenceSequenceInfo logging(List<String> calls) {
+            return new SentenceSequenceInfo() {
+                @Override
+                public int numberOfSentences() {
+                    return RandomBlock.this.numberOfSentences();
+                }
+
+                @Override
+                public int cognitiveComplexityOfSentence(int sentence) {
+                    return RandomBlock.this.cognitiveComplexityOfSentence(sentence);
+                }
+
+                @Override
+                public boolean validSequence(int from, int to) {
+                    calls.add(from + "-" + to);
+                    return RandomBlock.this.validSequence(from, to);
+                }
+            };
+        }
+
+        @Override
+        public int numberOfSentences() {
+            return complexity.length - 1;
+        }
+
+        @Override
+        public int cognitiveComplexityOfSentence(int sentence) {
+            return complexity[sentence];
+        }
+
+        @Override
+        public boolean validSequence(int from, int to) {
+            return valid[from][to];
+        }
+    }
+
+    /**
+     * The recursive, thread-backed enumeration the iterator replaces, kept as the
+     * reference for the enumeration order.
+     */
+    static final class RecursiveEnumeration implements Operation<Stack<Integer>> {
+        private final SentenceSequenceInfo sequence;
+        private final Approach approach;
+        private final Stack<Integer> los = new Stack<>();
+        private int[] nextWithCC;
+        private int lastWithCC;
+
+        RecursiveEnumeration(SentenceSequenceInfo sequence, Approach approach) {
+            this.sequence = sequence;
+            this.approach = approach;
+        }
+
+        @Override
+        public void run(Yield<Stack<Integer>> yield) {
+            int last = sequence.numberOfSentences();
+            nextWithCC = new int[last + 2];
+            int lastCC = last + 1;
+            nextWithCC[last + 1] = lastCC;
+            for (int i = last; i > 0; i--) {
+                if (sequence.cognitiveComplexityOfSentence(i) > 0) {
+                    lastCC = i;
+                    if (lastWithCC == 0) {
+                        lastWithCC = i;
+                    }
+                }
+                nextWithCC[i] = lastCC;
+            }
+            generate(yield, 1);
+        }
+
+        private void generate(Yield<Stack<Integer>> yield, int first) {
+            int last = sequence.numberOfSentences();
+            yield.Return(los);
+            for (int i = first; i <= lastWithCC; i++) {
+                boolean longSequenceFirst = approach.equals(Approach.LONG_SEQUENCE_FIRST);
+                int step = longSequenceFirst ? -1 : 1;
+                for (int j = longSequenceFirst ? last : nextWithCC[i]; j >= nextWithCC[i] && j <= last; j += step) {
+                    if (sequence.validSequence(i, j)) {
+                        los.push(i);
+                        los.push(j);
+                        generate(yield, j + 1);
+                        los.pop();
+                        los.pop();
+                    }
+                }
+            }
+        }
+    }
+}
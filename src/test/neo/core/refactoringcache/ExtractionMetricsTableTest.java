@@ -0,0 +1,162 @@
+package test.neo.core.refactoringcache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.eclipse.jface.text.Document;
+import org.eclipse.ltk.core.refactoring.Change;
+import org.eclipse.ltk.core.refactoring.DocumentChange;
+import org.eclipse.text.edits.InsertEdit;
+import org.eclipse.text.edits.MultiTextEdit;
+import org.eclipse.text.edits.ReplaceEdit;
+import org.junit.jupiter.api.Test;
+
+import main.neo.core.ExtractionTextRange;
+import main.neo.core.jdt.CodeExtractionMetrics;
+import main.neo.core.refactoringcache.ExtractionMetricsTable;
+
+class ExtractionMetricsTableTest {
+
+    private static CodeExtractionMetrics metrics(boolean feasible, int reduction, int nesting) {
+        return new CodeExtractionMetrics(feasible, feasible ? "" : "Not feasible", false, 3, 1, new ArrayList<>(),
+                new ArrayList<>(), reduction, 4, 2, 1, nesting, 7L);
+    }
+
+    @Test
+    void given_putEntries_when_readingByIndex_should_returnTheFlatFields() {
+        ExtractionMetricsTable table = new ExtractionMetricsTable();
+        int first = table.put(10, 50, metrics(true, 6, 2));
+        int second = table.put(-5, 20, metrics(false, 0, 1));
+
+        assertEquals(first, table.indexOf(10, 50));
+        assertEquals(second, table.indexOf(-5, 20));
+        assertEquals(-1, table.indexOf(10, 51));
+        assertEquals(-5, table.start(second));
+        assertEquals(20, table.end(second));
+        assertTrue(table.isFeasible(first));
+        assertFalse(table.isFeasible(second));
+        assertEquals(6, table.reductionOfCognitiveComplexity(first));
+        assertEquals(4, table.accumulatedInherentComponent(first));
+        assertEquals(2, table.accumulatedNestingComponent(first));
+        assertEquals(1, table.numberNestingContributors(first));
+        assertEquals(2, table.nesting(first));
+
+        CodeExtractionMetrics copy = table.metrics(second);
+        assertEquals("Not feasible", copy.getReason());
+        assertEquals(3, copy.getNumberOfExtractedLinesOfCode());
+        assertEquals(7L, copy.getRuntime());
+    }
+
+    @Test
+    void given_keyModifiedAfterPut_when_lookingUp_should_keepTheOriginalRange() {
+        ExtractionMetricsTable table = new ExtractionMetricsTable();
+        ExtractionTextRange range = new ExtractionTextRange(10, 50);
+        table.put(range, metrics(true, 6, 2));
+
+        range.setStart(12);
+
+        assertTrue(table.containsKey(new ExtractionTextRange(10, 50)));
+        assertNull(table.get(range));
+    }
+
+    @Test
+    void given_readMetrics_when_modified_should_notChangeTheTable() {
+        ExtractionMetricsTable table = new ExtractionMetricsTable();
+        table.put(new ExtractionTextRange(10, 50), metrics(true, 6, 2));
+
+        CodeExtractionMetrics read = table.get(new ExtractionTextRange(10, 50));
+        read.setReductionOfCognitiveComplexity(0);
+
+        assertEquals(6, table.reductionOfCognitiveComplexity(0));
+        assertNotSame(read.getChanges(), table.metrics(0).getChanges());
+    }
+
+    @Test
+    void given_metricsWithChanges_when_cachingEveryRangeOfALargeMethod_should_notRetainTheChanges() {
+        // A method of 400 statements of one line each, every range of up to 25 statements cached with its change
+        int statements = 400;
+        StringBuilder source = new StringBuilder("class A {\n void m(int x) {\n");
+        for (int s = 0; s < statements; s++) {
+            source.append(String.format("  x += %03d;\n", s));
+        }
+        source.append(" }\n}");
+        Document document = new Document(source.toString());
+        int body = source.indexOf("  x");
+        int line = "  x += 000;\n".length();
+
+        ExtractionMetricsTable table = new ExtractionMetricsTable();
+        List<WeakReference<Change>> changes = new ArrayList<>();
+        for (int first = 0; first < statements; first++) {
+            for (int last = first; last < Math.min(statements, first + 25); last++) {
+                int start = body + first * line;
+                int end = body + (last + 1) * line;
+                MultiTextEdit edit = new MultiTextEdit();
+                edit.addChild(new ReplaceEdit(start, end - start, "  m_ext(x);\n"));
+                edit.addChild(new InsertEdit(document.getLength() - 1,
+                        " void m_ext(int x) {\n" + source.substring(start, end) + " }\n"));
+                DocumentChange change = new DocumentChange("Extract method", document);
+                change.setEdit(edit);
+                changes.add(new WeakReference<>(change));
+
+                List<Change> list = new ArrayList<>();
+                list.add(change);
+                table.put(start, end, new CodeExtractionMetrics(true, "OK", false, last - first + 1, 1, list,
+                        new ArrayList<>(), 1, 1, 0, 0, 1, 0L));
+            }
+        }
+
+        for (int round = 0; round < 10 && changes.stream().anyMatch(reference -> reference.get() != null); round++) {
+            System.gc();
+        }
+
+        assertTrue(changes.stream().allMatch(reference -> reference.get() == null),
+                "the table still references the changes of the cached extractions");
+        assertEquals(changes.size(), table.size());
+        assertTrue(table.metrics(0).getChanges().isEmpty());
+    }
+
+    @Test
+    void given_randomPutsAndRemovals_when_comparedWithAHashMap_should_holdTheSameEntries() {
+        Random random = new Random(19);
+        ExtractionMetricsTable table = new ExtractionMetricsTable();
+        Map<ExtractionTextRange, Integer> expected = new HashMap<>();
+        for (int step = 0; step < 20000; step++) {
+            int start = random.nextInt(300);
+            ExtractionTextRange range = new ExtractionTextRange(start, start + random.nextInt(40));
+            if (random.nextInt(3) == 0) {
+                CodeExtractionMetrics removed = table.remove(range);
+                Integer reduction = expected.remove(range);
+                assertEquals(reduction, removed == null ? null : removed.getReductionOfCognitiveComplexity());
+            } else {
+                int reduction = random.nextInt(100);
+                table.put(range, metrics(true, reduction, 0));
+                expected.put(range, reduction);
+            }
+
+            if (step % 1000 == 0) {
+                assertEquals(expected.size(), table.size());
+                for (Map.Entry<ExtractionTextRange, Integer> entry : expected.entrySet()) {
+                    int index = table.indexOf(entry.getKey().getStart(), entry.getKey().getEnd());
+                    assertEquals(entry.getValue(), table.reductionOfCognitiveComplexity(index));
+                }
+                List<ExtractionTextRange> keys = new ArrayList<>(table.keySet());
+                assertEquals(expected.size(), keys.size());
+                assertTrue(expected.keySet().containsAll(keys));
+            }
+        }
+
+        table.clear();
+        assertEquals(0, table.size());
+        assertEquals(-1, table.indexOf(0, 0));
+    }
+}
@@ -0,0 +1,158 @@
+package test.neo.core.refactoringcache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.jgrapht.alg.TransitiveReduction;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.SimpleDirectedGraph;
+import org.junit.jupiter.api.Test;
+
+import main.neo.core.ExtractionTextRange;
+import main.neo.core.refactoringcache.ExtractionRangeRelations;
+
+class ExtractionRangeRelationsTest {
+
+    @Test
+    void given_nestedAndCrossingRanges_when_computingRelations_should_returnImmediateContainersAndConflicts() {
+        List<ExtractionTextRange> ranges = List.of(
+                new ExtractionTextRange(0, 100), // 0
+                new ExtractionTextRange(10, 20), // 1
+                new ExtractionTextRange(10, 50), // 2
+                new ExtractionTextRange(15, 60), // 3
+                new ExtractionTextRange(30, 40)); // 4
+
+        ExtractionRangeRelations relations = new ExtractionRangeRelations(ranges);
+
+        // [30, 40] is immediately contained in both [10, 50] and [15, 60], which overlap
+        assertArrayEquals(new int[][] { { 2, 0 }, { 3, 0 }, { 1, 2 }, { 4, 2 }, { 4, 3 } },
+                relations.getCovers());
+        assertArrayEquals(new int[][] { { 1, 3 }, { 2, 3 } }, relations.getConflicts());
+        assertFalse(relations.isContained(0));
+        assertTrue(relations.isContained(4));
+    }
+
+    @Test
+    void given_touchingRanges_when_computingRelations_should_reportAConflict() {
+        List<ExtractionTextRange> ranges = List.of(new ExtractionTextRange(20, 30), new ExtractionTextRange(10, 20),
+                new ExtractionTextRange(31, 40));
+
+        ExtractionRangeRelations relations = new ExtractionRangeRelations(ranges);
+
+        assertEquals(0, relations.getCovers().length);
+        assertArrayEquals(new int[][] { { 0, 1 } }, relations.getConflicts());
+    }
+
+    @Test
+    void given_randomRanges_when_computingRelations_should_matchAllPairsWithTransitiveReduction() {
+        Random random = new Random(11);
+        for (int round = 0; round < 200; round++) {
+            List<ExtractionTextRange> ranges = round % 2 == 0 ? randomRanges(random, 1 + random.nextInt(80))
+                    : statementRanges(random, 1 + random.nextInt(150));
+
+            Reference expected = new Reference(ranges);
+            ExtractionRangeRelations relations = new ExtractionRangeRelations(ranges);
+
+            assertArrayEquals(expected.covers(), relations.getCovers(), "covers of " + ranges);
+            assertArrayEquals(expected.conflicts.toArray(new int[0][]), relations.getConflicts(),
+                    "conflicts of " + ranges);
+            for (int i = 0; i < ranges.size(); i++) {
+                assertEquals(expected.contained.contains(i), relations.isContained(i));
+            }
+        }
+    }
+
+    /** Distinct ranges with random offsets, in random order. */
+    static List<ExtractionTextRange> randomRanges(Random random, int count) {
+        Set<ExtractionTextRange> ranges = new HashSet<>();
+        while (ranges.size() < count) {
+            int start = random.nextInt(200);
+            ranges.add(new ExtractionTextRange(start, start + random.nextInt(60)));
+        }
+        List<ExtractionTextRange> result = new ArrayList<>(ranges);
+        Collections.shuffle(result, random);
+        return result;
+    }
+
+    /**
+     * Ranges of consecutive statements of the blocks of random method bodies, as
+     * the refactoring cache holds them (some of them dropped as infeasible), in
+     * random order.
+     */
+    static List<ExtractionTextRange> statementRanges(Random random, int count) {
+        List<ExtractionTextRange> result = new ArrayList<>();
+        int[] offset = { 0 };
+        while (result.size() < count) {
+            block(random, 0, offset, result);
+        }
+        Collections.shuffle(result, random);
+        return result.subList(0, count);
+    }
+
+    private static List<int[]> block(Random random, int level, int[] offset, List<ExtractionTextRange> result) {
+        List<int[]> statements = new ArrayList<>();
+        int size = 1 + random.nextInt(level == 0 ? 12 : 5);
+        for (int s = 0; s < size; s++) {
+            int start = offset[0];
+            offset[0] += 5;
+            if (level < 4 && random.nextInt(3) == 0) {
+                block(random, level + 1, offset, result);
+            }
+            offset[0] += 5;
+            statements.add(new int[] { start, offset[0] });
+            offset[0] += 2;
+        }
+        for (int first = 0; first < size; first++) {
+            for (int last = first; last < size; last++) {
+                if (random.nextInt(4) != 0) {
+                    result.add(new ExtractionTextRange(statements.get(first)[0], statements.get(last)[1]));
+                }
+            }
+        }
+        return statements;
+    }
+
+    /** The relations as the refactoring cache used to build them: all pairs, then a transitive reduction. */
+    static final class Reference {
+        final SimpleDirectedGraph<Integer, DefaultEdge> containment = new SimpleDirectedGraph<>(DefaultEdge.class);
+        final List<int[]> conflicts = new ArrayList<>();
+        final Set<Integer> contained = new HashSet<>();
+
+        Reference(List<ExtractionTextRange> ranges) {
+            for (int i = 0; i < ranges.size(); i++) {
+                containment.addVertex(i);
+            }
+            for (int i = 0; i < ranges.size(); i++) {
+                ExtractionTextRange p = ranges.get(i);
+                for (int j = i + 1; j < ranges.size(); j++) {
+                    ExtractionTextRange q = ranges.get(j);
+                    if (ExtractionTextRange.isContained(q, p)) {
+                        containment.addEdge(j, i);
+                        contained.add(j);
+                    } else if (ExtractionTextRange.isContained(p, q)) {
+                        containment.addEdge(i, j);
+                        contained.add(i);
+                    } else if (ExtractionTextRange.overlapping(p, q)) {
+                        conflicts.add(new int[] { i, j });
+                    }
+                }
+            }
+            TransitiveReduction.INSTANCE.reduce(containment);
+        }
+
+        int[][] covers() {
+            return containment.edgeSet().stream()
+                    .map(e -> new int[] { containment.getEdgeSource(e), containment.getEdgeTarget(e) })
+                    .toArray(int[][]::new);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package test.neo.core.refactoringcache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import main.neo.core.ExtractionTextRange;
+import main.neo.core.jdt.CodeExtractionMetrics;
+import main.neo.core.refactoringcache.RefactoringCacheCsvConverter;
+import main.neo.core.refactoringcache.RefactoringCacheFileReader;
+import main.neo.core.refactoringcache.RefactoringCacheFileWriter;
+
+class RefactoringCacheFileTest {
+
+    @TempDir
+    Path directory;
+
+    private static CodeExtractionMetrics metrics(boolean feasible, String reason, int reduction) {
+        return new CodeExtractionMetrics(feasible, reason, false, 3, 2, new ArrayList<>(), new ArrayList<>(), reduction,
+                4, 5, 6, 1, 42L);
+    }
+
+    private static Map<ExtractionTextRange, CodeExtractionMetrics> entries() {
+        Map<ExtractionTextRange, CodeExtractionMetrics> entries = new HashMap<>();
+        entries.put(new ExtractionTextRange(150, 180), metrics(false, "Ambiguous return value", 0));
+        entries.put(new ExtractionTextRange(110, 140), metrics(true, "", 7));
+        entries.put(new ExtractionTextRange(110, 200), metrics(true, "", 9));
+        entries.put(new ExtractionTextRange(120, 130), metrics(false, "Ambiguous return value", 0));
+        return entries;
+    }
+
+    @Test
+    void given_entries_when_writtenAndRead_should_roundTripSortedWithBaseOffset() throws IOException {
+        Path file = directory.resolve("cache.bin");
+        Map<ExtractionTextRange, CodeExtractionMetrics> entries = entries();
+
+        RefactoringCacheFileWriter.write(file, entries, 100);
+
+        try (RefactoringCacheFileReader reader = RefactoringCacheFileReader.open(file, 100)) {
+            assertTrue(reader.verify());
+            assertEquals(4, reader.size());
+            assertEquals(new ExtractionTextRange(110, 140), reader.range(0));
+            assertEquals(new ExtractionTextRange(110, 200), reader.range(1));
+            assertEquals(new ExtractionTextRange(120, 130), reader.range(2));
+            assertEquals(new ExtractionTextRange(150, 180), reader.range(3));
+            for (int i = 0; i < reader.size(); i++) {
+                CodeExtractionMetrics expected = entries.get(reader.range(i));
+                CodeExtractionMetrics actual = reader.metrics(i);
+                assertEquals(expected.isFeasible(), actual.isFeasible());
+                assertEquals(expected.getReason(), actual.getReason());
+                assertEquals(expected.getReductionOfCognitiveComplexity(), actual.getReductionOfCognitiveComplexity());
+                assertEquals(expected.getNumberOfExtractedLinesOfCode(), actual.getNumberOfExtractedLinesOfCode());
+                assertEquals(expected.getNumberOfParametersInExtractedMethod(),
+                        actual.getNumberOfParametersInExtractedMethod());
+                assertEquals(expected.getAccumulatedInherentComponent(), actual.getAccumulatedInherentComponent());
+                assertEquals(expected.getAccumulatedNestingComponent(), actual.getAccumulatedNestingComponent());
+                assertEquals(expected.getNumberNestingContributors(), actual.getNumberNestingContributors());
+                assertEquals(expected.getNesting(), actual.getNesting());
+                assertEquals(expected.getRuntime(), actual.getRuntime());
+            }
+        }
+    }
+
+    @Test
+    void given_fileWrittenForOneBase_when_readWithAnotherBase_should_shiftOffsets() throws IOException {
+        Path file = directory.resolve("cache.bin");
+        RefactoringCacheFileWriter.write(file, entries(), 100);
+
+        try (RefactoringCacheFileReader reader = RefactoringCacheFileReader.open(file, 1000)) {
+            assertEquals(new ExtractionTextRange(1010, 1040), reader.range(0));
+            assertEquals(2, reader.indexOf(1020, 1030));
+        }
+    }
+
+    @Test
+    void given_storedAndMissingRanges_when_indexOf_should_findOnlyStored() throws IOException {
+        Path file = directory.resolve("cache.bin");
+        RefactoringCacheFileWriter.write(file, entries(), 0);
+
+        try (RefactoringCacheFileReader reader = RefactoringCacheFileReader.open(file, 0)) {
+            assertEquals(1, reader.indexOf(110, 200));
+            assertEquals(3, reader.indexOf(150, 180));
+            assertEquals(-1, reader.indexOf(110, 141));
+            assertEquals(-1, reader.indexOf(10, 20));
+            assertEquals(-1, reader.indexOf(300, 400));
+        }
+    }
+
+    @Test
+    void given_emptyCache_when_writtenAndRead_should_haveNoRecords() throws IOException {
+        Path file = directory.resolve("cache.bin");
+        RefactoringCacheFileWriter.write(file, new HashMap<>(), 0);
+
+        try (RefactoringCacheFileReader reader = RefactoringCacheFileReader.open(file, 0)) {
+            assertTrue(reader.verify());
+            assertEquals(0, reader.size());
+            assertEquals(-1, reader.indexOf(0, 1));
+        }
+    }
+
+    @Test
+    void given_corruptedRecord_when_verify_should_returnFalse() throws IOException {
+        Path file = directory.resolve("cache.bin");
+        RefactoringCacheFileWriter.write(file, entries(), 0);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[RefactoringCacheFileReader.HEADER_SIZE + 8] ^= 0x7F;
+        Files.write(file, bytes);
+
+        try (RefactoringCacheFileReader reader = RefactoringCacheFileReader.open(file, 0)) {
+            assertFalse(reader.verify());
+            // Only the first record is affected
+            assertFalse(reader.verify(0));
+            for (int i = 1; i < reader.size(); i++) {
+                assertTrue(reader.verify(i));
+            }
+        }
+    }
+
+    @Test
+    void given_corruptedReasonTable_when_open_throws_IOException() throws IOException {
+        Path file = directory.resolve("cache.bin");
+        RefactoringCacheFileWriter.write(file, entries(), 0);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 0x7F;
+        Files.write(file, bytes);
+
+        assertThrows(IOException.class, () -> RefactoringCacheFileReader.open(file, 0));
+    }
+
+    @Test
+    void given_notACacheFile_when_open_throws_IOException() throws IOException {
+        Path file = Files.writeString(directory.resolve("cache.bin"), "Offset_A, Offset_B, feasibility");
+
+        assertThrows(IOException.class, () -> RefactoringCacheFileReader.open(file, 0));
+    }
+
+    @Test
+    void given_legacyCsv_when_convert_should_writeEquivalentBinary() throws IOException {
+        Path csv = Files.writeString(directory.resolve("cache.csv"),
+                "Offset_A, Offset_B, feasibility, reason, #parameters, extractedLOC, reductionCC, extractedMethodCC,"
+                        + " accumulatedInherentComponent, accumulatedNestingComponent, numberNestingContributors,"
+                        + " nesting, runtime\n"
+                        + "10, 40, 1, , 2, 5, 3, 0, 2, 1, 1, 1, 12\n"
+                        + "5, 60, 0, Not extractable, 0, 0, 0, 0, 0, 0, 0, 0, 7\n");
+        Path binary = directory.resolve("cache.bin");
+
+        assertEquals(2, RefactoringCacheCsvConverter.convert(csv, binary));
+
+        try (RefactoringCacheFileReader reader = RefactoringCacheFileReader.open(binary, 0)) {
+            assertTrue(reader.verify());
+            assertEquals(new ExtractionTextRange(5, 60), reader.range(0));
+            assertFalse(reader.isFeasible(0));
+            assertEquals(" Not extractable", reader.reason(0));
+            int index = reader.indexOf(10, 40);
+            assertTrue(reader.isFeasible(index));
+            assertEquals(3, reader.reductionOfCognitiveComplexity(index));
+            assertEquals(5, reader.metrics(index).getNumberOfExtractedLinesOfCode());
+            assertEquals(12L, reader.metrics(index).getRuntime());
+        }
+    }
+}
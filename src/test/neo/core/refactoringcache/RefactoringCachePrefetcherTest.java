@@ -0,0 +1,161 @@
+package test.neo.core.refactoringcache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import main.common.utils.Utils;
+import main.neo.core.ExtractionTextRange;
+import main.neo.core.Sequence;
+import main.neo.core.jdt.CodeExtractionMetrics;
+import main.neo.core.jdt.CognitiveComplexityVisitor;
+import main.neo.core.refactoringcache.ConcurrentRefactoringCacheFiller;
+import main.neo.core.refactoringcache.RefactoringCache;
+import main.neo.core.refactoringcache.RefactoringCacheFiller;
+import main.neo.core.refactoringcache.RefactoringCachePrefetcher;
+import main.neo.core.refactoringcache.SentenceSequenceIterator;
+import main.neo.core.refactoringcache.SentencesSelectorVisitor;
+import main.neo.core.solvers.exhaustivesearch.ExhaustiveEnumerationAlgorithm.Approach;
+import test.objectmothers.JavaProjectMother;
+
+class RefactoringCachePrefetcherTest {
+
+    private CompilationUnit unit;
+    private MethodDeclaration method;
+
+    @BeforeEach
+    void setUp() {
+        unit = parse(source());
+        method = method(unit);
+    }
+
+    @Test
+    void given_lazyCache_when_iterationStarts_should_onlyCheckTheRangesReached() {
+        RefactoringCache eager = new RefactoringCache(unit, method);
+        RefactoringCacheFiller.exhaustiveEnumerationAlgorithm(eager, method);
+
+        RefactoringCache lazy = new RefactoringCache(unit, method);
+        assertEquals(0, lazy.cache.size());
+
+        Iterator<List<Sequence>> choices = new SentenceSequenceIterator(body(), lazy, Approach.LONG_SEQUENCE_FIRST)
+                .iterator();
+        choices.next(); // the empty choice
+        choices.next();
+
+        assertTrue(lazy.cache.size() > 0);
+        assertTrue(lazy.cache.size() < eager.cache.size());
+        lazy.cache.keySet().forEach(range -> assertTrue(eager.cache.containsKey(range)));
+    }
+
+    @Test
+    void given_unitWithoutJavaModel_when_start_should_prefetchNothingAndLeaveTheMissesToTheCache() {
+        RefactoringCache lazy = new RefactoringCache(unit, method);
+
+        try (RefactoringCachePrefetcher prefetcher = RefactoringCachePrefetcher.start(lazy, method,
+                Approach.SHORT_SEQUENCE_FIRST, 4)) {
+            assertEquals(0, lazy.cache.size());
+            Sequence first = new Sequence(unit, body().getSiblingNodes().subList(0, 1));
+            assertEquals(first.evaluate().isFeasible(), lazy.getMetrics(first).isFeasible());
+        }
+        assertEquals(1, lazy.cache.size());
+    }
+
+    @Test
+    void given_unitInJavaModel_when_searchRunsAfterThePrefetch_should_takeEveryRangeFromTheWorkers() throws Exception {
+        IJavaProject project = JavaProjectMother.withSources("RefactoringCachePrefetcherTest",
+                Map.of("A", "package p;\n" + source()));
+        Assumptions.assumeTrue(project != null, "Eclipse workspace not available");
+        try {
+            ICompilationUnit icu = JavaProjectMother.units(project).getFirst();
+            CompilationUnit eagerUnit = Utils.parserAST(icu);
+            MethodDeclaration eagerMethod = method(eagerUnit);
+            RefactoringCache eager = new RefactoringCache(eagerUnit, eagerMethod);
+            RefactoringCacheFiller.exhaustiveEnumerationAlgorithm(eager, eagerMethod);
+
+            CompilationUnit lazyUnit = Utils.parserAST(icu);
+            MethodDeclaration lazyMethod = method(lazyUnit);
+            RefactoringCache lazy = new RefactoringCache(lazyUnit, lazyMethod);
+            assertNotNull(main.neo.core.jdt.Utils.getICompilationUnit(lazyUnit));
+            int candidates = ConcurrentRefactoringCacheFiller.candidateRanges(lazy, lazyMethod).size();
+
+            try (RefactoringCachePrefetcher prefetcher = RefactoringCachePrefetcher.start(lazy, lazyMethod,
+                    Approach.LONG_SEQUENCE_FIRST, 4)) {
+                long deadline = System.currentTimeMillis() + 60_000;
+                while (prefetcher.getCheckedCount() < candidates && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(10);
+                }
+                // Every range was checked by a worker before the search asked for it
+                assertEquals(candidates, prefetcher.getCheckedCount());
+                assertEquals(candidates, prefetcher.getPendingCount());
+                assertEquals(0, lazy.cache.size());
+
+                RefactoringCacheFiller.exhaustiveEnumerationAlgorithm(lazy, lazyMethod);
+
+                // ... and the cache took the checked metrics instead of checking the ranges again
+                assertEquals(0, prefetcher.getPendingCount());
+            }
+
+            assertEquals(new ArrayList<>(eager.cache.keySet()), new ArrayList<>(lazy.cache.keySet()));
+            for (ExtractionTextRange range : eager.cache.keySet()) {
+                CodeExtractionMetrics expected = eager.cache.get(range);
+                CodeExtractionMetrics actual = lazy.cache.get(range);
+                assertEquals(expected.isFeasible(), actual.isFeasible(), range.toString());
+                assertEquals(expected.getReason(), actual.getReason(), range.toString());
+                assertEquals(expected.getReductionOfCognitiveComplexity(), actual.getReductionOfCognitiveComplexity(),
+                        range.toString());
+            }
+        } finally {
+            JavaProjectMother.delete(project);
+        }
+    }
+
+    private Sequence body() {
+        SentencesSelectorVisitor visitor = new SentencesSelectorVisitor(unit);
+        method.accept(visitor);
+        return visitor.getSentencesToIterate().getFirst();
+    }
+
+    private static String source() {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 8; i++) {
+            body.append("if (x > ").append(i).append(") { x--; }\n");
+            body.append("y++;\n");
+        }
+        return "class A { int m(int x, int y) {\n" + body + "return y; } }";
+    }
+
+    private static MethodDeclaration method(CompilationUnit unit) {
+        MethodDeclaration method = ((TypeDeclaration) unit.types().getFirst()).getMethods()[0];
+        CognitiveComplexityVisitor.methodComplexity(method);
+        return method;
+    }
+
+    private static CompilationUnit parse(String source) {
+        final ASTParser parser = ASTParser.newParser(AST.JLS21);
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        final Map options = new Hashtable<>(JavaCore.getOptions());
+        JavaCore.setComplianceOptions(JavaCore.VERSION_21, options);
+        parser.setCompilerOptions(options);
+        parser.setSource(source.toCharArray());
+        parser.setKind(ASTParser.K_COMPILATION_UNIT);
+        return (CompilationUnit) parser.createAST(null);
+    }
+}
@@ -0,0 +1,309 @@
+package test.neo.core.refactoringcache;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IfStatement;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.Statement;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import main.neo.app.Constants;
+import main.neo.core.Sequence;
+import main.neo.core.jdt.CodeExtractionMetrics;
+import main.neo.core.refactoringcache.RefactoringCache;
+import main.neo.core.refactoringcache.RefactoringCacheFileReader;
+import main.neo.core.refactoringcache.RefactoringCacheStore;
+
+class RefactoringCacheStoreTest {
+
+    private static final String SOURCE = """
+            class A {
+              int m(int x) {
+                int y = x + 1;
+                if (y > 2) {
+                  y = y * 2;
+                }
+                return y;
+              }
+            }
+            """;
+
+    /** {@link #SOURCE} moved, reformatted and commented. */
+    private static final String REFORMATTED = """
+            /** The class. */
+            class A {
+
+                // A field before the method
+                int field;
+
+                /** Another comment on the method. */
+                int m(int x) {
+                    int y = x + 1; // one more
+                    if (y > 2) { y = y * 2; }
+                    /* and back */
+                    return y;
+                }
+            }
+            """;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void given_pluginNotRunning_when_getDefault_should_returnNull() {
+        assertNull(RefactoringCacheStore.getDefault());
+    }
+
+    @Test
+    void given_missingDirectory_when_clear_should_notFail() {
+        RefactoringCacheStore store = new RefactoringCacheStore(directory.resolve("missing"), 1024);
+        assertDoesNotThrow(store::clear);
+    }
+
+    @Test
+    void given_storeEntriesAndOtherFiles_when_clear_should_deleteOnlyEntries() throws Exception {
+        Path entry = Files.writeString(directory.resolve("abc" + Constants.FILE_EXTENSION_FOR_PERSISTENT_REFACTORING_CACHE), "x");
+        Path other = Files.writeString(directory.resolve("notes.txt"), "x");
+
+        new RefactoringCacheStore(directory, 1024).clear();
+
+        assertFalse(Files.exists(entry));
+        assertTrue(Files.exists(other));
+    }
+
+    @Test
+    void given_savedCache_when_loadReformattedMethod_should_restoreEveryEntryAtTheNewOffsets() {
+        RefactoringCacheStore store = new RefactoringCacheStore(directory, 1 << 20);
+        store.save(filled(SOURCE));
+
+        RefactoringCache loaded = new RefactoringCache(parse(REFORMATTED), method(parse(REFORMATTED)));
+        assertTrue(store.load(loaded));
+        // Records are read on demand, not copied on load
+        assertEquals(0, loaded.cache.size());
+        assertTrue(loaded.loadStoredEntries());
+
+        assertEquals(entries(filled(REFORMATTED)), entries(loaded));
+    }
+
+    @Test
+    void given_savedCache_when_getMetricsAfterLoad_should_readTheStoredEntry() {
+        RefactoringCacheStore store = new RefactoringCacheStore(directory, 1 << 20);
+        store.save(filled(SOURCE));
+        CompilationUnit cu = parse(REFORMATTED);
+        MethodDeclaration method = method(cu);
+        RefactoringCache loaded = new RefactoringCache(cu, method);
+        assertTrue(store.load(loaded));
+
+        Statement last = statements(method).get(2);
+        CodeExtractionMetrics metrics = loaded.getMetrics(new Sequence(cu, List.<ASTNode>of(last)));
+
+        // The stored verdict is returned rather than evaluated again
+        assertFalse(metrics.isFeasible());
+        assertEquals("Ambiguous return value", metrics.getReason());
+        assertEquals(1, loaded.cache.size());
+    }
+
+    @Test
+    void given_corruptedRecord_when_loadStoredEntries_should_skipItAndReportIt() throws IOException {
+        RefactoringCacheStore store = new RefactoringCacheStore(directory, 1 << 20);
+        store.save(filled(SOURCE));
+        Path entry = onlyEntry();
+        byte[] bytes = Files.readAllBytes(entry);
+        bytes[RefactoringCacheFileReader.HEADER_SIZE + 8] ^= 0x7F; // runtime of the first record
+        Files.write(entry, bytes);
+
+        RefactoringCache loaded = new RefactoringCache(parse(SOURCE), method(parse(SOURCE)));
+
+        assertTrue(store.load(loaded));
+        assertFalse(loaded.loadStoredEntries());
+        assertEquals(2, loaded.cache.size());
+    }
+
+    @Test
+    void given_savedCache_when_loadEditedMethod_should_miss() {
+        RefactoringCacheStore store = new RefactoringCacheStore(directory, 1 << 20);
+        store.save(filled(SOURCE));
+
+        String edited = SOURCE.replace("x + 1", "x + 2");
+        RefactoringCache loaded = new RefactoringCache(parse(edited), method(parse(edited)));
+
+        assertFalse(store.load(loaded));
+        assertEquals(0, loaded.cache.size());
+    }
+
+    @Test
+    void given_corruptedReasonTable_when_load_should_missAndDeleteIt() throws IOException {
+        RefactoringCacheStore store = new RefactoringCacheStore(directory, 1 << 20);
+        store.save(filled(SOURCE));
+        Path entry = onlyEntry();
+        byte[] bytes = Files.readAllBytes(entry);
+        bytes[bytes.length - 1] ^= 0x7F;
+        Files.write(entry, bytes);
+
+        RefactoringCache loaded = new RefactoringCache(parse(SOURCE), method(parse(SOURCE)));
+
+        assertFalse(store.load(loaded));
+        assertEquals(0, loaded.cache.size());
+        assertFalse(Files.exists(entry));
+    }
+
+    @Test
+    void given_truncatedEntry_when_load_should_missAndDeleteIt() throws IOException {
+        RefactoringCacheStore store = new RefactoringCacheStore(directory, 1 << 20);
+        store.save(filled(SOURCE));
+        Path entry = onlyEntry();
+        byte[] bytes = Files.readAllBytes(entry);
+        Files.write(entry, Arrays.copyOf(bytes, bytes.length / 2));
+
+        RefactoringCache loaded = new RefactoringCache(parse(SOURCE), method(parse(SOURCE)));
+
+        assertFalse(store.load(loaded));
+        assertEquals(0, loaded.cache.size());
+        assertFalse(Files.exists(entry));
+    }
+
+    @Test
+    void given_storeOverBudget_when_save_should_evictTheLeastRecentlyUsedEntry() throws IOException {
+        String first = SOURCE;
+        String second = SOURCE.replace("x + 1", "x + 2");
+        String third = SOURCE.replace("x + 1", "x + 3");
+        RefactoringCacheStore probe = new RefactoringCacheStore(directory.resolve("probe"), 1 << 20);
+        probe.save(filled(first));
+        long entrySize = Files.size(onlyEntry(directory.resolve("probe")));
+
+        // Room for two entries and a half
+        RefactoringCacheStore store = new RefactoringCacheStore(directory, entrySize * 5 / 2);
+        store.save(filled(first));
+        Path firstEntry = onlyEntry();
+        store.save(filled(second));
+        Path secondEntry = entriesIn(directory).stream().filter(p -> !p.equals(firstEntry)).findFirst().orElseThrow();
+        Files.setLastModifiedTime(firstEntry, FileTime.fromMillis(1_000));
+        Files.setLastModifiedTime(secondEntry, FileTime.fromMillis(2_000));
+        // Loading the first entry makes it the most recently used
+        assertTrue(store.load(new RefactoringCache(parse(first), method(parse(first)))));
+
+        store.save(filled(third));
+
+        assertTrue(Files.exists(firstEntry));
+        assertFalse(Files.exists(secondEntry));
+        assertEquals(2, entriesIn(directory).size());
+        assertTrue(store.load(new RefactoringCache(parse(third), method(parse(third)))));
+    }
+
+    @Test
+    void given_invalidatedEntry_when_saveWithinBudget_should_notEvict() throws IOException {
+        String first = SOURCE;
+        String second = SOURCE.replace("x + 1", "x + 2");
+        String third = SOURCE.replace("x + 1", "x + 3");
+        RefactoringCacheStore probe = new RefactoringCacheStore(directory.resolve("probe"), 1 << 20);
+        probe.save(filled(first));
+        long entrySize = Files.size(onlyEntry(directory.resolve("probe")));
+
+        // Room for two entries and a half
+        RefactoringCacheStore store = new RefactoringCacheStore(directory, entrySize * 5 / 2);
+        store.save(filled(first));
+        store.save(filled(second));
+        // The deleted entry no longer counts against the budget
+        store.invalidate(parse(first), method(parse(first)));
+        store.save(filled(third));
+
+        assertEquals(2, entriesIn(directory).size());
+        assertTrue(store.load(new RefactoringCache(parse(second), method(parse(second)))));
+        assertTrue(store.load(new RefactoringCache(parse(third), method(parse(third)))));
+    }
+
+    // --- Helpers ---
+
+    /** A cache of the method of {@code source} with entries on three of its statement ranges. */
+    private static RefactoringCache filled(String source) {
+        CompilationUnit cu = parse(source);
+        MethodDeclaration method = method(cu);
+        RefactoringCache cache = new RefactoringCache(cu, method);
+        List<Statement> statements = statements(method);
+        IfStatement condition = (IfStatement) statements.get(1);
+        ASTNode inner = (ASTNode) ((Block) condition.getThenStatement()).statements().get(0);
+        cache.cache.put(statements.get(0).getStartPosition(), end(statements.get(1)), metrics(true, "", 3));
+        cache.cache.put(statements.get(2).getStartPosition(), end(statements.get(2)),
+                metrics(false, "Ambiguous return value", 0));
+        cache.cache.put(inner.getStartPosition(), end(inner), metrics(true, "", 1));
+        return cache;
+    }
+
+    /** The entries of a cache, keyed by their ranges. */
+    private static Map<String, String> entries(RefactoringCache cache) {
+        Map<String, String> entries = new TreeMap<>();
+        cache.cache.forEach((range, metrics) -> entries.put(range.getStart() + "-" + range.getEnd(),
+                metrics.isFeasible() + " " + metrics.getReason() + " " + metrics.getReductionOfCognitiveComplexity()));
+        return entries;
+    }
+
+    private static CodeExtractionMetrics metrics(boolean feasible, String reason, int reduction) {
+        return new CodeExtractionMetrics(feasible, reason, false, 3, 2, new ArrayList<>(), new ArrayList<>(), reduction,
+                4, 5, 6, 1, 42L);
+    }
+
+    private static int end(ASTNode node) {
+        return node.getStartPosition() + node.getLength();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Statement> statements(MethodDeclaration method) {
+        return method.getBody().statements();
+    }
+
+    private static MethodDeclaration method(CompilationUnit cu) {
+        return ((TypeDeclaration) cu.types().getFirst()).getMethods()[0];
+    }
+
+    private Path onlyEntry() throws IOException {
+        return onlyEntry(directory);
+    }
+
+    private static Path onlyEntry(Path directory) throws IOException {
+        List<Path> entries = entriesIn(directory);
+        assertEquals(1, entries.size());
+        return entries.getFirst();
+    }
+
+    private static List<Path> entriesIn(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.toString().endsWith(Constants.FILE_EXTENSION_FOR_PERSISTENT_REFACTORING_CACHE))
+                    .toList();
+        }
+    }
+
+    private static CompilationUnit parse(String source) {
+        final ASTParser parser = ASTParser.newParser(AST.JLS21);
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        final Map options = new Hashtable<>(JavaCore.getOptions());
+        JavaCore.setComplianceOptions(JavaCore.VERSION_21, options);
+        parser.setCompilerOptions(options);
+        parser.setSource(source.toCharArray());
+        parser.setKind(ASTParser.K_COMPILATION_UNIT);
+        return (CompilationUnit) parser.createAST(null);
+    }
+}
@@ -0,0 +1,209 @@
+package test.neo.core.solvers.exact;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import main.neo.core.graphs.ExtractionVertex;
+import main.neo.core.solvers.exact.ExactModel;
+
+class ExactModelTest {
+
+    private static final int THRESHOLD = 5;
+
+    private static ExtractionVertex vertex(int start, int end, int inherent, int nesting, int contributors,
+            int level) {
+        return new ExtractionVertex(start, end, inherent + nesting, inherent, nesting, contributors, level);
+    }
+
+    /** Random candidates inside a root spanning [0, 100]. */
+    static List<ExtractionVertex> randomVertices(Random random, int count) {
+        List<ExtractionVertex> vertices = new ArrayList<>();
+        while (vertices.size() < count) {
+            int start = 1 + random.nextInt(90);
+            int end = start + 1 + random.nextInt(99 - start);
+            ExtractionVertex v = vertex(start, end, random.nextInt(9), random.nextInt(4), random.nextInt(4),
+                    random.nextInt(4));
+            if (!vertices.contains(v)) {
+                vertices.add(v);
+            }
+        }
+        return vertices;
+    }
+
+    /**
+     * Reference: checks a selection against the ILP model, with the root always
+     * selected. Returns the number of selected vertices, or -1 if infeasible.
+     */
+    static int evaluate(List<ExtractionVertex> selected, ExtractionVertex root, int threshold) {
+        List<ExtractionVertex> all = new ArrayList<>(selected);
+        all.add(root);
+        for (ExtractionVertex p : all) {
+            for (ExtractionVertex q : all) {
+                boolean disjoint = q.getInitialOffset() > p.getEndOffset() || p.getInitialOffset() > q.getEndOffset();
+                if (p != q && !disjoint && !p.contains(q) && !q.contains(p)) {
+                    return -1;
+                }
+            }
+        }
+        for (ExtractionVertex i : all) {
+            int complexity = i.getComplexityWhenExtracted();
+            for (ExtractionVertex j : all) {
+                if (j == i || !i.contains(j)) {
+                    continue;
+                }
+                boolean direct = all.stream().noneMatch(k -> k != i && k != j && i.contains(k) && k.contains(j));
+                if (direct) {
+                    complexity -= j.getComplexityWhenExtracted()
+                            + (j.getNesting() - i.getNesting()) * j.getNumberNestingContributors();
+                }
+            }
+            if (complexity > threshold) {
+                return -1;
+            }
+        }
+        return all.size();
+    }
+
+    /** Reference: minimum objective over every subset, or -1 if infeasible. */
+    static int bruteForce(List<ExtractionVertex> vertices, ExtractionVertex root, int threshold, long maxSubsets) {
+        int best = -1;
+        long subsets = Math.min(1L << vertices.size(), maxSubsets);
+        for (long mask = 0; mask < subsets; mask++) {
+            List<ExtractionVertex> selected = new ArrayList<>();
+            for (int i = 0; i < vertices.size(); i++) {
+                if ((mask & (1L << i)) != 0) {
+                    selected.add(vertices.get(i));
+                }
+            }
+            int value = evaluate(selected, root, threshold);
+            if (value != -1 && (best == -1 || value < best)) {
+                best = value;
+            }
+        }
+        return best;
+    }
+
+    @Test
+    void given_randomModels_when_solve_should_matchBruteForceOptimum() {
+        Random random = new Random(11);
+        int feasible = 0;
+        for (int round = 0; round < 300; round++) {
+            List<ExtractionVertex> vertices = randomVertices(random, 1 + random.nextInt(12));
+            ExtractionVertex root = vertex(0, 100, 8 + random.nextInt(14), random.nextInt(10), 3, 0);
+
+            ExactModel model = new ExactModel(vertices, root, THRESHOLD);
+            List<ExtractionVertex> selected = model.solve();
+            int expected = bruteForce(vertices, root, THRESHOLD, Long.MAX_VALUE);
+
+            assertEquals(expected, model.getObjectiveValue(), vertices + " / " + root);
+            if (expected == -1) {
+                assertNull(selected);
+            } else {
+                feasible++;
+                assertEquals(expected, evaluate(selected, root, THRESHOLD));
+            }
+        }
+        assertTrue(feasible > 50);
+    }
+
+    @Test
+    void given_independentBlocks_when_solveInParallel_should_matchBruteForceOptimum() {
+        Random random = new Random(23);
+        int feasible = 0;
+        for (int round = 0; round < 300; round++) {
+            // Candidates in three disjoint blocks, [1, 30], [35, 64] and [69, 98]
+            List<ExtractionVertex> vertices = new ArrayList<>();
+            int count = 1 + random.nextInt(12);
+            while (vertices.size() < count) {
+                int base = 1 + random.nextInt(3) * 34;
+                int start = base + random.nextInt(28);
+                int end = start + 1 + random.nextInt(base + 29 - start);
+                ExtractionVertex v = vertex(start, end, random.nextInt(9), random.nextInt(4), random.nextInt(4),
+                        random.nextInt(4));
+                if (!vertices.contains(v)) {
+                    vertices.add(v);
+                }
+            }
+            ExtractionVertex root = vertex(0, 100, 8 + random.nextInt(14), random.nextInt(10), 3, 0);
+
+            ExactModel model = new ExactModel(vertices, root, THRESHOLD);
+            List<ExtractionVertex> selected = model.solve(4);
+            int expected = bruteForce(vertices, root, THRESHOLD, Long.MAX_VALUE);
+
+            assertEquals(expected, model.getObjectiveValue(), vertices + " / " + root);
+            if (expected == -1) {
+                assertNull(selected);
+            } else {
+                feasible++;
+                assertEquals(expected, evaluate(selected, root, THRESHOLD));
+            }
+        }
+        assertTrue(feasible > 50);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 1, 4 })
+    void given_cancelledModel_when_solve_should_throwCancellationException(int parallelism) {
+        // Candidates in two disjoint blocks, so the parallel model has two components
+        List<ExtractionVertex> vertices = List.of(vertex(1, 20, 6, 1, 1, 1), vertex(2, 10, 3, 2, 1, 2),
+                vertex(40, 60, 6, 1, 1, 1), vertex(41, 50, 3, 2, 1, 2));
+        ExactModel model = new ExactModel(vertices, vertex(0, 100, 20, 0, 3, 0), THRESHOLD);
+        model.cancel();
+
+        assertThrows(CancellationException.class, () -> model.solve(parallelism));
+    }
+
+    @Test
+    void given_rootBelowThreshold_when_solve_should_selectNothing() {
+        ExactModel model = new ExactModel(List.of(vertex(10, 20, 3, 0, 0, 1)), vertex(0, 100, 5, 0, 0, 0),
+                THRESHOLD);
+
+        assertEquals(List.of(), model.solve());
+        assertEquals(1, model.getObjectiveValue());
+    }
+
+    @Test
+    void given_overlappingCandidates_when_solve_should_selectDisjointOnes() {
+        // [10, 30] and [30, 50] touch, so they conflict: [10, 30] with [40, 50] is the only pair
+        ExtractionVertex a = vertex(10, 30, 4, 0, 0, 1);
+        ExtractionVertex b = vertex(30, 50, 6, 0, 0, 1);
+        ExtractionVertex c = vertex(40, 50, 4, 0, 0, 1);
+
+        List<ExtractionVertex> selected = new ExactModel(List.of(a, b, c), vertex(0, 100, 13, 0, 0, 0), THRESHOLD)
+                .solve();
+
+        assertEquals(List.of(a, c), selected);
+    }
+
+    @Test
+    void given_rootInCandidates_when_solve_should_useTheGraphInstance() {
+        ExtractionVertex body = vertex(0, 100, 12, 0, 0, 0);
+        // Extracting the inner vertex also removes the nesting of its 3 contributors: 4 + 3
+        ExtractionVertex inner = vertex(10, 20, 4, 0, 3, 1);
+
+        ExactModel model = new ExactModel(List.of(body, inner), vertex(0, 100, 3, 0, 0, 0), THRESHOLD);
+
+        assertEquals(List.of(inner), model.solve());
+        assertEquals(2, model.getObjectiveValue());
+    }
+
+    @Test
+    void given_unreachableThreshold_when_solve_should_returnNull() {
+        ExactModel model = new ExactModel(List.of(vertex(10, 20, 2, 0, 0, 1)), vertex(0, 100, 20, 0, 0, 0),
+                THRESHOLD);
+
+        assertNull(model.solve());
+        assertEquals(-1, model.getObjectiveValue());
+    }
+}
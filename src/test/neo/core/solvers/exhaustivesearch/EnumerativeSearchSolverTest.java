@@ -0,0 +1,197 @@
+package test.neo.core.solvers.exhaustivesearch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import main.neo.app.Constants;
+import main.neo.core.Sequence;
+import main.neo.core.Solution;
+import main.neo.core.jdt.CodeExtractionMetrics;
+import main.neo.core.jdt.CognitiveComplexityVisitor;
+import main.neo.core.jdt.ComplexityIndex;
+import main.neo.core.jdt.JavaMethodProcessor.MethodComplexityRecord;
+import main.neo.core.refactoringcache.RefactoringCache;
+import main.neo.core.refactoringcache.SentencesSelectorVisitor;
+import main.neo.core.solvers.SolverContext;
+import main.neo.core.solvers.exhaustivesearch.EnumerativeSearchSolver;
+import main.neo.core.solvers.exhaustivesearch.ExhaustiveEnumerationAlgorithm;
+import main.neo.core.solvers.exhaustivesearch.ExhaustiveEnumerationAlgorithm.Approach;
+import main.neo.core.solvers.config.EnumerativeSearchConfig;
+
+class EnumerativeSearchSolverTest {
+
+    private static final int THRESHOLD = 1;
+
+    /** Fewer evaluations than the method has combinations, so the budget decides the solution. */
+    private static final int EVALUATIONS = 60;
+
+    private static final String SOURCE = """
+            class A {
+                int m(int x, int y) {
+                    int a = x;
+                    if (x > 0) {
+                        a++;
+                        if (y > 0) { a += y; }
+                        a--;
+                        while (a > 10) { a -= 2; }
+                    }
+                    for (int i = 0; i < y; i++) {
+                        if (i % 2 == 0) { a += i; } else { a -= i; }
+                        a *= 2;
+                    }
+                    int b = a + y;
+                    if (b > a) { b = a; }
+                    return b;
+                }
+            }""";
+
+    /** A method whose body alone has more than ten thousand combinations of extractions. */
+    private static final String WIDE = "class B { int m(int x) { int a = 0; "
+            + IntStream.range(0, 14).mapToObj(i -> "if (x > " + i + ") { a++; } ").collect(Collectors.joining())
+            + "return a; } }";
+
+    private CompilationUnit cu;
+    private MethodDeclaration method;
+    private int complexity;
+
+    @BeforeEach
+    void setUp() {
+        cu = parse(SOURCE);
+        method = ((TypeDeclaration) cu.types().getFirst()).getMethods()[0];
+        complexity = CognitiveComplexityVisitor.methodComplexity(method).complexity;
+    }
+
+    @Test
+    void given_moreCombinationsThanEvaluations_when_solveInParallel_should_findTheSequentialSolution() {
+        for (long seed = 0; seed < 20; seed++) {
+            Solution sequential = solve(filledCache(seed), 1);
+            Solution parallel = solve(filledCache(seed), 4);
+
+            assertNotNull(sequential);
+            assertEquals(ranges(sequential), ranges(parallel), "seed " + seed);
+            assertEquals(sequential.getFitness(), parallel.getFitness(), "seed " + seed);
+        }
+        RefactoringCache cache = filledCache(0);
+        BigInteger combinations = new ExhaustiveEnumerationAlgorithm(cache, method, Approach.LONG_SEQUENCE_FIRST)
+                .count();
+        assertTrue(combinations.compareTo(BigInteger.valueOf(EVALUATIONS)) > 0, combinations.toString());
+    }
+
+    @Test
+    void given_parallelEvaluations_when_run_should_evaluateMoreThanTenThousandCandidates() {
+        CompilationUnit wide = parse(WIDE);
+        MethodDeclaration wideMethod = ((TypeDeclaration) wide.types().getFirst()).getMethods()[0];
+        CognitiveComplexityVisitor.methodComplexity(wideMethod);
+        RefactoringCache cache = filledCache(wide, wideMethod, new Random(0), true);
+        long[] evaluated = { 0 };
+
+        new ExhaustiveEnumerationAlgorithm(cache, wideMethod, Approach.LONG_SEQUENCE_FIRST)
+                .run(sequences -> evaluated[0]++, Constants.PARALLEL_ENUMERATIVE_SEARCH_EVALUATIONS);
+
+        assertTrue(evaluated[0] > 10_000, evaluated[0] + " candidates");
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 1, 4 })
+    void given_cancelledSolver_when_solve_should_throwCancellationException(int parallelism) {
+        EnumerativeSearchSolver solver = new EnumerativeSearchSolver(
+                new EnumerativeSearchConfig(EVALUATIONS, Approach.LONG_SEQUENCE_FIRST, parallelism));
+        RefactoringCache cache = filledCache(0);
+        solver.cancel();
+
+        assertThrows(CancellationException.class, () -> solver.solve(context(), cache));
+    }
+
+    // --- Helpers ---
+
+    private Solution solve(RefactoringCache cache, int parallelism) {
+        EnumerativeSearchSolver solver = new EnumerativeSearchSolver(
+                new EnumerativeSearchConfig(EVALUATIONS, Approach.LONG_SEQUENCE_FIRST, parallelism));
+        try {
+            return solver.solve(context(), cache);
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private SolverContext context() {
+        return new SolverContext(cu, new MethodComplexityRecord("m", 2, complexity, method), null, THRESHOLD);
+    }
+
+    /** A cache of the method of {@link #SOURCE} with random metrics, some ranges not feasible. */
+    private RefactoringCache filledCache(long seed) {
+        return filledCache(cu, method, new Random(seed), false);
+    }
+
+    /**
+     * A cache holding every range of consecutive statements the search considers, with random
+     * metrics: some ranges are not feasible, and the reduction of a range never exceeds that of its
+     * statements, as the lower bound of the search assumes. Every range is feasible with
+     * {@code allFeasible}.
+     */
+    private static RefactoringCache filledCache(CompilationUnit cu, MethodDeclaration method, Random random,
+            boolean allFeasible) {
+        RefactoringCache cache = new RefactoringCache(cu, method);
+        SentencesSelectorVisitor visitor = new SentencesSelectorVisitor(cu);
+        method.accept(visitor);
+        ComplexityIndex index = ComplexityIndex.of(method);
+        for (Sequence block : visitor.getSentencesToIterate()) {
+            List<ASTNode> nodes = block.getSiblingNodes();
+            for (int from = 0; from < nodes.size(); from++) {
+                for (int to = from + 1; to <= nodes.size(); to++) {
+                    int reducible = 0;
+                    for (ASTNode node : nodes.subList(from, to)) {
+                        reducible += Math.max(0, index.metricsIfExtracted(node).getCognitiveComplexityReduction());
+                    }
+                    boolean feasible = allFeasible || random.nextInt(5) > 0;
+                    cache.cache.put(new Sequence(cu, nodes.subList(from, to)).getTextRange(),
+                            new CodeExtractionMetrics(feasible, feasible ? "" : "Not feasible", false, to - from, 1,
+                                    new ArrayList<>(), new ArrayList<>(), random.nextInt(reducible + 1),
+                                    random.nextInt(4), random.nextInt(3), random.nextInt(3), random.nextInt(3), 0L));
+                }
+            }
+        }
+        return cache;
+    }
+
+    private static List<String> ranges(Solution solution) {
+        return solution.getSequenceList().stream()
+                .map(sequence -> sequence.getStartOffset() + "-" + sequence.getEndOffset())
+                .toList();
+    }
+
+    private static CompilationUnit parse(String source) {
+        final ASTParser parser = ASTParser.newParser(AST.JLS21);
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        final Map options = new Hashtable<>(JavaCore.getOptions());
+        JavaCore.setComplianceOptions(JavaCore.VERSION_21, options);
+        parser.setCompilerOptions(options);
+        parser.setSource(source.toCharArray());
+        parser.setKind(ASTParser.K_COMPILATION_UNIT);
+        return (CompilationUnit) parser.createAST(null);
+    }
+}
@@ -0,0 +1,112 @@
+package test.neo.core.solvers.exhaustivesearch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IfStatement;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import main.neo.core.Sequence;
+import main.neo.core.jdt.CodeExtractionMetrics;
+import main.neo.core.jdt.ComplexityIndex;
+import main.neo.core.refactoringcache.RefactoringCache;
+import main.neo.core.solvers.exhaustivesearch.FitnessLowerBound;
+
+class FitnessLowerBoundTest {
+
+    private static final int THRESHOLD = 2;
+
+    private CompilationUnit cu;
+    private List<ASTNode> statements;
+    private RefactoringCache cache;
+    private FitnessLowerBound bound;
+
+    @BeforeEach
+    void setUp() {
+        cu = parse("""
+                class A {
+                    void m(int x) {
+                        if (x > 0) {
+                            System.out.println(1);
+                        }
+                        if (x > 1) {
+                            System.out.println(2);
+                        }
+                        System.out.println(3);
+                    }
+                }""");
+        MethodDeclaration method = ((TypeDeclaration) cu.types().getFirst()).getMethods()[0];
+        statements = new ArrayList<>(method.getBody().statements());
+        ComplexityIndex.Builder complexity = new ComplexityIndex.Builder(method);
+        complexity.annotate(complexity.idOf(statements.get(0)), 4, 4, 0, 0);
+        complexity.annotate(complexity.idOf(statements.get(1)), 6, 6, 0, 0);
+        complexity.build().attachTo(method);
+
+        cache = new RefactoringCache(cu, method);
+        Block then = (Block) ((IfStatement) statements.get(0)).getThenStatement();
+        List<Sequence> blocks = List.of(new Sequence(cu, statements), new Sequence(cu, then.statements()));
+        bound = new FitnessLowerBound(cache, blocks, 10, THRESHOLD);
+    }
+
+    @Test
+    void given_emptyPrefix_when_of_should_assumeEveryBlockIsExtracted() {
+        assertEquals(0.0, bound.of(List.of()));
+    }
+
+    @Test
+    void given_noExtractionInOuterBlock_when_of_should_penaliseTheRemainingComplexity() {
+        // Nothing can be reduced any more: 10 * (10 - 0 - 2)
+        assertEquals(80.0, bound.of(List.of(List.of())));
+    }
+
+    @Test
+    void given_cachedExtraction_when_of_should_useTheCachedReduction() {
+        Sequence first = new Sequence(cu, statements.subList(0, 1));
+        cache.cache.put(first.getTextRange(), new CodeExtractionMetrics(true, "", false, 3, 1, new ArrayList<>(),
+                new ArrayList<>(), 3, 0, 0, 0, 0, 0L));
+
+        // One extraction, 10 * (10 - 3 - 2)
+        assertEquals(51.0, bound.of(List.of(List.of(first))));
+    }
+
+    @Test
+    void given_extractionMissingFromCache_when_of_should_computeItsReductionWithoutFillingTheCache() {
+        Sequence second = new Sequence(cu, statements.subList(1, 3));
+
+        // One extraction, 10 * (10 - 6 - 2)
+        assertEquals(21.0, bound.of(List.of(List.of(second))));
+        assertEquals(0, cache.cache.size());
+    }
+
+    @Test
+    void given_solutionBelowThreshold_when_of_should_countOnlyExtractions() {
+        Sequence first = new Sequence(cu, statements.subList(0, 1));
+        Sequence second = new Sequence(cu, statements.subList(1, 2));
+
+        assertEquals(2.0, bound.of(List.of(List.of(first, second), List.of())));
+    }
+
+    private static CompilationUnit parse(String source) {
+        final ASTParser parser = ASTParser.newParser(AST.JLS21);
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        final Map options = new Hashtable<>(JavaCore.getOptions());
+        JavaCore.setComplianceOptions(JavaCore.VERSION_21, options);
+        parser.setCompilerOptions(options);
+        parser.setSource(source.toCharArray());
+        parser.setKind(ASTParser.K_COMPILATION_UNIT);
+        return (CompilationUnit) parser.createAST(null);
+    }
+}
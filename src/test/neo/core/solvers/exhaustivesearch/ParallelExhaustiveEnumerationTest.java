@@ -0,0 +1,132 @@
+package test.neo.core.solvers.exhaustivesearch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Stack;
+import java.util.concurrent.CancellationException;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import main.neo.core.solvers.exhaustivesearch.ExhaustiveEnumeration;
+import main.neo.core.solvers.exhaustivesearch.ParallelExhaustiveEnumeration;
+
+class ParallelExhaustiveEnumerationTest {
+
+    /** Fitness bounded below by the sum of the elements, with many ties. */
+    private static double fitness(List<Integer> combination) {
+        int sum = combination.stream().mapToInt(Integer::intValue).sum();
+        return sum + Math.floorMod(combination.hashCode(), 3) * 2;
+    }
+
+    private static double sum(List<Integer> prefix) {
+        return prefix.stream().mapToInt(Integer::intValue).sum();
+    }
+
+    private static List<List<Integer>> randomLevels(Random random) {
+        List<List<Integer>> levels = new ArrayList<>();
+        int depth = 1 + random.nextInt(5);
+        for (int i = 0; i < depth; i++) {
+            levels.add(IntStream.range(0, 1 + random.nextInt(6)).map(j -> random.nextInt(5)).boxed().toList());
+        }
+        return levels;
+    }
+
+    /**
+     * Best combination of a sequential run keeping the first strictly better one and pruning, as
+     * the enumerative search does, the branches whose bound is not below the best fitness.
+     */
+    private static List<Integer> sequentialBest(List<List<Integer>> levels, long maxElements) {
+        List<List<Integer>> best = new ArrayList<>();
+        List<Iterable<Integer>> iterables = new ArrayList<>(levels);
+        new ExhaustiveEnumeration<>(iterables,
+                (Stack<Integer> partial) -> best.isEmpty() || sum(partial) < fitness(best.get(0)))
+                .run((Stack<Integer> stack) -> {
+                    List<Integer> combination = new ArrayList<>(stack);
+                    if (best.isEmpty() || fitness(combination) < fitness(best.get(0))) {
+                        best.clear();
+                        best.add(combination);
+                    }
+                }, maxElements);
+        return best.isEmpty() ? null : best.get(0);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 1, 2, 8 })
+    void given_randomTrees_when_run_should_findTheSequentialBest(int parallelism) {
+        Random random = new Random(42);
+        for (int i = 0; i < 300; i++) {
+            List<List<Integer>> levels = randomLevels(random);
+            long maxElements = 1 + random.nextInt(400);
+
+            List<Integer> parallel = new ParallelExhaustiveEnumeration<>(levels,
+                    ParallelExhaustiveEnumerationTest::sum)
+                    .run(combination -> combination, ParallelExhaustiveEnumerationTest::fitness, maxElements,
+                            parallelism);
+
+            assertEquals(sequentialBest(levels, maxElements), parallel, levels + " limited to " + maxElements);
+        }
+    }
+
+    @Test
+    void given_budget_when_run_should_evaluateOnlyTheFirstCombinations() {
+        List<List<Integer>> levels = List.of(List.of(5, 0), List.of(3, 1, 0));
+
+        List<Integer> best = new ParallelExhaustiveEnumeration<>(levels, ParallelExhaustiveEnumerationTest::sum)
+                .run(combination -> combination, combination -> combination.get(0) + combination.get(1), 2, 4);
+
+        assertEquals(List.of(5, 1), best);
+    }
+
+    @Test
+    void given_prunedCombinations_when_run_should_notCountThemTowardsTheBudget() {
+        List<List<Integer>> levels = List.of(List.of(1, 0), List.of(0, 5, 6, 0));
+
+        // [1, 0] is evaluated first; [1, 5], [1, 6] and [1, 0] cannot beat it, so [0, 0] is the second
+        List<Integer> best = new ParallelExhaustiveEnumeration<>(levels, ParallelExhaustiveEnumerationTest::sum)
+                .run(combination -> combination, ParallelExhaustiveEnumerationTest::sum, 2, 4);
+
+        assertEquals(List.of(0, 0), best);
+    }
+
+    @Test
+    void given_cancellingEvaluator_when_run_should_throwCancellationException() {
+        List<List<Integer>> levels = List.of(List.of(1, 2, 3), List.of(1, 2, 3));
+
+        assertThrows(CancellationException.class,
+                () -> new ParallelExhaustiveEnumeration<>(levels, ParallelExhaustiveEnumerationTest::sum)
+                        .run(combination -> {
+                            throw new CancellationException("cancelled");
+                        }, combination -> 0, 100, 4));
+    }
+
+    @Test
+    void given_emptyLevel_when_run_should_returnNull() {
+        List<List<Integer>> levels = List.of(List.of(1, 2), List.of());
+
+        assertNull(new ParallelExhaustiveEnumeration<>(levels, ParallelExhaustiveEnumerationTest::sum)
+                .run(combination -> combination, combination -> 0, 100, 4));
+    }
+
+    @Test
+    void given_hugeProduct_when_countAndRun_should_saturateWithoutOverflow() {
+        List<Integer> choices = IntStream.range(0, 1000).boxed().toList();
+        List<List<Integer>> levels = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            levels.add(choices);
+        }
+        ParallelExhaustiveEnumeration<Integer> pee = new ParallelExhaustiveEnumeration<>(levels,
+                ParallelExhaustiveEnumerationTest::sum);
+
+        assertEquals(Long.MAX_VALUE, pee.count());
+        assertEquals(Collections.nCopies(8, 0), pee.run(combination -> combination, combination -> 0, 1, 2));
+    }
+}
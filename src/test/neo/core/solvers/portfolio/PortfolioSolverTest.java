@@ -0,0 +1,216 @@
+package test.neo.core.solvers.portfolio;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import main.neo.core.Solution;
+import main.neo.core.jdt.JavaMethodProcessor.MethodComplexityRecord;
+import main.neo.core.refactoringcache.RefactoringCache;
+import main.neo.core.solvers.RefactoringSolver;
+import main.neo.core.solvers.SolverContext;
+import main.neo.core.solvers.SolverType;
+import main.neo.core.solvers.config.PortfolioConfig;
+import main.neo.core.solvers.portfolio.PortfolioSolver;
+
+class PortfolioSolverTest {
+
+    private CompilationUnit unit;
+    private MethodDeclaration method;
+    private SolverContext ctx;
+    private RefactoringCache cache;
+
+    @BeforeEach
+    void setUp() {
+        unit = parse("class A { void m(int x) { if (x > 0) { x--; } } }");
+        method = ((TypeDeclaration) unit.types().getFirst()).getMethods()[0];
+        ctx = new SolverContext(unit, new MethodComplexityRecord("m", 1, 1, method), "PORTFOLIO", 0);
+        cache = new RefactoringCache(unit, method);
+    }
+
+    @Test
+    void given_exactSolution_when_solve_should_returnItAndCancelTheSearch() throws Exception {
+        Solution optimum = new Solution(unit, method);
+        BlockingSolver search = new BlockingSolver(new Solution(unit, method));
+
+        PortfolioSolver portfolio = new PortfolioSolver(
+                new PortfolioConfig(List.of(SolverType.EXACT, SolverType.ES_LONG_SEQUENCE_FIRST)),
+                type -> type == SolverType.EXACT ? (c, rc) -> optimum : search);
+
+        assertSame(optimum, portfolio.solve(ctx, cache));
+        assertEquals(SolverType.EXACT, portfolio.getWinner());
+        assertTrue(search.cancelled.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void given_noExactSolution_when_solve_should_keepTheSearchResult() throws Exception {
+        Solution found = new Solution(unit, method);
+
+        PortfolioSolver portfolio = new PortfolioSolver(
+                new PortfolioConfig(List.of(SolverType.EXACT, SolverType.ES_LONG_SEQUENCE_FIRST)),
+                type -> type == SolverType.EXACT ? (c, rc) -> null : (c, rc) -> found);
+
+        assertSame(found, portfolio.solve(ctx, cache));
+        assertEquals(SolverType.ES_LONG_SEQUENCE_FIRST, portfolio.getWinner());
+    }
+
+    @Test
+    void given_goodEnoughSearchResult_when_solve_should_cancelTheLaterSearches() throws Exception {
+        Solution found = new Solution(unit, method);
+        BlockingSolver later = new BlockingSolver(null);
+
+        PortfolioSolver portfolio = new PortfolioSolver(
+                new PortfolioConfig(List.of(SolverType.ES_SHORT_SEQUENCE_FIRST, SolverType.ES_LONG_SEQUENCE_FIRST),
+                        Double.MAX_VALUE),
+                type -> type == SolverType.ES_LONG_SEQUENCE_FIRST ? later : (c, rc) -> found);
+
+        assertSame(found, portfolio.solve(ctx, cache));
+        assertEquals(SolverType.ES_SHORT_SEQUENCE_FIRST, portfolio.getWinner());
+        assertTrue(later.cancelled.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void given_searchAtTargetBeforeTheExactSolver_when_solve_should_returnTheExactSolution() throws Exception {
+        Solution optimum = new Solution(unit, method);
+        Solution found = new Solution(unit, method);
+        CountDownLatch searched = new CountDownLatch(1);
+
+        PortfolioSolver portfolio = new PortfolioSolver(
+                new PortfolioConfig(List.of(SolverType.EXACT, SolverType.ES_LONG_SEQUENCE_FIRST), Double.MAX_VALUE),
+                type -> type == SolverType.EXACT ? (c, rc) -> {
+                    searched.await();
+                    Thread.sleep(100);
+                    return optimum;
+                } : (c, rc) -> {
+                    searched.countDown();
+                    return found;
+                });
+
+        assertSame(optimum, portfolio.solve(ctx, cache));
+        assertEquals(SolverType.EXACT, portfolio.getWinner());
+    }
+
+    @Test
+    void given_equallyFitSearchResults_when_solve_should_returnTheFirstInConfigurationOrder() throws Exception {
+        Solution first = new Solution(unit, method);
+        Solution second = new Solution(unit, method);
+        CountDownLatch secondDone = new CountDownLatch(1);
+
+        PortfolioSolver portfolio = new PortfolioSolver(
+                new PortfolioConfig(List.of(SolverType.ES_LONG_SEQUENCE_FIRST, SolverType.ES_SHORT_SEQUENCE_FIRST),
+                        Double.NEGATIVE_INFINITY),
+                type -> type == SolverType.ES_LONG_SEQUENCE_FIRST ? (c, rc) -> {
+                    secondDone.await();
+                    Thread.sleep(100);
+                    return first;
+                } : (c, rc) -> {
+                    secondDone.countDown();
+                    return second;
+                });
+
+        assertSame(first, portfolio.solve(ctx, cache));
+        assertEquals(SolverType.ES_LONG_SEQUENCE_FIRST, portfolio.getWinner());
+    }
+
+    @Test
+    void given_exactSolution_when_solve_should_returnOnlyOnceTheCancelledSearchHasStopped() throws Exception {
+        Solution optimum = new Solution(unit, method);
+        SlowToStopSolver search = new SlowToStopSolver();
+
+        PortfolioSolver portfolio = new PortfolioSolver(
+                new PortfolioConfig(List.of(SolverType.EXACT, SolverType.ES_LONG_SEQUENCE_FIRST)),
+                type -> type == SolverType.EXACT ? (c, rc) -> {
+                    search.started.await();
+                    return optimum;
+                } : search);
+
+        assertSame(optimum, portfolio.solve(ctx, cache));
+        assertTrue(search.stopped);
+    }
+
+    @Test
+    void given_failingSolvers_when_solve_should_returnNull() throws Exception {
+        PortfolioSolver portfolio = new PortfolioSolver(
+                new PortfolioConfig(List.of(SolverType.ILP, SolverType.ES_LONG_SEQUENCE_FIRST)),
+                type -> (c, rc) -> {
+                    throw new UnsatisfiedLinkError("no solver");
+                });
+
+        assertNull(portfolio.solve(ctx, cache));
+        assertNull(portfolio.getWinner());
+    }
+
+    /** Solver that only returns once it is cancelled. */
+    private static final class BlockingSolver implements RefactoringSolver {
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        private final Solution solution;
+
+        BlockingSolver(Solution solution) {
+            this.solution = solution;
+        }
+
+        @Override
+        public Solution solve(SolverContext ctx, RefactoringCache cache) throws Exception {
+            cancelled.await();
+            return solution;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled.countDown();
+        }
+    }
+
+    /** Solver that keeps running for a while after it is cancelled, ignoring interrupts. */
+    private static final class SlowToStopSolver implements RefactoringSolver {
+        final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch cancelled = new CountDownLatch(1);
+        volatile boolean stopped;
+
+        @Override
+        public Solution solve(SolverContext ctx, RefactoringCache cache) {
+            started.countDown();
+            while (cancelled.getCount() > 0) {
+                Thread.onSpinWait();
+            }
+            long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+            while (System.nanoTime() < end) {
+                Thread.onSpinWait();
+            }
+            stopped = true;
+            return null;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled.countDown();
+        }
+    }
+
+    private static CompilationUnit parse(String source) {
+        final ASTParser parser = ASTParser.newParser(AST.JLS21);
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        final Map options = new Hashtable<>(JavaCore.getOptions());
+        JavaCore.setComplianceOptions(JavaCore.VERSION_21, options);
+        parser.setCompilerOptions(options);
+        parser.setSource(source.toCharArray());
+        parser.setKind(ASTParser.K_COMPILATION_UNIT);
+        return (CompilationUnit) parser.createAST(null);
+    }
+}
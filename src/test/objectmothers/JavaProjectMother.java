@@ -0,0 +1,91 @@
+package test.objectmothers;
+
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.JavaCore;
+
+/**
+ * Java projects created in the test workspace, for the tests that need a Java
+ * model (working copies, bindings, refactorings).
+ */
+public final class JavaProjectMother {
+
+    public static final String PACKAGE = "p";
+
+    private static final String JRE_CONTAINER = "org.eclipse.jdt.launching.JRE_CONTAINER";
+
+    private JavaProjectMother() {
+    }
+
+    /**
+     * Creates a Java 21 project with one unit per entry of {@code sources}
+     * (simple type name to source) in package {@value #PACKAGE}.
+     *
+     * @return the project, or {@code null} if no workspace is running
+     */
+    public static IJavaProject withSources(final String name, final Map<String, String> sources) {
+        try {
+            final IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(name);
+            if (project.exists()) {
+                project.delete(true, true, null);
+            }
+            project.create(null);
+            project.open(null);
+            final IProjectDescription description = project.getDescription();
+            description.setNatureIds(new String[] { JavaCore.NATURE_ID });
+            project.setDescription(description, null);
+
+            final IFolder src = project.getFolder("src");
+            src.create(true, true, null);
+            final IJavaProject javaProject = JavaCore.create(project);
+            javaProject.setRawClasspath(new IClasspathEntry[] { JavaCore.newSourceEntry(src.getFullPath()),
+                    JavaCore.newContainerEntry(new Path(JRE_CONTAINER)) }, project.getFullPath().append("bin"), null);
+            @SuppressWarnings({ "rawtypes", "unchecked" })
+            final Map options = new Hashtable<>(javaProject.getOptions(false));
+            JavaCore.setComplianceOptions(JavaCore.VERSION_21, options);
+            javaProject.setOptions(options);
+
+            final IPackageFragment fragment = javaProject.getPackageFragmentRoot(src).createPackageFragment(PACKAGE,
+                    true, null);
+            for (final Map.Entry<String, String> source : sources.entrySet()) {
+                fragment.createCompilationUnit(source.getKey() + ".java", source.getValue(), true, null);
+            }
+            return javaProject;
+        } catch (IllegalStateException | CoreException | NoClassDefFoundError ex) {
+            return null;
+        }
+    }
+
+    /** Returns the units of a project created by {@link #withSources}, sorted by name. */
+    public static List<ICompilationUnit> units(final IJavaProject project) throws CoreException {
+        final IPackageFragment fragment = project.getPackageFragmentRoot(project.getProject().getFolder("src"))
+                .getPackageFragment(PACKAGE);
+        final List<ICompilationUnit> units = new ArrayList<>(List.of(fragment.getCompilationUnits()));
+        units.sort((a, b) -> a.getElementName().compareTo(b.getElementName()));
+        return units;
+    }
+
+    public static void delete(final IJavaProject project) {
+        if (project == null) {
+            return;
+        }
+        try {
+            project.getProject().delete(true, true, null);
+        } catch (CoreException ignore) {
+            // Left for the next run, which deletes it before creating it again
+        }
+    }
+}